@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures merging of results collected from all hosts in the cluster.
+ * <p>
+ * Every host returns {@code rowsCount} rows; each next host shares 90% of rows with the previous one.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see ReplicasHelper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplicasHelperBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int rowsCount;
+
+    @Param({"2", "3", "10"})
+    private int hostsCount;
+
+    private List<List<UnusedIndex>> unusedIndexesFromAllHosts;
+    private List<List<TableWithMissingIndex>> tablesWithMissingIndexesFromAllHosts;
+
+    @Setup
+    public void setUp() {
+        final int shift = Math.max(1, rowsCount / 10);
+        unusedIndexesFromAllHosts = new ArrayList<>(hostsCount);
+        tablesWithMissingIndexesFromAllHosts = new ArrayList<>(hostsCount);
+        for (int host = 0; host < hostsCount; ++host) {
+            final List<UnusedIndex> unusedIndexes = new ArrayList<>(rowsCount);
+            final List<TableWithMissingIndex> tablesWithMissingIndexes = new ArrayList<>(rowsCount);
+            for (int i = host * shift; i < host * shift + rowsCount; ++i) {
+                unusedIndexes.add(UnusedIndex.of("table_" + i, "index_" + i, 8192L * i, i % 3));
+                tablesWithMissingIndexes.add(TableWithMissingIndex.of("table_" + i, 8192L * i, 100L + i, i % 7));
+            }
+            unusedIndexesFromAllHosts.add(unusedIndexes);
+            tablesWithMissingIndexesFromAllHosts.add(tablesWithMissingIndexes);
+        }
+    }
+
+    @Benchmark
+    public List<UnusedIndex> unusedIndexesIntersection() {
+        return ReplicasHelper.getUnusedIndexesAsIntersectionResult(unusedIndexesFromAllHosts);
+    }
+
+    @Benchmark
+    public List<TableWithMissingIndex> tablesWithMissingIndexesUnion() {
+        return ReplicasHelper.getTablesWithMissingIndexesAsUnionResult(tablesWithMissingIndexesFromAllHosts);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health.logger;
+
+import io.github.mfvanek.pg.common.health.DatabaseHealth;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+
+/**
+ * Measures applying of exclusions to the results of all diagnostics.
+ * <p>
+ * Database access is replaced with precomputed results, so only the in-memory filtering is measured.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see AbstractHealthLogger
+ * @see Exclusions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HealthLoggerExclusionsBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int rowsCount;
+
+    @Param({"0", "10", "1000"})
+    private int exclusionsCount;
+
+    private HealthLogger healthLogger;
+    private Exclusions exclusions;
+
+    @Setup
+    public void setUp() {
+        healthLogger = new StandardHealthLogger(new NoOpHighAvailabilityPgConnection(), c -> new PrecomputedDatabaseHealth(rowsCount));
+        if (exclusionsCount == 0) {
+            exclusions = Exclusions.empty();
+        } else {
+            final String indexNames = IntStream.range(0, exclusionsCount)
+                    .mapToObj(i -> "index_" + i * 7)
+                    .collect(Collectors.joining(", "));
+            final String tableNames = IntStream.range(0, exclusionsCount)
+                    .mapToObj(i -> "table_" + i * 7)
+                    .collect(Collectors.joining(", "));
+            exclusions = Exclusions.builder()
+                    .withDuplicatedIndexesExclusions(indexNames)
+                    .withIntersectedIndexesExclusions(indexNames)
+                    .withUnusedIndexesExclusions(indexNames)
+                    .withIndexesWithNullValuesExclusions(indexNames)
+                    .withTablesWithMissingIndexesExclusions(tableNames)
+                    .withTablesWithoutPrimaryKeyExclusions(tableNames)
+                    .withIndexSizeThreshold(8192L * 10)
+                    .withTableSizeThreshold(8192L * 10)
+                    .withIndexBloatSizeThreshold(1024L)
+                    .withIndexBloatPercentageThreshold(10)
+                    .withTableBloatSizeThreshold(1024L)
+                    .withTableBloatPercentageThreshold(10)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public List<String> logAll() {
+        return healthLogger.logAll(exclusions, PgContext.ofPublic());
+    }
+
+    private static final class PrecomputedDatabaseHealth implements DatabaseHealth {
+
+        private final List<DuplicatedIndexes> duplicatedIndexes;
+        private final List<UnusedIndex> unusedIndexes;
+        private final List<IndexWithNulls> indexesWithNulls;
+        private final List<IndexWithBloat> indexesWithBloat;
+        private final List<TableWithMissingIndex> tablesWithMissingIndexes;
+        private final List<Table> tablesWithoutPrimaryKey;
+        private final List<TableWithBloat> tablesWithBloat;
+
+        PrecomputedDatabaseHealth(final int rowsCount) {
+            this.duplicatedIndexes = new ArrayList<>(rowsCount);
+            this.unusedIndexes = new ArrayList<>(rowsCount);
+            this.indexesWithNulls = new ArrayList<>(rowsCount);
+            this.indexesWithBloat = new ArrayList<>(rowsCount);
+            this.tablesWithMissingIndexes = new ArrayList<>(rowsCount);
+            this.tablesWithoutPrimaryKey = new ArrayList<>(rowsCount);
+            this.tablesWithBloat = new ArrayList<>(rowsCount);
+            for (int i = 0; i < rowsCount; ++i) {
+                final String tableName = "table_" + i;
+                final String indexName = "index_" + i;
+                final long size = 8192L * (i % 20);
+                duplicatedIndexes.add(DuplicatedIndexes.of(
+                        IndexWithSize.of(tableName, indexName, size),
+                        IndexWithSize.of(tableName, indexName + "_copy", size)));
+                unusedIndexes.add(UnusedIndex.of(tableName, indexName, size, 0L));
+                indexesWithNulls.add(IndexWithNulls.of(tableName, indexName, size, "nullable_field"));
+                indexesWithBloat.add(IndexWithBloat.of(tableName, indexName, size, size / 4, i % 50));
+                tablesWithMissingIndexes.add(TableWithMissingIndex.of(tableName, size, 1000L, i % 3));
+                tablesWithoutPrimaryKey.add(Table.of(tableName, size));
+                tablesWithBloat.add(TableWithBloat.of(tableName, size, size / 4, i % 50));
+            }
+        }
+
+        @Nonnull
+        @Override
+        public List<Index> getInvalidIndexes(@Nonnull final PgContext pgContext) {
+            return Collections.emptyList();
+        }
+
+        @Nonnull
+        @Override
+        public List<DuplicatedIndexes> getDuplicatedIndexes(@Nonnull final PgContext pgContext) {
+            return duplicatedIndexes;
+        }
+
+        @Nonnull
+        @Override
+        public List<DuplicatedIndexes> getIntersectedIndexes(@Nonnull final PgContext pgContext) {
+            return duplicatedIndexes;
+        }
+
+        @Nonnull
+        @Override
+        public List<UnusedIndex> getUnusedIndexes(@Nonnull final PgContext pgContext) {
+            return unusedIndexes;
+        }
+
+        @Nonnull
+        @Override
+        public List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull final PgContext pgContext) {
+            return Collections.emptyList();
+        }
+
+        @Nonnull
+        @Override
+        public List<IndexWithNulls> getIndexesWithNullValues(@Nonnull final PgContext pgContext) {
+            return indexesWithNulls;
+        }
+
+        @Nonnull
+        @Override
+        public List<IndexWithBloat> getIndexesWithBloat(@Nonnull final PgContext pgContext) {
+            return indexesWithBloat;
+        }
+
+        @Nonnull
+        @Override
+        public List<TableWithMissingIndex> getTablesWithMissingIndexes(@Nonnull final PgContext pgContext) {
+            return tablesWithMissingIndexes;
+        }
+
+        @Nonnull
+        @Override
+        public List<Table> getTablesWithoutPrimaryKey(@Nonnull final PgContext pgContext) {
+            return tablesWithoutPrimaryKey;
+        }
+
+        @Nonnull
+        @Override
+        public List<TableWithBloat> getTablesWithBloat(@Nonnull final PgContext pgContext) {
+            return tablesWithBloat;
+        }
+    }
+
+    private static final class NoOpHighAvailabilityPgConnection implements HighAvailabilityPgConnection {
+
+        @Nonnull
+        @Override
+        public PgConnection getConnectionToPrimary() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public Set<PgConnection> getConnectionsToAllHostsInCluster() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of multi-host connection strings.
+ *
+ * @author Ivan Vakhrushev
+ * @see PgUrlParser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PgUrlParserBenchmark {
+
+    @Param({"1", "3", "10"})
+    private int hostsCount;
+
+    private String pgUrl;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder urlBuilder = new StringBuilder("jdbc:postgresql://");
+        for (int i = 0; i < hostsCount; ++i) {
+            if (i > 0) {
+                urlBuilder.append(',');
+            }
+            urlBuilder.append("host-").append(i).append(":6432");
+        }
+        urlBuilder.append("/db_name?ssl=true&sslmode=require&targetServerType=primary");
+        pgUrl = urlBuilder.toString();
+    }
+
+    @Benchmark
+    public boolean isReplicaUrl() {
+        return PgUrlParser.isReplicaUrl(pgUrl);
+    }
+
+    @Benchmark
+    public List<Pair<String, String>> extractNameWithPortAndUrlForEachHost() {
+        return PgUrlParser.extractNameWithPortAndUrlForEachHost(pgUrl);
+    }
+
+    @Benchmark
+    public Set<String> extractHostNames() {
+        return PgUrlParser.extractHostNames(pgUrl);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the aggregated string representation of duplicated indexes returned by the database.
+ *
+ * @author Ivan Vakhrushev
+ * @see DuplicatedIndexesParser
+ * @see DuplicatedIndexes#of(String, String)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DuplicatedIndexesParserBenchmark {
+
+    @Param({"2", "10", "1000", "100000"})
+    private int indexesCount;
+
+    private String duplicatedAsString;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < indexesCount; ++i) {
+            if (i > 0) {
+                builder.append("; ");
+            }
+            builder.append("idx=accounts_account_number_idx_")
+                    .append(i)
+                    .append(", size=")
+                    .append(8192L * (i + 1));
+        }
+        duplicatedAsString = builder.toString();
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Long>> parseAsIndexNameAndSize() {
+        return DuplicatedIndexesParser.parseAsIndexNameAndSize(duplicatedAsString);
+    }
+
+    @Benchmark
+    public DuplicatedIndexes duplicatedIndexesOf() {
+        return DuplicatedIndexes.of("accounts", duplicatedAsString);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building of a large result set of duplicated indexes
+ * with the list-based and the array-based representation and with or without a name pool.
+ * <p>
+ * Every row gets fresh copies of names, as a jdbc driver does.
+ * Run with {@code -prof gc} to compare allocations.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see NamePool
+ * @see DuplicatedIndexes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NamePoolBenchmark {
+
+    private static final int TABLES_COUNT = 100;
+    private static final int INDEXES_PER_ROW = 3;
+
+    @Param({"1000", "100000"})
+    private int rowsCount;
+
+    private char[][] tableNames;
+    private char[][] indexNames;
+
+    @Setup
+    public void setUp() {
+        tableNames = new char[TABLES_COUNT][];
+        indexNames = new char[TABLES_COUNT * INDEXES_PER_ROW][];
+        for (int i = 0; i < TABLES_COUNT; ++i) {
+            tableNames[i] = ("payments.accounts_with_a_long_name_" + i).toCharArray();
+            for (int j = 0; j < INDEXES_PER_ROW; ++j) {
+                indexNames[i * INDEXES_PER_ROW + j] = ("payments.accounts_with_a_long_name_" + i + "_account_number_idx_" + j).toCharArray();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<DuplicatedIndexes> withIndexesList() {
+        final List<DuplicatedIndexes> result = new ArrayList<>(rowsCount);
+        for (int row = 0; row < rowsCount; ++row) {
+            final int table = row % TABLES_COUNT;
+            final String tableName = new String(tableNames[table]);
+            final List<IndexWithSize> indexes = new ArrayList<>(INDEXES_PER_ROW);
+            for (int j = 0; j < INDEXES_PER_ROW; ++j) {
+                indexes.add(IndexWithSize.of(tableName, new String(indexNames[table * INDEXES_PER_ROW + j]), 8192L * (j + 1)));
+            }
+            result.add(DuplicatedIndexes.of(indexes));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<DuplicatedIndexes> withArrays() {
+        return withArrays(NamePool.none());
+    }
+
+    @Benchmark
+    public List<DuplicatedIndexes> withArraysAndNamePool() {
+        return withArrays(NamePool.create());
+    }
+
+    private List<DuplicatedIndexes> withArrays(final NamePool namePool) {
+        final List<DuplicatedIndexes> result = new ArrayList<>(rowsCount);
+        for (int row = 0; row < rowsCount; ++row) {
+            final int table = row % TABLES_COUNT;
+            final String[] names = new String[INDEXES_PER_ROW];
+            final long[] sizes = new long[INDEXES_PER_ROW];
+            for (int j = 0; j < INDEXES_PER_ROW; ++j) {
+                names[j] = namePool.intern(new String(indexNames[table * INDEXES_PER_ROW + j]));
+                sizes[j] = 8192L * (j + 1);
+            }
+            result.add(DuplicatedIndexes.of(namePool.intern(new String(tableNames[table])), names, sizes));
+        }
+        return result;
+    }
+}
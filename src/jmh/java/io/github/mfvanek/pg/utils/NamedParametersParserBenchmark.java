@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of sql queries with named parameters, comments and type casts.
+ *
+ * @author Ivan Vakhrushev
+ * @see NamedParametersParser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NamedParametersParserBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int parametersCount;
+
+    private String sqlQuery;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder queryBuilder = new StringBuilder("select * from accounts /* :comment */ where id = :p_id");
+        for (int i = 0; i < parametersCount; ++i) {
+            queryBuilder.append(" or account_number = :p_number_")
+                    .append(i)
+                    .append("::text -- :line_comment\n");
+        }
+        sqlQuery = queryBuilder.toString();
+    }
+
+    @Benchmark
+    public String parse() {
+        return NamedParametersParser.parse(sqlQuery);
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.catalog;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.utils.QueryBatch;
+import io.github.mfvanek.pg.utils.QueryExecutor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An in-memory copy of the catalog rows of a single schema needed for index structure checks.
+ * <p>
+ * The snapshot is loaded with a single query that reads {@code pg_class}, {@code pg_index}, {@code pg_attribute}
+ * and {@code pg_constraint} once. After that duplicated indexes, intersected indexes, foreign keys without index,
+ * indexes with null values and tables without primary key are computed in memory without any further round trips.
+ * Catalog rows are kept in OID-keyed maps with primitive keys.
+ * The snapshot is used on prefetching if {@link io.github.mfvanek.pg.common.maintenance.ExecutionOptions#isCatalogSnapshotEnabled()} is set.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost
+ * @see io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost
+ */
+@Immutable
+public final class CatalogSnapshot {
+
+    static final int FETCH_SIZE = 1_000;
+    static final String SQL_QUERY = "with rels as (" +
+            "select c.oid, c.relkind from pg_catalog.pg_class c join pg_catalog.pg_namespace n on n.oid = c.relnamespace " +
+            "where n.nspname = ?::text and c.relkind in ('r', 'p', 'm')) " +
+            "select 't' as kind, r.oid::bigint as obj_oid, r.oid::bigint as rel_oid, r.oid::regclass::text as obj_name, " +
+            "pg_catalog.pg_table_size(r.oid) as obj_size, null::text as keys, null::text as opclasses, null::text as collations, " +
+            "null::text as exprs, null::text as pred, " +
+            "(r.relkind = 'r' and not exists (select 1 from pg_catalog.pg_constraint p where p.conrelid = r.oid and p.contype = 'p')) as flag " +
+            "from rels r " +
+            "union all " +
+            "select 'i', x.indexrelid::bigint, x.indrelid::bigint, x.indexrelid::regclass::text, pg_catalog.pg_relation_size(x.indexrelid), " +
+            "x.indkey::text, x.indclass::text, x.indcollation::text, pg_catalog.pg_get_expr(x.indexprs, x.indrelid), " +
+            "pg_catalog.pg_get_expr(x.indpred, x.indrelid), x.indisunique " +
+            "from pg_catalog.pg_index x join rels r on r.oid = x.indrelid " +
+            "union all " +
+            "select 'a', a.attnum::bigint, a.attrelid::bigint, a.attname::text, 0::bigint, null, null, null, null, null, a.attnotnull " +
+            "from pg_catalog.pg_attribute a join rels r on r.oid = a.attrelid " +
+            "where a.attnum > 0 and not a.attisdropped " +
+            "union all " +
+            "select 'f', c.oid::bigint, c.conrelid::bigint, c.conname::text, 0::bigint, array_to_string(c.conkey, ' '), " +
+            "null, null, null, null, null " +
+            "from pg_catalog.pg_constraint c join rels r on r.oid = c.conrelid " +
+            "where c.contype = 'f'";
+
+    private static final Comparator<DuplicatedIndexes> BY_TABLE_NAME_AND_SIZE_DESC =
+            Comparator.comparing(DuplicatedIndexes::getTableName)
+                    .thenComparing(Comparator.comparingLong(DuplicatedIndexes::getTotalSize).reversed());
+    private static final Comparator<DuplicatedIndexes> BY_TABLE_NAME_AND_INDEX_NAMES =
+            Comparator.comparing(DuplicatedIndexes::getTableName)
+                    .thenComparing(d -> String.join(",", d.getIndexNames()));
+
+    private final OidMap<TableEntry> tables;
+    private final OidMap<List<IndexEntry>> indexesByTable;
+    private final OidMap<AttributeEntry> attributes;
+    private final List<ForeignKeyEntry> foreignKeys;
+
+    private CatalogSnapshot(@Nonnull final Builder builder) {
+        this.tables = builder.tables;
+        this.indexesByTable = builder.indexesByTable;
+        this.attributes = builder.attributes;
+        this.foreignKeys = Collections.unmodifiableList(builder.foreignKeys);
+    }
+
+    /**
+     * Computes duplicated (completely identical) indexes.
+     * <p>
+     * Indexes are duplicated when they are built on the same table with the same columns, operator classes,
+     * collations, expressions and predicates.
+     * </p>
+     *
+     * @return list of duplicated indexes ordered by table name and total size (descending)
+     */
+    @Nonnull
+    public List<DuplicatedIndexes> getDuplicatedIndexes() {
+        final List<DuplicatedIndexes> result = new ArrayList<>();
+        indexesByTable.forEachValue(indexes -> {
+            final boolean[] grouped = new boolean[indexes.size()];
+            for (int i = 0; i < indexes.size(); ++i) {
+                if (grouped[i]) {
+                    continue;
+                }
+                final IndexEntry first = indexes.get(i);
+                final List<IndexWithSize> group = new ArrayList<>();
+                for (int j = i + 1; j < indexes.size(); ++j) {
+                    final IndexEntry other = indexes.get(j);
+                    if (!grouped[j] && first.hasSameStructure(other)) {
+                        grouped[j] = true;
+                        group.add(toIndexWithSize(other));
+                    }
+                }
+                if (!group.isEmpty()) {
+                    group.add(toIndexWithSize(first));
+                    result.add(DuplicatedIndexes.of(group));
+                }
+            }
+        });
+        result.sort(BY_TABLE_NAME_AND_SIZE_DESC);
+        return result;
+    }
+
+    /**
+     * Computes intersected (partially identical) indexes.
+     * <p>
+     * Two indexes on the same table with the same expressions and predicate are intersected when the columns of one of them
+     * are the leading columns of the other one.
+     * </p>
+     *
+     * @return list of intersected indexes ordered by table name and index names
+     */
+    @Nonnull
+    public List<DuplicatedIndexes> getIntersectedIndexes() {
+        final List<DuplicatedIndexes> result = new ArrayList<>();
+        indexesByTable.forEachValue(indexes -> {
+            for (int i = 0; i < indexes.size(); ++i) {
+                final IndexEntry first = indexes.get(i);
+                for (int j = i + 1; j < indexes.size(); ++j) {
+                    final IndexEntry second = indexes.get(j);
+                    if (first.intersectsWith(second)) {
+                        result.add(DuplicatedIndexes.of(toIndexWithSize(first), toIndexWithSize(second)));
+                    }
+                }
+            }
+        });
+        result.sort(BY_TABLE_NAME_AND_INDEX_NAMES);
+        return result;
+    }
+
+    /**
+     * Computes foreign keys whose columns are not the leading columns of any index without predicate.
+     *
+     * @return list of foreign keys ordered by table name and constraint name
+     */
+    @Nonnull
+    public List<ForeignKey> getForeignKeysNotCoveredWithIndex() {
+        final List<ForeignKey> result = new ArrayList<>();
+        for (ForeignKeyEntry foreignKey : foreignKeys) {
+            if (!isCoveredWithIndex(foreignKey)) {
+                final List<String> columns = new ArrayList<>(foreignKey.columns.length);
+                for (int column : foreignKey.columns) {
+                    columns.add(getAttribute(foreignKey.tableOid, column).name);
+                }
+                result.add(ForeignKey.of(getTableName(foreignKey.tableOid), foreignKey.name, columns));
+            }
+        }
+        result.sort(Comparator.comparing(ForeignKey::getTableName).thenComparing(ForeignKey::getConstraintName));
+        return result;
+    }
+
+    /**
+     * Computes non-unique indexes whose first column is nullable and is not mentioned in the index predicate.
+     *
+     * @return list of indexes with null values ordered by table name and index name
+     */
+    @Nonnull
+    public List<IndexWithNulls> getIndexesWithNullValues() {
+        final List<IndexWithNulls> result = new ArrayList<>();
+        indexesByTable.forEachValue(indexes -> {
+            for (IndexEntry index : indexes) {
+                final String nullableField = findNullableLeadingField(index);
+                if (nullableField != null) {
+                    result.add(IndexWithNulls.of(getTableName(index.tableOid), index.name, index.size, nullableField));
+                }
+            }
+        });
+        result.sort(Comparator.comparing(IndexWithNulls::getTableName).thenComparing(IndexWithNulls::getIndexName));
+        return result;
+    }
+
+    /**
+     * Computes ordinary tables without primary key.
+     *
+     * @return list of tables ordered by table name
+     */
+    @Nonnull
+    public List<Table> getTablesWithoutPrimaryKey() {
+        final List<Table> result = new ArrayList<>();
+        tables.forEachValue(table -> {
+            if (table.withoutPrimaryKey) {
+                result.add(Table.of(table.name, table.size));
+            }
+        });
+        result.sort(Comparator.comparing(Table::getTableName));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final int[] indexesCount = {0};
+        indexesByTable.forEachValue(indexes -> indexesCount[0] += indexes.size());
+        return CatalogSnapshot.class.getSimpleName() + '{' +
+                "tables=" + tables.size() +
+                ", indexes=" + indexesCount[0] +
+                ", attributes=" + attributes.size() +
+                ", foreignKeys=" + foreignKeys.size() +
+                '}';
+    }
+
+    private boolean isCoveredWithIndex(@Nonnull final ForeignKeyEntry foreignKey) {
+        final List<IndexEntry> indexes = indexesByTable.get(foreignKey.tableOid);
+        if (indexes != null) {
+            for (IndexEntry index : indexes) {
+                if (index.predicate == null && index.startsWithAll(foreignKey.columns)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private String findNullableLeadingField(@Nonnull final IndexEntry index) {
+        if (index.unique || index.columns[0] == 0) {
+            return null;
+        }
+        final AttributeEntry attribute = getAttribute(index.tableOid, index.columns[0]);
+        if (attribute.notNull) {
+            return null;
+        }
+        if (index.predicate != null &&
+                index.predicate.toLowerCase(Locale.ROOT).contains(attribute.name.toLowerCase(Locale.ROOT))) {
+            return null;
+        }
+        return attribute.name;
+    }
+
+    @Nonnull
+    private IndexWithSize toIndexWithSize(@Nonnull final IndexEntry index) {
+        return IndexWithSize.of(getTableName(index.tableOid), index.name, index.size);
+    }
+
+    @Nonnull
+    private String getTableName(final long tableOid) {
+        return Objects.requireNonNull(tables.get(tableOid), "table").name;
+    }
+
+    @Nonnull
+    private AttributeEntry getAttribute(final long tableOid, final int attributeNumber) {
+        return Objects.requireNonNull(attributes.get(attributeKey(tableOid, attributeNumber)), "attribute");
+    }
+
+    private static long attributeKey(final long tableOid, final int attributeNumber) {
+        return (tableOid << 16) | (attributeNumber & 0xFFFFL);
+    }
+
+    @Nonnull
+    static int[] parseColumns(@Nonnull final String columnsAsString) {
+        final String[] parts = columnsAsString.split(" ");
+        final int[] columns = new int[parts.length];
+        for (int i = 0; i < parts.length; ++i) {
+            columns[i] = Integer.parseInt(parts[i]);
+        }
+        return columns;
+    }
+
+    /**
+     * Loads the catalog snapshot of given schema with a single query.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name
+     * @return {@code CatalogSnapshot}
+     */
+    @Nonnull
+    public static CatalogSnapshot load(@Nonnull final PgConnection pgConnection, @Nonnull final PgContext pgContext) {
+        Objects.requireNonNull(pgConnection, "pgConnection");
+        Objects.requireNonNull(pgContext, "pgContext");
+        final Builder builder = new Builder();
+        QueryExecutor.streamQueryWithSchema(pgConnection, pgContext, SQL_QUERY, FETCH_SIZE, builder::addRow, kind -> { });
+        return builder.build();
+    }
+
+    /**
+     * Adds the query loading the catalog snapshot of given schema to the batch instead of executing it immediately.
+     *
+     * @param batch        batch to add the query to
+     * @param pgContext    context with schema name
+     * @param queryTimeout query timeout; zero means no timeout
+     * @return supplier of {@code CatalogSnapshot}; can be used only after the batch has been executed
+     */
+    @Nonnull
+    public static Supplier<CatalogSnapshot> addToBatch(@Nonnull final QueryBatch batch,
+                                                       @Nonnull final PgContext pgContext,
+                                                       @Nonnull final Duration queryTimeout) {
+        Objects.requireNonNull(batch, "batch");
+        final Builder builder = new Builder();
+        final Supplier<List<String>> kinds = batch.addQueryWithSchema(SQL_QUERY, pgContext, builder::addRow, queryTimeout);
+        return () -> {
+            // Fails if the batch has not been executed yet
+            kinds.get();
+            return builder.build();
+        };
+    }
+
+    /**
+     * Accumulates catalog rows until the snapshot is built.
+     */
+    static final class Builder {
+
+        private final OidMap<TableEntry> tables = new OidMap<>();
+        private final OidMap<List<IndexEntry>> indexesByTable = new OidMap<>();
+        private final OidMap<AttributeEntry> attributes = new OidMap<>();
+        private final List<ForeignKeyEntry> foreignKeys = new ArrayList<>();
+
+        @Nonnull
+        String addRow(@Nonnull final ResultSet rs) throws SQLException {
+            final String kind = rs.getString("kind");
+            final long oid = rs.getLong("obj_oid");
+            final long relOid = rs.getLong("rel_oid");
+            final String name = rs.getString("obj_name");
+            switch (kind) {
+                case "t":
+                    addTable(oid, name, rs.getLong("obj_size"), rs.getBoolean("flag"));
+                    break;
+                case "i":
+                    addIndex(relOid, name, rs.getLong("obj_size"), rs.getString("keys"), rs.getString("opclasses"),
+                            rs.getString("collations"), rs.getString("exprs"), rs.getString("pred"), rs.getBoolean("flag"));
+                    break;
+                case "a":
+                    addAttribute(relOid, (int) oid, name, rs.getBoolean("flag"));
+                    break;
+                case "f":
+                    addForeignKey(relOid, name, rs.getString("keys"));
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected catalog row kind " + kind);
+            }
+            return kind;
+        }
+
+        @Nonnull
+        Builder addTable(final long tableOid, @Nonnull final String tableName, final long tableSize, final boolean withoutPrimaryKey) {
+            tables.put(tableOid, new TableEntry(tableName, tableSize, withoutPrimaryKey));
+            return this;
+        }
+
+        @Nonnull
+        Builder addIndex(final long tableOid,
+                         @Nonnull final String indexName,
+                         final long indexSize,
+                         @Nonnull final String columns,
+                         @Nonnull final String operatorClasses,
+                         @Nonnull final String collations,
+                         @Nullable final String expressions,
+                         @Nullable final String predicate,
+                         final boolean unique) {
+            List<IndexEntry> indexes = indexesByTable.get(tableOid);
+            if (indexes == null) {
+                indexes = new ArrayList<>();
+                indexesByTable.put(tableOid, indexes);
+            }
+            indexes.add(new IndexEntry(tableOid, indexName, indexSize, columns, operatorClasses,
+                    collations, expressions, predicate, unique));
+            return this;
+        }
+
+        @Nonnull
+        Builder addAttribute(final long tableOid, final int attributeNumber, @Nonnull final String attributeName, final boolean notNull) {
+            attributes.put(attributeKey(tableOid, attributeNumber), new AttributeEntry(attributeName, notNull));
+            return this;
+        }
+
+        @Nonnull
+        Builder addForeignKey(final long tableOid, @Nonnull final String constraintName, @Nonnull final String columns) {
+            foreignKeys.add(new ForeignKeyEntry(tableOid, constraintName, columns));
+            return this;
+        }
+
+        @Nonnull
+        CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+    }
+
+    private static final class TableEntry {
+
+        private final String name;
+        private final long size;
+        private final boolean withoutPrimaryKey;
+
+        TableEntry(@Nonnull final String name, final long size, final boolean withoutPrimaryKey) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.size = size;
+            this.withoutPrimaryKey = withoutPrimaryKey;
+        }
+    }
+
+    private static final class AttributeEntry {
+
+        private final String name;
+        private final boolean notNull;
+
+        AttributeEntry(@Nonnull final String name, final boolean notNull) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.notNull = notNull;
+        }
+    }
+
+    private static final class ForeignKeyEntry {
+
+        private final long tableOid;
+        private final String name;
+        private final int[] columns;
+
+        ForeignKeyEntry(final long tableOid, @Nonnull final String name, @Nonnull final String columns) {
+            this.tableOid = tableOid;
+            this.name = Objects.requireNonNull(name, "name");
+            this.columns = parseColumns(columns);
+        }
+    }
+
+    private static final class IndexEntry {
+
+        private final long tableOid;
+        private final String name;
+        private final long size;
+        private final int[] columns;
+        private final String operatorClasses;
+        private final String collations;
+        private final String expressions;
+        private final String predicate;
+        private final boolean unique;
+
+        IndexEntry(final long tableOid,
+                   @Nonnull final String name,
+                   final long size,
+                   @Nonnull final String columns,
+                   @Nonnull final String operatorClasses,
+                   @Nonnull final String collations,
+                   @Nullable final String expressions,
+                   @Nullable final String predicate,
+                   final boolean unique) {
+            this.tableOid = tableOid;
+            this.name = Objects.requireNonNull(name, "name");
+            this.size = size;
+            this.columns = parseColumns(columns);
+            this.operatorClasses = Objects.requireNonNull(operatorClasses, "operatorClasses");
+            this.collations = Objects.requireNonNull(collations, "collations");
+            this.expressions = expressions;
+            this.predicate = predicate;
+            this.unique = unique;
+        }
+
+        boolean hasSameStructure(@Nonnull final IndexEntry other) {
+            return Arrays.equals(columns, other.columns) &&
+                    operatorClasses.equals(other.operatorClasses) &&
+                    collations.equals(other.collations) &&
+                    Objects.equals(expressions, other.expressions) &&
+                    Objects.equals(predicate, other.predicate);
+        }
+
+        boolean intersectsWith(@Nonnull final IndexEntry other) {
+            if (!Objects.equals(expressions, other.expressions) || !Objects.equals(predicate, other.predicate) ||
+                    Arrays.equals(columns, other.columns)) {
+                return false;
+            }
+            return startsWith(other.columns) || other.startsWith(columns);
+        }
+
+        boolean startsWith(@Nonnull final int[] prefix) {
+            if (prefix.length > columns.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; ++i) {
+                if (columns[i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean startsWithAll(@Nonnull final int[] leadingColumns) {
+            if (leadingColumns.length > columns.length) {
+                return false;
+            }
+            for (int column : leadingColumns) {
+                boolean found = false;
+                for (int i = 0; i < leadingColumns.length && !found; ++i) {
+                    found = columns[i] == column;
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.catalog;
+
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Open-addressing hash map with primitive {@code long} keys (OIDs or OID-based composite keys).
+ * <p>
+ * Keys are stored in a plain {@code long[]} without boxing, collisions are resolved with linear probing.
+ * Null values are not allowed.
+ * </p>
+ *
+ * @param <V> type of values
+ * @author Ivan Vakhrushev
+ */
+@NotThreadSafe
+final class OidMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    OidMap() {
+        this.keys = new long[DEFAULT_CAPACITY];
+        this.values = new Object[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Returns the value associated with given key.
+     *
+     * @param key key
+     * @return value or {@code null} if there is no such key
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    V get(final long key) {
+        final int mask = keys.length - 1;
+        for (int i = indexOf(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Associates given value with given key.
+     *
+     * @param key   key
+     * @param value value; should be non null
+     * @return previous value or {@code null} if there was no such key
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    V put(final long key, @Nonnull final V value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize();
+        }
+        final int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        ++size;
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(@Nonnull final Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; ++j) {
+            if (oldValues[j] != null) {
+                int i = indexOf(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int indexOf(final long key, final int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
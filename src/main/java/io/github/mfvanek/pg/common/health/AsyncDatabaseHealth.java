@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.index.IndexesHealthAware;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.table.TablesHealthAware;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.annotation.Nonnull;
+
+/**
+ * A non-blocking counterpart of {@link DatabaseHealth}.
+ * <p>
+ * All diagnostics are executed on a user-supplied {@link Executor}, so the caller thread is never blocked.
+ * Checks that only read the system catalog are executed on a single host chosen by
+ * {@link io.github.mfvanek.pg.common.management.HostSelector} (the primary by default).
+ * Checks that require statistics from every host in the cluster are started on all hosts at once
+ * and the per-host results are combined when the last of them completes.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see DatabaseHealth
+ * @see IndexesHealthAware
+ * @see TablesHealthAware
+ */
+public interface AsyncDatabaseHealth {
+
+    /**
+     * Asynchronously returns invalid (broken) indexes in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of invalid indexes
+     * @see Index
+     */
+    @Nonnull
+    CompletableFuture<List<Index>> getInvalidIndexes(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns invalid (broken) indexes in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future invalid indexes for each given context
+     * @see Index
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<Index>>> getInvalidIndexesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns invalid (broken) indexes in the public schema on the selected host.
+     *
+     * @return future list of invalid indexes
+     * @see Index
+     */
+    @Nonnull
+    default CompletableFuture<List<Index>> getInvalidIndexes() {
+        return getInvalidIndexes(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns duplicated (completely identical) indexes in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of duplicated indexes
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    CompletableFuture<List<DuplicatedIndexes>> getDuplicatedIndexes(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns duplicated (completely identical) indexes in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future duplicated indexes for each given context
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<DuplicatedIndexes>>> getDuplicatedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns duplicated (completely identical) indexes in the public schema on the selected host.
+     *
+     * @return future list of duplicated indexes
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    default CompletableFuture<List<DuplicatedIndexes>> getDuplicatedIndexes() {
+        return getDuplicatedIndexes(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns intersected indexes (partially identical) in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of intersected indexes
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    CompletableFuture<List<DuplicatedIndexes>> getIntersectedIndexes(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns intersected indexes (partially identical) in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future intersected indexes for each given context
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<DuplicatedIndexes>>> getIntersectedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns intersected indexes (partially identical) in the public schema on the selected host.
+     *
+     * @return future list of intersected indexes
+     * @see DuplicatedIndexes
+     */
+    @Nonnull
+    default CompletableFuture<List<DuplicatedIndexes>> getIntersectedIndexes() {
+        return getIntersectedIndexes(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns unused indexes in the specified schema on all hosts in the cluster.
+     * <p>
+     * An index is considered unused only if it is unused on every host in the cluster.
+     * </p>
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of unused indexes
+     * @see UnusedIndex
+     */
+    @Nonnull
+    CompletableFuture<List<UnusedIndex>> getUnusedIndexes(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns unused indexes in the specified schemas on all hosts in the cluster grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future unused indexes for each given context
+     * @see UnusedIndex
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<UnusedIndex>>> getUnusedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns unused indexes in the public schema on all hosts in the cluster.
+     *
+     * @return future list of unused indexes
+     * @see UnusedIndex
+     */
+    @Nonnull
+    default CompletableFuture<List<UnusedIndex>> getUnusedIndexes() {
+        return getUnusedIndexes(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns foreign keys without associated indexes in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of foreign keys without associated indexes
+     * @see ForeignKey
+     */
+    @Nonnull
+    CompletableFuture<List<ForeignKey>> getForeignKeysNotCoveredWithIndex(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns foreign keys without associated indexes in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future foreign keys without associated indexes for each given context
+     * @see ForeignKey
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<ForeignKey>>> getForeignKeysNotCoveredWithIndexBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns foreign keys without associated indexes in the public schema on the selected host.
+     *
+     * @return future list of foreign keys without associated indexes
+     * @see ForeignKey
+     */
+    @Nonnull
+    default CompletableFuture<List<ForeignKey>> getForeignKeysNotCoveredWithIndex() {
+        return getForeignKeysNotCoveredWithIndex(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns indexes that contain null values in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of indexes with null values
+     * @see IndexWithNulls
+     */
+    @Nonnull
+    CompletableFuture<List<IndexWithNulls>> getIndexesWithNullValues(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns indexes that contain null values in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future indexes with null values for each given context
+     * @see IndexWithNulls
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<IndexWithNulls>>> getIndexesWithNullValuesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns indexes that contain null values in the public schema on the selected host.
+     *
+     * @return future list of indexes with null values
+     * @see IndexWithNulls
+     */
+    @Nonnull
+    default CompletableFuture<List<IndexWithNulls>> getIndexesWithNullValues() {
+        return getIndexesWithNullValues(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns bloated indexes in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of bloated indexes
+     * @see IndexWithBloat
+     */
+    @Nonnull
+    CompletableFuture<List<IndexWithBloat>> getIndexesWithBloat(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns bloated indexes in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future bloated indexes for each given context
+     * @see IndexWithBloat
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<IndexWithBloat>>> getIndexesWithBloatBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns bloated indexes in the public schema on the selected host.
+     *
+     * @return future list of bloated indexes
+     * @see IndexWithBloat
+     */
+    @Nonnull
+    default CompletableFuture<List<IndexWithBloat>> getIndexesWithBloat() {
+        return getIndexesWithBloat(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns tables that potentially have missing indexes in the specified schema on all hosts in the cluster.
+     * <p>
+     * The result is a union of tables found on every host in the cluster.
+     * </p>
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of tables with missing indexes
+     * @see TableWithMissingIndex
+     */
+    @Nonnull
+    CompletableFuture<List<TableWithMissingIndex>> getTablesWithMissingIndexes(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns tables that potentially have missing indexes in the specified schemas on all hosts in the cluster grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future tables with missing indexes for each given context
+     * @see TableWithMissingIndex
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<TableWithMissingIndex>>> getTablesWithMissingIndexesBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns tables that potentially have missing indexes in the public schema on all hosts in the cluster.
+     *
+     * @return future list of tables with missing indexes
+     * @see TableWithMissingIndex
+     */
+    @Nonnull
+    default CompletableFuture<List<TableWithMissingIndex>> getTablesWithMissingIndexes() {
+        return getTablesWithMissingIndexes(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns tables without primary key in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of tables without primary key
+     * @see Table
+     */
+    @Nonnull
+    CompletableFuture<List<Table>> getTablesWithoutPrimaryKey(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns tables without primary key in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future tables without primary key for each given context
+     * @see Table
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<Table>>> getTablesWithoutPrimaryKeyBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns tables without primary key in the public schema on the selected host.
+     *
+     * @return future list of tables without primary key
+     * @see Table
+     */
+    @Nonnull
+    default CompletableFuture<List<Table>> getTablesWithoutPrimaryKey() {
+        return getTablesWithoutPrimaryKey(PgContext.ofPublic());
+    }
+
+    /**
+     * Asynchronously returns bloated tables in the specified schema on the selected host.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return future list of bloated tables
+     * @see TableWithBloat
+     */
+    @Nonnull
+    CompletableFuture<List<TableWithBloat>> getTablesWithBloat(@Nonnull PgContext pgContext);
+
+    /**
+     * Asynchronously returns bloated tables in the specified schemas on the selected host grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return future bloated tables for each given context
+     * @see TableWithBloat
+     */
+    @Nonnull
+    CompletableFuture<Map<PgContext, List<TableWithBloat>>> getTablesWithBloatBySchema(@Nonnull Collection<PgContext> pgContexts);
+
+    /**
+     * Asynchronously returns bloated tables in the public schema on the selected host.
+     *
+     * @return future list of bloated tables
+     * @see TableWithBloat
+     */
+    @Nonnull
+    default CompletableFuture<List<TableWithBloat>> getTablesWithBloat() {
+        return getTablesWithBloat(PgContext.ofPublic());
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.maintenance.MaintenanceFactory;
+import io.github.mfvanek.pg.common.management.HostSelector;
+import io.github.mfvanek.pg.common.management.ReplicaRouting;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostAware;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
+import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/**
+ * Implementation of {@code AsyncDatabaseHealth} which collects information from all hosts in the cluster
+ * on a user-supplied {@link Executor}.
+ * <p>
+ * The lifecycle of the given executor is managed by the caller.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see DatabaseHealthImpl
+ */
+public class AsyncDatabaseHealthImpl implements AsyncDatabaseHealth {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncDatabaseHealthImpl.class);
+
+    private final HighAvailabilityPgConnection haPgConnection;
+    private final Executor executor;
+    private final HostSelector hostSelector;
+    private final Map<PgHost, IndexesMaintenanceOnHost> indexesMaintenanceForAllHostsInCluster;
+    private final Map<PgHost, TablesMaintenanceOnHost> tablesMaintenanceForAllHostsInCluster;
+    private final Map<PgHost, StatisticsMaintenanceOnHost> statisticsMaintenanceForAllHostsInCluster;
+
+    public AsyncDatabaseHealthImpl(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                   @Nonnull final MaintenanceFactory maintenanceFactory,
+                                   @Nonnull final Executor executor) {
+        this(haPgConnection, maintenanceFactory, executor, ReplicaRouting.primaryOnly());
+    }
+
+    public AsyncDatabaseHealthImpl(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                   @Nonnull final MaintenanceFactory maintenanceFactory,
+                                   @Nonnull final Executor executor,
+                                   @Nonnull final HostSelector hostSelector) {
+        this.haPgConnection = Objects.requireNonNull(haPgConnection, "haPgConnection");
+        Objects.requireNonNull(maintenanceFactory, "maintenanceFactory");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.hostSelector = Objects.requireNonNull(hostSelector, "hostSelector");
+        final Set<PgConnection> pgConnections = haPgConnection.getConnectionsToAllHostsInCluster();
+        this.indexesMaintenanceForAllHostsInCluster = maintenanceFactory.forIndexes(pgConnections);
+        this.tablesMaintenanceForAllHostsInCluster = maintenanceFactory.forTables(pgConnections);
+        this.statisticsMaintenanceForAllHostsInCluster = maintenanceFactory.forStatistics(pgConnections);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<Index>> getInvalidIndexes(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getInvalidIndexes(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<Index>>> getInvalidIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getInvalidIndexesBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<DuplicatedIndexes>> getDuplicatedIndexes(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getDuplicatedIndexes(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<DuplicatedIndexes>>> getDuplicatedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getDuplicatedIndexesBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<DuplicatedIndexes>> getIntersectedIndexes(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIntersectedIndexes(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<DuplicatedIndexes>>> getIntersectedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIntersectedIndexesBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<UnusedIndex>> getUnusedIndexes(@Nonnull final PgContext pgContext) {
+        final CompletableFuture<List<List<UnusedIndex>>> potentiallyUnusedIndexesFromAllHosts = supplyOnAllHosts(indexesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> {
+                    logLastStatsResetDate(maintenanceForHost.getHost());
+                    return maintenanceForHost.getUnusedIndexes(pgContext);
+                });
+        return potentiallyUnusedIndexesFromAllHosts.thenApply(ReplicasHelper::getUnusedIndexesAsIntersectionResult);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<UnusedIndex>>> getUnusedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        final CompletableFuture<List<Map<PgContext, List<UnusedIndex>>>> potentiallyUnusedIndexesFromAllHosts = supplyOnAllHosts(indexesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> {
+                    logLastStatsResetDate(maintenanceForHost.getHost());
+                    return maintenanceForHost.getUnusedIndexesBySchema(pgContexts);
+                });
+        return potentiallyUnusedIndexesFromAllHosts.thenApply(results -> ReplicasHelper.combineBySchema(pgContexts, results, ReplicasHelper::getUnusedIndexesAsIntersectionResult));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ForeignKey>> getForeignKeysNotCoveredWithIndex(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getForeignKeysNotCoveredWithIndex(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<ForeignKey>>> getForeignKeysNotCoveredWithIndexBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getForeignKeysNotCoveredWithIndexBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<IndexWithNulls>> getIndexesWithNullValues(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIndexesWithNullValues(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<IndexWithNulls>>> getIndexesWithNullValuesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIndexesWithNullValuesBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<IndexWithBloat>> getIndexesWithBloat(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIndexesWithBloat(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<IndexWithBloat>>> getIndexesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(indexesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getIndexesWithBloatBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<TableWithMissingIndex>> getTablesWithMissingIndexes(@Nonnull final PgContext pgContext) {
+        final CompletableFuture<List<List<TableWithMissingIndex>>> tablesWithMissingIndexesFromAllHosts = supplyOnAllHosts(tablesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> maintenanceForHost.getTablesWithMissingIndexes(pgContext));
+        return tablesWithMissingIndexesFromAllHosts.thenApply(ReplicasHelper::getTablesWithMissingIndexesAsUnionResult);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<TableWithMissingIndex>>> getTablesWithMissingIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        final CompletableFuture<List<Map<PgContext, List<TableWithMissingIndex>>>> tablesWithMissingIndexesFromAllHosts = supplyOnAllHosts(tablesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> maintenanceForHost.getTablesWithMissingIndexesBySchema(pgContexts));
+        return tablesWithMissingIndexesFromAllHosts.thenApply(results -> ReplicasHelper.combineBySchema(pgContexts, results, ReplicasHelper::getTablesWithMissingIndexesAsUnionResult));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<Table>> getTablesWithoutPrimaryKey(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(tablesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getTablesWithoutPrimaryKey(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<Table>>> getTablesWithoutPrimaryKeyBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(tablesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getTablesWithoutPrimaryKeyBySchema(pgContexts));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<TableWithBloat>> getTablesWithBloat(@Nonnull final PgContext pgContext) {
+        return supplyOnSelectedHost(tablesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getTablesWithBloat(pgContext));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<PgContext, List<TableWithBloat>>> getTablesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return supplyOnSelectedHost(tablesMaintenanceForAllHostsInCluster, maintenance -> maintenance.getTablesWithBloatBySchema(pgContexts));
+    }
+
+    @Nonnull
+    private <M, R> CompletableFuture<R> supplyOnSelectedHost(@Nonnull final Map<PgHost, M> maintenances, @Nonnull final Function<M, R> func) {
+        return CompletableFuture.supplyAsync(() -> {
+            // The host is selected at the moment of execution since the primary may change its location
+            // within the cluster due to failover or switchover.
+            final PgHost host = hostSelector.selectHost(haPgConnection);
+            final M maintenance = maintenances.get(host);
+            if (maintenance == null) {
+                throw new IllegalStateException(String.format("Host selector returned host [%s] that is not among hosts in the cluster %s",
+                        host.getName(), maintenances.keySet()));
+            }
+            LOGGER.debug("Going to execute on host [{}]", host.getName());
+            return func.apply(maintenance);
+        }, executor);
+    }
+
+    @Nonnull
+    private <M extends HostAware, R> CompletableFuture<List<R>> supplyOnAllHosts(@Nonnull final Map<PgHost, M> maintenances,
+                                                                                 @Nonnull final Function<M, R> func) {
+        final List<CompletableFuture<R>> futures = maintenances.values().stream()
+                .map(maintenance -> CompletableFuture.supplyAsync(() -> {
+                    LOGGER.debug("Going to execute on host {}", maintenance.getHost().getName());
+                    return func.apply(maintenance);
+                }, executor))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+
+    private void logLastStatsResetDate(@Nonnull final PgHost host) {
+        LOGGER.info(ReplicasHelper.getLastStatsResetDateLogMessage(host, statisticsMaintenanceForAllHostsInCluster));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.catalog.CatalogSnapshot;
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.utils.QueryBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+/**
+ * Serves checks of the system catalog on prefetching from a single {@link CatalogSnapshot}.
+ *
+ * @author Ivan Vakhrushev
+ * @see ExecutionOptions#isCatalogSnapshotEnabled()
+ */
+final class CatalogSnapshotChecks {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSnapshotChecks.class);
+    private static final Map<Diagnostics, Function<CatalogSnapshot, List<?>>> CHECKS;
+
+    static {
+        final Map<Diagnostics, Function<CatalogSnapshot, List<?>>> checks = new EnumMap<>(Diagnostics.class);
+        checks.put(Diagnostics.DUPLICATED_INDEXES, CatalogSnapshot::getDuplicatedIndexes);
+        checks.put(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, CatalogSnapshot::getForeignKeysNotCoveredWithIndex);
+        checks.put(Diagnostics.INDEXES_WITH_NULL_VALUES, CatalogSnapshot::getIndexesWithNullValues);
+        checks.put(Diagnostics.INTERSECTED_INDEXES, CatalogSnapshot::getIntersectedIndexes);
+        checks.put(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, CatalogSnapshot::getTablesWithoutPrimaryKey);
+        CHECKS = Collections.unmodifiableMap(checks);
+    }
+
+    private CatalogSnapshotChecks() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Adds the query loading the catalog snapshot to the batch if the snapshot is enabled and can serve any check.
+     * Checks with a row filter in the given context are not served from the snapshot since it does not filter rows.
+     * The query execution listener is notified about every served check once the batch has been executed.
+     *
+     * @param batch            batch on the selected host
+     * @param host             selected host
+     * @param pgContext        context with schema name and row filters
+     * @param executionOptions options of executing diagnostic queries
+     * @return suppliers of rows of the served checks; empty if the snapshot is not used
+     */
+    @Nonnull
+    static Map<Diagnostics, Supplier<List<?>>> addToBatch(@Nonnull final QueryBatch batch,
+                                                         @Nonnull final PgHost host,
+                                                         @Nonnull final PgContext pgContext,
+                                                         @Nonnull final ExecutionOptions executionOptions) {
+        if (!executionOptions.isCatalogSnapshotEnabled()) {
+            return Collections.emptyMap();
+        }
+        final Set<Diagnostics> served = CHECKS.keySet().stream()
+                .filter(d -> pgContext.getRowFilter(d).isEmpty())
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(Diagnostics.class)));
+        if (served.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Supplier<CatalogSnapshot> snapshot = CatalogSnapshot.addToBatch(batch, pgContext, getQueryTimeout(served, executionOptions));
+        final Map<Diagnostics, List<?>> results = new EnumMap<>(Diagnostics.class);
+        batch.whenExecuted((latency, failure) -> {
+            if (failure == null) {
+                final CatalogSnapshot catalogSnapshot = snapshot.get();
+                served.forEach(d -> results.put(d, CHECKS.get(d).apply(catalogSnapshot)));
+            }
+            served.forEach(d -> notifyListener(executionOptions, failure == null ?
+                    QueryExecutionEvent.succeeded(d, host, pgContext.getSchemaName(), latency, results.get(d).size()) :
+                    QueryExecutionEvent.failed(d, host, pgContext.getSchemaName(), latency, failure)));
+        });
+        final Map<Diagnostics, Supplier<List<?>>> suppliers = new EnumMap<>(Diagnostics.class);
+        served.forEach(d -> suppliers.put(d, () -> {
+            // Fails if the batch has not been executed yet
+            snapshot.get();
+            return results.get(d);
+        }));
+        return suppliers;
+    }
+
+    /**
+     * The snapshot replaces several queries, so it gets the sum of their timeouts or no timeout if any of them has none.
+     */
+    @Nonnull
+    static Duration getQueryTimeout(@Nonnull final Set<Diagnostics> served, @Nonnull final ExecutionOptions executionOptions) {
+        Duration queryTimeout = Duration.ZERO;
+        for (Diagnostics diagnostics : served) {
+            final Duration timeout = executionOptions.getQueryTimeout(diagnostics);
+            if (timeout.isZero()) {
+                return Duration.ZERO;
+            }
+            queryTimeout = queryTimeout.plus(timeout);
+        }
+        return queryTimeout;
+    }
+
+    private static void notifyListener(@Nonnull final ExecutionOptions executionOptions, @Nonnull final QueryExecutionEvent event) {
+        try {
+            executionOptions.getQueryExecutionListener().onQueryExecuted(event);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Query execution listener failed on {}", event, e);
+        }
+    }
+}
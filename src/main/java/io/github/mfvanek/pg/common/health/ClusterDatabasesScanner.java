@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.management.FanOutExecutors;
+import io.github.mfvanek.pg.connection.ClusterTopology;
+import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
+import io.github.mfvanek.pg.connection.PgConnectionFactory;
+import io.github.mfvanek.pg.utils.QueryExecutor;
+import io.github.mfvanek.pg.utils.Validators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs diagnostics on every database in the cluster.
+ * <p>
+ * Databases are discovered from {@code pg_database} on the primary host.
+ * The cluster topology (which host is primary) is detected only once per scan
+ * and then shared by connections to all databases. Connections to each database
+ * are opened with the same credentials and closed right after the database has been processed.
+ * </p>
+ * <p>
+ * A database that cannot be processed (for example, when {@code CONNECT} privilege has been revoked)
+ * is logged and skipped, so it does not abort the scan of other databases.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see ClusterTopology
+ */
+public class ClusterDatabasesScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterDatabasesScanner.class);
+    private static final String SQL_QUERY = "select datname from pg_catalog.pg_database where datallowconn and not datistemplate order by datname";
+
+    private final HighAvailabilityPgConnectionFactory haPgConnectionFactory;
+    private final PgConnectionFactory pgConnectionFactory;
+    private final DatabaseHealthFactory databaseHealthFactory;
+    private final int parallelism;
+
+    /**
+     * Creates scanner that processes up to {@code parallelism} databases at the same time.
+     * <p>
+     * Each concurrently processed database has its own connection pool for each host.
+     * </p>
+     *
+     * @param haPgConnectionFactory factory for connecting to the cluster and detecting its topology
+     * @param pgConnectionFactory   factory for creating connections to single hosts
+     * @param databaseHealthFactory factory for creating {@code DatabaseHealth}
+     * @param parallelism           maximum number of databases processed at the same time; should be positive
+     */
+    public ClusterDatabasesScanner(@Nonnull final HighAvailabilityPgConnectionFactory haPgConnectionFactory,
+                                   @Nonnull final PgConnectionFactory pgConnectionFactory,
+                                   @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                   final int parallelism) {
+        this.haPgConnectionFactory = Objects.requireNonNull(haPgConnectionFactory, "haPgConnectionFactory");
+        this.pgConnectionFactory = Objects.requireNonNull(pgConnectionFactory, "pgConnectionFactory");
+        this.databaseHealthFactory = Objects.requireNonNull(databaseHealthFactory, "databaseHealthFactory");
+        Validators.valueIsPositive(parallelism, "parallelism");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Applies given action to {@code DatabaseHealth} of each database in the cluster.
+     *
+     * @param credentials credentials to connect to any database in the cluster
+     * @param action      action to execute for each database
+     * @param <R>         type of result
+     * @return results keyed by database name in alphabetical order; databases that failed are skipped
+     */
+    @Nonnull
+    public <R> Map<String, R> scan(@Nonnull final ConnectionCredentials credentials,
+                                   @Nonnull final Function<DatabaseHealth, R> action) {
+        Objects.requireNonNull(action, "action");
+        return scanConnections(credentials, haPgConnection -> action.apply(databaseHealthFactory.of(haPgConnection)));
+    }
+
+    /**
+     * Applies given action to the connection to each database in the cluster.
+     * <p>
+     * This is useful for running health loggers that accept {@code HighAvailabilityPgConnection}.
+     * The connection must not be used after the action completes.
+     * </p>
+     *
+     * @param credentials credentials to connect to any database in the cluster
+     * @param action      action to execute for each database
+     * @param <R>         type of result
+     * @return results keyed by database name in alphabetical order; databases that failed are skipped
+     */
+    @Nonnull
+    public <R> Map<String, R> scanConnections(@Nonnull final ConnectionCredentials credentials,
+                                              @Nonnull final Function<HighAvailabilityPgConnection, R> action) {
+        Objects.requireNonNull(credentials, "credentials");
+        Objects.requireNonNull(action, "action");
+        final ClusterTopology topology;
+        final List<String> databases;
+        try (HighAvailabilityPgConnection haPgConnection = haPgConnectionFactory.of(credentials)) {
+            topology = ClusterTopology.of(haPgConnection);
+            databases = QueryExecutor.executeQuery(haPgConnection.getConnectionToPrimary(), SQL_QUERY, rs -> rs.getString("datname"));
+        }
+        LOGGER.info("Found {} databases in cluster {}", databases.size(), topology);
+        final List<Supplier<Map.Entry<String, R>>> tasks = databases.stream()
+                .map(databaseName -> (Supplier<Map.Entry<String, R>>) () -> scanDatabase(topology, databaseName, credentials, action))
+                .collect(Collectors.toList());
+        final List<Map.Entry<String, R>> results = parallelism == 1 || tasks.size() <= 1 ? runSequentially(tasks) : runConcurrently(tasks);
+        final Map<String, R> resultsByDatabase = new LinkedHashMap<>();
+        for (Map.Entry<String, R> result : results) {
+            if (result != null) {
+                resultsByDatabase.put(result.getKey(), result.getValue());
+            }
+        }
+        return resultsByDatabase;
+    }
+
+    @Override
+    public String toString() {
+        return ClusterDatabasesScanner.class.getSimpleName() + '{' +
+                "parallelism=" + parallelism +
+                '}';
+    }
+
+    @Nullable
+    private <R> Map.Entry<String, R> scanDatabase(@Nonnull final ClusterTopology topology,
+                                                  @Nonnull final String databaseName,
+                                                  @Nonnull final ConnectionCredentials credentials,
+                                                  @Nonnull final Function<HighAvailabilityPgConnection, R> action) {
+        LOGGER.debug("Going to scan database {}", databaseName);
+        try (HighAvailabilityPgConnection haPgConnection = topology.connectTo(databaseName, credentials, pgConnectionFactory)) {
+            return new AbstractMap.SimpleImmutableEntry<>(databaseName, action.apply(haPgConnection));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Skipping database {} since it cannot be scanned", databaseName, e);
+            return null;
+        }
+    }
+
+    @Nonnull
+    private static <R> List<R> runSequentially(@Nonnull final List<Supplier<R>> tasks) {
+        return tasks.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList());
+    }
+
+    @Nonnull
+    private <R> List<R> runConcurrently(@Nonnull final List<Supplier<R>> tasks) {
+        final List<Callable<R>> callables = tasks.stream()
+                .map(t -> (Callable<R>) t::get)
+                .collect(Collectors.toList());
+        final ExecutorService executorService = FanOutExecutors.newBoundedFanOutExecutor(Math.min(parallelism, callables.size()));
+        try {
+            final List<Future<R>> futures = executorService.invokeAll(callables);
+            final List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(getResult(future));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static <R> R getResult(@Nonnull final Future<R> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+}
@@ -16,10 +16,13 @@ import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
 import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
 import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.index.UnusedIndexColumns;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 import io.github.mfvanek.pg.table.TablesHealthAware;
 
@@ -36,7 +39,7 @@ import javax.annotation.Nonnull;
 public interface DatabaseHealth extends IndexesHealthAware, TablesHealthAware {
 
     /**
-     * Returns invalid (broken) indexes on the primary host in the specified schema.
+     * Returns invalid (broken) indexes in the specified schema on the selected host (the primary by default).
      *
      * @param pgContext {@code PgContext} with the specified schema
      * @return list of invalid indexes
@@ -63,7 +66,7 @@ public interface DatabaseHealth extends IndexesHealthAware, TablesHealthAware {
     List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull PgContext pgContext);
 
     /**
-     * Returns indexes in the specified schema on primary host that contain null values.
+     * Returns indexes in the specified schema on the selected host (the primary by default) that contain null values.
      *
      * @param pgContext {@code PgContext} with the specified schema
      * @return list of indexes with null values
@@ -75,7 +78,7 @@ public interface DatabaseHealth extends IndexesHealthAware, TablesHealthAware {
     List<IndexWithNulls> getIndexesWithNullValues(@Nonnull PgContext pgContext);
 
     /**
-     * Returns bloated indexes in the specified schema on primary host.
+     * Returns bloated indexes in the specified schema on the selected host (the primary by default).
      *
      * @param pgContext {@code PgContext} with the specified schema
      * @return list of bloated indexes
@@ -95,7 +98,7 @@ public interface DatabaseHealth extends IndexesHealthAware, TablesHealthAware {
     List<Table> getTablesWithoutPrimaryKey(@Nonnull PgContext pgContext);
 
     /**
-     * Returns bloated tables in the specified schema on primary host.
+     * Returns bloated tables in the specified schema on the selected host (the primary by default).
      *
      * @param pgContext {@code PgContext} with the specified schema
      * @return list of bloated tables
@@ -105,4 +108,40 @@ public interface DatabaseHealth extends IndexesHealthAware, TablesHealthAware {
     @Override
     @Nonnull
     List<TableWithBloat> getTablesWithBloat(@Nonnull PgContext pgContext);
+
+    /**
+     * Returns unused indexes in the specified schema stored by columns.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return unused indexes
+     * @see #getUnusedIndexes(PgContext)
+     */
+    @Nonnull
+    default UnusedIndexColumns getUnusedIndexesAsColumns(@Nonnull PgContext pgContext) {
+        return UnusedIndexColumns.of(getUnusedIndexes(pgContext));
+    }
+
+    /**
+     * Returns bloated indexes in the specified schema stored by columns.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return bloated indexes
+     * @see #getIndexesWithBloat(PgContext)
+     */
+    @Nonnull
+    default IndexWithBloatColumns getIndexesWithBloatAsColumns(@Nonnull PgContext pgContext) {
+        return IndexWithBloatColumns.of(getIndexesWithBloat(pgContext));
+    }
+
+    /**
+     * Returns bloated tables in the specified schema stored by columns.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return bloated tables
+     * @see #getTablesWithBloat(PgContext)
+     */
+    @Nonnull
+    default TableWithBloatColumns getTablesWithBloatAsColumns(@Nonnull PgContext pgContext) {
+        return TableWithBloatColumns.of(getTablesWithBloat(pgContext));
+    }
 }
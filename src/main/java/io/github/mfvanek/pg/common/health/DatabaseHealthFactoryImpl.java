@@ -11,6 +11,9 @@
 package io.github.mfvanek.pg.common.health;
 
 import io.github.mfvanek.pg.common.maintenance.MaintenanceFactory;
+import io.github.mfvanek.pg.common.management.HostSelector;
+import io.github.mfvanek.pg.common.management.PerHostExecutor;
+import io.github.mfvanek.pg.common.management.ReplicaRouting;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 
 import java.util.Objects;
@@ -19,14 +22,29 @@ import javax.annotation.Nonnull;
 public class DatabaseHealthFactoryImpl implements DatabaseHealthFactory {
 
     private final MaintenanceFactory maintenanceFactory;
+    private final PerHostExecutor perHostExecutor;
+    private final HostSelector hostSelector;
 
     public DatabaseHealthFactoryImpl(@Nonnull final MaintenanceFactory maintenanceFactory) {
+        this(maintenanceFactory, PerHostExecutor.sequential());
+    }
+
+    public DatabaseHealthFactoryImpl(@Nonnull final MaintenanceFactory maintenanceFactory,
+                                     @Nonnull final PerHostExecutor perHostExecutor) {
+        this(maintenanceFactory, perHostExecutor, ReplicaRouting.primaryOnly());
+    }
+
+    public DatabaseHealthFactoryImpl(@Nonnull final MaintenanceFactory maintenanceFactory,
+                                     @Nonnull final PerHostExecutor perHostExecutor,
+                                     @Nonnull final HostSelector hostSelector) {
         this.maintenanceFactory = Objects.requireNonNull(maintenanceFactory);
+        this.perHostExecutor = Objects.requireNonNull(perHostExecutor, "perHostExecutor");
+        this.hostSelector = Objects.requireNonNull(hostSelector, "hostSelector");
     }
 
     @Nonnull
     @Override
     public DatabaseHealth of(@Nonnull HighAvailabilityPgConnection haPgConnection) {
-        return new DatabaseHealthImpl(haPgConnection, maintenanceFactory);
+        return new DatabaseHealthImpl(haPgConnection, maintenanceFactory, perHostExecutor, hostSelector);
     }
 }
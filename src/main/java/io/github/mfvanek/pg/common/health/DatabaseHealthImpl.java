@@ -10,8 +10,13 @@
 
 package io.github.mfvanek.pg.common.health;
 
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
 import io.github.mfvanek.pg.common.maintenance.MaintenanceFactory;
 import io.github.mfvanek.pg.common.management.AbstractManagement;
+import io.github.mfvanek.pg.common.management.HostSelector;
+import io.github.mfvanek.pg.common.management.PerHostExecutor;
+import io.github.mfvanek.pg.common.management.ReplicaRouting;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgHost;
@@ -21,21 +26,30 @@ import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
 import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
 import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
 import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -44,22 +58,94 @@ import javax.annotation.Nonnull;
  * @author Ivan Vakhrushev
  * @see IndexesMaintenanceOnHost
  */
-public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHealth {
+public class DatabaseHealthImpl extends AbstractManagement implements PrefetchingDatabaseHealth {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseHealthImpl.class);
 
     private final Map<PgHost, IndexesMaintenanceOnHost> indexesMaintenanceForAllHostsInCluster;
     private final Map<PgHost, TablesMaintenanceOnHost> tablesMaintenanceForAllHostsInCluster;
     private final Map<PgHost, StatisticsMaintenanceOnHost> statisticsMaintenanceForAllHostsInCluster;
+    private final Map<PgHost, PgConnection> connectionsToAllHostsInCluster;
+    private final ExecutionOptions executionOptions;
 
     public DatabaseHealthImpl(@Nonnull final HighAvailabilityPgConnection haPgConnection,
                               @Nonnull final MaintenanceFactory maintenanceFactory) {
-        super(haPgConnection);
+        this(haPgConnection, maintenanceFactory, PerHostExecutor.sequential());
+    }
+
+    public DatabaseHealthImpl(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                              @Nonnull final MaintenanceFactory maintenanceFactory,
+                              @Nonnull final PerHostExecutor perHostExecutor) {
+        this(haPgConnection, maintenanceFactory, perHostExecutor, ReplicaRouting.primaryOnly());
+    }
+
+    public DatabaseHealthImpl(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                              @Nonnull final MaintenanceFactory maintenanceFactory,
+                              @Nonnull final PerHostExecutor perHostExecutor,
+                              @Nonnull final HostSelector hostSelector) {
+        super(haPgConnection, perHostExecutor, hostSelector);
         Objects.requireNonNull(maintenanceFactory);
         final Set<PgConnection> pgConnections = haPgConnection.getConnectionsToAllHostsInCluster();
         this.indexesMaintenanceForAllHostsInCluster = maintenanceFactory.forIndexes(pgConnections);
         this.tablesMaintenanceForAllHostsInCluster = maintenanceFactory.forTables(pgConnections);
         this.statisticsMaintenanceForAllHostsInCluster = maintenanceFactory.forStatistics(pgConnections);
+        this.connectionsToAllHostsInCluster = new LinkedHashMap<>();
+        pgConnections.forEach(c -> connectionsToAllHostsInCluster.put(c.getHost(), c));
+        this.executionOptions = maintenanceFactory.getExecutionOptions();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Diagnostics of the system catalog are batched on the selected host,
+     * diagnostics based on statistics are batched (together with the last statistics reset time) on every host.
+     * If {@link ExecutionOptions#isCatalogSnapshotEnabled()} is set, checks of the system catalog without row filters
+     * are computed from a single catalog snapshot loaded in the batch on the selected host.
+     * </p>
+     */
+    @Nonnull
+    @Override
+    public DatabaseHealth prefetch(@Nonnull final PgContext pgContext) {
+        Objects.requireNonNull(pgContext, "pgContext");
+        final Map<PgHost, QueryBatch> batches = new LinkedHashMap<>();
+        connectionsToAllHostsInCluster.keySet().forEach(host -> batches.put(host, new QueryBatch()));
+        final List<Supplier<List<UnusedIndex>>> unusedIndexesFromAllHosts = new ArrayList<>();
+        final List<Supplier<List<TableWithMissingIndex>>> tablesWithMissingIndexesFromAllHosts = new ArrayList<>();
+        final List<Supplier<Optional<OffsetDateTime>>> statsResetTimestamps = new ArrayList<>();
+        indexesMaintenanceForAllHostsInCluster.forEach((host, maintenance) ->
+                unusedIndexesFromAllHosts.add(maintenance.addUnusedIndexesToBatch(batches.get(host), pgContext)));
+        tablesMaintenanceForAllHostsInCluster.forEach((host, maintenance) ->
+                tablesWithMissingIndexesFromAllHosts.add(maintenance.addTablesWithMissingIndexesToBatch(batches.get(host), pgContext)));
+        statisticsMaintenanceForAllHostsInCluster.forEach((host, maintenance) ->
+                statsResetTimestamps.add(maintenance.addLastStatsResetTimestampToBatch(batches.get(host))));
+
+        final PgHost selectedHost = getSelectedHost();
+        final QueryBatch selectedHostBatch = getOnSelectedHost(batches, selectedHost);
+        final IndexesMaintenanceOnHost indexesMaintenance = getOnSelectedHost(indexesMaintenanceForAllHostsInCluster, selectedHost);
+        final TablesMaintenanceOnHost tablesMaintenance = getOnSelectedHost(tablesMaintenanceForAllHostsInCluster, selectedHost);
+        final Map<Diagnostics, Supplier<? extends List<?>>> resultsFromSelectedHost = new EnumMap<>(Diagnostics.class);
+        resultsFromSelectedHost.putAll(CatalogSnapshotChecks.addToBatch(selectedHostBatch, selectedHost, pgContext, executionOptions));
+        resultsFromSelectedHost.put(Diagnostics.INVALID_INDEXES, indexesMaintenance.addInvalidIndexesToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.computeIfAbsent(Diagnostics.DUPLICATED_INDEXES, d -> indexesMaintenance.addDuplicatedIndexesToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.computeIfAbsent(Diagnostics.INTERSECTED_INDEXES, d -> indexesMaintenance.addIntersectedIndexesToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.computeIfAbsent(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX,
+                d -> indexesMaintenance.addForeignKeysNotCoveredWithIndexToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.computeIfAbsent(Diagnostics.INDEXES_WITH_NULL_VALUES, d -> indexesMaintenance.addIndexesWithNullValuesToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.put(Diagnostics.BLOATED_INDEXES, indexesMaintenance.addIndexesWithBloatToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.computeIfAbsent(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, d -> tablesMaintenance.addTablesWithoutPrimaryKeyToBatch(selectedHostBatch, pgContext));
+        resultsFromSelectedHost.put(Diagnostics.BLOATED_TABLES, tablesMaintenance.addTablesWithBloatToBatch(selectedHostBatch, pgContext));
+
+        doOnAllHosts(connectionsToAllHostsInCluster, pgConnection -> {
+            batches.get(pgConnection.getHost()).execute(pgConnection);
+            return pgConnection.getHost();
+        });
+        statsResetTimestamps.forEach(statsResetTimestamp -> LOGGER.info(ReplicasHelper.getLastStatsResetDateLogMessage(statsResetTimestamp.get())));
+
+        final Map<Diagnostics, List<?>> results = new EnumMap<>(Diagnostics.class);
+        resultsFromSelectedHost.forEach((diagnostics, rows) -> results.put(diagnostics, rows.get()));
+        results.put(Diagnostics.UNUSED_INDEXES, ReplicasHelper.getUnusedIndexesAsIntersectionResult(getAll(unusedIndexesFromAllHosts)));
+        results.put(Diagnostics.TABLES_WITH_MISSING_INDEXES, ReplicasHelper.getTablesWithMissingIndexesAsUnionResult(getAll(tablesWithMissingIndexesFromAllHosts)));
+        return new PrefetchedDatabaseHealth(this, pgContext, results);
     }
 
     /**
@@ -68,7 +154,16 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<Index> getInvalidIndexes(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getInvalidIndexes, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getInvalidIndexes, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<Index>> getInvalidIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getInvalidIndexesBySchema, pgContexts);
     }
 
     /**
@@ -77,7 +172,16 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<DuplicatedIndexes> getDuplicatedIndexes(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getDuplicatedIndexes, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getDuplicatedIndexes, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<DuplicatedIndexes>> getDuplicatedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getDuplicatedIndexesBySchema, pgContexts);
     }
 
     /**
@@ -86,7 +190,16 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<DuplicatedIndexes> getIntersectedIndexes(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIntersectedIndexes, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIntersectedIndexes, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<DuplicatedIndexes>> getIntersectedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIntersectedIndexesBySchema, pgContexts);
     }
 
     /**
@@ -95,26 +208,44 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<UnusedIndex> getUnusedIndexes(@Nonnull final PgContext pgContext) {
-        final List<List<UnusedIndex>> potentiallyUnusedIndexesFromAllHosts = new ArrayList<>();
-        for (IndexesMaintenanceOnHost maintenanceForHost : indexesMaintenanceForAllHostsInCluster.values()) {
-            final PgHost currentHost = maintenanceForHost.getHost();
-            final List<UnusedIndex> unusedIndexesFromCurrentHost = doOnHost(currentHost,
-                    () -> {
-                        logLastStatsResetDate(currentHost);
-                        return maintenanceForHost.getUnusedIndexes(pgContext);
-                    });
-            potentiallyUnusedIndexesFromAllHosts.add(unusedIndexesFromCurrentHost);
-        }
+        final List<List<UnusedIndex>> potentiallyUnusedIndexesFromAllHosts = doOnAllHosts(indexesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> {
+                    logLastStatsResetDate(maintenanceForHost.getHost());
+                    return maintenanceForHost.getUnusedIndexes(pgContext);
+                });
         return ReplicasHelper.getUnusedIndexesAsIntersectionResult(potentiallyUnusedIndexesFromAllHosts);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<UnusedIndex>> getUnusedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        final List<Map<PgContext, List<UnusedIndex>>> potentiallyUnusedIndexesFromAllHosts = doOnAllHosts(indexesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> {
+                    logLastStatsResetDate(maintenanceForHost.getHost());
+                    return maintenanceForHost.getUnusedIndexesBySchema(pgContexts);
+                });
+        return ReplicasHelper.combineBySchema(pgContexts, potentiallyUnusedIndexesFromAllHosts, ReplicasHelper::getUnusedIndexesAsIntersectionResult);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Nonnull
     @Override
     public List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getForeignKeysNotCoveredWithIndex, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getForeignKeysNotCoveredWithIndex, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<ForeignKey>> getForeignKeysNotCoveredWithIndexBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getForeignKeysNotCoveredWithIndexBySchema, pgContexts);
     }
 
     /**
@@ -123,22 +254,38 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<TableWithMissingIndex> getTablesWithMissingIndexes(@Nonnull final PgContext pgContext) {
-        final List<List<TableWithMissingIndex>> tablesWithMissingIndexesFromAllHosts = new ArrayList<>();
-        for (TablesMaintenanceOnHost maintenanceForHost : tablesMaintenanceForAllHostsInCluster.values()) {
-            tablesWithMissingIndexesFromAllHosts.add(
-                    doOnHost(maintenanceForHost.getHost(),
-                            () -> maintenanceForHost.getTablesWithMissingIndexes(pgContext)));
-        }
+        final List<List<TableWithMissingIndex>> tablesWithMissingIndexesFromAllHosts = doOnAllHosts(tablesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> maintenanceForHost.getTablesWithMissingIndexes(pgContext));
         return ReplicasHelper.getTablesWithMissingIndexesAsUnionResult(tablesWithMissingIndexesFromAllHosts);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<TableWithMissingIndex>> getTablesWithMissingIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        final List<Map<PgContext, List<TableWithMissingIndex>>> tablesWithMissingIndexesFromAllHosts = doOnAllHosts(tablesMaintenanceForAllHostsInCluster,
+                maintenanceForHost -> maintenanceForHost.getTablesWithMissingIndexesBySchema(pgContexts));
+        return ReplicasHelper.combineBySchema(pgContexts, tablesWithMissingIndexesFromAllHosts, ReplicasHelper::getTablesWithMissingIndexesAsUnionResult);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Nonnull
     @Override
     public List<Table> getTablesWithoutPrimaryKey(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithoutPrimaryKey, pgContext);
+        return doOnSelectedHost(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithoutPrimaryKey, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<Table>> getTablesWithoutPrimaryKeyBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithoutPrimaryKeyBySchema, pgContexts);
     }
 
     /**
@@ -147,7 +294,16 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<IndexWithNulls> getIndexesWithNullValues(@Nonnull final PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithNullValues, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithNullValues, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<IndexWithNulls>> getIndexesWithNullValuesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithNullValuesBySchema, pgContexts);
     }
 
     /**
@@ -156,7 +312,16 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Nonnull
     @Override
     public List<IndexWithBloat> getIndexesWithBloat(@Nonnull PgContext pgContext) {
-        return doOnPrimary(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithBloat, pgContext);
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithBloat, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<IndexWithBloat>> getIndexesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithBloatBySchema, pgContexts);
     }
 
     /**
@@ -165,7 +330,41 @@ public class DatabaseHealthImpl extends AbstractManagement implements DatabaseHe
     @Override
     @Nonnull
     public List<TableWithBloat> getTablesWithBloat(@Nonnull PgContext pgContext) {
-        return doOnPrimary(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithBloat, pgContext);
+        return doOnSelectedHost(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithBloat, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<TableWithBloat>> getTablesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return doOnSelectedHost(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithBloatBySchema, pgContexts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public IndexWithBloatColumns getIndexesWithBloatAsColumns(@Nonnull final PgContext pgContext) {
+        return doOnSelectedHost(indexesMaintenanceForAllHostsInCluster, IndexesMaintenanceOnHost::getIndexesWithBloatAsColumns, pgContext);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public TableWithBloatColumns getTablesWithBloatAsColumns(@Nonnull final PgContext pgContext) {
+        return doOnSelectedHost(tablesMaintenanceForAllHostsInCluster, TablesMaintenanceOnHost::getTablesWithBloatAsColumns, pgContext);
+    }
+
+    @Nonnull
+    private static <T> List<T> getAll(@Nonnull final List<Supplier<T>> suppliers) {
+        final List<T> result = new ArrayList<>(suppliers.size());
+        suppliers.forEach(s -> result.add(s.get()));
+        return result;
     }
 
     private void logLastStatsResetDate(@Nonnull final PgHost host) {
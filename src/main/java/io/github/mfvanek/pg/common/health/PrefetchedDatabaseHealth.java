@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Results of all diagnostics collected in advance for a single schema.
+ *
+ * @author Ivan Vakhrushev
+ * @see PrefetchingDatabaseHealth
+ */
+@Immutable
+final class PrefetchedDatabaseHealth implements DatabaseHealth {
+
+    private final DatabaseHealth delegate;
+    private final String schemaName;
+    private final int bloatPercentageThreshold;
+    private final Map<Diagnostics, RowFilter> rowFilters;
+    private final Map<Diagnostics, List<?>> results;
+
+    PrefetchedDatabaseHealth(@Nonnull final DatabaseHealth delegate,
+                             @Nonnull final PgContext pgContext,
+                             @Nonnull final Map<Diagnostics, List<?>> results) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        Objects.requireNonNull(pgContext, "pgContext");
+        this.schemaName = pgContext.getSchemaName();
+        this.bloatPercentageThreshold = pgContext.getBloatPercentageThreshold();
+        this.rowFilters = pgContext.getRowFilters();
+        final Map<Diagnostics, List<?>> copy = new EnumMap<>(Diagnostics.class);
+        copy.putAll(Objects.requireNonNull(results, "results"));
+        this.results = Collections.unmodifiableMap(copy);
+    }
+
+    @Nonnull
+    @Override
+    public List<Index> getInvalidIndexes(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.INVALID_INDEXES, pgContext, delegate::getInvalidIndexes);
+    }
+
+    @Nonnull
+    @Override
+    public List<DuplicatedIndexes> getDuplicatedIndexes(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.DUPLICATED_INDEXES, pgContext, delegate::getDuplicatedIndexes);
+    }
+
+    @Nonnull
+    @Override
+    public List<DuplicatedIndexes> getIntersectedIndexes(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.INTERSECTED_INDEXES, pgContext, delegate::getIntersectedIndexes);
+    }
+
+    @Nonnull
+    @Override
+    public List<UnusedIndex> getUnusedIndexes(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.UNUSED_INDEXES, pgContext, delegate::getUnusedIndexes);
+    }
+
+    @Nonnull
+    @Override
+    public List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, pgContext, delegate::getForeignKeysNotCoveredWithIndex);
+    }
+
+    @Nonnull
+    @Override
+    public List<IndexWithNulls> getIndexesWithNullValues(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.INDEXES_WITH_NULL_VALUES, pgContext, delegate::getIndexesWithNullValues);
+    }
+
+    @Nonnull
+    @Override
+    public List<IndexWithBloat> getIndexesWithBloat(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.BLOATED_INDEXES, pgContext, delegate::getIndexesWithBloat);
+    }
+
+    @Nonnull
+    @Override
+    public List<TableWithMissingIndex> getTablesWithMissingIndexes(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.TABLES_WITH_MISSING_INDEXES, pgContext, delegate::getTablesWithMissingIndexes);
+    }
+
+    @Nonnull
+    @Override
+    public List<Table> getTablesWithoutPrimaryKey(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, pgContext, delegate::getTablesWithoutPrimaryKey);
+    }
+
+    @Nonnull
+    @Override
+    public List<TableWithBloat> getTablesWithBloat(@Nonnull final PgContext pgContext) {
+        return get(Diagnostics.BLOATED_TABLES, pgContext, delegate::getTablesWithBloat);
+    }
+
+    @Override
+    public String toString() {
+        return PrefetchedDatabaseHealth.class.getSimpleName() + '{' +
+                "schemaName='" + schemaName + '\'' +
+                ", bloatPercentageThreshold=" + bloatPercentageThreshold +
+                ", diagnostics=" + results.keySet() +
+                '}';
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private <T> List<T> get(@Nonnull final Diagnostics diagnostics,
+                            @Nonnull final PgContext pgContext,
+                            @Nonnull final Function<PgContext, List<T>> fallback) {
+        Objects.requireNonNull(pgContext, "pgContext");
+        final List<?> result = results.get(diagnostics);
+        if (result != null && schemaName.equals(pgContext.getSchemaName()) &&
+                bloatPercentageThreshold == pgContext.getBloatPercentageThreshold() &&
+                rowFilters.getOrDefault(diagnostics, RowFilter.none()).equals(pgContext.getRowFilter(diagnostics))) {
+            return (List<T>) result;
+        }
+        return fallback.apply(pgContext);
+    }
+}
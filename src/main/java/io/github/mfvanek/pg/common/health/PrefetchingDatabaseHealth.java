@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.model.PgContext;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link DatabaseHealth} that is able to run all diagnostics for a schema in advance
+ * with as few round trips to each host as possible.
+ *
+ * @author Ivan Vakhrushev
+ * @see io.github.mfvanek.pg.utils.QueryBatch
+ */
+public interface PrefetchingDatabaseHealth extends DatabaseHealth {
+
+    /**
+     * Runs all diagnostics for the specified schema and collects their results.
+     * <p>
+     * Queries for each host are sent as a single batch, so it takes one round trip per host.
+     * </p>
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return {@code DatabaseHealth} that returns the collected results for the specified schema
+     *     and delegates to this instance for any other schema
+     */
+    @Nonnull
+    DatabaseHealth prefetch(@Nonnull PgContext pgContext);
+}
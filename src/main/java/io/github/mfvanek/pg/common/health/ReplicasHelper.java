@@ -11,10 +11,10 @@
 package io.github.mfvanek.pg.common.health;
 
 import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
-import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,10 +23,15 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -42,14 +47,7 @@ final class ReplicasHelper {
     static List<UnusedIndex> getUnusedIndexesAsIntersectionResult(
             @Nonnull final List<List<UnusedIndex>> potentiallyUnusedIndexesFromAllHosts) {
         LOGGER.debug("potentiallyUnusedIndexesFromAllHosts = {}", potentiallyUnusedIndexesFromAllHosts);
-        Collection<UnusedIndex> unusedIndexes = null;
-        for (List<UnusedIndex> unusedIndexesFromHost : potentiallyUnusedIndexesFromAllHosts) {
-            if (unusedIndexes == null) {
-                unusedIndexes = unusedIndexesFromHost;
-            }
-            unusedIndexes = CollectionUtils.intersection(unusedIndexes, unusedIndexesFromHost);
-        }
-        final List<UnusedIndex> result = unusedIndexes == null ? Collections.emptyList() : new ArrayList<>(unusedIndexes);
+        final List<UnusedIndex> result = intersect(potentiallyUnusedIndexesFromAllHosts);
         LOGGER.debug("Intersection result {}", result);
         return result;
     }
@@ -58,15 +56,92 @@ final class ReplicasHelper {
     static List<TableWithMissingIndex> getTablesWithMissingIndexesAsUnionResult(
             @Nonnull final List<List<TableWithMissingIndex>> tablesWithMissingIndexesFromAllHosts) {
         LOGGER.debug("tablesWithMissingIndexesFromAllHosts = {}", tablesWithMissingIndexesFromAllHosts);
-        final List<TableWithMissingIndex> result = tablesWithMissingIndexesFromAllHosts.stream()
-                .flatMap(Collection::stream)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        final List<TableWithMissingIndex> result = union(tablesWithMissingIndexesFromAllHosts);
         LOGGER.debug("Union result {}", result);
         return result;
     }
 
+    /**
+     * Finds rows present on all hosts.
+     * <p>
+     * Every row of the first host counts the hosts it has been seen on;
+     * a row is counted on the next host only if it was found on all previous ones.
+     * Hosts are processed until no candidates are left.
+     * The result keeps the order and the instances of the first host.
+     * </p>
+     */
+    @Nonnull
+    private static <T> List<T> intersect(@Nonnull final List<List<T>> rowsFromAllHosts) {
+        if (rowsFromAllHosts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<T> rowsFromFirstHost = rowsFromAllHosts.get(0);
+        final Map<T, Integer> hostsCountByRow = new HashMap<>(Math.max(16, (int) (rowsFromFirstHost.size() / 0.75f) + 1));
+        rowsFromFirstHost.forEach(row -> hostsCountByRow.put(row, 1));
+        final int hostsCount = rowsFromAllHosts.size();
+        int candidatesCount = hostsCountByRow.size();
+        for (int host = 1; host < hostsCount && candidatesCount > 0; ++host) {
+            candidatesCount = 0;
+            for (T row : rowsFromAllHosts.get(host)) {
+                final Integer seenOnHosts = hostsCountByRow.get(row);
+                if (seenOnHosts != null && seenOnHosts == host) {
+                    hostsCountByRow.put(row, host + 1);
+                    ++candidatesCount;
+                }
+            }
+        }
+        final List<T> result = new ArrayList<>(candidatesCount);
+        if (candidatesCount > 0) {
+            for (T row : rowsFromFirstHost) {
+                final Integer seenOnHosts = hostsCountByRow.remove(row);
+                if (seenOnHosts != null && seenOnHosts == hostsCount) {
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Combines rows from all hosts into one sorted list without duplicates.
+     * <p>
+     * Duplicates are dropped in a single pass over the rows of all hosts and only the distinct rows are sorted,
+     * so the concatenation of all rows is never built. For equal rows the instance from the first host wins.
+     * </p>
+     */
+    @Nonnull
+    private static <T extends Comparable<? super T>> List<T> union(@Nonnull final List<List<T>> rowsFromAllHosts) {
+        int maxRowsCount = 0;
+        for (List<T> rows : rowsFromAllHosts) {
+            maxRowsCount = Math.max(maxRowsCount, rows.size());
+        }
+        final Set<T> seen = new HashSet<>(Math.max(16, (int) (maxRowsCount / 0.75f) + 1));
+        final List<T> result = new ArrayList<>(maxRowsCount);
+        for (List<T> rows : rowsFromAllHosts) {
+            for (T row : rows) {
+                if (seen.add(row)) {
+                    result.add(row);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Nonnull
+    static <T> Map<PgContext, List<T>> combineBySchema(@Nonnull final Collection<PgContext> pgContexts,
+                                                       @Nonnull final List<Map<PgContext, List<T>>> resultsFromAllHosts,
+                                                       @Nonnull final Function<List<List<T>>, List<T>> combiner) {
+        final Map<PgContext, List<T>> result = new LinkedHashMap<>();
+        for (PgContext pgContext : pgContexts) {
+            final List<List<T>> resultsForSchema = resultsFromAllHosts.stream()
+                    .map(resultsFromHost -> resultsFromHost.getOrDefault(pgContext, Collections.emptyList()))
+                    .collect(Collectors.toList());
+            result.put(pgContext, combiner.apply(resultsForSchema));
+        }
+        return result;
+    }
+
     @Nonnull
     static String getLastStatsResetDateLogMessage(
             @Nonnull final PgHost host,
@@ -76,7 +151,11 @@ final class ReplicasHelper {
             throw new NoSuchElementException("StatisticsMaintenanceOnHost object wasn't found for host " + host);
         }
 
-        final Optional<OffsetDateTime> statsResetTimestamp = statisticsMaintenance.getLastStatsResetTimestamp();
+        return getLastStatsResetDateLogMessage(statisticsMaintenance.getLastStatsResetTimestamp());
+    }
+
+    @Nonnull
+    static String getLastStatsResetDateLogMessage(@Nonnull final Optional<OffsetDateTime> statsResetTimestamp) {
         if (statsResetTimestamp.isPresent()) {
             final long daysBetween = ChronoUnit.DAYS.between(statsResetTimestamp.get(), OffsetDateTime.now());
             return String.format("Last statistics reset on this host was %d days ago (%s)",
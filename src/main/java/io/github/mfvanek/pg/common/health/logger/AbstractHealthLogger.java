@@ -12,34 +12,45 @@ package io.github.mfvanek.pg.common.health.logger;
 
 import io.github.mfvanek.pg.common.health.DatabaseHealth;
 import io.github.mfvanek.pg.common.health.DatabaseHealthFactory;
+import io.github.mfvanek.pg.common.health.PrefetchingDatabaseHealth;
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.management.FanOutExecutors;
 import io.github.mfvanek.pg.connection.ConnectionCredentials;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
 import io.github.mfvanek.pg.model.BloatAware;
 import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
 import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
-import io.github.mfvanek.pg.model.index.IndexNameAware;
-import io.github.mfvanek.pg.model.index.IndexSizeAware;
 import io.github.mfvanek.pg.model.index.IndexWithBloat;
 import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
 import io.github.mfvanek.pg.model.table.Table;
-import io.github.mfvanek.pg.model.table.TableNameAware;
-import io.github.mfvanek.pg.model.table.TableSizeAware;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.utils.NamePool;
+import io.github.mfvanek.pg.utils.QueryTimeoutException;
+import io.github.mfvanek.pg.utils.Validators;
 import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public abstract class AbstractHealthLogger implements HealthLogger {
 
@@ -48,14 +59,70 @@ public abstract class AbstractHealthLogger implements HealthLogger {
     private final ConnectionCredentials credentials;
     private final HighAvailabilityPgConnectionFactory connectionFactory;
     private final DatabaseHealthFactory databaseHealthFactory;
+    private final DatabaseHealth sharedDatabaseHealth;
+    private final int parallelism;
 
     @SuppressWarnings("WeakerAccess")
     protected AbstractHealthLogger(@Nonnull final ConnectionCredentials credentials,
                                    @Nonnull final HighAvailabilityPgConnectionFactory connectionFactory,
                                    @Nonnull final DatabaseHealthFactory databaseHealthFactory) {
-        this.credentials = Objects.requireNonNull(credentials);
-        this.connectionFactory = Objects.requireNonNull(connectionFactory);
-        this.databaseHealthFactory = Objects.requireNonNull(databaseHealthFactory);
+        this(credentials, connectionFactory, databaseHealthFactory, 1);
+    }
+
+    /**
+     * Creates logger that runs up to {@code parallelism} diagnostics at the same time.
+     * <p>
+     * Each concurrently running diagnostic holds its own database connection,
+     * so the connection pool for each host should have at least {@code parallelism} connections
+     * (see {@link io.github.mfvanek.pg.connection.PgConnectionFactoryImpl#PgConnectionFactoryImpl(int)}).
+     * </p>
+     *
+     * @param credentials           credentials to connect to the database
+     * @param connectionFactory     factory for creating connections to the cluster
+     * @param databaseHealthFactory factory for creating {@code DatabaseHealth}
+     * @param parallelism           maximum number of diagnostics running at the same time; should be positive
+     */
+    @SuppressWarnings("WeakerAccess")
+    protected AbstractHealthLogger(@Nonnull final ConnectionCredentials credentials,
+                                   @Nonnull final HighAvailabilityPgConnectionFactory connectionFactory,
+                                   @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                   final int parallelism) {
+        this(Objects.requireNonNull(credentials), Objects.requireNonNull(connectionFactory),
+                Objects.requireNonNull(databaseHealthFactory), null, parallelism);
+    }
+
+    /**
+     * Creates logger that reuses the given long-lived connection to the cluster for all runs.
+     * <p>
+     * The connection is expected to follow failover and switchover by itself
+     * (see {@link io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory#of(ConnectionCredentials, java.time.Duration)}),
+     * so {@link #logAll(Exclusions, PgContext)} neither creates new connections nor probes hosts.
+     * The lifecycle of the connection is managed by the caller.
+     * </p>
+     *
+     * @param haPgConnection        long-lived connection to the cluster
+     * @param databaseHealthFactory factory for creating {@code DatabaseHealth}
+     * @param parallelism           maximum number of diagnostics running at the same time; should be positive
+     */
+    @SuppressWarnings("WeakerAccess")
+    protected AbstractHealthLogger(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                   @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                   final int parallelism) {
+        this(null, null, Objects.requireNonNull(databaseHealthFactory),
+                databaseHealthFactory.of(Objects.requireNonNull(haPgConnection, "haPgConnection")), parallelism);
+    }
+
+    private AbstractHealthLogger(@Nullable final ConnectionCredentials credentials,
+                                 @Nullable final HighAvailabilityPgConnectionFactory connectionFactory,
+                                 @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                 @Nullable final DatabaseHealth sharedDatabaseHealth,
+                                 final int parallelism) {
+        this.credentials = credentials;
+        this.connectionFactory = connectionFactory;
+        this.databaseHealthFactory = databaseHealthFactory;
+        this.sharedDatabaseHealth = sharedDatabaseHealth;
+        Validators.valueIsPositive(parallelism, "parallelism");
+        this.parallelism = parallelism;
     }
 
     /**
@@ -67,26 +134,143 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                      @Nonnull final PgContext pgContext) {
         Objects.requireNonNull(exclusions);
         Objects.requireNonNull(pgContext);
+        if (sharedDatabaseHealth != null) {
+            return runChecks(sharedDatabaseHealth, exclusions, pgContext);
+        }
         // The main idea here is to create haPgConnection for a short period of time.
         // This helps to avoid dealing with failover/switch-over situations that occur in real clusters.
-        final HighAvailabilityPgConnection haPgConnection = connectionFactory.of(credentials);
-        final DatabaseHealth databaseHealth = databaseHealthFactory.of(haPgConnection);
-        final List<String> logResult = new ArrayList<>();
-        logResult.add(logInvalidIndexes(databaseHealth, pgContext));
-        logResult.add(logDuplicatedIndexes(databaseHealth, exclusions, pgContext));
-        logResult.add(logIntersectedIndexes(databaseHealth, exclusions, pgContext));
-        logResult.add(logUnusedIndexes(databaseHealth, exclusions, pgContext));
-        logResult.add(logForeignKeysNotCoveredWithIndex(databaseHealth, pgContext));
-        logResult.add(logTablesWithMissingIndexes(databaseHealth, exclusions, pgContext));
-        logResult.add(logTablesWithoutPrimaryKey(databaseHealth, exclusions, pgContext));
-        logResult.add(logIndexesWithNullValues(databaseHealth, exclusions, pgContext));
-        logResult.add(logIndexesBloat(databaseHealth, exclusions, pgContext));
-        logResult.add(logTablesBloat(databaseHealth, exclusions, pgContext));
-        return logResult;
+        try (HighAvailabilityPgConnection haPgConnection = Objects.requireNonNull(connectionFactory).of(Objects.requireNonNull(credentials))) {
+            final DatabaseHealth databaseHealth = databaseHealthFactory.of(haPgConnection);
+            return runChecks(databaseHealth, exclusions, pgContext);
+        }
+    }
+
+    @Nonnull
+    private List<String> runChecks(@Nonnull final DatabaseHealth originalDatabaseHealth,
+                                   @Nonnull final Exclusions exclusions,
+                                   @Nonnull final PgContext originalPgContext) {
+        // Names are deduplicated across all checks and hosts of this run only
+        final PgContext pgContext = withRowFilters(originalPgContext, exclusions).withNamePool(NamePool.create());
+        final DatabaseHealth databaseHealth = parallelism == 1 ? prefetch(originalDatabaseHealth, pgContext) : originalDatabaseHealth;
+        final List<Supplier<String>> checks = Arrays.asList(
+                withTimeout(SimpleLoggingKey.INVALID_INDEXES, () -> logInvalidIndexes(databaseHealth, pgContext)),
+                withTimeout(SimpleLoggingKey.DUPLICATED_INDEXES, () -> logDuplicatedIndexes(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.INTERSECTED_INDEXES, () -> logIntersectedIndexes(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.UNUSED_INDEXES, () -> logUnusedIndexes(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.FOREIGN_KEYS, () -> logForeignKeysNotCoveredWithIndex(databaseHealth, pgContext)),
+                withTimeout(SimpleLoggingKey.TABLES_WITH_MISSING_INDEXES, () -> logTablesWithMissingIndexes(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.TABLES_WITHOUT_PK, () -> logTablesWithoutPrimaryKey(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.INDEXES_WITH_NULLS, () -> logIndexesWithNullValues(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.INDEXES_BLOAT, () -> logIndexesBloat(databaseHealth, exclusions, pgContext)),
+                withTimeout(SimpleLoggingKey.TABLES_BLOAT, () -> logTablesBloat(databaseHealth, exclusions, pgContext)));
+        if (parallelism == 1) {
+            return runSequentially(checks);
+        }
+        return runConcurrently(checks);
+    }
+
+    /**
+     * Fetches results of all diagnostics in one round trip per host when it is supported.
+     * On query timeout falls back to running diagnostics one by one, so each of them gets its own timeout.
+     */
+    @Nonnull
+    private static DatabaseHealth prefetch(@Nonnull final DatabaseHealth databaseHealth,
+                                           @Nonnull final PgContext pgContext) {
+        if (databaseHealth instanceof PrefetchingDatabaseHealth) {
+            try {
+                return ((PrefetchingDatabaseHealth) databaseHealth).prefetch(pgContext);
+            } catch (QueryTimeoutException e) {
+                LOGGER.warn("Batch of checks was cancelled, running them one by one: {}", e.getMessage());
+            }
+        }
+        return databaseHealth;
+    }
+
+    /**
+     * Passes exact names and size thresholds from exclusions to the database, so excluded rows are not transferred at all.
+     * Exclusions are still applied to the results, because patterns can be checked only on the client side.
+     */
+    @Nonnull
+    private static PgContext withRowFilters(@Nonnull final PgContext pgContext,
+                                            @Nonnull final Exclusions exclusions) {
+        final long indexSizeThreshold = exclusions.getIndexSizeThresholdInBytes();
+        final long tableSizeThreshold = exclusions.getTableSizeThresholdInBytes();
+        return pgContext
+                .withRowFilter(Diagnostics.UNUSED_INDEXES, RowFilter.of(exclusions.getUnusedIndexesMatcher().getExactNames(), indexSizeThreshold))
+                .withRowFilter(Diagnostics.INDEXES_WITH_NULL_VALUES, RowFilter.of(exclusions.getIndexesWithNullValuesMatcher().getExactNames(), 0L))
+                .withRowFilter(Diagnostics.BLOATED_INDEXES, RowFilter.of(Collections.emptyList(), indexSizeThreshold))
+                .withRowFilter(Diagnostics.TABLES_WITH_MISSING_INDEXES,
+                        RowFilter.of(exclusions.getTablesWithMissingIndexesMatcher().getExactNames(), tableSizeThreshold))
+                .withRowFilter(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY,
+                        RowFilter.of(exclusions.getTablesWithoutPrimaryKeyMatcher().getExactNames(), tableSizeThreshold))
+                .withRowFilter(Diagnostics.BLOATED_TABLES, RowFilter.of(Collections.emptyList(), tableSizeThreshold));
+    }
+
+    @Nonnull
+    private static List<String> runSequentially(@Nonnull final List<Supplier<String>> checks) {
+        return checks.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList());
+    }
+
+    @Nonnull
+    private List<String> runConcurrently(@Nonnull final List<Supplier<String>> checks) {
+        final List<Callable<String>> tasks = checks.stream()
+                .map(c -> (Callable<String>) c::get)
+                .collect(Collectors.toList());
+        final ExecutorService executorService = FanOutExecutors.newBoundedFanOutExecutor(Math.min(parallelism, tasks.size()));
+        try {
+            final List<Future<String>> futures = executorService.invokeAll(tasks);
+            final List<String> logResult = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                logResult.add(getResult(future));
+            }
+            return logResult;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static String getResult(@Nonnull final Future<String> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    @Nonnull
+    private Supplier<String> withTimeout(@Nonnull final LoggingKey key, @Nonnull final Supplier<String> check) {
+        return () -> {
+            try {
+                return check.get();
+            } catch (QueryTimeoutException e) {
+                LOGGER.warn("Check {} was cancelled: {}", key.getSubKeyName(), e.getMessage());
+                return writeTimeoutToLog(key);
+            }
+        };
     }
 
     protected abstract String writeToLog(@Nonnull LoggingKey key, int value);
 
+    /**
+     * Writes to the log that the check was cancelled due to query timeout.
+     * By default, the check is reported with value -1.
+     *
+     * @param key key of the check
+     * @return logged message
+     */
+    protected String writeTimeoutToLog(@Nonnull final LoggingKey key) {
+        return writeToLog(key, -1);
+    }
+
     @Nonnull
     private String writeZeroToLog(@Nonnull final LoggingKey key) {
         return writeToLog(key, 0);
@@ -109,8 +293,8 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                         @Nonnull final Exclusions exclusions,
                                         @Nonnull final PgContext pgContext) {
         final List<DuplicatedIndexes> rawDuplicatedIndexes = databaseHealth.getDuplicatedIndexes(pgContext);
-        final List<DuplicatedIndexes> duplicatedIndexes = applyExclusions(rawDuplicatedIndexes,
-                exclusions.getDuplicatedIndexesExclusions());
+        final ExclusionMatcher matcher = exclusions.getDuplicatedIndexesMatcher();
+        final List<DuplicatedIndexes> duplicatedIndexes = applyFilter(rawDuplicatedIndexes, d -> !matcher.matchesAny(d.getIndexNames()));
         final LoggingKey key = SimpleLoggingKey.DUPLICATED_INDEXES;
         if (CollectionUtils.isNotEmpty(duplicatedIndexes)) {
             LOGGER.warn("There are duplicated indexes in the database {}", duplicatedIndexes);
@@ -124,8 +308,8 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                          @Nonnull final Exclusions exclusions,
                                          @Nonnull final PgContext pgContext) {
         final List<DuplicatedIndexes> rawIntersectedIndexes = databaseHealth.getIntersectedIndexes(pgContext);
-        final List<DuplicatedIndexes> intersectedIndexes = applyExclusions(rawIntersectedIndexes,
-                exclusions.getIntersectedIndexesExclusions());
+        final ExclusionMatcher matcher = exclusions.getIntersectedIndexesMatcher();
+        final List<DuplicatedIndexes> intersectedIndexes = applyFilter(rawIntersectedIndexes, d -> !matcher.matchesAny(d.getIndexNames()));
         final LoggingKey key = SimpleLoggingKey.INTERSECTED_INDEXES;
         if (CollectionUtils.isNotEmpty(intersectedIndexes)) {
             LOGGER.warn("There are intersected indexes in the database {}", intersectedIndexes);
@@ -139,10 +323,10 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                     @Nonnull final Exclusions exclusions,
                                     @Nonnull final PgContext pgContext) {
         final List<UnusedIndex> rawUnusedIndexes = databaseHealth.getUnusedIndexes(pgContext);
-        final List<UnusedIndex> filteredUnusedIndexes = applyIndexesExclusions(
-                rawUnusedIndexes, exclusions.getUnusedIndexesExclusions());
-        final List<UnusedIndex> unusedIndexes = applyIndexSizeExclusions(
-                filteredUnusedIndexes, exclusions.getIndexSizeThresholdInBytes());
+        final ExclusionMatcher matcher = exclusions.getUnusedIndexesMatcher();
+        final long sizeThreshold = exclusions.getIndexSizeThresholdInBytes();
+        final List<UnusedIndex> unusedIndexes = applyFilter(rawUnusedIndexes,
+                i -> i.getIndexSizeInBytes() >= sizeThreshold && !matcher.matches(i.getIndexName()));
         final LoggingKey key = SimpleLoggingKey.UNUSED_INDEXES;
         if (CollectionUtils.isNotEmpty(unusedIndexes)) {
             LOGGER.warn("There are unused indexes in the database {}", unusedIndexes);
@@ -169,10 +353,10 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                                @Nonnull final PgContext pgContext) {
         final List<TableWithMissingIndex> rawTablesWithMissingIndexes =
                 databaseHealth.getTablesWithMissingIndexes(pgContext);
-        final List<TableWithMissingIndex> tablesFilteredBySize = applyTableSizeExclusions(
-                rawTablesWithMissingIndexes, exclusions.getTableSizeThresholdInBytes());
-        final List<TableWithMissingIndex> tablesWithMissingIndexes = applyTablesExclusions(
-                tablesFilteredBySize, exclusions.getTablesWithMissingIndexesExclusions());
+        final ExclusionMatcher matcher = exclusions.getTablesWithMissingIndexesMatcher();
+        final long sizeThreshold = exclusions.getTableSizeThresholdInBytes();
+        final List<TableWithMissingIndex> tablesWithMissingIndexes = applyFilter(rawTablesWithMissingIndexes,
+                t -> t.getTableSizeInBytes() >= sizeThreshold && !matcher.matches(t.getTableName()));
         final LoggingKey key = SimpleLoggingKey.TABLES_WITH_MISSING_INDEXES;
         if (CollectionUtils.isNotEmpty(tablesWithMissingIndexes)) {
             LOGGER.warn("There are tables with missing indexes in the database {}", tablesWithMissingIndexes);
@@ -186,10 +370,10 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                               @Nonnull final Exclusions exclusions,
                                               @Nonnull final PgContext pgContext) {
         final List<Table> rawTablesWithoutPrimaryKey = databaseHealth.getTablesWithoutPrimaryKey(pgContext);
-        final List<Table> tablesFilteredBySize = applyTableSizeExclusions(
-                rawTablesWithoutPrimaryKey, exclusions.getTableSizeThresholdInBytes());
-        final List<Table> tablesWithoutPrimaryKey = applyTablesExclusions(
-                tablesFilteredBySize, exclusions.getTablesWithoutPrimaryKeyExclusions());
+        final ExclusionMatcher matcher = exclusions.getTablesWithoutPrimaryKeyMatcher();
+        final long sizeThreshold = exclusions.getTableSizeThresholdInBytes();
+        final List<Table> tablesWithoutPrimaryKey = applyFilter(rawTablesWithoutPrimaryKey,
+                t -> t.getTableSizeInBytes() >= sizeThreshold && !matcher.matches(t.getTableName()));
         final LoggingKey key = SimpleLoggingKey.TABLES_WITHOUT_PK;
         if (CollectionUtils.isNotEmpty(tablesWithoutPrimaryKey)) {
             LOGGER.warn("There are tables without primary key in the database {}", tablesWithoutPrimaryKey);
@@ -203,8 +387,8 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                             @Nonnull final Exclusions exclusions,
                                             @Nonnull final PgContext pgContext) {
         final List<IndexWithNulls> rawIndexesWithNullValues = databaseHealth.getIndexesWithNullValues(pgContext);
-        final List<IndexWithNulls> indexesWithNullValues = applyIndexesExclusions(rawIndexesWithNullValues,
-                exclusions.getIndexesWithNullValuesExclusions());
+        final ExclusionMatcher matcher = exclusions.getIndexesWithNullValuesMatcher();
+        final List<IndexWithNulls> indexesWithNullValues = applyFilter(rawIndexesWithNullValues, i -> !matcher.matches(i.getIndexName()));
         final LoggingKey key = SimpleLoggingKey.INDEXES_WITH_NULLS;
         if (CollectionUtils.isNotEmpty(indexesWithNullValues)) {
             LOGGER.warn("There are indexes with null values in the database {}", indexesWithNullValues);
@@ -218,10 +402,11 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                    @Nonnull final Exclusions exclusions,
                                    @Nonnull final PgContext pgContext) {
         final List<IndexWithBloat> rawIndexesWithBloat = databaseHealth.getIndexesWithBloat(pgContext);
-        final List<IndexWithBloat> filteredIndexesWithBloat = applyIndexSizeExclusions(
-                rawIndexesWithBloat, exclusions.getIndexSizeThresholdInBytes());
-        final List<IndexWithBloat> indexesWithBloat = applyBloatExclusions(filteredIndexesWithBloat,
-                exclusions.getIndexBloatSizeThresholdInBytes(), exclusions.getIndexBloatPercentageThreshold());
+        final long sizeThreshold = exclusions.getIndexSizeThresholdInBytes();
+        final long bloatSizeThreshold = exclusions.getIndexBloatSizeThresholdInBytes();
+        final int bloatPercentageThreshold = exclusions.getIndexBloatPercentageThreshold();
+        final List<IndexWithBloat> indexesWithBloat = applyFilter(rawIndexesWithBloat,
+                i -> i.getIndexSizeInBytes() >= sizeThreshold && hasBloat(i, bloatSizeThreshold, bloatPercentageThreshold));
         final LoggingKey key = SimpleLoggingKey.INDEXES_BLOAT;
         if (CollectionUtils.isNotEmpty(indexesWithBloat)) {
             LOGGER.warn("There are indexes with bloat in the database {}", indexesWithBloat);
@@ -235,10 +420,11 @@ public abstract class AbstractHealthLogger implements HealthLogger {
                                   @Nonnull final Exclusions exclusions,
                                   @Nonnull final PgContext pgContext) {
         final List<TableWithBloat> rawTablesWithBloat = databaseHealth.getTablesWithBloat(pgContext);
-        final List<TableWithBloat> filteredTablesWithBloat = applyTableSizeExclusions(
-                rawTablesWithBloat, exclusions.getTableSizeThresholdInBytes());
-        final List<TableWithBloat> tablesWithBloat = applyBloatExclusions(filteredTablesWithBloat,
-                exclusions.getTableBloatSizeThresholdInBytes(), exclusions.getTableBloatPercentageThreshold());
+        final long sizeThreshold = exclusions.getTableSizeThresholdInBytes();
+        final long bloatSizeThreshold = exclusions.getTableBloatSizeThresholdInBytes();
+        final int bloatPercentageThreshold = exclusions.getTableBloatPercentageThreshold();
+        final List<TableWithBloat> tablesWithBloat = applyFilter(rawTablesWithBloat,
+                t -> t.getTableSizeInBytes() >= sizeThreshold && hasBloat(t, bloatSizeThreshold, bloatPercentageThreshold));
         final LoggingKey key = SimpleLoggingKey.TABLES_BLOAT;
         if (CollectionUtils.isNotEmpty(tablesWithBloat)) {
             LOGGER.warn("There are tables with bloat in the database {}", tablesWithBloat);
@@ -247,80 +433,29 @@ public abstract class AbstractHealthLogger implements HealthLogger {
         return writeZeroToLog(key);
     }
 
+    /**
+     * Filters records in a single pass.
+     * The raw list is returned as is when no record is filtered out.
+     */
     @Nonnull
-    private List<DuplicatedIndexes> applyExclusions(@Nonnull final List<DuplicatedIndexes> rawIndexes,
-                                                    @Nonnull final Set<String> indexesExclusions) {
-        if (CollectionUtils.isEmpty(rawIndexes) ||
-                CollectionUtils.isEmpty(indexesExclusions)) {
-            return rawIndexes;
-        }
-
-        return rawIndexes.stream()
-                .filter(i -> i.getIndexNames().stream()
-                        .map(String::toLowerCase)
-                        .noneMatch(indexesExclusions::contains))
-                .collect(Collectors.toList());
-    }
-
-    @Nonnull
-    private static <T extends IndexNameAware> List<T> applyIndexesExclusions(@Nonnull final List<T> rawRecords,
-                                                                             @Nonnull final Set<String> exclusions) {
-        if (CollectionUtils.isEmpty(rawRecords) || CollectionUtils.isEmpty(exclusions)) {
-            return rawRecords;
-        }
-
-        return rawRecords.stream()
-                .filter(i -> !exclusions.contains(i.getIndexName().toLowerCase()))
-                .collect(Collectors.toList());
-    }
-
-    @Nonnull
-    private static <T extends IndexSizeAware> List<T> applyIndexSizeExclusions(@Nonnull final List<T> rawRecords,
-                                                                               final long threshold) {
-        if (CollectionUtils.isEmpty(rawRecords) || threshold <= 0L) {
-            return rawRecords;
-        }
-
-        return rawRecords.stream()
-                .filter(i -> i.getIndexSizeInBytes() >= threshold)
-                .collect(Collectors.toList());
-    }
-
-    @Nonnull
-    private static <T extends TableNameAware> List<T> applyTablesExclusions(@Nonnull final List<T> rawRecords,
-                                                                            @Nonnull final Set<String> exclusions) {
-        if (CollectionUtils.isEmpty(rawRecords) || CollectionUtils.isEmpty(exclusions)) {
-            return rawRecords;
-        }
-
-        return rawRecords.stream()
-                .filter(t -> !exclusions.contains(t.getTableName().toLowerCase()))
-                .collect(Collectors.toList());
-    }
-
-    @Nonnull
-    private static <T extends TableSizeAware> List<T> applyTableSizeExclusions(@Nonnull final List<T> rawRecords,
-                                                                               final long threshold) {
-        if (CollectionUtils.isEmpty(rawRecords) || threshold <= 0L) {
-            return rawRecords;
+    private static <T> List<T> applyFilter(@Nonnull final List<T> rawRecords,
+                                           @Nonnull final Predicate<? super T> shouldBeKept) {
+        List<T> result = null;
+        int index = 0;
+        for (T record : rawRecords) {
+            if (shouldBeKept.test(record)) {
+                if (result != null) {
+                    result.add(record);
+                }
+            } else if (result == null) {
+                result = new ArrayList<>(rawRecords.subList(0, index));
+            }
+            ++index;
         }
-
-        return rawRecords.stream()
-                .filter(i -> i.getTableSizeInBytes() >= threshold)
-                .collect(Collectors.toList());
+        return result == null ? rawRecords : result;
     }
 
-    @Nonnull
-    private static <T extends BloatAware> List<T> applyBloatExclusions(@Nonnull final List<T> rawRecords,
-                                                                       final long sizeThreshold,
-                                                                       final int percentageThreshold) {
-        if (CollectionUtils.isEmpty(rawRecords) || (sizeThreshold <= 0L && percentageThreshold <= 0)) {
-            return rawRecords;
-        }
-
-        return rawRecords.stream()
-                .filter(r -> r.getBloatSizeInBytes() >= sizeThreshold)
-                .filter(r -> r.getBloatPercentage() >= percentageThreshold)
-                .collect(Collectors.toList());
+    private static boolean hasBloat(@Nonnull final BloatAware record, final long sizeThreshold, final int percentageThreshold) {
+        return record.getBloatSizeInBytes() >= sizeThreshold && record.getBloatPercentage() >= percentageThreshold;
     }
 }
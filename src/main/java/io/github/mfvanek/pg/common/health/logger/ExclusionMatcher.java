@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health.logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A matcher of object names against a set of exclusions that is compiled once.
+ * <p>
+ * Supported kinds of exclusions:
+ * <ul>
+ *     <li>exact name, for example {@code "idx_name"} or schema-qualified {@code "custom.idx_name"};</li>
+ *     <li>prefix, for example {@code "tmp_%"};</li>
+ *     <li>suffix, for example {@code "%_old"};</li>
+ *     <li>regular expression starting with {@value #REGEX_MARKER}, for example {@code "~.+_p\\d+"};
+ *     any other pattern with {@value #WILDCARD} is converted to a regular expression as well.</li>
+ * </ul>
+ * Matching is case-insensitive and always against the full (possibly schema-qualified) name.
+ * Exact names are kept in a case-folded hash table, prefixes and suffixes in tries,
+ * and all regular expressions are combined into a single pattern, so only a regular expression check allocates
+ * a short-lived matcher.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see Exclusions
+ */
+@ThreadSafe
+final class ExclusionMatcher {
+
+    static final char WILDCARD = '%';
+    static final char REGEX_MARKER = '~';
+
+    private static final ExclusionMatcher EMPTY = new ExclusionMatcher(Collections.emptyList());
+
+    private final List<String> exactNameList;
+    private final NameSet exactNames;
+    private final CharTrie prefixes;
+    private final CharTrie suffixes;
+    private final Pattern regex;
+    private final boolean empty;
+
+    private ExclusionMatcher(@Nonnull final Collection<String> exclusions) {
+        final List<String> names = new ArrayList<>();
+        final List<String> regexes = new ArrayList<>();
+        this.prefixes = new CharTrie();
+        this.suffixes = new CharTrie();
+        for (String exclusion : exclusions) {
+            final int wildcards = countWildcards(exclusion);
+            if (exclusion.charAt(0) == REGEX_MARKER) {
+                regexes.add(exclusion.substring(1));
+            } else if (wildcards == 0) {
+                names.add(exclusion);
+            } else if (wildcards == 1 && exclusion.charAt(exclusion.length() - 1) == WILDCARD) {
+                prefixes.add(exclusion, 0, exclusion.length() - 1);
+            } else if (wildcards == 1 && exclusion.charAt(0) == WILDCARD) {
+                suffixes.addReversed(exclusion, 1, exclusion.length());
+            } else {
+                regexes.add(wildcardsToRegex(exclusion));
+            }
+        }
+        this.exactNameList = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(names)));
+        this.exactNames = new NameSet(names);
+        this.regex = regexes.isEmpty() ? null : Pattern.compile(regexes.stream()
+                .map(r -> "(?:" + r + ')')
+                .collect(Collectors.joining("|")), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        this.empty = exclusions.isEmpty();
+    }
+
+    /**
+     * Determines whether there are no exclusions.
+     *
+     * @return {@code true} if this matcher doesn't match any name
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Gets exclusions without wildcards and regular expressions.
+     * These exclusions can be checked on the database side.
+     *
+     * @return exact names in lower case
+     */
+    @Nonnull
+    List<String> getExactNames() {
+        return exactNameList;
+    }
+
+    /**
+     * Determines whether the given name matches any exclusion.
+     *
+     * @param name name of table or index, possibly schema-qualified
+     * @return {@code true} if the name should be excluded
+     */
+    boolean matches(@Nonnull final String name) {
+        if (empty) {
+            return false;
+        }
+        return exactNames.contains(name) ||
+                prefixes.isPrefixOf(name) ||
+                suffixes.isSuffixOf(name) ||
+                (regex != null && regex.matcher(name).matches());
+    }
+
+    /**
+     * Determines whether any of the given names matches any exclusion.
+     *
+     * @param names names of tables or indexes
+     * @return {@code true} if at least one name should be excluded
+     */
+    boolean matchesAny(@Nonnull final List<String> names) {
+        if (empty) {
+            return false;
+        }
+        for (int i = 0; i < names.size(); ++i) {
+            if (matches(names.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return ExclusionMatcher.class.getSimpleName() + '{' +
+                "exactNames=" + exactNames.size +
+                ", prefixes=" + prefixes.size +
+                ", suffixes=" + suffixes.size +
+                ", regex=" + regex +
+                '}';
+    }
+
+    private static int countWildcards(@Nonnull final String exclusion) {
+        int count = 0;
+        for (int i = 0; i < exclusion.length(); ++i) {
+            if (exclusion.charAt(i) == WILDCARD) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Nonnull
+    private static String wildcardsToRegex(@Nonnull final String exclusion) {
+        final StringBuilder result = new StringBuilder(exclusion.length() + 16);
+        int start = 0;
+        for (int i = exclusion.indexOf(WILDCARD); i >= 0; i = exclusion.indexOf(WILDCARD, start)) {
+            if (i > start) {
+                result.append(Pattern.quote(exclusion.substring(start, i)));
+            }
+            result.append(".*");
+            start = i + 1;
+        }
+        if (start < exclusion.length()) {
+            result.append(Pattern.quote(exclusion.substring(start)));
+        }
+        return result.toString();
+    }
+
+    private static char fold(final char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Compiles the given exclusions into a matcher.
+     *
+     * @param exclusions non-blank trimmed exclusions
+     * @return {@code ExclusionMatcher}
+     */
+    @Nonnull
+    static ExclusionMatcher compile(@Nonnull final Collection<String> exclusions) {
+        Objects.requireNonNull(exclusions, "exclusions");
+        if (exclusions.isEmpty()) {
+            return EMPTY;
+        }
+        return new ExclusionMatcher(exclusions);
+    }
+
+    /**
+     * An open addressing hash set of case-folded names.
+     */
+    private static final class NameSet {
+
+        private final String[] table;
+        private final int mask;
+        private final int size;
+
+        NameSet(@Nonnull final List<String> names) {
+            final int capacity = Integer.highestOneBit(Math.max(2, names.size() * 2 - 1)) << 1;
+            this.table = new String[capacity];
+            this.mask = capacity - 1;
+            int count = 0;
+            for (String name : names) {
+                final String folded = foldAll(name);
+                if (!contains(folded)) {
+                    int i = hash(folded) & mask;
+                    while (table[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = folded;
+                    ++count;
+                }
+            }
+            this.size = count;
+        }
+
+        boolean contains(@Nonnull final String name) {
+            for (int i = hash(name) & mask; table[i] != null; i = (i + 1) & mask) {
+                final String candidate = table[i];
+                if (candidate.equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int hash(@Nonnull final String name) {
+            int h = 0;
+            for (int i = 0; i < name.length(); ++i) {
+                h = 31 * h + fold(name.charAt(i));
+            }
+            return h ^ (h >>> 16);
+        }
+
+        @Nonnull
+        private static String foldAll(@Nonnull final String name) {
+            final char[] chars = name.toCharArray();
+            for (int i = 0; i < chars.length; ++i) {
+                chars[i] = fold(chars[i]);
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * A trie of case-folded characters with children kept in sorted arrays.
+     */
+    private static final class CharTrie {
+
+        private char[] keys = new char[0];
+        private CharTrie[] children = new CharTrie[0];
+        private boolean terminal;
+        private int size;
+
+        void add(@Nonnull final String value, final int from, final int to) {
+            CharTrie node = this;
+            for (int i = from; i < to; ++i) {
+                node = node.getOrAddChild(fold(value.charAt(i)));
+            }
+            markTerminal(node);
+        }
+
+        void addReversed(@Nonnull final String value, final int from, final int to) {
+            CharTrie node = this;
+            for (int i = to - 1; i >= from; --i) {
+                node = node.getOrAddChild(fold(value.charAt(i)));
+            }
+            markTerminal(node);
+        }
+
+        boolean isPrefixOf(@Nonnull final String name) {
+            if (size == 0) {
+                return false;
+            }
+            CharTrie node = this;
+            for (int i = 0; !node.terminal; ++i) {
+                if (i == name.length()) {
+                    return false;
+                }
+                node = node.getChild(fold(name.charAt(i)));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isSuffixOf(@Nonnull final String name) {
+            if (size == 0) {
+                return false;
+            }
+            CharTrie node = this;
+            for (int i = name.length() - 1; !node.terminal; --i) {
+                if (i < 0) {
+                    return false;
+                }
+                node = node.getChild(fold(name.charAt(i)));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void markTerminal(@Nonnull final CharTrie node) {
+            if (!node.terminal) {
+                node.terminal = true;
+                ++size;
+            }
+        }
+
+        @Nullable
+        private CharTrie getChild(final char key) {
+            final int position = Arrays.binarySearch(keys, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        @Nonnull
+        private CharTrie getOrAddChild(final char key) {
+            final int position = Arrays.binarySearch(keys, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            final int insertionPoint = -position - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final CharTrie[] newChildren = new CharTrie[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+            System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+            System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+            System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1, children.length - insertionPoint);
+            final CharTrie child = new CharTrie();
+            newKeys[insertionPoint] = key;
+            newChildren[insertionPoint] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
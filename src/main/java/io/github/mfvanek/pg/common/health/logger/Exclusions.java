@@ -14,12 +14,18 @@ import io.github.mfvanek.pg.utils.Validators;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nonnull;
 
 /**
  * A listing of exclusions for {@link HealthLogger}.
+ * <p>
+ * Besides exact names, exclusions can be prefixes ({@code "tmp_%"}), suffixes ({@code "%_old"})
+ * and regular expressions ({@code "~.+_p\\d+"}). All exclusions are compiled into an {@link ExclusionMatcher}
+ * once on creation.
+ * </p>
  *
  * @author Ivan Vakhrushev
  * @see HealthLogger
@@ -33,6 +39,12 @@ public class Exclusions {
     private final Set<String> tablesWithMissingIndexesExclusions;
     private final Set<String> tablesWithoutPrimaryKeyExclusions;
     private final Set<String> indexesWithNullValuesExclusions;
+    private final ExclusionMatcher duplicatedIndexesMatcher;
+    private final ExclusionMatcher intersectedIndexesMatcher;
+    private final ExclusionMatcher unusedIndexesMatcher;
+    private final ExclusionMatcher tablesWithMissingIndexesMatcher;
+    private final ExclusionMatcher tablesWithoutPrimaryKeyMatcher;
+    private final ExclusionMatcher indexesWithNullValuesMatcher;
     private final long indexSizeThresholdInBytes;
     private final long tableSizeThresholdInBytes;
     private final long indexBloatSizeThresholdInBytes;
@@ -58,6 +70,12 @@ public class Exclusions {
         this.tablesWithMissingIndexesExclusions = prepareExclusions(tablesWithMissingIndexesExclusions);
         this.tablesWithoutPrimaryKeyExclusions = prepareExclusions(tablesWithoutPrimaryKeyExclusions);
         this.indexesWithNullValuesExclusions = prepareExclusions(indexesWithNullValuesExclusions);
+        this.duplicatedIndexesMatcher = ExclusionMatcher.compile(this.duplicatedIndexesExclusions);
+        this.intersectedIndexesMatcher = ExclusionMatcher.compile(this.intersectedIndexesExclusions);
+        this.unusedIndexesMatcher = ExclusionMatcher.compile(this.unusedIndexesExclusions);
+        this.tablesWithMissingIndexesMatcher = ExclusionMatcher.compile(this.tablesWithMissingIndexesExclusions);
+        this.tablesWithoutPrimaryKeyMatcher = ExclusionMatcher.compile(this.tablesWithoutPrimaryKeyExclusions);
+        this.indexesWithNullValuesMatcher = ExclusionMatcher.compile(this.indexesWithNullValuesExclusions);
         this.indexSizeThresholdInBytes = Validators.sizeNotNegative(
                 indexSizeThresholdInBytes, "indexSizeThresholdInBytes");
         this.tableSizeThresholdInBytes = Validators.sizeNotNegative(
@@ -76,10 +94,12 @@ public class Exclusions {
         Objects.requireNonNull(rawExclusions);
         final Set<String> exclusions = new HashSet<>();
         if (StringUtils.isNotBlank(rawExclusions)) {
-            final String[] tables = rawExclusions.toLowerCase().split(",");
+            final String[] tables = rawExclusions.split(",");
             for (String tableName : tables) {
                 if (StringUtils.isNotBlank(tableName)) {
-                    exclusions.add(tableName.trim());
+                    final String exclusion = tableName.trim();
+                    // regular expressions are matched case-insensitively and must not be lowercased (e.g. \D)
+                    exclusions.add(exclusion.charAt(0) == ExclusionMatcher.REGEX_MARKER ? exclusion : exclusion.toLowerCase(Locale.ROOT));
                 }
             }
         }
@@ -116,6 +136,36 @@ public class Exclusions {
         return indexesWithNullValuesExclusions;
     }
 
+    @Nonnull
+    ExclusionMatcher getDuplicatedIndexesMatcher() {
+        return duplicatedIndexesMatcher;
+    }
+
+    @Nonnull
+    ExclusionMatcher getIntersectedIndexesMatcher() {
+        return intersectedIndexesMatcher;
+    }
+
+    @Nonnull
+    ExclusionMatcher getUnusedIndexesMatcher() {
+        return unusedIndexesMatcher;
+    }
+
+    @Nonnull
+    ExclusionMatcher getTablesWithMissingIndexesMatcher() {
+        return tablesWithMissingIndexesMatcher;
+    }
+
+    @Nonnull
+    ExclusionMatcher getTablesWithoutPrimaryKeyMatcher() {
+        return tablesWithoutPrimaryKeyMatcher;
+    }
+
+    @Nonnull
+    ExclusionMatcher getIndexesWithNullValuesMatcher() {
+        return indexesWithNullValuesMatcher;
+    }
+
     long getIndexSizeThresholdInBytes() {
         return indexSizeThresholdInBytes;
     }
@@ -12,6 +12,7 @@ package io.github.mfvanek.pg.common.health.logger;
 
 import io.github.mfvanek.pg.common.health.DatabaseHealthFactory;
 import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,15 +50,43 @@ public class KeyValueFileHealthLogger extends AbstractHealthLogger {
         super(credentials, connectionFactory, databaseHealthFactory);
     }
 
+    public KeyValueFileHealthLogger(@Nonnull final ConnectionCredentials credentials,
+                                    @Nonnull final HighAvailabilityPgConnectionFactory connectionFactory,
+                                    @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                    final int parallelism) {
+        super(credentials, connectionFactory, databaseHealthFactory, parallelism);
+    }
+
+    public KeyValueFileHealthLogger(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                    @Nonnull final DatabaseHealthFactory databaseHealthFactory) {
+        this(haPgConnection, databaseHealthFactory, 1);
+    }
+
+    public KeyValueFileHealthLogger(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                    @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                    final int parallelism) {
+        super(haPgConnection, databaseHealthFactory, parallelism);
+    }
+
     @Override
     protected String writeToLog(@Nonnull final LoggingKey key, final int value) {
+        return writeValueToLog(key, String.valueOf(value));
+    }
+
+    @Override
+    protected String writeTimeoutToLog(@Nonnull final LoggingKey key) {
+        return writeValueToLog(key, "timeout");
+    }
+
+    @Nonnull
+    private String writeValueToLog(@Nonnull final LoggingKey key, @Nonnull final String value) {
         final String result = format(key.getKeyName(), key.getSubKeyName(), value);
         KV_LOG.info(result);
         return result;
     }
 
     @Nonnull
-    private String format(@Nonnull final String keyName, @Nonnull final String subKeyName, final int value) {
+    private String format(@Nonnull final String keyName, @Nonnull final String subKeyName, @Nonnull final String value) {
         return DateTimeFormatter.ISO_INSTANT.format(
                 ZonedDateTime.now()) + "\t" + keyName + "\t" + subKeyName + "\t" + value;
     }
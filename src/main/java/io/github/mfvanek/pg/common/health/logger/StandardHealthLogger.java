@@ -12,6 +12,7 @@ package io.github.mfvanek.pg.common.health.logger;
 
 import io.github.mfvanek.pg.common.health.DatabaseHealthFactory;
 import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
 
 import javax.annotation.Nonnull;
@@ -29,8 +30,31 @@ public class StandardHealthLogger extends AbstractHealthLogger {
         super(credentials, connectionFactory, databaseHealthFactory);
     }
 
+    public StandardHealthLogger(@Nonnull final ConnectionCredentials credentials,
+                                @Nonnull final HighAvailabilityPgConnectionFactory connectionFactory,
+                                @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                final int parallelism) {
+        super(credentials, connectionFactory, databaseHealthFactory, parallelism);
+    }
+
+    public StandardHealthLogger(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                @Nonnull final DatabaseHealthFactory databaseHealthFactory) {
+        this(haPgConnection, databaseHealthFactory, 1);
+    }
+
+    public StandardHealthLogger(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                @Nonnull final DatabaseHealthFactory databaseHealthFactory,
+                                final int parallelism) {
+        super(haPgConnection, databaseHealthFactory, parallelism);
+    }
+
     @Override
     protected String writeToLog(@Nonnull final LoggingKey key, final int value) {
         return key.getSubKeyName() + ":" + value;
     }
+
+    @Override
+    protected String writeTimeoutToLog(@Nonnull final LoggingKey key) {
+        return key.getSubKeyName() + ":timeout";
+    }
 }
@@ -10,17 +10,31 @@
 
 package io.github.mfvanek.pg.common.maintenance;
 
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
 import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgHost;
 import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.utils.FilteredQuery;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import io.github.mfvanek.pg.utils.QueryExecutor;
 import io.github.mfvanek.pg.utils.ResultSetExtractor;
-import io.github.mfvanek.pg.utils.SqlQueryReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Abstract helper class for implementing statistics collection on a specific host in the cluster.
@@ -30,13 +44,25 @@ import javax.annotation.Nonnull;
  */
 public abstract class AbstractMaintenance implements HostAware {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMaintenance.class);
+
     /**
      * A connection to a specific host in the cluster.
      */
     protected final PgConnection pgConnection;
 
+    private final ExecutionOptions executionOptions;
+    private final Object rowMappersValidationLock = new Object();
+    private volatile boolean rowMappersValidated;
+
     protected AbstractMaintenance(@Nonnull final PgConnection pgConnection) {
+        this(pgConnection, ExecutionOptions.defaults());
+    }
+
+    protected AbstractMaintenance(@Nonnull final PgConnection pgConnection,
+                                  @Nonnull final ExecutionOptions executionOptions) {
         this.pgConnection = Objects.requireNonNull(pgConnection, "pgConnection");
+        this.executionOptions = Objects.requireNonNull(executionOptions, "executionOptions");
     }
 
     /**
@@ -51,14 +77,302 @@ public abstract class AbstractMaintenance implements HostAware {
     protected <T> List<T> executeQuery(@Nonnull final Diagnostics diagnostics,
                                        @Nonnull final PgContext pgContext,
                                        @Nonnull final ResultSetExtractor<T> rse) {
-        final String sqlQuery = SqlQueryReader.getQueryFromFile(diagnostics.getSqlQueryFileName());
-        return QueryExecutor.executeQueryWithSchema(pgConnection, pgContext, sqlQuery, rse);
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final Duration queryTimeout = executionOptions.getQueryTimeout(diagnostics);
+        final FilteredQuery filteredQuery = findFilteredQuery(diagnostics, pgContext, sqlQuery);
+        if (filteredQuery != null) {
+            return measure(diagnostics, pgContext.getSchemaName(), List::size, () ->
+                    QueryExecutor.executeQueryWithParams(pgConnection, pgContext, filteredQuery.getSqlQuery(), pooled(rse, pgContext), queryTimeout,
+                            filteredQuery.getParams(pgContext.getSchemaName())));
+        }
+        return measure(diagnostics, pgContext.getSchemaName(), List::size, () ->
+                QueryExecutor.executeQueryWithSchema(pgConnection, pgContext, sqlQuery, pooled(rse, pgContext), queryTimeout));
     }
 
     protected <T> List<T> executeQueryWithBloatThreshold(@Nonnull final Diagnostics diagnostics,
                                                          @Nonnull final PgContext pgContext,
                                                          @Nonnull final ResultSetExtractor<T> rse) {
-        final String sqlQuery = SqlQueryReader.getQueryFromFile(diagnostics.getSqlQueryFileName());
-        return QueryExecutor.executeQueryWithBloatThreshold(pgConnection, pgContext, sqlQuery, rse);
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final Duration queryTimeout = executionOptions.getQueryTimeout(diagnostics);
+        final FilteredQuery filteredQuery = findFilteredQuery(diagnostics, pgContext, sqlQuery);
+        if (filteredQuery != null) {
+            return measure(diagnostics, pgContext.getSchemaName(), List::size, () ->
+                    QueryExecutor.executeQueryWithParams(pgConnection, pgContext, filteredQuery.getSqlQuery(), pooled(rse, pgContext), queryTimeout,
+                            filteredQuery.getParams(pgContext.getSchemaName(), pgContext.getBloatPercentageThreshold())));
+        }
+        return measure(diagnostics, pgContext.getSchemaName(), List::size, () ->
+                QueryExecutor.executeQueryWithBloatThreshold(pgConnection, pgContext, sqlQuery, pooled(rse, pgContext), queryTimeout));
+    }
+
+    /**
+     * Executes the query with bloat threshold and pushes mapped rows to the consumer instead of collecting them into a list.
+     * <p>
+     * Useful for row mappers that write each row directly into a columnar result builder.
+     * </p>
+     *
+     * @param diagnostics diagnostic to execute
+     * @param pgContext   context with schema name and bloat threshold
+     * @param rse         row mapper
+     * @param rowConsumer consumer of mapped rows
+     * @param <T>         type of row
+     * @return total number of processed rows
+     */
+    protected <T> long executeQueryWithBloatThreshold(@Nonnull final Diagnostics diagnostics,
+                                                      @Nonnull final PgContext pgContext,
+                                                      @Nonnull final ResultSetExtractor<T> rse,
+                                                      @Nonnull final Consumer<? super T> rowConsumer) {
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final Duration queryTimeout = executionOptions.getQueryTimeout(diagnostics);
+        final FilteredQuery filteredQuery = findFilteredQuery(diagnostics, pgContext, sqlQuery);
+        if (filteredQuery != null) {
+            return measure(diagnostics, pgContext.getSchemaName(), Math::toIntExact, () ->
+                    QueryExecutor.executeQueryWithParams(pgConnection, pgContext, filteredQuery.getSqlQuery(), pooled(rse, pgContext), queryTimeout,
+                            filteredQuery.getParams(pgContext.getSchemaName(), pgContext.getBloatPercentageThreshold()), rowConsumer));
+        }
+        return measure(diagnostics, pgContext.getSchemaName(), Math::toIntExact, () ->
+                QueryExecutor.executeQueryWithBloatThreshold(pgConnection, pgContext, sqlQuery, pooled(rse, pgContext), queryTimeout, rowConsumer));
+    }
+
+    /**
+     * Adds the query to the batch instead of executing it immediately.
+     * <p>
+     * The query execution listener is notified once the batch has been executed:
+     * the event carries the latency of the whole batch and the number of rows of this query.
+     * </p>
+     *
+     * @param batch       batch to add the query to
+     * @param diagnostics diagnostic to execute
+     * @param pgContext   context with schema name
+     * @param rse         row mapper
+     * @param <T>         type of row
+     * @return supplier of rows; can be used only after the batch has been executed
+     * @see QueryBatch#addQueryWithSchema
+     */
+    @Nonnull
+    protected <T> Supplier<List<T>> addQueryToBatch(@Nonnull final QueryBatch batch,
+                                                    @Nonnull final Diagnostics diagnostics,
+                                                    @Nonnull final PgContext pgContext,
+                                                    @Nonnull final ResultSetExtractor<T> rse) {
+        Objects.requireNonNull(batch, "batch");
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final FilteredQuery filteredQuery = findFilteredQuery(diagnostics, pgContext, sqlQuery);
+        if (filteredQuery != null) {
+            return measureInBatch(batch, diagnostics, pgContext, batch.addQueryWithParams(filteredQuery.getSqlQuery(), pooled(rse, pgContext),
+                    executionOptions.getQueryTimeout(diagnostics), filteredQuery.getParams(pgContext.getSchemaName())));
+        }
+        return measureInBatch(batch, diagnostics, pgContext,
+                batch.addQueryWithSchema(sqlQuery, pgContext, pooled(rse, pgContext), executionOptions.getQueryTimeout(diagnostics)));
+    }
+
+    /**
+     * Adds the query with bloat threshold to the batch instead of executing it immediately.
+     * The query execution listener is notified in the same way as for {@link #addQueryToBatch}.
+     *
+     * @param batch       batch to add the query to
+     * @param diagnostics diagnostic to execute
+     * @param pgContext   context with schema name and bloat threshold
+     * @param rse         row mapper
+     * @param <T>         type of row
+     * @return supplier of rows; can be used only after the batch has been executed
+     * @see QueryBatch#addQueryWithBloatThreshold
+     */
+    @Nonnull
+    protected <T> Supplier<List<T>> addQueryWithBloatThresholdToBatch(@Nonnull final QueryBatch batch,
+                                                                      @Nonnull final Diagnostics diagnostics,
+                                                                      @Nonnull final PgContext pgContext,
+                                                                      @Nonnull final ResultSetExtractor<T> rse) {
+        Objects.requireNonNull(batch, "batch");
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final FilteredQuery filteredQuery = findFilteredQuery(diagnostics, pgContext, sqlQuery);
+        if (filteredQuery != null) {
+            return measureInBatch(batch, diagnostics, pgContext, batch.addQueryWithParams(filteredQuery.getSqlQuery(), pooled(rse, pgContext),
+                    executionOptions.getQueryTimeout(diagnostics), filteredQuery.getParams(pgContext.getSchemaName(), pgContext.getBloatPercentageThreshold())));
+        }
+        return measureInBatch(batch, diagnostics, pgContext,
+                batch.addQueryWithBloatThreshold(sqlQuery, pgContext, pooled(rse, pgContext), executionOptions.getQueryTimeout(diagnostics)));
+    }
+
+    /**
+     * Executes the query for all given schemas in a single round trip.
+     *
+     * @param diagnostics diagnostic to execute
+     * @param pgContexts  contexts with unique schema names
+     * @param rse         row mapper
+     * @param <T>         type of row
+     * @return rows for each given context
+     * @throws IllegalArgumentException if any of the contexts has a row filter for given diagnostic
+     * @see QueryExecutor#executeQueryWithSchemas
+     */
+    @Nonnull
+    protected <T> Map<PgContext, List<T>> executeQueryForSchemas(@Nonnull final Diagnostics diagnostics,
+                                                                 @Nonnull final Collection<PgContext> pgContexts,
+                                                                 @Nonnull final ResultSetExtractor<T> rse) {
+        checkWithoutRowFilters(diagnostics, pgContexts);
+        if (pgContexts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final ResultSetExtractor<T> pooledRse = pooled(rse, pgContexts.iterator().next());
+        return measure(diagnostics, joinSchemaNames(pgContexts), AbstractMaintenance::countRows, () ->
+                QueryExecutor.executeQueryWithSchemas(pgConnection, pgContexts, sqlQuery, pooledRse, executionOptions.getQueryTimeout(diagnostics)));
+    }
+
+    /**
+     * Executes the query with bloat thresholds for all given schemas in a single round trip.
+     *
+     * @param diagnostics diagnostic to execute
+     * @param pgContexts  contexts with unique schema names
+     * @param rse         row mapper
+     * @param <T>         type of row
+     * @return rows for each given context
+     * @throws IllegalArgumentException if any of the contexts has a row filter for given diagnostic
+     * @see QueryExecutor#executeQueryWithBloatThresholds
+     */
+    @Nonnull
+    protected <T> Map<PgContext, List<T>> executeQueryWithBloatThresholdForSchemas(@Nonnull final Diagnostics diagnostics,
+                                                                                   @Nonnull final Collection<PgContext> pgContexts,
+                                                                                   @Nonnull final ResultSetExtractor<T> rse) {
+        checkWithoutRowFilters(diagnostics, pgContexts);
+        if (pgContexts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final String sqlQuery = getSqlQuery(diagnostics);
+        final ResultSetExtractor<T> pooledRse = pooled(rse, pgContexts.iterator().next());
+        return measure(diagnostics, joinSchemaNames(pgContexts), AbstractMaintenance::countRows, () ->
+                QueryExecutor.executeQueryWithBloatThresholds(pgConnection, pgContexts, sqlQuery, pooledRse, executionOptions.getQueryTimeout(diagnostics)));
+    }
+
+    /**
+     * Gets sql query for given diagnostic taking into account {@link ExecutionOptions#isStructuredResultsEnabled()}.
+     * <p>
+     * On the first call row mappers are validated against the host (see {@link ExecutionOptions#isRowMappersValidationEnabled()}).
+     * </p>
+     *
+     * @param diagnostics diagnostic
+     * @return sql query
+     * @throws IllegalStateException if any query does not return a column required by its row mapper
+     */
+    @Nonnull
+    protected String getSqlQuery(@Nonnull final Diagnostics diagnostics) {
+        validateRowMappersOnce();
+        if (executionOptions.isStructuredResultsEnabled()) {
+            return StructuredDiagnosticsQueries.find(diagnostics)
+                    .orElseGet(() -> DiagnosticsQueries.get(diagnostics));
+        }
+        return DiagnosticsQueries.get(diagnostics);
+    }
+
+    private void validateRowMappersOnce() {
+        if (rowMappersValidated || !executionOptions.isRowMappersValidationEnabled()) {
+            return;
+        }
+        synchronized (rowMappersValidationLock) {
+            if (!rowMappersValidated) {
+                DiagnosticsRowMappers.validate(pgConnection);
+                rowMappersValidated = true;
+            }
+        }
+    }
+
+    /**
+     * Wraps the query into a filtering one if the context has a non-empty {@link RowFilter} for given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @param pgContext   context with row filters
+     * @param sqlQuery    original query
+     * @return filtered query or {@code null} if there is nothing to filter
+     */
+    @Nullable
+    private static FilteredQuery findFilteredQuery(@Nonnull final Diagnostics diagnostics,
+                                                   @Nonnull final PgContext pgContext,
+                                                   @Nonnull final String sqlQuery) {
+        final RowFilter rowFilter = pgContext.getRowFilter(diagnostics);
+        if (!diagnostics.isRowFilterSupported() || rowFilter.isEmpty()) {
+            return null;
+        }
+        return FilteredQuery.of(sqlQuery, Objects.requireNonNull(diagnostics.getNameColumn()), Objects.requireNonNull(diagnostics.getSizeColumn()),
+                diagnostics.getOrderColumns(), rowFilter.getExcludedNames(), rowFilter.getSizeThresholdInBytes());
+    }
+
+    /**
+     * Row filters are not supported by queries for multiple schemas,
+     * so contexts with them are rejected instead of silently returning unfiltered rows.
+     */
+    private static void checkWithoutRowFilters(@Nonnull final Diagnostics diagnostics,
+                                               @Nonnull final Collection<PgContext> pgContexts) {
+        Objects.requireNonNull(pgContexts, "pgContexts");
+        for (PgContext pgContext : pgContexts) {
+            if (!pgContext.getRowFilter(diagnostics).isEmpty()) {
+                throw new IllegalArgumentException(String.format("Row filter for %s is not supported for multiple schemas: %s", diagnostics, pgContext));
+            }
+        }
+    }
+
+    /**
+     * Makes the extractor deduplicate names with the pool of the given context.
+     * For queries with multiple schemas the pool of the first context is used.
+     */
+    @Nonnull
+    private static <T> ResultSetExtractor<T> pooled(@Nonnull final ResultSetExtractor<T> rse,
+                                                    @Nonnull final PgContext pgContext) {
+        return rse.withNamePool(pgContext.getNamePool());
+    }
+
+    @Nonnull
+    private <R> R measure(@Nonnull final Diagnostics diagnostics,
+                          @Nonnull final String schemaName,
+                          @Nonnull final ToIntFunction<R> rowsCounter,
+                          @Nonnull final Supplier<R> query) {
+        final long startNanos = System.nanoTime();
+        try {
+            final R result = query.get();
+            notifyListener(QueryExecutionEvent.succeeded(diagnostics, getHost(), schemaName, elapsedSince(startNanos), rowsCounter.applyAsInt(result)));
+            return result;
+        } catch (RuntimeException e) {
+            notifyListener(QueryExecutionEvent.failed(diagnostics, getHost(), schemaName, elapsedSince(startNanos), e));
+            throw e;
+        }
+    }
+
+    @Nonnull
+    private <T> Supplier<List<T>> measureInBatch(@Nonnull final QueryBatch batch,
+                                                 @Nonnull final Diagnostics diagnostics,
+                                                 @Nonnull final PgContext pgContext,
+                                                 @Nonnull final Supplier<List<T>> rows) {
+        final String schemaName = pgContext.getSchemaName();
+        batch.whenExecuted((latency, failure) -> {
+            if (failure == null) {
+                notifyListener(QueryExecutionEvent.succeeded(diagnostics, getHost(), schemaName, latency, rows.get().size()));
+            } else {
+                notifyListener(QueryExecutionEvent.failed(diagnostics, getHost(), schemaName, latency, failure));
+            }
+        });
+        return rows;
+    }
+
+    private void notifyListener(@Nonnull final QueryExecutionEvent event) {
+        try {
+            executionOptions.getQueryExecutionListener().onQueryExecuted(event);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Query execution listener failed on {}", event, e);
+        }
+    }
+
+    @Nonnull
+    private static String joinSchemaNames(@Nonnull final Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .map(PgContext::getSchemaName)
+                .collect(Collectors.joining(","));
+    }
+
+    private static <T> int countRows(@Nonnull final Map<PgContext, List<T>> rowsBySchema) {
+        return rowsBySchema.values().stream()
+                .mapToInt(List::size)
+                .sum();
+    }
+
+    @Nonnull
+    private static Duration elapsedSince(final long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
     }
 }
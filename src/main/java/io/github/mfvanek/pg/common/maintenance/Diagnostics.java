@@ -10,8 +10,12 @@
 
 package io.github.mfvanek.pg.common.maintenance;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * A list of all supported diagnostics with corresponding sql queries.
@@ -20,25 +24,82 @@ import javax.annotation.Nonnull;
  */
 public enum Diagnostics {
 
-    BLOATED_INDEXES("bloated_indexes.sql"),
-    BLOATED_TABLES("bloated_tables.sql"),
+    BLOATED_INDEXES("bloated_indexes.sql", "index_name", "index_size", "table_name", "index_name"),
+    BLOATED_TABLES("bloated_tables.sql", "table_name", "table_size", "table_name"),
     DUPLICATED_INDEXES("duplicated_indexes.sql"),
     FOREIGN_KEYS_WITHOUT_INDEX("foreign_keys_without_index.sql"),
-    INDEXES_WITH_NULL_VALUES("indexes_with_null_values.sql"),
+    INDEXES_WITH_NULL_VALUES("indexes_with_null_values.sql", "index_name", "index_size", "table_name", "index_name"),
     INTERSECTED_INDEXES("intersected_indexes.sql"),
     INVALID_INDEXES("invalid_indexes.sql"),
-    TABLES_WITH_MISSING_INDEXES("tables_with_missing_indexes.sql"),
-    TABLES_WITHOUT_PRIMARY_KEY("tables_without_primary_key.sql"),
-    UNUSED_INDEXES("unused_indexes.sql");
+    TABLES_WITH_MISSING_INDEXES("tables_with_missing_indexes.sql", "table_name", "table_size", "table_name"),
+    TABLES_WITHOUT_PRIMARY_KEY("tables_without_primary_key.sql", "table_name", "table_size", "table_name"),
+    UNUSED_INDEXES("unused_indexes.sql", "index_name", "index_size", "table_name", "index_name");
 
     private final String sqlQueryFileName;
+    private final String nameColumn;
+    private final String sizeColumn;
+    private final List<String> orderColumns;
 
     Diagnostics(@Nonnull final String sqlQueryFileName) {
         this.sqlQueryFileName = Objects.requireNonNull(sqlQueryFileName, "sqlQueryFileName");
+        this.nameColumn = null;
+        this.sizeColumn = null;
+        this.orderColumns = Collections.emptyList();
+    }
+
+    Diagnostics(@Nonnull final String sqlQueryFileName,
+                @Nonnull final String nameColumn,
+                @Nonnull final String sizeColumn,
+                @Nonnull final String... orderColumns) {
+        this.sqlQueryFileName = Objects.requireNonNull(sqlQueryFileName, "sqlQueryFileName");
+        this.nameColumn = Objects.requireNonNull(nameColumn, "nameColumn");
+        this.sizeColumn = Objects.requireNonNull(sizeColumn, "sizeColumn");
+        this.orderColumns = Collections.unmodifiableList(Arrays.asList(orderColumns));
     }
 
     @Nonnull
     public String getSqlQueryFileName() {
         return sqlQueryFileName;
     }
+
+    /**
+     * Determines whether rows of this diagnostic can be filtered on the database side
+     * by object name and size (see {@link io.github.mfvanek.pg.model.RowFilter}).
+     *
+     * @return {@code true} if the result has one object name column and one object size column
+     */
+    public boolean isRowFilterSupported() {
+        return nameColumn != null;
+    }
+
+    /**
+     * Gets name of the column with the name of the diagnosed object (table or index).
+     *
+     * @return column name or {@code null} if row filtering is not supported
+     */
+    @Nullable
+    public String getNameColumn() {
+        return nameColumn;
+    }
+
+    /**
+     * Gets name of the column with the size of the diagnosed object (table or index) in bytes.
+     *
+     * @return column name or {@code null} if row filtering is not supported
+     */
+    @Nullable
+    public String getSizeColumn() {
+        return sizeColumn;
+    }
+
+    /**
+     * Gets names of the columns that rows of the diagnostic are ordered by.
+     * The same order is applied to the rows filtered on the database side.
+     *
+     * @return column names; empty if row filtering is not supported
+     */
+    @Nonnull
+    public List<String> getOrderColumns() {
+        return orderColumns;
+    }
 }
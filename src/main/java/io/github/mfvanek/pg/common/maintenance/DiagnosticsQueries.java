@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.utils.SqlQueryReader;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An immutable registry of parsed sql queries for all supported {@link Diagnostics}.
+ * <p>
+ * Queries are read from the classpath only once (on first access or on {@link #preload()})
+ * so subsequent lookups don't touch any resources.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see Diagnostics
+ * @see SqlQueryReader
+ */
+@ThreadSafe
+public final class DiagnosticsQueries {
+
+    private static volatile Map<Diagnostics, String> queries;
+
+    private DiagnosticsQueries() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets parsed sql query for given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @return sql query with named parameters replaced by placeholders
+     */
+    @Nonnull
+    public static String get(@Nonnull final Diagnostics diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        return getAll().get(diagnostics);
+    }
+
+    /**
+     * Loads queries for all diagnostics if they have not been loaded yet.
+     * Fails if any query is missing or empty.
+     */
+    public static void preload() {
+        getAll();
+    }
+
+    @Nonnull
+    private static Map<Diagnostics, String> getAll() {
+        Map<Diagnostics, String> result = queries;
+        if (result == null) {
+            synchronized (DiagnosticsQueries.class) {
+                result = queries;
+                if (result == null) {
+                    result = load(d -> SqlQueryReader.getQueryFromFile(d.getSqlQueryFileName()));
+                    queries = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Nonnull
+    static Map<Diagnostics, String> load(@Nonnull final Function<Diagnostics, String> queryReader) {
+        final Map<Diagnostics, String> loaded = new EnumMap<>(Diagnostics.class);
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            final String sqlQuery = queryReader.apply(diagnostics);
+            if (StringUtils.isBlank(sqlQuery)) {
+                throw new IllegalStateException("Sql query for " + diagnostics + " is empty");
+            }
+            loaded.put(diagnostics, sqlQuery);
+        }
+        return Collections.unmodifiableMap(loaded);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.utils.DuplicatedIndexesParser;
+import io.github.mfvanek.pg.utils.NamePool;
+import io.github.mfvanek.pg.utils.RowMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Row mappers for all supported {@link Diagnostics}.
+ * <p>
+ * Each mapper declares the columns it reads, so the whole set can be checked against the sql queries
+ * once per host before the first diagnostic is executed there (see {@link #validate(PgConnection)}
+ * and {@link ExecutionOptions#isRowMappersValidationEnabled()}) instead of failing on the first row at runtime.
+ * </p>
+ * <p>
+ * Mappers for duplicated indexes, intersected indexes and foreign keys without index read both
+ * string-encoded lists and sql arrays returned by the structured variants of the queries.
+ * The shape of the result is detected once per result set.
+ * </p>
+ * <p>
+ * Table and index names are passed through the {@link NamePool} of the mapper,
+ * so equal names share a single instance across all diagnostics of a run.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see RowMapper
+ * @see DiagnosticsQueries
+ */
+@ThreadSafe
+public final class DiagnosticsRowMappers {
+
+    public static final RowMapper<DuplicatedIndexes> DUPLICATED_INDEXES_AS_ARRAYS = RowMapper.ofPooled(
+            Arrays.asList("table_name", "index_names", "index_sizes"),
+            (rs, c, p) -> toDuplicatedIndexes(p.intern(rs.getString(c[0])), getArray(rs, c[1]), getArray(rs, c[2]), p));
+    public static final RowMapper<ForeignKey> FOREIGN_KEYS_WITHOUT_INDEX_AS_ARRAYS = RowMapper.ofPooled(
+            Arrays.asList("table_name", "constraint_name", "column_names"),
+            (rs, c, p) -> ForeignKey.of(p.intern(rs.getString(c[0])), rs.getString(c[1]), toStrings(getArray(rs, c[2]))));
+    public static final RowMapper<IndexWithBloat> BLOATED_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "index_name", "index_size", "bloat_size", "bloat_percentage"),
+            (rs, c, p) -> IndexWithBloat.of(p.intern(rs.getString(c[0])), p.intern(rs.getString(c[1])), rs.getLong(c[2]), rs.getLong(c[3]), rs.getInt(c[4])));
+    public static final RowMapper<TableWithBloat> BLOATED_TABLES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "table_size", "bloat_size", "bloat_percentage"),
+            (rs, c, p) -> TableWithBloat.of(p.intern(rs.getString(c[0])), rs.getLong(c[1]), rs.getLong(c[2]), rs.getInt(c[3])));
+    public static final RowMapper<DuplicatedIndexes> DUPLICATED_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "duplicated_indexes"),
+            (rs, c, p) -> parseDuplicatedIndexes(p.intern(rs.getString(c[0])), rs.getString(c[1]), p))
+            .orElse(DUPLICATED_INDEXES_AS_ARRAYS);
+    public static final RowMapper<ForeignKey> FOREIGN_KEYS_WITHOUT_INDEX = RowMapper.ofPooled(
+            Arrays.asList("table_name", "constraint_name", "columns"),
+            (rs, c, p) -> ForeignKey.of(p.intern(rs.getString(c[0])), rs.getString(c[1]), Arrays.asList(rs.getString(c[2]).split(", "))))
+            .orElse(FOREIGN_KEYS_WITHOUT_INDEX_AS_ARRAYS);
+    public static final RowMapper<IndexWithNulls> INDEXES_WITH_NULL_VALUES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "index_name", "index_size", "nullable_fields"),
+            (rs, c, p) -> IndexWithNulls.of(p.intern(rs.getString(c[0])), p.intern(rs.getString(c[1])), rs.getLong(c[2]), rs.getString(c[3])));
+    public static final RowMapper<DuplicatedIndexes> INTERSECTED_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "intersected_indexes"),
+            (rs, c, p) -> parseDuplicatedIndexes(p.intern(rs.getString(c[0])), rs.getString(c[1]), p))
+            .orElse(DUPLICATED_INDEXES_AS_ARRAYS);
+    public static final RowMapper<Index> INVALID_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "index_name"),
+            (rs, c, p) -> Index.of(p.intern(rs.getString(c[0])), p.intern(rs.getString(c[1]))));
+    public static final RowMapper<TableWithMissingIndex> TABLES_WITH_MISSING_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "table_size", "seq_scan", "idx_scan"),
+            (rs, c, p) -> TableWithMissingIndex.of(p.intern(rs.getString(c[0])), rs.getLong(c[1]), rs.getLong(c[2]), rs.getLong(c[3])));
+    public static final RowMapper<Table> TABLES_WITHOUT_PRIMARY_KEY = RowMapper.ofPooled(
+            Arrays.asList("table_name", "table_size"),
+            (rs, c, p) -> Table.of(p.intern(rs.getString(c[0])), rs.getLong(c[1])));
+    public static final RowMapper<UnusedIndex> UNUSED_INDEXES = RowMapper.ofPooled(
+            Arrays.asList("table_name", "index_name", "index_size", "index_scans"),
+            (rs, c, p) -> UnusedIndex.of(p.intern(rs.getString(c[0])), p.intern(rs.getString(c[1])), rs.getLong(c[2]), rs.getLong(c[3])));
+
+    private static final Map<Diagnostics, RowMapper<?>> MAPPERS = createMappers();
+
+    private DiagnosticsRowMappers() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets row mapper for given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @return row mapper
+     */
+    @Nonnull
+    public static RowMapper<?> get(@Nonnull final Diagnostics diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        return MAPPERS.get(diagnostics);
+    }
+
+    /**
+     * Creates row mapper that appends bloated indexes directly to the given columnar builder without creating model objects.
+     *
+     * @param builder builder to append rows to
+     * @return row mapper with the same columns as {@link #BLOATED_INDEXES}
+     */
+    @Nonnull
+    public static RowMapper<IndexWithBloatColumns.Builder> bloatedIndexesInto(@Nonnull final IndexWithBloatColumns.Builder builder) {
+        Objects.requireNonNull(builder, "builder");
+        return RowMapper.ofPooled(
+                BLOATED_INDEXES.getColumnNames(),
+                (rs, c, p) -> builder.add(p.intern(rs.getString(c[0])), p.intern(rs.getString(c[1])), rs.getLong(c[2]), rs.getLong(c[3]), rs.getInt(c[4])));
+    }
+
+    /**
+     * Creates row mapper that appends bloated tables directly to the given columnar builder without creating model objects.
+     *
+     * @param builder builder to append rows to
+     * @return row mapper with the same columns as {@link #BLOATED_TABLES}
+     */
+    @Nonnull
+    public static RowMapper<TableWithBloatColumns.Builder> bloatedTablesInto(@Nonnull final TableWithBloatColumns.Builder builder) {
+        Objects.requireNonNull(builder, "builder");
+        return RowMapper.ofPooled(
+                BLOATED_TABLES.getColumnNames(),
+                (rs, c, p) -> builder.add(p.intern(rs.getString(c[0])), rs.getLong(c[1]), rs.getLong(c[2]), rs.getInt(c[3])));
+    }
+
+    /**
+     * Checks that the result of each diagnostic query contains all columns required by the corresponding row mapper.
+     * <p>
+     * Queries are only prepared (described) on the host, not executed.
+     * Structured variants of the queries are checked as well.
+     * </p>
+     *
+     * @param pgConnection connection to any host in the cluster
+     * @throws IllegalStateException if any query does not return a column required by its row mapper
+     */
+    public static void validate(@Nonnull final PgConnection pgConnection) {
+        Objects.requireNonNull(pgConnection, "pgConnection");
+        try (Connection connection = pgConnection.getDataSource().getConnection()) {
+            for (Diagnostics diagnostics : Diagnostics.values()) {
+                validate(connection, diagnostics, DiagnosticsQueries.get(diagnostics));
+                final String structuredQuery = StructuredDiagnosticsQueries.find(diagnostics).orElse(null);
+                if (structuredQuery != null) {
+                    validate(connection, diagnostics, structuredQuery);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void validate(@Nonnull final Connection connection,
+                                 @Nonnull final Diagnostics diagnostics,
+                                 @Nonnull final String sqlQuery) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
+            final ResultSetMetaData metaData = statement.getMetaData();
+            if (metaData == null) {
+                throw new IllegalStateException("Cannot describe result of " + diagnostics);
+            }
+            try {
+                get(diagnostics).validate(metaData);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Invalid row mapper for " + diagnostics + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Nonnull
+    private static Object[] getArray(@Nonnull final ResultSet rs, final int columnIndex) throws SQLException {
+        final Array array = rs.getArray(columnIndex);
+        if (array == null) {
+            return new Object[0];
+        }
+        try {
+            return (Object[]) array.getArray();
+        } finally {
+            array.free();
+        }
+    }
+
+    @Nonnull
+    private static DuplicatedIndexes toDuplicatedIndexes(@Nonnull final String tableName,
+                                                         @Nonnull final Object[] indexNames,
+                                                         @Nonnull final Object[] indexSizes,
+                                                         @Nonnull final NamePool namePool) {
+        if (indexNames.length != indexSizes.length) {
+            throw new IllegalStateException("Index names and sizes have different lengths for table " + tableName);
+        }
+        final String[] names = new String[indexNames.length];
+        final long[] sizes = new long[indexNames.length];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = namePool.intern((String) indexNames[i]);
+            sizes[i] = ((Number) indexSizes[i]).longValue();
+        }
+        return DuplicatedIndexes.of(tableName, names, sizes);
+    }
+
+    @Nonnull
+    private static DuplicatedIndexes parseDuplicatedIndexes(@Nonnull final String tableName,
+                                                            @Nonnull final String duplicatedAsString,
+                                                            @Nonnull final NamePool namePool) {
+        final List<Map.Entry<String, Long>> indexes = DuplicatedIndexesParser.parseAsIndexNameAndSize(duplicatedAsString);
+        final String[] names = new String[indexes.size()];
+        final long[] sizes = new long[names.length];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = namePool.intern(indexes.get(i).getKey());
+            sizes[i] = indexes.get(i).getValue();
+        }
+        return DuplicatedIndexes.of(tableName, names, sizes);
+    }
+
+    @Nonnull
+    private static List<String> toStrings(@Nonnull final Object[] values) {
+        final List<String> result = new ArrayList<>(values.length);
+        for (Object value : values) {
+            result.add((String) value);
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static Map<Diagnostics, RowMapper<?>> createMappers() {
+        final Map<Diagnostics, RowMapper<?>> mappers = new EnumMap<>(Diagnostics.class);
+        mappers.put(Diagnostics.BLOATED_INDEXES, BLOATED_INDEXES);
+        mappers.put(Diagnostics.BLOATED_TABLES, BLOATED_TABLES);
+        mappers.put(Diagnostics.DUPLICATED_INDEXES, DUPLICATED_INDEXES);
+        mappers.put(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, FOREIGN_KEYS_WITHOUT_INDEX);
+        mappers.put(Diagnostics.INDEXES_WITH_NULL_VALUES, INDEXES_WITH_NULL_VALUES);
+        mappers.put(Diagnostics.INTERSECTED_INDEXES, INTERSECTED_INDEXES);
+        mappers.put(Diagnostics.INVALID_INDEXES, INVALID_INDEXES);
+        mappers.put(Diagnostics.TABLES_WITH_MISSING_INDEXES, TABLES_WITH_MISSING_INDEXES);
+        mappers.put(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, TABLES_WITHOUT_PRIMARY_KEY);
+        mappers.put(Diagnostics.UNUSED_INDEXES, UNUSED_INDEXES);
+        return Collections.unmodifiableMap(mappers);
+    }
+}
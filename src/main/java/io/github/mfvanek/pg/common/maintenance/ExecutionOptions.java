@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.common.metrics.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Options of executing diagnostic queries on a specific host.
+ * <p>
+ * Each diagnostic can have its own query timeout. When the timeout expires the query is cancelled on the server side
+ * and {@link io.github.mfvanek.pg.utils.QueryTimeoutException} is thrown.
+ * Every execution of a diagnostic query is reported to the {@link QueryExecutionListener}.
+ * </p>
+ * <p>
+ * Optionally, built-in structured variants of some queries can be used (see {@link #isStructuredResultsEnabled()})
+ * and prefetched checks of the system catalog can be computed from a single snapshot (see {@link #isCatalogSnapshotEnabled()}).
+ * </p>
+ * <p>
+ * Row mappers are checked against the queries on each host before the first diagnostic is executed
+ * (see {@link #isRowMappersValidationEnabled()}).
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see Diagnostics
+ */
+@Immutable
+public class ExecutionOptions {
+
+    private final Duration defaultQueryTimeout;
+    private final Map<Diagnostics, Duration> queryTimeouts;
+    private final QueryExecutionListener queryExecutionListener;
+    private final boolean structuredResultsEnabled;
+    private final boolean catalogSnapshotEnabled;
+    private final boolean rowMappersValidationEnabled;
+
+    ExecutionOptions(@Nonnull final Duration defaultQueryTimeout,
+                     @Nonnull final Map<Diagnostics, Duration> queryTimeouts,
+                     @Nonnull final QueryExecutionListener queryExecutionListener,
+                     final boolean structuredResultsEnabled,
+                     final boolean catalogSnapshotEnabled,
+                     final boolean rowMappersValidationEnabled) {
+        this.defaultQueryTimeout = timeoutNotNegative(defaultQueryTimeout, "defaultQueryTimeout");
+        final Map<Diagnostics, Duration> timeouts = new EnumMap<>(Diagnostics.class);
+        Objects.requireNonNull(queryTimeouts, "queryTimeouts")
+                .forEach((d, t) -> timeouts.put(d, timeoutNotNegative(t, "queryTimeout")));
+        this.queryTimeouts = Collections.unmodifiableMap(timeouts);
+        this.queryExecutionListener = Objects.requireNonNull(queryExecutionListener, "queryExecutionListener");
+        this.structuredResultsEnabled = structuredResultsEnabled;
+        this.catalogSnapshotEnabled = catalogSnapshotEnabled;
+        this.rowMappersValidationEnabled = rowMappersValidationEnabled;
+    }
+
+    /**
+     * Gets query timeout for the given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @return query timeout; zero means no timeout
+     */
+    @Nonnull
+    public Duration getQueryTimeout(@Nonnull final Diagnostics diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        return queryTimeouts.getOrDefault(diagnostics, defaultQueryTimeout);
+    }
+
+    /**
+     * Gets listener that is notified after every execution of a diagnostic query.
+     *
+     * @return {@code QueryExecutionListener}
+     */
+    @Nonnull
+    public QueryExecutionListener getQueryExecutionListener() {
+        return queryExecutionListener;
+    }
+
+    /**
+     * Determines whether built-in queries returning sql arrays are used instead of the ones with string-encoded lists.
+     * <p>
+     * It affects duplicated indexes, intersected indexes and foreign keys without index.
+     * Index names, index sizes and foreign key columns are read as arrays, so they are not split by separators.
+     * </p>
+     *
+     * @return {@code true} if structured variants of queries are used
+     */
+    public boolean isStructuredResultsEnabled() {
+        return structuredResultsEnabled;
+    }
+
+    /**
+     * Determines whether prefetching loads a {@link io.github.mfvanek.pg.catalog.CatalogSnapshot} instead of running separate queries.
+     * <p>
+     * It affects duplicated indexes, intersected indexes, foreign keys without index, indexes with null values
+     * and tables without primary key that have no row filter in the given context.
+     * They are computed in memory from the catalog rows loaded by a single query in the same batch.
+     * </p>
+     *
+     * @return {@code true} if the catalog snapshot is used on prefetching
+     * @see io.github.mfvanek.pg.common.health.PrefetchingDatabaseHealth
+     */
+    public boolean isCatalogSnapshotEnabled() {
+        return catalogSnapshotEnabled;
+    }
+
+    /**
+     * Determines whether row mappers are validated on each host before the first diagnostic is executed there.
+     * <p>
+     * All queries are prepared once and their columns are checked against the row mappers,
+     * so a query that does not match its mapper fails before any rows are read.
+     * </p>
+     *
+     * @return {@code true} if row mappers are validated on first use
+     * @see DiagnosticsRowMappers#validate(io.github.mfvanek.pg.connection.PgConnection)
+     */
+    public boolean isRowMappersValidationEnabled() {
+        return rowMappersValidationEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return ExecutionOptions.class.getSimpleName() + '{' +
+                "defaultQueryTimeout=" + defaultQueryTimeout +
+                ", queryTimeouts=" + queryTimeouts +
+                ", queryExecutionListener=" + queryExecutionListener +
+                ", structuredResultsEnabled=" + structuredResultsEnabled +
+                ", catalogSnapshotEnabled=" + catalogSnapshotEnabled +
+                ", rowMappersValidationEnabled=" + rowMappersValidationEnabled +
+                '}';
+    }
+
+    @Nonnull
+    static Duration timeoutNotNegative(@Nonnull final Duration timeout, @Nonnull final String argumentName) {
+        Objects.requireNonNull(timeout, argumentName);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException(argumentName + " cannot be less than zero");
+        }
+        return timeout;
+    }
+
+    /**
+     * Gets default options: queries are executed without timeout and metrics are not collected.
+     *
+     * @return {@code ExecutionOptions}
+     */
+    @Nonnull
+    public static ExecutionOptions defaults() {
+        return builder().build();
+    }
+
+    @Nonnull
+    public static ExecutionOptionsBuilder builder() {
+        return new ExecutionOptionsBuilder();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.common.metrics.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Builder for {@link ExecutionOptions}.
+ *
+ * @author Ivan Vakhrushev
+ * @see ExecutionOptions
+ */
+public class ExecutionOptionsBuilder {
+
+    private Duration defaultQueryTimeout = Duration.ZERO;
+    private final Map<Diagnostics, Duration> queryTimeouts = new EnumMap<>(Diagnostics.class);
+    private QueryExecutionListener queryExecutionListener = QueryExecutionListener.noop();
+    private boolean structuredResultsEnabled;
+    private boolean catalogSnapshotEnabled;
+    private boolean rowMappersValidationEnabled = true;
+
+    ExecutionOptionsBuilder() {
+    }
+
+    /**
+     * Sets query timeout for all diagnostics without their own timeout.
+     *
+     * @param defaultQueryTimeout query timeout; zero means no timeout
+     * @return {@code Builder}
+     */
+    public ExecutionOptionsBuilder withDefaultQueryTimeout(@Nonnull final Duration defaultQueryTimeout) {
+        this.defaultQueryTimeout = ExecutionOptions.timeoutNotNegative(defaultQueryTimeout, "defaultQueryTimeout");
+        return this;
+    }
+
+    /**
+     * Sets query timeout for the given diagnostic.
+     *
+     * @param diagnostics  diagnostic
+     * @param queryTimeout query timeout; zero means no timeout
+     * @return {@code Builder}
+     */
+    public ExecutionOptionsBuilder withQueryTimeout(@Nonnull final Diagnostics diagnostics,
+                                                    @Nonnull final Duration queryTimeout) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        queryTimeouts.put(diagnostics, ExecutionOptions.timeoutNotNegative(queryTimeout, "queryTimeout"));
+        return this;
+    }
+
+    /**
+     * Sets listener that is notified after every execution of a diagnostic query.
+     *
+     * @param queryExecutionListener listener
+     * @return {@code Builder}
+     */
+    public ExecutionOptionsBuilder withQueryExecutionListener(@Nonnull final QueryExecutionListener queryExecutionListener) {
+        this.queryExecutionListener = Objects.requireNonNull(queryExecutionListener, "queryExecutionListener");
+        return this;
+    }
+
+    /**
+     * Sets whether built-in queries returning sql arrays should be used instead of the ones with string-encoded lists.
+     *
+     * @param structuredResultsEnabled {@code true} to use structured variants of queries; {@code false} by default
+     * @return {@code Builder}
+     * @see ExecutionOptions#isStructuredResultsEnabled()
+     */
+    public ExecutionOptionsBuilder withStructuredResults(final boolean structuredResultsEnabled) {
+        this.structuredResultsEnabled = structuredResultsEnabled;
+        return this;
+    }
+
+    /**
+     * Sets whether checks of the system catalog should be computed from a single catalog snapshot on prefetching.
+     *
+     * @param catalogSnapshotEnabled {@code true} to use the catalog snapshot; {@code false} by default
+     * @return {@code Builder}
+     * @see ExecutionOptions#isCatalogSnapshotEnabled()
+     */
+    public ExecutionOptionsBuilder withCatalogSnapshot(final boolean catalogSnapshotEnabled) {
+        this.catalogSnapshotEnabled = catalogSnapshotEnabled;
+        return this;
+    }
+
+    /**
+     * Sets whether row mappers should be validated on each host before the first diagnostic is executed there.
+     *
+     * @param rowMappersValidationEnabled {@code true} to validate row mappers; {@code true} by default
+     * @return {@code Builder}
+     * @see ExecutionOptions#isRowMappersValidationEnabled()
+     */
+    public ExecutionOptionsBuilder withRowMappersValidation(final boolean rowMappersValidationEnabled) {
+        this.rowMappersValidationEnabled = rowMappersValidationEnabled;
+        return this;
+    }
+
+    @Nonnull
+    public ExecutionOptions build() {
+        return new ExecutionOptions(defaultQueryTimeout, queryTimeouts, queryExecutionListener, structuredResultsEnabled, catalogSnapshotEnabled,
+                rowMappersValidationEnabled);
+    }
+
+    @Override
+    public String toString() {
+        return ExecutionOptionsBuilder.class.getSimpleName() + '{' +
+                "defaultQueryTimeout=" + defaultQueryTimeout +
+                ", queryTimeouts=" + queryTimeouts +
+                ", queryExecutionListener=" + queryExecutionListener +
+                ", structuredResultsEnabled=" + structuredResultsEnabled +
+                ", catalogSnapshotEnabled=" + catalogSnapshotEnabled +
+                ", rowMappersValidationEnabled=" + rowMappersValidationEnabled +
+                '}';
+    }
+}
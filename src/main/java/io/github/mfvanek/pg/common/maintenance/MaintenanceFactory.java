@@ -90,4 +90,14 @@ public interface MaintenanceFactory {
                         .collect(Collectors.toMap(HostAware::getHost, Function.identity()))
         );
     }
+
+    /**
+     * Gets options that are used by the created maintenance objects.
+     *
+     * @return {@code ExecutionOptions}; default options unless overridden
+     */
+    @Nonnull
+    default ExecutionOptions getExecutionOptions() {
+        return ExecutionOptions.defaults();
+    }
 }
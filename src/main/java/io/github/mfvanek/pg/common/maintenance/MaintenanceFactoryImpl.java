@@ -20,17 +20,30 @@ import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHostIm
 import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
 import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHostImpl;
 
+import java.util.Objects;
 import javax.annotation.Nonnull;
 
 public class MaintenanceFactoryImpl implements MaintenanceFactory {
 
+    private final ExecutionOptions executionOptions;
+
+    public MaintenanceFactoryImpl() {
+        this(ExecutionOptions.defaults());
+    }
+
+    public MaintenanceFactoryImpl(@Nonnull final ExecutionOptions executionOptions) {
+        this.executionOptions = Objects.requireNonNull(executionOptions, "executionOptions");
+        // Fail fast if any sql query is missing
+        DiagnosticsQueries.preload();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     @Nonnull
     public IndexesMaintenanceOnHost forIndexes(@Nonnull final PgConnection pgConnection) {
-        return new IndexMaintenanceOnHostImpl(pgConnection);
+        return new IndexMaintenanceOnHostImpl(pgConnection, executionOptions);
     }
 
     /**
@@ -39,7 +52,7 @@ public class MaintenanceFactoryImpl implements MaintenanceFactory {
     @Override
     @Nonnull
     public TablesMaintenanceOnHost forTables(@Nonnull PgConnection pgConnection) {
-        return new TablesMaintenanceOnHostImpl(pgConnection);
+        return new TablesMaintenanceOnHostImpl(pgConnection, executionOptions);
     }
 
     /**
@@ -56,4 +69,13 @@ public class MaintenanceFactoryImpl implements MaintenanceFactory {
     public ConfigurationMaintenanceOnHost forConfiguration(@Nonnull PgConnection pgConnection) {
         return new ConfigurationMaintenanceOnHostImpl(pgConnection);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public ExecutionOptions getExecutionOptions() {
+        return executionOptions;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Built-in variants of diagnostic queries that return lists of names and sizes as sql arrays
+ * ({@code text[]} and {@code bigint[]}) instead of encoding them into a single string.
+ * <p>
+ * Rows of these queries are read via {@link java.sql.ResultSet#getArray(int)} without any text parsing,
+ * so names containing separators are handled correctly.
+ * The queries have the same schema name parameter as the ones from {@link DiagnosticsQueries}
+ * and find the same rows in the same order; only the shape of the result differs.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see ExecutionOptions#isStructuredResultsEnabled()
+ * @see DiagnosticsRowMappers
+ */
+@ThreadSafe
+final class StructuredDiagnosticsQueries {
+
+    static final String DUPLICATED_INDEXES = "select x.indrelid::regclass::text as table_name, " +
+            "array_agg(x.indexrelid::regclass::text order by x.indexrelid::regclass::text) as index_names, " +
+            "array_agg(pg_catalog.pg_relation_size(x.indexrelid) order by x.indexrelid::regclass::text) as index_sizes " +
+            "from pg_catalog.pg_index x " +
+            "join pg_catalog.pg_class c on c.oid = x.indrelid " +
+            "join pg_catalog.pg_namespace n on n.oid = c.relnamespace " +
+            "where n.nspname = ?::text " +
+            "group by x.indrelid, x.indkey::text, x.indclass::text, x.indcollation::text, " +
+            "coalesce(pg_catalog.pg_get_expr(x.indexprs, x.indrelid), ''), coalesce(pg_catalog.pg_get_expr(x.indpred, x.indrelid), '') " +
+            "having count(*) > 1 " +
+            "order by table_name, sum(pg_catalog.pg_relation_size(x.indexrelid)) desc";
+    static final String INTERSECTED_INDEXES = "with idx as (" +
+            "select x.indexrelid, x.indrelid, x.indkey::text as keys, coalesce(pg_catalog.pg_get_expr(x.indpred, x.indrelid), '') as pred " +
+            "from pg_catalog.pg_index x " +
+            "join pg_catalog.pg_class c on c.oid = x.indrelid " +
+            "join pg_catalog.pg_namespace n on n.oid = c.relnamespace " +
+            "where n.nspname = ?::text) " +
+            "select a.indrelid::regclass::text as table_name, " +
+            "array[a.indexrelid::regclass::text, b.indexrelid::regclass::text] as index_names, " +
+            "array[pg_catalog.pg_relation_size(a.indexrelid), pg_catalog.pg_relation_size(b.indexrelid)] as index_sizes " +
+            "from idx a " +
+            "join idx b on b.indrelid = a.indrelid and b.indexrelid > a.indexrelid and b.pred = a.pred and b.keys <> a.keys " +
+            "and ((b.keys || ' ') like (a.keys || ' %') or (a.keys || ' ') like (b.keys || ' %')) " +
+            "order by table_name, index_names";
+    static final String FOREIGN_KEYS_WITHOUT_INDEX = "select q.table_name, q.constraint_name, q.column_names from (" +
+            "select c.conrelid::regclass::text as table_name, c.conname::text as constraint_name, " +
+            "array(select a.attname::text from unnest(c.conkey) with ordinality as k(attnum, ord) " +
+            "join pg_catalog.pg_attribute a on a.attrelid = c.conrelid and a.attnum = k.attnum order by k.ord) as column_names " +
+            "from pg_catalog.pg_constraint c " +
+            "join pg_catalog.pg_class t on t.oid = c.conrelid " +
+            "join pg_catalog.pg_namespace n on n.oid = t.relnamespace " +
+            "where c.contype = 'f' and n.nspname = ?::text " +
+            "and not exists (select 1 from pg_catalog.pg_index x where x.indrelid = c.conrelid " +
+            "and c.conkey::int[] <@ x.indkey::int[] " +
+            "and array_position(x.indkey::int[], (c.conkey::int[])[1]) = 0)) q " +
+            "order by q.table_name, array_to_string(q.column_names, ', ')";
+
+    private static final Map<Diagnostics, String> QUERIES = createQueries();
+
+    private StructuredDiagnosticsQueries() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Finds a structured variant of the sql query for given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @return sql query or empty if there is no structured variant for the diagnostic
+     */
+    @Nonnull
+    static Optional<String> find(@Nonnull final Diagnostics diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        return Optional.ofNullable(QUERIES.get(diagnostics));
+    }
+
+    @Nonnull
+    private static Map<Diagnostics, String> createQueries() {
+        final Map<Diagnostics, String> queries = new EnumMap<>(Diagnostics.class);
+        queries.put(Diagnostics.DUPLICATED_INDEXES, DUPLICATED_INDEXES);
+        queries.put(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, FOREIGN_KEYS_WITHOUT_INDEX);
+        queries.put(Diagnostics.INTERSECTED_INDEXES, INTERSECTED_INDEXES);
+        return Collections.unmodifiableMap(queries);
+    }
+}
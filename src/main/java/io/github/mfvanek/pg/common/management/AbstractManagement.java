@@ -11,10 +11,12 @@
 package io.github.mfvanek.pg.common.management;
 
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.connection.PgHost;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiFunction;
@@ -27,9 +29,34 @@ public abstract class AbstractManagement {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractManagement.class);
 
     private final HighAvailabilityPgConnection haPgConnection;
+    private final PerHostExecutor perHostExecutor;
+    private final HostSelector hostSelector;
 
     protected AbstractManagement(@Nonnull final HighAvailabilityPgConnection haPgConnection) {
+        this(haPgConnection, PerHostExecutor.sequential());
+    }
+
+    protected AbstractManagement(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                 @Nonnull final PerHostExecutor perHostExecutor) {
+        this(haPgConnection, perHostExecutor, ReplicaRouting.primaryOnly());
+    }
+
+    protected AbstractManagement(@Nonnull final HighAvailabilityPgConnection haPgConnection,
+                                 @Nonnull final PerHostExecutor perHostExecutor,
+                                 @Nonnull final HostSelector hostSelector) {
         this.haPgConnection = Objects.requireNonNull(haPgConnection, "haPgConnection");
+        this.perHostExecutor = Objects.requireNonNull(perHostExecutor, "perHostExecutor");
+        this.hostSelector = Objects.requireNonNull(hostSelector, "hostSelector");
+    }
+
+    /**
+     * Chooses the host for diagnostics that read data identical on all hosts.
+     *
+     * @return host chosen by {@link HostSelector}
+     */
+    @Nonnull
+    protected PgHost getSelectedHost() {
+        return hostSelector.selectHost(haPgConnection);
     }
 
     @Nonnull
@@ -53,6 +80,36 @@ public abstract class AbstractManagement {
         return func.apply(maintenance, arg);
     }
 
+    /**
+     * Executes given function on a single host chosen by {@link HostSelector}.
+     * Should be used only for diagnostics that read data identical on all hosts (system catalog and planner statistics).
+     */
+    protected <M, T, R> R doOnSelectedHost(@Nonnull final Map<PgHost, M> maintenances, @Nonnull final BiFunction<M, T, R> func, @Nonnull final T arg) {
+        final PgHost host = getSelectedHost();
+        final M maintenance = getOnSelectedHost(maintenances, host);
+        LOGGER.debug("Going to execute on host [{}]", host.getName());
+        return func.apply(maintenance, arg);
+    }
+
+    /**
+     * Gets maintenance for the host chosen by {@link HostSelector}.
+     *
+     * @throws IllegalStateException if the selected host does not belong to the cluster
+     */
+    @Nonnull
+    protected static <M> M getOnSelectedHost(@Nonnull final Map<PgHost, M> maintenances, @Nonnull final PgHost host) {
+        final M maintenance = maintenances.get(host);
+        if (maintenance == null) {
+            throw new IllegalStateException(String.format("Host selector returned host [%s] that is not among hosts in the cluster %s",
+                    host.getName(), maintenances.keySet()));
+        }
+        return maintenance;
+    }
+
+    protected <M extends HostAware, R> List<R> doOnAllHosts(@Nonnull final Map<PgHost, M> maintenances, @Nonnull final Function<M, R> func) {
+        return perHostExecutor.executeOnEachHost(maintenances.values(), m -> doOnHost(m.getHost(), () -> func.apply(m)));
+    }
+
     protected static <T> T doOnHost(@Nonnull final PgHost host, @Nonnull final Supplier<T> action) {
         LOGGER.debug("Going to execute on host {}", host.getName());
         return action.get();
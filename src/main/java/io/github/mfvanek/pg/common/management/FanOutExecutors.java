@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+/**
+ * Creates executors for the per-host and per-check fan-out
+ * (see {@link PerHostExecutor} and {@link io.github.mfvanek.pg.common.health.AsyncDatabaseHealthImpl}).
+ * <p>
+ * The library is shipped as a multi-release jar. On Java 8 to 20 a fixed pool of platform daemon threads is used.
+ * On Java 21 and above this class is replaced with a version that starts a new virtual thread for each task,
+ * which suits blocking JDBC calls to hundreds of hosts and schemas.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see PerHostExecutor
+ */
+public final class FanOutExecutors {
+
+    static final String THREAD_NAME_PREFIX = "pg-index-health-fan-out-";
+
+    private FanOutExecutors() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates executor service for running blocking tasks concurrently.
+     * <p>
+     * The lifecycle of the returned executor service is managed by the caller.
+     * </p>
+     *
+     * @param maxPlatformThreads number of platform threads to use when virtual threads are not available; should be positive
+     * @return a fixed thread pool of daemon threads
+     */
+    @Nonnull
+    public static ExecutorService newFanOutExecutor(final int maxPlatformThreads) {
+        Validators.valueIsPositive(maxPlatformThreads, "maxPlatformThreads");
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(maxPlatformThreads, runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates executor service that runs at most {@code parallelism} blocking tasks at the same time.
+     * <p>
+     * Use it when the number of concurrent tasks should be limited, for example, by the size of a connection pool.
+     * The lifecycle of the returned executor service is managed by the caller.
+     * </p>
+     *
+     * @param parallelism maximum number of tasks running at the same time; should be positive
+     * @return a fixed thread pool of daemon threads
+     */
+    @Nonnull
+    public static ExecutorService newBoundedFanOutExecutor(final int parallelism) {
+        return newFanOutExecutor(parallelism);
+    }
+
+    /**
+     * Determines whether executors created by this class run tasks on virtual threads.
+     *
+     * @return {@code false} on Java 8 to 20
+     */
+    public static boolean usesVirtualThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.PgHost;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Chooses a single host in the cluster for diagnostics that do not need to be executed on every host.
+ *
+ * @author Ivan Vakhrushev
+ * @see ReplicaRouting
+ * @see LoadAwareHostSelector
+ */
+@FunctionalInterface
+public interface HostSelector {
+
+    /**
+     * Selects the host to execute a diagnostic on.
+     *
+     * @param haPgConnection connection to the cluster
+     * @return selected host
+     */
+    @Nonnull
+    PgHost selectHost(@Nonnull HighAvailabilityPgConnection haPgConnection);
+}
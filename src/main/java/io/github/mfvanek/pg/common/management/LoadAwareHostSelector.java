@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionListener;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostLoad;
+import io.github.mfvanek.pg.connection.HostLoadDeterminer;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.utils.Validators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Selects the least loaded host in the cluster.
+ * <p>
+ * The load score of a host is calculated from the number of active backends in {@code pg_stat_activity},
+ * the replication replay lag and the average latency of diagnostic queries observed by the library itself:
+ * one active backend weighs as much as one second of replication lag or 100 ms of average query latency.
+ * Active backends and replication lag are cached and re-read from a host not more often than once per refresh interval.
+ * Latency is collected when this selector is registered as {@link QueryExecutionListener}
+ * (see {@link io.github.mfvanek.pg.common.maintenance.ExecutionOptionsBuilder#withQueryExecutionListener}).
+ * </p>
+ * <p>
+ * Unreachable replicas and replicas lagging more than the configured limit are skipped.
+ * The primary host competes with eligible replicas by its load score (its replication lag is always zero)
+ * and is selected when there is no eligible replica.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see HostLoadDeterminer
+ */
+@ThreadSafe
+public class LoadAwareHostSelector implements HostSelector, QueryExecutionListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadAwareHostSelector.class);
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+    private static final double MILLIS_OF_LAG_PER_BACKEND = 1_000.0;
+    private static final double MILLIS_OF_LATENCY_PER_BACKEND = 100.0;
+
+    private final HostLoadDeterminer hostLoadDeterminer;
+    private final Duration maxReplicationLag;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final Map<PgHost, CachedHostLoad> hostLoads = new ConcurrentHashMap<>();
+    private final Map<PgHost, Double> averageLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * Creates {@code LoadAwareHostSelector}.
+     *
+     * @param hostLoadDeterminer determiner of load on hosts
+     * @param maxReplicationLag  maximum allowed replication lag of replica; should be positive
+     * @param refreshInterval    how long the load read from a host remains valid; should be positive
+     */
+    public LoadAwareHostSelector(@Nonnull final HostLoadDeterminer hostLoadDeterminer,
+                                 @Nonnull final Duration maxReplicationLag,
+                                 @Nonnull final Duration refreshInterval) {
+        this(hostLoadDeterminer, maxReplicationLag, refreshInterval, Clock.systemUTC());
+    }
+
+    LoadAwareHostSelector(@Nonnull final HostLoadDeterminer hostLoadDeterminer,
+                          @Nonnull final Duration maxReplicationLag,
+                          @Nonnull final Duration refreshInterval,
+                          @Nonnull final Clock clock) {
+        this.hostLoadDeterminer = Objects.requireNonNull(hostLoadDeterminer, "hostLoadDeterminer");
+        this.maxReplicationLag = Objects.requireNonNull(maxReplicationLag, "maxReplicationLag");
+        Validators.valueIsPositive(maxReplicationLag.toMillis(), "maxReplicationLag");
+        this.refreshInterval = Objects.requireNonNull(refreshInterval, "refreshInterval");
+        Validators.valueIsPositive(refreshInterval.toMillis(), "refreshInterval");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public PgHost selectHost(@Nonnull final HighAvailabilityPgConnection haPgConnection) {
+        Objects.requireNonNull(haPgConnection, "haPgConnection");
+        final PgConnection connectionToPrimary = haPgConnection.getConnectionToPrimary();
+        PgHost leastLoadedReplica = null;
+        double leastLoadScore = Double.MAX_VALUE;
+        for (PgConnection pgConnection : haPgConnection.getConnectionsToAllHostsInCluster()) {
+            if (pgConnection.equals(connectionToPrimary)) {
+                continue;
+            }
+            final PgHost host = pgConnection.getHost();
+            final HostLoad hostLoad = getHostLoad(pgConnection);
+            final OptionalDouble loadScore = isEligible(hostLoad) ? calculateLoadScore(host, hostLoad) : OptionalDouble.empty();
+            if (loadScore.isPresent() && isBetter(host, loadScore.getAsDouble(), leastLoadedReplica, leastLoadScore)) {
+                leastLoadedReplica = host;
+                leastLoadScore = loadScore.getAsDouble();
+            }
+        }
+        final PgHost primaryHost = connectionToPrimary.getHost();
+        if (leastLoadedReplica == null) {
+            LOGGER.debug("There is no eligible replica; falling back to primary host [{}]", primaryHost.getName());
+            return primaryHost;
+        }
+        final OptionalDouble primaryLoadScore = calculateLoadScore(primaryHost, getHostLoad(connectionToPrimary));
+        if (primaryLoadScore.isPresent() && primaryLoadScore.getAsDouble() < leastLoadScore) {
+            LOGGER.debug("Selected primary host [{}] with load score {}", primaryHost.getName(), primaryLoadScore.getAsDouble());
+            return primaryHost;
+        }
+        LOGGER.debug("Selected replica [{}] with load score {}", leastLoadedReplica.getName(), leastLoadScore);
+        return leastLoadedReplica;
+    }
+
+    /**
+     * Records latency of the executed diagnostic query for the corresponding host.
+     *
+     * @param event details of the query execution
+     */
+    @Override
+    public void onQueryExecuted(@Nonnull final QueryExecutionEvent event) {
+        Objects.requireNonNull(event, "event");
+        final double latencyMillis = event.getLatency().toNanos() / 1_000_000.0;
+        averageLatencies.merge(event.getHost(), latencyMillis,
+                (average, latest) -> average + LATENCY_SMOOTHING_FACTOR * (latest - average));
+    }
+
+    /**
+     * Gets the last known load score of the given host.
+     *
+     * @param host host in the cluster
+     * @return load score or empty {@code OptionalDouble} if the load of the host is unknown
+     */
+    @Nonnull
+    public OptionalDouble getLoadScore(@Nonnull final PgHost host) {
+        Objects.requireNonNull(host, "host");
+        final CachedHostLoad cachedHostLoad = hostLoads.get(host);
+        return calculateLoadScore(host, cachedHostLoad == null ? null : cachedHostLoad.hostLoad);
+    }
+
+    @Nullable
+    private HostLoad getHostLoad(@Nonnull final PgConnection pgConnection) {
+        final Instant now = clock.instant();
+        final CachedHostLoad cachedHostLoad = hostLoads.get(pgConnection.getHost());
+        if (cachedHostLoad != null && cachedHostLoad.isValidAt(now, refreshInterval)) {
+            return cachedHostLoad.hostLoad;
+        }
+        HostLoad hostLoad = null;
+        try {
+            hostLoad = hostLoadDeterminer.getHostLoad(pgConnection);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to determine load on host [{}]; the host is skipped", pgConnection.getHost().getName(), e);
+        }
+        hostLoads.put(pgConnection.getHost(), new CachedHostLoad(hostLoad, now));
+        return hostLoad;
+    }
+
+    private boolean isEligible(@Nullable final HostLoad hostLoad) {
+        return hostLoad != null && hostLoad.getReplicationLag().compareTo(maxReplicationLag) <= 0;
+    }
+
+    @Nonnull
+    private OptionalDouble calculateLoadScore(@Nonnull final PgHost host, @Nullable final HostLoad hostLoad) {
+        if (hostLoad == null) {
+            return OptionalDouble.empty();
+        }
+        final double averageLatencyMillis = averageLatencies.getOrDefault(host, 0.0);
+        return OptionalDouble.of(hostLoad.getActiveBackends() +
+                hostLoad.getReplicationLag().toMillis() / MILLIS_OF_LAG_PER_BACKEND +
+                averageLatencyMillis / MILLIS_OF_LATENCY_PER_BACKEND);
+    }
+
+    private static boolean isBetter(@Nonnull final PgHost host, final double loadScore,
+                                    @Nullable final PgHost currentHost, final double currentLoadScore) {
+        if (currentHost == null) {
+            return true;
+        }
+        final int result = Double.compare(loadScore, currentLoadScore);
+        // Make the choice deterministic for replicas with the same load
+        return result < 0 || (result == 0 && host.getName().compareTo(currentHost.getName()) < 0);
+    }
+
+    @Override
+    public String toString() {
+        return LoadAwareHostSelector.class.getSimpleName() + '{' +
+                "maxReplicationLag=" + maxReplicationLag +
+                ", refreshInterval=" + refreshInterval +
+                '}';
+    }
+
+    @Immutable
+    private static final class CachedHostLoad {
+
+        private final HostLoad hostLoad;
+        private final Instant measuredAt;
+
+        CachedHostLoad(@Nullable final HostLoad hostLoad, @Nonnull final Instant measuredAt) {
+            this.hostLoad = hostLoad;
+            this.measuredAt = measuredAt;
+        }
+
+        boolean isValidAt(@Nonnull final Instant now, @Nonnull final Duration refreshInterval) {
+            return now.isBefore(measuredAt.plus(refreshInterval));
+        }
+    }
+}
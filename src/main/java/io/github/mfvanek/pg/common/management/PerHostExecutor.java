@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.connection.HostAware;
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Runs the same action against every host in the cluster.
+ * <p>
+ * By default, hosts are processed one after another in the calling thread.
+ * With a user-supplied {@link ExecutorService} (for example, a fixed thread pool or a {@code ForkJoinPool})
+ * hosts are processed concurrently, so the total latency is close to the latency of the slowest host.
+ * </p>
+ * <p>
+ * Note: on timeout the remaining tasks are cancelled with interruption, but a JDBC query that is already running
+ * on a host is not stopped by that; use query timeouts from {@code ExecutionOptions} to bound queries on the database side.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see HostAware
+ */
+@Immutable
+public final class PerHostExecutor {
+
+    private static final PerHostExecutor SEQUENTIAL = new PerHostExecutor(null, Duration.ZERO);
+
+    private final ExecutorService executorService;
+    private final Duration timeout;
+
+    private PerHostExecutor(@Nullable final ExecutorService executorService, @Nonnull final Duration timeout) {
+        this.executorService = executorService;
+        this.timeout = Objects.requireNonNull(timeout, "timeout");
+    }
+
+    /**
+     * Executes given action on each host and returns results in the iteration order of {@code targets}.
+     *
+     * @param targets objects bound to specific hosts
+     * @param action  action to execute
+     * @param <H>     type of host-bound object
+     * @param <R>     type of result
+     * @return results of execution for all hosts
+     */
+    @Nonnull
+    public <H extends HostAware, R> List<R> executeOnEachHost(@Nonnull final Collection<H> targets,
+                                                              @Nonnull final Function<H, R> action) {
+        Objects.requireNonNull(targets, "targets");
+        Objects.requireNonNull(action, "action");
+        if (executorService == null) {
+            final List<R> results = new ArrayList<>(targets.size());
+            for (H target : targets) {
+                results.add(action.apply(target));
+            }
+            return results;
+        }
+        return executeConcurrently(targets, action);
+    }
+
+    /**
+     * Determines whether hosts are processed concurrently.
+     *
+     * @return {@code true} if an executor service is used
+     */
+    public boolean isParallel() {
+        return executorService != null;
+    }
+
+    @Nonnull
+    private <H extends HostAware, R> List<R> executeConcurrently(@Nonnull final Collection<H> targets,
+                                                                 @Nonnull final Function<H, R> action) {
+        final List<Future<R>> futures = new ArrayList<>(targets.size());
+        for (H target : targets) {
+            futures.add(executorService.submit(() -> action.apply(target)));
+        }
+        final List<R> results = new ArrayList<>(targets.size());
+        // All hosts run concurrently, so they share a single deadline instead of getting a full timeout one after another
+        final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        try {
+            int index = 0;
+            for (H target : targets) {
+                results.add(waitForResult(futures.get(index), target, deadlineNanos));
+                ++index;
+            }
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+        return results;
+    }
+
+    private <H extends HostAware, R> R waitForResult(@Nonnull final Future<R> future,
+                                                     @Nonnull final H target,
+                                                     final long deadlineNanos) {
+        try {
+            return future.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException(String.format("Execution on host %s timed out after %d ms",
+                    target.getHost().getName(), timeout.toMillis()), e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return PerHostExecutor.class.getSimpleName() + '{' +
+                "parallel=" + isParallel() +
+                ", timeout=" + timeout +
+                '}';
+    }
+
+    /**
+     * Creates {@code PerHostExecutor} that processes hosts one after another in the calling thread.
+     *
+     * @return {@code PerHostExecutor}
+     */
+    @Nonnull
+    public static PerHostExecutor sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Creates {@code PerHostExecutor} that processes hosts concurrently.
+     * <p>
+     * The lifecycle of the given executor service is managed by the caller.
+     * </p>
+     *
+     * @param executorService executor service for running per-host actions
+     * @param timeout         maximum time for all hosts together to return their results; should be positive.
+     *                        All hosts share a single deadline counted from the moment all tasks are submitted,
+     *                        so it should cover the slowest host rather than be sized per host
+     * @return {@code PerHostExecutor}
+     */
+    @Nonnull
+    public static PerHostExecutor parallel(@Nonnull final ExecutorService executorService,
+                                           @Nonnull final Duration timeout) {
+        Objects.requireNonNull(executorService, "executorService");
+        Objects.requireNonNull(timeout, "timeout");
+        Validators.valueIsPositive(timeout.toMillis(), "timeout");
+        return new PerHostExecutor(executorService, timeout);
+    }
+}
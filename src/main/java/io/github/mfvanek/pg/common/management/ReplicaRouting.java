@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.ReplicationLagDeterminer;
+import io.github.mfvanek.pg.utils.Validators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Chooses the host for diagnostics that only read {@code pg_catalog} and {@code pg_stats}.
+ * <p>
+ * Such data is identical on the primary and its physical replicas, so these diagnostics can be offloaded
+ * from a busy primary. By default, everything is executed on the primary host.
+ * </p>
+ * <p>
+ * Replication lag of each replica is cached and re-read from the host not more often than once per refresh interval.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see ReplicationLagDeterminer
+ */
+@ThreadSafe
+public final class ReplicaRouting implements HostSelector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRouting.class);
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1L);
+    private static final ReplicaRouting PRIMARY_ONLY = new ReplicaRouting(null, Duration.ZERO, Duration.ZERO, Clock.systemUTC());
+
+    private final ReplicationLagDeterminer replicationLagDeterminer;
+    private final Duration maxReplicationLag;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final Map<PgHost, CachedReplicationLag> replicationLags = new ConcurrentHashMap<>();
+
+    ReplicaRouting(@Nullable final ReplicationLagDeterminer replicationLagDeterminer,
+                   @Nonnull final Duration maxReplicationLag,
+                   @Nonnull final Duration refreshInterval,
+                   @Nonnull final Clock clock) {
+        this.replicationLagDeterminer = replicationLagDeterminer;
+        this.maxReplicationLag = Objects.requireNonNull(maxReplicationLag, "maxReplicationLag");
+        this.refreshInterval = Objects.requireNonNull(refreshInterval, "refreshInterval");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Selects the host to execute a catalog-only diagnostic on.
+     * <p>
+     * Returns the reachable replica with the smallest replication lag not exceeding the configured limit.
+     * Falls back to the primary host when there is no eligible replica.
+     * </p>
+     *
+     * @param haPgConnection connection to the cluster
+     * @return selected host
+     */
+    @Nonnull
+    @Override
+    public PgHost selectHost(@Nonnull final HighAvailabilityPgConnection haPgConnection) {
+        Objects.requireNonNull(haPgConnection, "haPgConnection");
+        // Primary host may change its location within the cluster due to failover or switchover.
+        // So we need to ensure where the primary is.
+        final PgConnection connectionToPrimary = haPgConnection.getConnectionToPrimary();
+        if (replicationLagDeterminer == null) {
+            return connectionToPrimary.getHost();
+        }
+
+        PgHost leastLaggedReplica = null;
+        Duration leastReplicationLag = null;
+        for (PgConnection pgConnection : haPgConnection.getConnectionsToAllHostsInCluster()) {
+            if (pgConnection.equals(connectionToPrimary)) {
+                continue;
+            }
+            final Optional<Duration> replicationLag = findReplicationLag(pgConnection);
+            if (replicationLag.isPresent() && replicationLag.get().compareTo(maxReplicationLag) <= 0 &&
+                    isBetter(pgConnection.getHost(), replicationLag.get(), leastLaggedReplica, leastReplicationLag)) {
+                leastLaggedReplica = pgConnection.getHost();
+                leastReplicationLag = replicationLag.get();
+            }
+        }
+        if (leastLaggedReplica == null) {
+            LOGGER.debug("There is no eligible replica; falling back to primary host [{}]", connectionToPrimary.getHost().getName());
+            return connectionToPrimary.getHost();
+        }
+        LOGGER.debug("Selected replica [{}] with replication lag {}", leastLaggedReplica.getName(), leastReplicationLag);
+        return leastLaggedReplica;
+    }
+
+    /**
+     * Determines whether diagnostics can be offloaded to replicas.
+     *
+     * @return {@code true} if replicas are taken into account
+     */
+    public boolean isReplicaPreferred() {
+        return replicationLagDeterminer != null;
+    }
+
+    @Nonnull
+    private Optional<Duration> findReplicationLag(@Nonnull final PgConnection pgConnection) {
+        final Instant now = clock.instant();
+        final CachedReplicationLag cachedReplicationLag = replicationLags.get(pgConnection.getHost());
+        if (cachedReplicationLag != null && cachedReplicationLag.isValidAt(now, refreshInterval)) {
+            return Optional.ofNullable(cachedReplicationLag.replicationLag);
+        }
+        Duration replicationLag = null;
+        try {
+            replicationLag = Objects.requireNonNull(replicationLagDeterminer).getReplicationLag(pgConnection);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to determine replication lag on host [{}]; the host is skipped", pgConnection.getHost().getName(), e);
+        }
+        replicationLags.put(pgConnection.getHost(), new CachedReplicationLag(replicationLag, now));
+        return Optional.ofNullable(replicationLag);
+    }
+
+    private static boolean isBetter(@Nonnull final PgHost host, @Nonnull final Duration replicationLag,
+                                    @Nullable final PgHost currentHost, @Nullable final Duration currentReplicationLag) {
+        if (currentHost == null || currentReplicationLag == null) {
+            return true;
+        }
+        final int result = replicationLag.compareTo(currentReplicationLag);
+        // Make the choice deterministic for replicas with the same lag
+        return result < 0 || (result == 0 && host.getName().compareTo(currentHost.getName()) < 0);
+    }
+
+    @Override
+    public String toString() {
+        return ReplicaRouting.class.getSimpleName() + '{' +
+                "replicaPreferred=" + isReplicaPreferred() +
+                ", maxReplicationLag=" + maxReplicationLag +
+                ", refreshInterval=" + refreshInterval +
+                '}';
+    }
+
+    /**
+     * Creates {@code ReplicaRouting} that executes all diagnostics on the primary host.
+     *
+     * @return {@code ReplicaRouting}
+     */
+    @Nonnull
+    public static ReplicaRouting primaryOnly() {
+        return PRIMARY_ONLY;
+    }
+
+    /**
+     * Creates {@code ReplicaRouting} that prefers the least lagged replica.
+     * Replication lag of each replica is re-read not more often than once per second.
+     *
+     * @param replicationLagDeterminer determiner of replication lag on hosts
+     * @param maxReplicationLag        maximum allowed replication lag of replica; should be positive
+     * @return {@code ReplicaRouting}
+     */
+    @Nonnull
+    public static ReplicaRouting leastLaggedReplica(@Nonnull final ReplicationLagDeterminer replicationLagDeterminer,
+                                                    @Nonnull final Duration maxReplicationLag) {
+        return leastLaggedReplica(replicationLagDeterminer, maxReplicationLag, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Creates {@code ReplicaRouting} that prefers the least lagged replica.
+     *
+     * @param replicationLagDeterminer determiner of replication lag on hosts
+     * @param maxReplicationLag        maximum allowed replication lag of replica; should be positive
+     * @param refreshInterval          how long the replication lag read from a host remains valid; should be positive
+     * @return {@code ReplicaRouting}
+     */
+    @Nonnull
+    public static ReplicaRouting leastLaggedReplica(@Nonnull final ReplicationLagDeterminer replicationLagDeterminer,
+                                                    @Nonnull final Duration maxReplicationLag,
+                                                    @Nonnull final Duration refreshInterval) {
+        Objects.requireNonNull(replicationLagDeterminer, "replicationLagDeterminer");
+        Objects.requireNonNull(maxReplicationLag, "maxReplicationLag");
+        Objects.requireNonNull(refreshInterval, "refreshInterval");
+        Validators.valueIsPositive(maxReplicationLag.toMillis(), "maxReplicationLag");
+        Validators.valueIsPositive(refreshInterval.toMillis(), "refreshInterval");
+        return new ReplicaRouting(replicationLagDeterminer, maxReplicationLag, refreshInterval, Clock.systemUTC());
+    }
+
+    @Immutable
+    private static final class CachedReplicationLag {
+
+        private final Duration replicationLag;
+        private final Instant measuredAt;
+
+        CachedReplicationLag(@Nullable final Duration replicationLag, @Nonnull final Instant measuredAt) {
+            this.replicationLag = replicationLag;
+            this.measuredAt = measuredAt;
+        }
+
+        boolean isValidAt(@Nonnull final Instant now, @Nonnull final Duration refreshInterval) {
+            return now.isBefore(measuredAt.plus(refreshInterval));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHost;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Accumulates latency histograms, rows and failures counts of diagnostic queries in memory.
+ * <p>
+ * Statistics are collected separately for each pair of diagnostic and host.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryStatistics
+ */
+@ThreadSafe
+public class InMemoryQueryMetrics implements QueryExecutionListener {
+
+    private final Map<Diagnostics, Map<PgHost, Recorder>> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onQueryExecuted(@Nonnull final QueryExecutionEvent event) {
+        Objects.requireNonNull(event, "event");
+        recorders.computeIfAbsent(event.getDiagnostics(), d -> new ConcurrentHashMap<>())
+                .computeIfAbsent(event.getHost(), h -> new Recorder())
+                .record(event);
+    }
+
+    /**
+     * Gets accumulated statistics of the given diagnostic on the given host.
+     *
+     * @param diagnostics diagnostic
+     * @param host        host in the cluster
+     * @return statistics or empty {@code Optional} if the diagnostic has never been executed on the host
+     */
+    @Nonnull
+    public Optional<QueryStatistics> getStatistics(@Nonnull final Diagnostics diagnostics, @Nonnull final PgHost host) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        Objects.requireNonNull(host, "host");
+        return Optional.ofNullable(recorders.get(diagnostics))
+                .map(r -> r.get(host))
+                .map(Recorder::snapshot);
+    }
+
+    /**
+     * Removes all accumulated statistics.
+     */
+    public void reset() {
+        recorders.clear();
+    }
+
+    private static final class Recorder {
+
+        @GuardedBy("this")
+        private long executionsCount;
+        @GuardedBy("this")
+        private long failuresCount;
+        @GuardedBy("this")
+        private long rowsCount;
+        @GuardedBy("this")
+        private Duration totalLatency = Duration.ZERO;
+        @GuardedBy("this")
+        private Duration maxLatency = Duration.ZERO;
+        @GuardedBy("this")
+        private final long[] bucketCounts = new long[QueryStatistics.BUCKET_BOUNDS_MILLIS.length + 1];
+
+        synchronized void record(@Nonnull final QueryExecutionEvent event) {
+            ++executionsCount;
+            if (event.isSuccessful()) {
+                rowsCount += event.getRowsCount();
+            } else {
+                ++failuresCount;
+            }
+            final Duration latency = event.getLatency();
+            totalLatency = totalLatency.plus(latency);
+            if (latency.compareTo(maxLatency) > 0) {
+                maxLatency = latency;
+            }
+            ++bucketCounts[QueryStatistics.bucketIndex(latency)];
+        }
+
+        @Nonnull
+        synchronized QueryStatistics snapshot() {
+            return new QueryStatistics(executionsCount, failuresCount, rowsCount, totalLatency, maxLatency, bucketCounts);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Publishes metrics of diagnostic queries to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Registers timer {@value #QUERY_METRIC_NAME} and distribution summary {@value #ROWS_METRIC_NAME}
+ * tagged with diagnostic, host, schema and outcome.
+ * Rows are recorded only for successful queries, so failures do not skew the rows distribution.
+ * Micrometer is an optional dependency and should be added to the classpath explicitly.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutionListener
+ */
+public class MicrometerQueryExecutionListener implements QueryExecutionListener {
+
+    public static final String QUERY_METRIC_NAME = "pg.index.health.query";
+    public static final String ROWS_METRIC_NAME = "pg.index.health.query.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    public MicrometerQueryExecutionListener(@Nonnull final MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onQueryExecuted(@Nonnull final QueryExecutionEvent event) {
+        final RuntimeException failure = event.getFailure();
+        final Tags tags = Tags.of(
+                "diagnostic", event.getDiagnostics().name().toLowerCase(Locale.ROOT),
+                "host", event.getHost().getName(),
+                "schema", event.getSchemaName(),
+                "outcome", failure == null ? "success" : "failure",
+                "exception", failure == null ? "none" : failure.getClass().getSimpleName());
+        Timer.builder(QUERY_METRIC_NAME)
+                .description("Execution time of pg-index-health diagnostic queries")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(event.getLatency());
+        if (failure != null) {
+            return;
+        }
+        DistributionSummary.builder(ROWS_METRIC_NAME)
+                .description("Number of rows returned by pg-index-health diagnostic queries")
+                .baseUnit("rows")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(event.getRowsCount());
+    }
+}
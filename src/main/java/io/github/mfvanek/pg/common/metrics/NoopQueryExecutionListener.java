@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import javax.annotation.Nonnull;
+
+final class NoopQueryExecutionListener implements QueryExecutionListener {
+
+    static final QueryExecutionListener INSTANCE = new NoopQueryExecutionListener();
+
+    private NoopQueryExecutionListener() {
+    }
+
+    @Override
+    public void onQueryExecuted(@Nonnull final QueryExecutionEvent event) {
+        // nothing to do
+    }
+
+    @Override
+    public String toString() {
+        return NoopQueryExecutionListener.class.getSimpleName();
+    }
+}
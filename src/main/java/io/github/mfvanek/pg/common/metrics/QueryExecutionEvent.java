@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Details of a single diagnostic query execution on a specific host.
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutionListener
+ */
+@Immutable
+public class QueryExecutionEvent {
+
+    private final Diagnostics diagnostics;
+    private final PgHost host;
+    private final String schemaName;
+    private final Duration latency;
+    private final int rowsCount;
+    private final RuntimeException failure;
+
+    private QueryExecutionEvent(@Nonnull final Diagnostics diagnostics,
+                                @Nonnull final PgHost host,
+                                @Nonnull final String schemaName,
+                                @Nonnull final Duration latency,
+                                final int rowsCount,
+                                @Nullable final RuntimeException failure) {
+        this.diagnostics = Objects.requireNonNull(diagnostics, "diagnostics");
+        this.host = Objects.requireNonNull(host, "host");
+        this.schemaName = Validators.notBlank(schemaName, "schemaName");
+        this.latency = Objects.requireNonNull(latency, "latency");
+        this.rowsCount = Validators.argumentNotNegative(rowsCount, "rowsCount");
+        this.failure = failure;
+    }
+
+    @Nonnull
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    @Nonnull
+    public PgHost getHost() {
+        return host;
+    }
+
+    @Nonnull
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    /**
+     * Gets wall-clock time of the query execution including fetching and mapping of all rows.
+     *
+     * @return query latency
+     */
+    @Nonnull
+    public Duration getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets number of rows returned by the query.
+     *
+     * @return rows count; zero for failed queries
+     */
+    public int getRowsCount() {
+        return rowsCount;
+    }
+
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    /**
+     * Gets exception the query failed with.
+     *
+     * @return exception or {@code null} for successful queries
+     */
+    @Nullable
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return QueryExecutionEvent.class.getSimpleName() + '{' +
+                "diagnostics=" + diagnostics +
+                ", host=" + host.getName() +
+                ", schemaName='" + schemaName + '\'' +
+                ", latency=" + latency +
+                ", rowsCount=" + rowsCount +
+                ", failure=" + failure +
+                '}';
+    }
+
+    @Nonnull
+    public static QueryExecutionEvent succeeded(@Nonnull final Diagnostics diagnostics,
+                                                @Nonnull final PgHost host,
+                                                @Nonnull final String schemaName,
+                                                @Nonnull final Duration latency,
+                                                final int rowsCount) {
+        return new QueryExecutionEvent(diagnostics, host, schemaName, latency, rowsCount, null);
+    }
+
+    @Nonnull
+    public static QueryExecutionEvent failed(@Nonnull final Diagnostics diagnostics,
+                                             @Nonnull final PgHost host,
+                                             @Nonnull final String schemaName,
+                                             @Nonnull final Duration latency,
+                                             @Nonnull final RuntimeException failure) {
+        return new QueryExecutionEvent(diagnostics, host, schemaName, latency, 0, Objects.requireNonNull(failure, "failure"));
+    }
+}
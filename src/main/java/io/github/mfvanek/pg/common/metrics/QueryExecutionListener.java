@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A listener that is notified after every diagnostic query completes on a specific host.
+ * <p>
+ * Implementations should be thread-safe and fast: they are invoked in the thread that executed the query.
+ * Exceptions thrown by a listener are logged and ignored.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutionEvent
+ * @see InMemoryQueryMetrics
+ * @see MicrometerQueryExecutionListener
+ */
+@FunctionalInterface
+public interface QueryExecutionListener {
+
+    /**
+     * Handles the result of a query execution.
+     *
+     * @param event details of the query execution
+     */
+    void onQueryExecuted(@Nonnull QueryExecutionEvent event);
+
+    /**
+     * Gets listener that does nothing.
+     *
+     * @return {@code QueryExecutionListener}
+     */
+    @Nonnull
+    static QueryExecutionListener noop() {
+        return NoopQueryExecutionListener.INSTANCE;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Snapshot of accumulated statistics of a diagnostic query on a specific host.
+ * <p>
+ * Latencies are kept in a histogram with fixed buckets, so percentiles are approximated
+ * by the upper bound of the corresponding bucket.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see InMemoryQueryMetrics
+ */
+@Immutable
+public class QueryStatistics {
+
+    /**
+     * Upper bounds (inclusive) of latency histogram buckets in milliseconds.
+     * The last bucket holds all executions that took longer than the last bound.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = {1L, 2L, 5L, 10L, 20L, 50L, 100L, 200L, 500L,
+        1_000L, 2_000L, 5_000L, 10_000L, 30_000L, 60_000L, 300_000L};
+
+    private final long executionsCount;
+    private final long failuresCount;
+    private final long rowsCount;
+    private final Duration totalLatency;
+    private final Duration maxLatency;
+    private final long[] bucketCounts;
+
+    QueryStatistics(final long executionsCount,
+                    final long failuresCount,
+                    final long rowsCount,
+                    @Nonnull final Duration totalLatency,
+                    @Nonnull final Duration maxLatency,
+                    @Nonnull final long[] bucketCounts) {
+        this.executionsCount = executionsCount;
+        this.failuresCount = failuresCount;
+        this.rowsCount = rowsCount;
+        this.totalLatency = Objects.requireNonNull(totalLatency, "totalLatency");
+        this.maxLatency = Objects.requireNonNull(maxLatency, "maxLatency");
+        this.bucketCounts = Arrays.copyOf(bucketCounts, bucketCounts.length);
+    }
+
+    /**
+     * Gets number of executions including failed ones.
+     *
+     * @return executions count
+     */
+    public long getExecutionsCount() {
+        return executionsCount;
+    }
+
+    public long getFailuresCount() {
+        return failuresCount;
+    }
+
+    /**
+     * Gets total number of rows returned by all successful executions.
+     *
+     * @return rows count
+     */
+    public long getRowsCount() {
+        return rowsCount;
+    }
+
+    @Nonnull
+    public Duration getTotalLatency() {
+        return totalLatency;
+    }
+
+    @Nonnull
+    public Duration getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Nonnull
+    public Duration getMeanLatency() {
+        if (executionsCount == 0L) {
+            return Duration.ZERO;
+        }
+        return totalLatency.dividedBy(executionsCount);
+    }
+
+    /**
+     * Gets approximate latency percentile.
+     *
+     * @param percentile percentile in range (0, 100]; for example, 99 for the 99th percentile
+     * @return upper bound of the histogram bucket containing the percentile, but not more than the max latency
+     */
+    @Nonnull
+    public Duration getLatencyPercentile(final double percentile) {
+        if (percentile <= 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("percentile should be in range (0, 100]");
+        }
+        final long rank = (long) Math.ceil(executionsCount * percentile / 100.0);
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; ++i) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                final Duration bound = Duration.ofMillis(BUCKET_BOUNDS_MILLIS[i]);
+                return bound.compareTo(maxLatency) < 0 ? bound : maxLatency;
+            }
+        }
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return QueryStatistics.class.getSimpleName() + '{' +
+                "executionsCount=" + executionsCount +
+                ", failuresCount=" + failuresCount +
+                ", rowsCount=" + rowsCount +
+                ", totalLatency=" + totalLatency +
+                ", maxLatency=" + maxLatency +
+                '}';
+    }
+
+    static int bucketIndex(@Nonnull final Duration latency) {
+        final long millis = latency.toMillis();
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; ++i) {
+            if (millis <= BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+}
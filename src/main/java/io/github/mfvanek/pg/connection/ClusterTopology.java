@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A snapshot of the cluster topology: all hosts and the one of them that is primary.
+ * <p>
+ * The topology is detected once and then used to open connections to any database in the cluster
+ * without probing hosts again.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see HighAvailabilityPgConnection
+ */
+@Immutable
+public final class ClusterTopology {
+
+    private final PgHost primaryHost;
+    private final List<PgHost> hosts;
+
+    private ClusterTopology(@Nonnull final PgHost primaryHost, @Nonnull final List<PgHost> hosts) {
+        this.primaryHost = Objects.requireNonNull(primaryHost, "primaryHost");
+        this.hosts = Collections.unmodifiableList(hosts);
+    }
+
+    /**
+     * Gets the primary host.
+     *
+     * @return primary host
+     */
+    @Nonnull
+    public PgHost getPrimaryHost() {
+        return primaryHost;
+    }
+
+    /**
+     * Gets all hosts in the cluster (including the primary) sorted by name.
+     *
+     * @return all hosts in the cluster
+     */
+    @Nonnull
+    public List<PgHost> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Opens connections to the given database on all hosts in the cluster.
+     * <p>
+     * The caller is responsible for closing the returned connection.
+     * </p>
+     *
+     * @param databaseName        name of the database
+     * @param credentials         credentials with user name and password
+     * @param pgConnectionFactory factory for creating connections to single hosts
+     * @return {@code HighAvailabilityPgConnection} to the given database
+     */
+    @Nonnull
+    public HighAvailabilityPgConnection connectTo(@Nonnull final String databaseName,
+                                                  @Nonnull final ConnectionCredentials credentials,
+                                                  @Nonnull final PgConnectionFactory pgConnectionFactory) {
+        Validators.notBlank(databaseName, "databaseName");
+        Objects.requireNonNull(credentials, "credentials");
+        Objects.requireNonNull(pgConnectionFactory, "pgConnectionFactory");
+        final List<PgConnection> connections = new ArrayList<>(hosts.size());
+        try {
+            PgConnection connectionToPrimary = null;
+            for (PgHost host : hosts) {
+                final String pgUrl = PgUrlParser.replaceDatabaseName(host.getPgUrl(), databaseName);
+                final PgConnection pgConnection = pgConnectionFactory.forUrl(pgUrl, credentials.getUserName(), credentials.getPassword());
+                connections.add(pgConnection);
+                if (host.equals(primaryHost)) {
+                    connectionToPrimary = pgConnection;
+                }
+            }
+            return HighAvailabilityPgConnectionImpl.of(Objects.requireNonNull(connectionToPrimary), connections);
+        } catch (RuntimeException e) {
+            try {
+                PgConnectionHelper.closeAll(connections);
+            } catch (RuntimeException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ClusterTopology.class.getSimpleName() + '{' +
+                "primaryHost=" + primaryHost.getName() +
+                ", hosts=" + hosts.stream().map(PgHost::getName).collect(Collectors.toList()) +
+                '}';
+    }
+
+    /**
+     * Captures the topology of the cluster from the given connection.
+     *
+     * @param haPgConnection connection to the cluster
+     * @return {@code ClusterTopology}
+     */
+    @Nonnull
+    public static ClusterTopology of(@Nonnull final HighAvailabilityPgConnection haPgConnection) {
+        Objects.requireNonNull(haPgConnection, "haPgConnection");
+        final PgHost primaryHost = haPgConnection.getConnectionToPrimary().getHost();
+        final List<PgHost> hosts = haPgConnection.getConnectionsToAllHostsInCluster().stream()
+                .map(PgConnection::getHost)
+                .sorted(Comparator.comparing(PgHost::getName))
+                .collect(Collectors.toList());
+        return new ClusterTopology(primaryHost, hosts);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Settings of connection pool created for each host in the cluster.
+ *
+ * @author Ivan Vakhrushev
+ * @see PgConnectionFactoryImpl
+ */
+@Immutable
+public class ConnectionPoolSettings {
+
+    private final int maxPoolSize;
+    private final int minIdle;
+    private final int statementCacheSize;
+    private final Duration validationInterval;
+    private final Duration maxLifetime;
+
+    ConnectionPoolSettings(final int maxPoolSize,
+                           final int minIdle,
+                           final int statementCacheSize,
+                           @Nonnull final Duration validationInterval,
+                           @Nonnull final Duration maxLifetime) {
+        Validators.valueIsPositive(maxPoolSize, "maxPoolSize");
+        this.maxPoolSize = maxPoolSize;
+        this.minIdle = Validators.argumentNotNegative(minIdle, "minIdle");
+        if (minIdle > maxPoolSize) {
+            throw new IllegalArgumentException("minIdle should not be greater than maxPoolSize");
+        }
+        this.statementCacheSize = Validators.argumentNotNegative(statementCacheSize, "statementCacheSize");
+        this.validationInterval = durationNotNegative(validationInterval, "validationInterval");
+        this.maxLifetime = durationNotNegative(maxLifetime, "maxLifetime");
+    }
+
+    /**
+     * Gets maximum number of connections to a single host.
+     *
+     * @return maximum pool size
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * Gets minimum number of idle connections kept open to a single host.
+     *
+     * @return minimum number of idle connections
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Gets maximum number of cached prepared statements per connection.
+     *
+     * @return size of prepared statements cache; zero means that caching is disabled
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Gets interval of background validation of idle connections.
+     *
+     * @return validation interval; zero means that background validation is disabled
+     */
+    @Nonnull
+    public Duration getValidationInterval() {
+        return validationInterval;
+    }
+
+    /**
+     * Gets maximum lifetime of a connection.
+     *
+     * @return maximum lifetime; zero means infinite lifetime
+     */
+    @Nonnull
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    @Override
+    public String toString() {
+        return ConnectionPoolSettings.class.getSimpleName() + '{' +
+                "maxPoolSize=" + maxPoolSize +
+                ", minIdle=" + minIdle +
+                ", statementCacheSize=" + statementCacheSize +
+                ", validationInterval=" + validationInterval +
+                ", maxLifetime=" + maxLifetime +
+                '}';
+    }
+
+    @Nonnull
+    private static Duration durationNotNegative(@Nonnull final Duration duration, @Nonnull final String argumentName) {
+        Objects.requireNonNull(duration, argumentName);
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(argumentName + " cannot be less than zero");
+        }
+        return duration;
+    }
+
+    /**
+     * Gets default settings: a single connection per host without statements caching and background validation.
+     *
+     * @return {@code ConnectionPoolSettings}
+     */
+    @Nonnull
+    public static ConnectionPoolSettings defaults() {
+        return builder().build();
+    }
+
+    @Nonnull
+    public static ConnectionPoolSettingsBuilder builder() {
+        return new ConnectionPoolSettingsBuilder();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Builder for {@link ConnectionPoolSettings}.
+ *
+ * @author Ivan Vakhrushev
+ * @see ConnectionPoolSettings
+ */
+public class ConnectionPoolSettingsBuilder {
+
+    private int maxPoolSize = 1;
+    private int minIdle = 0;
+    private int statementCacheSize = 0;
+    private Duration validationInterval = Duration.ZERO;
+    private Duration maxLifetime = Duration.ZERO;
+
+    ConnectionPoolSettingsBuilder() {
+    }
+
+    /**
+     * Sets maximum number of connections to a single host.
+     * It should be not less than the number of diagnostics running at the same time.
+     *
+     * @param maxPoolSize maximum pool size; should be positive
+     * @return {@code Builder}
+     */
+    public ConnectionPoolSettingsBuilder withMaxPoolSize(final int maxPoolSize) {
+        Validators.valueIsPositive(maxPoolSize, "maxPoolSize");
+        this.maxPoolSize = maxPoolSize;
+        return this;
+    }
+
+    /**
+     * Sets minimum number of idle connections kept open to a single host.
+     *
+     * @param minIdle minimum number of idle connections; should be non-negative
+     * @return {@code Builder}
+     */
+    public ConnectionPoolSettingsBuilder withMinIdle(final int minIdle) {
+        this.minIdle = Validators.argumentNotNegative(minIdle, "minIdle");
+        return this;
+    }
+
+    /**
+     * Sets maximum number of cached prepared statements per connection.
+     *
+     * @param statementCacheSize size of prepared statements cache; zero disables caching
+     * @return {@code Builder}
+     */
+    public ConnectionPoolSettingsBuilder withStatementCacheSize(final int statementCacheSize) {
+        this.statementCacheSize = Validators.argumentNotNegative(statementCacheSize, "statementCacheSize");
+        return this;
+    }
+
+    /**
+     * Sets interval of background validation of idle connections.
+     *
+     * @param validationInterval validation interval; zero disables background validation
+     * @return {@code Builder}
+     */
+    public ConnectionPoolSettingsBuilder withValidationInterval(@Nonnull final Duration validationInterval) {
+        this.validationInterval = Objects.requireNonNull(validationInterval, "validationInterval");
+        return this;
+    }
+
+    /**
+     * Sets maximum lifetime of a connection.
+     *
+     * @param maxLifetime maximum lifetime; zero means infinite lifetime
+     * @return {@code Builder}
+     */
+    public ConnectionPoolSettingsBuilder withMaxLifetime(@Nonnull final Duration maxLifetime) {
+        this.maxLifetime = Objects.requireNonNull(maxLifetime, "maxLifetime");
+        return this;
+    }
+
+    @Nonnull
+    public ConnectionPoolSettings build() {
+        return new ConnectionPoolSettings(maxPoolSize, minIdle, statementCacheSize, validationInterval, maxLifetime);
+    }
+
+    @Override
+    public String toString() {
+        return ConnectionPoolSettingsBuilder.class.getSimpleName() + '{' +
+                "maxPoolSize=" + maxPoolSize +
+                ", minIdle=" + minIdle +
+                ", statementCacheSize=" + statementCacheSize +
+                ", validationInterval=" + validationInterval +
+                ", maxLifetime=" + maxLifetime +
+                '}';
+    }
+}
@@ -19,7 +19,7 @@ import javax.annotation.Nonnull;
  * @author Ivan Vakhrushev
  * @see PgConnection
  */
-public interface HighAvailabilityPgConnection {
+public interface HighAvailabilityPgConnection extends AutoCloseable {
 
     /**
      * Gets connection to a primary host in the cluster.
@@ -36,4 +36,13 @@ public interface HighAvailabilityPgConnection {
      */
     @Nonnull
     Set<PgConnection> getConnectionsToAllHostsInCluster();
+
+    /**
+     * Closes connections to all hosts in the cluster.
+     * The default implementation does nothing, so implementations outside the library keep compiling.
+     */
+    @Override
+    default void close() {
+        // nothing to release by default
+    }
 }
@@ -10,6 +10,7 @@
 
 package io.github.mfvanek.pg.connection;
 
+import java.time.Duration;
 import java.util.Collection;
 import javax.annotation.Nonnull;
 
@@ -24,6 +25,21 @@ public interface HighAvailabilityPgConnectionFactory {
     @Nonnull
     HighAvailabilityPgConnection of(@Nonnull ConnectionCredentials credentials);
 
+    /**
+     * Creates long-lived instance of {@code HighAvailabilityPgConnection} with given credentials.
+     * The connection to the primary host is cached and re-checked in background with the given interval.
+     * The default implementation does not support long-lived connections.
+     *
+     * @param credentials            given credentials.
+     * @param primaryRefreshInterval interval between checks of the primary host; should be positive
+     * @return instance of {@code HighAvailabilityPgConnection}
+     * @throws UnsupportedOperationException if the factory cannot create long-lived connections
+     */
+    @Nonnull
+    default HighAvailabilityPgConnection of(@Nonnull final ConnectionCredentials credentials, @Nonnull final Duration primaryRefreshInterval) {
+        throw new UnsupportedOperationException("Long-lived connections are not supported by " + getClass().getName());
+    }
+
     @Nonnull
     default HighAvailabilityPgConnection ofUrl(@Nonnull final String writeUrl,
                                                @Nonnull final String userName,
@@ -12,22 +12,47 @@ package io.github.mfvanek.pg.connection;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
 import javax.annotation.Nonnull;
 
 public class HighAvailabilityPgConnectionFactoryImpl implements HighAvailabilityPgConnectionFactory {
 
     private final PgConnectionFactory pgConnectionFactory;
     private final PrimaryHostDeterminer primaryHostDeterminer;
+    private final ParallelPrimaryHostFinder parallelPrimaryHostFinder;
 
     public HighAvailabilityPgConnectionFactoryImpl(@Nonnull final PgConnectionFactory pgConnectionFactory,
                                                    @Nonnull final PrimaryHostDeterminer primaryHostDeterminer) {
         this.pgConnectionFactory = Objects.requireNonNull(pgConnectionFactory);
         this.primaryHostDeterminer = Objects.requireNonNull(primaryHostDeterminer);
+        this.parallelPrimaryHostFinder = null;
+    }
+
+    /**
+     * Creates factory that probes all hosts concurrently while looking for the primary.
+     * The first host that reports itself as primary wins; remaining probes are cancelled.
+     * Time spent on each host is logged.
+     *
+     * @param pgConnectionFactory   factory for creating connections to single hosts
+     * @param primaryHostDeterminer {@code PrimaryHostDeterminer} for checking hosts
+     * @param probeExecutor         executor service for running probes; its lifecycle is managed by the caller
+     * @param probeTimeout          maximum time to wait for the primary; should be positive
+     */
+    public HighAvailabilityPgConnectionFactoryImpl(@Nonnull final PgConnectionFactory pgConnectionFactory,
+                                                   @Nonnull final PrimaryHostDeterminer primaryHostDeterminer,
+                                                   @Nonnull final ExecutorService probeExecutor,
+                                                   @Nonnull final Duration probeTimeout) {
+        this.pgConnectionFactory = Objects.requireNonNull(pgConnectionFactory);
+        this.primaryHostDeterminer = Objects.requireNonNull(primaryHostDeterminer);
+        this.parallelPrimaryHostFinder = new ParallelPrimaryHostFinder(primaryHostDeterminer, probeExecutor, probeTimeout);
     }
 
     /**
@@ -36,11 +61,39 @@ public class HighAvailabilityPgConnectionFactoryImpl implements HighAvailability
     @Nonnull
     @Override
     public HighAvailabilityPgConnection of(@Nonnull final ConnectionCredentials credentials) {
+        return create(credentials, HighAvailabilityPgConnectionImpl::of);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public HighAvailabilityPgConnection of(@Nonnull final ConnectionCredentials credentials,
+                                           @Nonnull final Duration primaryRefreshInterval) {
+        Objects.requireNonNull(primaryRefreshInterval, "primaryRefreshInterval");
+        return create(credentials, (primary, all) -> HighAvailabilityPgConnectionImpl.of(
+                primary, all, primaryHostDeterminer, primaryRefreshInterval));
+    }
+
+    @Nonnull
+    private HighAvailabilityPgConnection create(
+            @Nonnull final ConnectionCredentials credentials,
+            @Nonnull final BiFunction<PgConnection, Collection<PgConnection>, HighAvailabilityPgConnection> constructor) {
         final Map<String, PgConnection> connectionsToAllHostsInCluster = new LinkedHashMap<>();
         credentials.getConnectionUrls().forEach(
                 url -> addDataSourcesForAllHostsFromUrl(connectionsToAllHostsInCluster, url, credentials));
-        final PgConnection connectionToPrimary = findConnectionToPrimary(connectionsToAllHostsInCluster);
-        return HighAvailabilityPgConnectionImpl.of(connectionToPrimary, connectionsToAllHostsInCluster.values());
+        try {
+            final PgConnection connectionToPrimary = findConnectionToPrimary(connectionsToAllHostsInCluster);
+            return constructor.apply(connectionToPrimary, connectionsToAllHostsInCluster.values());
+        } catch (RuntimeException e) {
+            try {
+                PgConnectionHelper.closeAll(connectionsToAllHostsInCluster.values());
+            } catch (RuntimeException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
     }
 
     private void addDataSourcesForAllHostsFromUrl(@Nonnull final Map<String, PgConnection> connectionsToAllHostsInCluster,
@@ -54,6 +107,9 @@ public class HighAvailabilityPgConnectionFactoryImpl implements HighAvailability
     }
 
     private PgConnection findConnectionToPrimary(final Map<String, PgConnection> connectionsToAllHostsInCluster) {
+        if (parallelPrimaryHostFinder != null) {
+            return parallelPrimaryHostFinder.find(connectionsToAllHostsInCluster.values());
+        }
         for (PgConnection pgConnection : connectionsToAllHostsInCluster.values()) {
             if (primaryHostDeterminer.isPrimary(pgConnection)) {
                 return pgConnection;
@@ -10,27 +10,46 @@
 
 package io.github.mfvanek.pg.connection;
 
+import io.github.mfvanek.pg.utils.Validators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class HighAvailabilityPgConnectionImpl implements HighAvailabilityPgConnection {
 
-    // TODO Bad design. Need logic here to deal with failover/switch-over in real cluster.
-    //  As a possible solution - cache connectionToPrimary for a short period of time (e.g. 1 minute)
-    private final PgConnection connectionToPrimary;
+    private static final Logger LOGGER = LoggerFactory.getLogger(HighAvailabilityPgConnectionImpl.class);
+
+    private final AtomicReference<PgConnection> cachedConnectionToPrimary;
     private final Set<PgConnection> connectionsToAllHostsInCluster;
+    private final PrimaryHostDeterminer primaryHostDeterminer;
+    private final ScheduledExecutorService primaryRefreshExecutor;
 
     private HighAvailabilityPgConnectionImpl(@Nonnull final PgConnection connectionToPrimary,
-                                             @Nonnull final Collection<PgConnection> connectionsToAllHostsInCluster) {
-        this.connectionToPrimary = Objects.requireNonNull(connectionToPrimary, "connectionToPrimary");
+                                             @Nonnull final Collection<PgConnection> connectionsToAllHostsInCluster,
+                                             @Nullable final PrimaryHostDeterminer primaryHostDeterminer) {
+        this.cachedConnectionToPrimary = new AtomicReference<>(Objects.requireNonNull(connectionToPrimary, "connectionToPrimary"));
         final Set<PgConnection> defensiveCopy = new HashSet<>(
                 Objects.requireNonNull(connectionsToAllHostsInCluster, "connectionsToAllHostsInCluster"));
         PgConnectionValidators.shouldContainsConnectionToPrimary(connectionToPrimary, defensiveCopy);
         this.connectionsToAllHostsInCluster = Collections.unmodifiableSet(defensiveCopy);
+        this.primaryHostDeterminer = primaryHostDeterminer;
+        this.primaryRefreshExecutor = primaryHostDeterminer == null ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "pg-index-health-primary-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -39,7 +58,7 @@ public class HighAvailabilityPgConnectionImpl implements HighAvailabilityPgConne
     @Override
     @Nonnull
     public PgConnection getConnectionToPrimary() {
-        return connectionToPrimary;
+        return cachedConnectionToPrimary.get();
     }
 
     /**
@@ -51,14 +70,87 @@ public class HighAvailabilityPgConnectionImpl implements HighAvailabilityPgConne
         return connectionsToAllHostsInCluster;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (primaryRefreshExecutor != null) {
+            primaryRefreshExecutor.shutdownNow();
+        }
+        PgConnectionHelper.closeAll(connectionsToAllHostsInCluster);
+    }
+
+    /**
+     * Ensures that the cached connection still points to the primary host.
+     * If the primary has moved to another host (due to failover or switchover),
+     * the cached connection is replaced atomically.
+     */
+    void refreshPrimary() {
+        final PgConnection current = cachedConnectionToPrimary.get();
+        if (isPrimary(current)) {
+            return;
+        }
+        for (PgConnection candidate : connectionsToAllHostsInCluster) {
+            if (!candidate.equals(current) && isPrimary(candidate)) {
+                LOGGER.info("Primary host has changed from {} to {}", current.getHost().getName(), candidate.getHost().getName());
+                cachedConnectionToPrimary.compareAndSet(current, candidate);
+                return;
+            }
+        }
+        LOGGER.warn("Primary host not found in the cluster; keeping connection to {}", current.getHost().getName());
+    }
+
+    private boolean isPrimary(@Nonnull final PgConnection pgConnection) {
+        try {
+            return Objects.requireNonNull(primaryHostDeterminer).isPrimary(pgConnection);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to check whether host {} is primary", pgConnection.getHost().getName(), e);
+            return false;
+        }
+    }
+
+    private void schedulePrimaryRefresh(@Nonnull final Duration refreshInterval) {
+        final long intervalInMillis = refreshInterval.toMillis();
+        Objects.requireNonNull(primaryRefreshExecutor).scheduleWithFixedDelay(
+                this::refreshPrimary, intervalInMillis, intervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
     @Nonnull
     public static HighAvailabilityPgConnection of(@Nonnull final PgConnection connectionToPrimary) {
-        return new HighAvailabilityPgConnectionImpl(connectionToPrimary, Collections.singleton(connectionToPrimary));
+        return new HighAvailabilityPgConnectionImpl(connectionToPrimary, Collections.singleton(connectionToPrimary), null);
     }
 
     @Nonnull
     public static HighAvailabilityPgConnection of(@Nonnull final PgConnection connectionToPrimary,
                                                   @Nonnull final Collection<PgConnection> connectionsToAllHostsInCluster) {
-        return new HighAvailabilityPgConnectionImpl(connectionToPrimary, connectionsToAllHostsInCluster);
+        return new HighAvailabilityPgConnectionImpl(connectionToPrimary, connectionsToAllHostsInCluster, null);
+    }
+
+    /**
+     * Creates long-lived {@code HighAvailabilityPgConnection} that caches the connection to the primary host
+     * and periodically re-checks it in background in order to follow failover and switchover.
+     * <p>
+     * The background refresh is stopped on {@link #close()}.
+     * </p>
+     *
+     * @param connectionToPrimary            connection to the current primary host
+     * @param connectionsToAllHostsInCluster connections to all hosts in the cluster (including the primary)
+     * @param primaryHostDeterminer          {@code PrimaryHostDeterminer} for checking hosts
+     * @param primaryRefreshInterval         interval between checks; should be positive
+     * @return {@code HighAvailabilityPgConnection}
+     */
+    @Nonnull
+    public static HighAvailabilityPgConnection of(@Nonnull final PgConnection connectionToPrimary,
+                                                  @Nonnull final Collection<PgConnection> connectionsToAllHostsInCluster,
+                                                  @Nonnull final PrimaryHostDeterminer primaryHostDeterminer,
+                                                  @Nonnull final Duration primaryRefreshInterval) {
+        Objects.requireNonNull(primaryHostDeterminer, "primaryHostDeterminer");
+        Objects.requireNonNull(primaryRefreshInterval, "primaryRefreshInterval");
+        Validators.valueIsPositive(primaryRefreshInterval.toMillis(), "primaryRefreshInterval");
+        final HighAvailabilityPgConnectionImpl haPgConnection = new HighAvailabilityPgConnectionImpl(
+                connectionToPrimary, connectionsToAllHostsInCluster, primaryHostDeterminer);
+        haPgConnection.schedulePrimaryRefresh(primaryRefreshInterval);
+        return haPgConnection;
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Current load of a host in the cluster as reported by the host itself.
+ *
+ * @author Ivan Vakhrushev
+ * @see HostLoadDeterminer
+ */
+@Immutable
+public final class HostLoad {
+
+    private final int activeBackends;
+    private final Duration replicationLag;
+
+    private HostLoad(final int activeBackends, @Nonnull final Duration replicationLag) {
+        this.activeBackends = Validators.argumentNotNegative(activeBackends, "activeBackends");
+        this.replicationLag = Objects.requireNonNull(replicationLag, "replicationLag");
+    }
+
+    /**
+     * Gets number of backends that are executing a query at the moment (excluding the current one).
+     *
+     * @return number of active backends
+     */
+    public int getActiveBackends() {
+        return activeBackends;
+    }
+
+    /**
+     * Gets replay lag of the host.
+     *
+     * @return replication lag; zero for a primary host
+     */
+    @Nonnull
+    public Duration getReplicationLag() {
+        return replicationLag;
+    }
+
+    @Override
+    public String toString() {
+        return HostLoad.class.getSimpleName() + '{' +
+                "activeBackends=" + activeBackends +
+                ", replicationLag=" + replicationLag +
+                '}';
+    }
+
+    @Nonnull
+    public static HostLoad of(final int activeBackends, @Nonnull final Duration replicationLag) {
+        return new HostLoad(activeBackends, replicationLag);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import javax.annotation.Nonnull;
+
+public interface HostLoadDeterminer {
+
+    /**
+     * Determines current load of the given host.
+     *
+     * @param pgConnection {@code PgConnection} object
+     * @return load of the host
+     */
+    @Nonnull
+    HostLoad getHostLoad(@Nonnull PgConnection pgConnection);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+public class HostLoadDeterminerImpl implements HostLoadDeterminer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HostLoadDeterminerImpl.class);
+    private static final String SQL_QUERY_PREFIX = "select " +
+            "(select count(*) from pg_catalog.pg_stat_activity where state = 'active' and pid <> pg_backend_pid())::integer as active_backends, ";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public HostLoad getHostLoad(@Nonnull final PgConnection pgConnection) {
+        Objects.requireNonNull(pgConnection, "pgConnection");
+        final DataSource dataSource = pgConnection.getDataSource();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            final String sqlQuery = SQL_QUERY_PREFIX + ReplicationLagQueries.lagMillisColumn(connection);
+            LOGGER.debug("Executing on host {} query: {}", pgConnection.getHost(), sqlQuery);
+            try (ResultSet resultSet = statement.executeQuery(sqlQuery)) {
+                resultSet.next();
+                final HostLoad hostLoad = HostLoad.of(resultSet.getInt("active_backends"), Duration.ofMillis(resultSet.getLong("lag_millis")));
+                LOGGER.debug("Query completed with result {}", hostLoad);
+                return hostLoad;
+            }
+        } catch (SQLException e) {
+            LOGGER.trace("Query failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Probes all hosts in the cluster concurrently and returns the first one that reports itself as primary.
+ * Remaining probes are cancelled as soon as the primary is found.
+ * A failed probe does not stop the discovery since an unreachable replica can fail before the primary responds.
+ * If all probes are completed without finding the primary, the first failure is rethrown to the caller
+ * with the other ones added as suppressed exceptions.
+ *
+ * @author Ivan Vakhrushev
+ * @see PrimaryHostDeterminer
+ */
+final class ParallelPrimaryHostFinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelPrimaryHostFinder.class);
+    private static final String PENDING = "pending";
+
+    private final PrimaryHostDeterminer primaryHostDeterminer;
+    private final ExecutorService executorService;
+    private final Duration probeTimeout;
+
+    ParallelPrimaryHostFinder(@Nonnull final PrimaryHostDeterminer primaryHostDeterminer,
+                              @Nonnull final ExecutorService executorService,
+                              @Nonnull final Duration probeTimeout) {
+        this.primaryHostDeterminer = Objects.requireNonNull(primaryHostDeterminer, "primaryHostDeterminer");
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.probeTimeout = Objects.requireNonNull(probeTimeout, "probeTimeout");
+        if (probeTimeout.isNegative() || probeTimeout.isZero()) {
+            throw new IllegalArgumentException("probeTimeout should be greater than zero");
+        }
+    }
+
+    @Nonnull
+    PgConnection find(@Nonnull final Collection<PgConnection> connectionsToAllHostsInCluster) {
+        final Map<PgConnection, String> report = new LinkedHashMap<>();
+        connectionsToAllHostsInCluster.forEach(c -> report.put(c, PENDING));
+        final CompletionService<ProbeResult> completionService = new ExecutorCompletionService<>(executorService);
+        final List<Future<ProbeResult>> futures = new ArrayList<>(connectionsToAllHostsInCluster.size());
+        final List<RuntimeException> failures = new ArrayList<>();
+        try {
+            connectionsToAllHostsInCluster.forEach(c -> futures.add(completionService.submit(() -> probe(c))));
+            final PgConnection connectionToPrimary = awaitPrimary(completionService, futures.size(), report, failures);
+            if (connectionToPrimary != null) {
+                return connectionToPrimary;
+            }
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+            markPending(report, "cancelled");
+            LOGGER.info("Primary host discovery report: {}", formatReport(report));
+        }
+        final NoSuchElementException exception = new NoSuchElementException("Connection to primary host not found in " + connectionsToAllHostsInCluster);
+        failures.forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    @Nullable
+    private PgConnection awaitPrimary(@Nonnull final CompletionService<ProbeResult> completionService,
+                                      final int probesCount,
+                                      @Nonnull final Map<PgConnection, String> report,
+                                      @Nonnull final List<RuntimeException> failures) {
+        final long deadline = System.nanoTime() + probeTimeout.toNanos();
+        for (int i = 0; i < probesCount; ++i) {
+            final Future<ProbeResult> completed = pollUntil(completionService, deadline);
+            if (completed == null) {
+                markPending(report, "timed out");
+                return null;
+            }
+            final ProbeResult result = getResult(completed);
+            report.put(result.connection, result.describe());
+            if (result.failure != null) {
+                failures.add(result.failure);
+            } else if (result.primary) {
+                return result.connection;
+            }
+        }
+        if (!failures.isEmpty()) {
+            final RuntimeException firstFailure = failures.get(0);
+            failures.stream()
+                    .skip(1L)
+                    .forEach(firstFailure::addSuppressed);
+            throw firstFailure;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Future<ProbeResult> pollUntil(@Nonnull final CompletionService<ProbeResult> completionService,
+                                                 final long deadline) {
+        try {
+            return completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Nonnull
+    private static ProbeResult getResult(@Nonnull final Future<ProbeResult> completed) {
+        try {
+            return completed.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // The future is already completed and the probe returns runtime exceptions as a part of its result,
+            // so only an Error thrown during probing can get here.
+            throw new IllegalStateException("Primary host probe failed", e);
+        }
+    }
+
+    @Nonnull
+    private ProbeResult probe(@Nonnull final PgConnection pgConnection) {
+        final long startTime = System.nanoTime();
+        try {
+            final boolean primary = primaryHostDeterminer.isPrimary(pgConnection);
+            return new ProbeResult(pgConnection, primary, null, System.nanoTime() - startTime);
+        } catch (RuntimeException e) {
+            return new ProbeResult(pgConnection, false, e, System.nanoTime() - startTime);
+        }
+    }
+
+    private static void markPending(@Nonnull final Map<PgConnection, String> report, @Nonnull final String status) {
+        report.replaceAll((c, s) -> PENDING.equals(s) ? status : s);
+    }
+
+    @Nonnull
+    private static String formatReport(@Nonnull final Map<PgConnection, String> report) {
+        return report.entrySet().stream()
+                .map(e -> e.getKey().getHost().getName() + '=' + e.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static final class ProbeResult {
+
+        private final PgConnection connection;
+        private final boolean primary;
+        private final RuntimeException failure;
+        private final long elapsedNanos;
+
+        private ProbeResult(@Nonnull final PgConnection connection,
+                            final boolean primary,
+                            @Nullable final RuntimeException failure,
+                            final long elapsedNanos) {
+            this.connection = connection;
+            this.primary = primary;
+            this.failure = failure;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Nonnull
+        private String describe() {
+            final String status;
+            if (failure != null) {
+                status = "failed";
+            } else {
+                status = primary ? "primary" : "replica";
+            }
+            return status + " in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms";
+        }
+    }
+}
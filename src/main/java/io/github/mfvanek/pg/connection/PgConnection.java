@@ -20,7 +20,7 @@ import javax.sql.DataSource;
  * @see HostAware
  * @see PgHost
  */
-public interface PgConnection extends HostAware {
+public interface PgConnection extends HostAware, AutoCloseable {
 
     /**
      * Gets a standard {@code DataSource} object to access the database.
@@ -29,4 +29,14 @@ public interface PgConnection extends HostAware {
      */
     @Nonnull
     DataSource getDataSource();
+
+    /**
+     * Releases the underlying connection pool if it was created by the library.
+     * A {@code DataSource} supplied by the caller is left untouched.
+     * The default implementation does nothing, so implementations outside the library keep compiling.
+     */
+    @Override
+    default void close() {
+        // nothing to release by default
+    }
 }
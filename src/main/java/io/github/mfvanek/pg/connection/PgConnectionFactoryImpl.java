@@ -13,6 +13,7 @@ package io.github.mfvanek.pg.connection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.sql.DataSource;
 
@@ -20,6 +21,35 @@ public class PgConnectionFactoryImpl implements PgConnectionFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PgConnectionFactoryImpl.class);
 
+    private final ConnectionPoolSettings poolSettings;
+
+    public PgConnectionFactoryImpl() {
+        this(ConnectionPoolSettings.defaults());
+    }
+
+    /**
+     * Creates factory with the given size of connection pool for each host.
+     * <p>
+     * The pool size should be not less than the parallelism used for running diagnostics.
+     * </p>
+     *
+     * @param maxConnectionsPerHost maximum number of connections to a single host; should be positive
+     */
+    public PgConnectionFactoryImpl(final int maxConnectionsPerHost) {
+        this(ConnectionPoolSettings.builder()
+                .withMaxPoolSize(maxConnectionsPerHost)
+                .build());
+    }
+
+    /**
+     * Creates factory with the given settings of connection pool for each host.
+     *
+     * @param poolSettings settings of connection pool
+     */
+    public PgConnectionFactoryImpl(@Nonnull final ConnectionPoolSettings poolSettings) {
+        this.poolSettings = Objects.requireNonNull(poolSettings, "poolSettings");
+    }
+
     @Nonnull
     @Override
     public PgConnection forUrl(@Nonnull final String pgUrl,
@@ -28,7 +58,7 @@ public class PgConnectionFactoryImpl implements PgConnectionFactory {
         LOGGER.debug("Creating {} with pgUrl = {}, userName = {}, password = {}",
                 PgConnection.class.getSimpleName(), pgUrl, userName, "*****");
         final DataSource dataSource = dataSourceFor(pgUrl, userName, password);
-        return PgConnectionImpl.of(dataSource, PgHostImpl.ofUrl(pgUrl));
+        return PgConnectionImpl.withOwnedDataSource(dataSource, PgHostImpl.ofUrl(pgUrl));
     }
 
     @Override
@@ -36,6 +66,6 @@ public class PgConnectionFactoryImpl implements PgConnectionFactory {
     public DataSource dataSourceFor(@Nonnull final String pgUrl,
                                     @Nonnull final String userName,
                                     @Nonnull final String password) {
-        return PgConnectionHelper.createDataSource(pgUrl, userName, password);
+        return PgConnectionHelper.createDataSource(pgUrl, userName, password, poolSettings);
     }
 }
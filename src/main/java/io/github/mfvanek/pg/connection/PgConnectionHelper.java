@@ -12,6 +12,8 @@ package io.github.mfvanek.pg.connection;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 
+import java.util.Collection;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.sql.DataSource;
 
@@ -25,15 +27,43 @@ final class PgConnectionHelper {
     static DataSource createDataSource(@Nonnull final String pgUrl,
                                        @Nonnull final String userName,
                                        @Nonnull final String password) {
+        return createDataSource(pgUrl, userName, password, ConnectionPoolSettings.defaults());
+    }
+
+    @Nonnull
+    static DataSource createDataSource(@Nonnull final String pgUrl,
+                                       @Nonnull final String userName,
+                                       @Nonnull final String password,
+                                       @Nonnull final ConnectionPoolSettings poolSettings) {
         PgConnectionValidators.pgUrlNotBlankAndValid(pgUrl, "pgUrl");
         PgConnectionValidators.userNameNotBlank(userName);
         PgConnectionValidators.passwordNotBlank(password);
+        Objects.requireNonNull(poolSettings, "poolSettings");
         final BasicDataSource dataSource = new BasicDataSource();
         setCommonProperties(dataSource, userName, password);
+        setPoolProperties(dataSource, poolSettings);
         dataSource.setUrl(pgUrl);
         return dataSource;
     }
 
+    static void closeAll(@Nonnull final Collection<PgConnection> connections) {
+        RuntimeException firstError = null;
+        for (PgConnection connection : connections) {
+            try {
+                connection.close();
+            } catch (RuntimeException e) {
+                if (firstError == null) {
+                    firstError = e;
+                } else {
+                    firstError.addSuppressed(e);
+                }
+            }
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+    }
+
     private static void setCommonProperties(@Nonnull final BasicDataSource dataSource,
                                             @Nonnull final String userName,
                                             @Nonnull final String password) {
@@ -41,8 +71,23 @@ final class PgConnectionHelper {
         dataSource.setUsername(userName);
         dataSource.setPassword(password);
         dataSource.setValidationQuery("select 1");
-        dataSource.setMaxTotal(1);
-        dataSource.setMaxIdle(1);
-        dataSource.setMaxOpenPreparedStatements(1);
+    }
+
+    private static void setPoolProperties(@Nonnull final BasicDataSource dataSource,
+                                          @Nonnull final ConnectionPoolSettings poolSettings) {
+        dataSource.setMaxTotal(poolSettings.getMaxPoolSize());
+        dataSource.setMaxIdle(poolSettings.getMaxPoolSize());
+        dataSource.setMinIdle(poolSettings.getMinIdle());
+        if (poolSettings.getStatementCacheSize() > 0) {
+            dataSource.setPoolPreparedStatements(true);
+            dataSource.setMaxOpenPreparedStatements(poolSettings.getStatementCacheSize());
+        }
+        if (!poolSettings.getValidationInterval().isZero()) {
+            dataSource.setTestWhileIdle(true);
+            dataSource.setTimeBetweenEvictionRunsMillis(poolSettings.getValidationInterval().toMillis());
+        }
+        if (!poolSettings.getMaxLifetime().isZero()) {
+            dataSource.setMaxConnLifetimeMillis(poolSettings.getMaxLifetime().toMillis());
+        }
     }
 }
@@ -18,10 +18,12 @@ public class PgConnectionImpl implements PgConnection {
 
     private final DataSource dataSource;
     private final PgHost host;
+    private final boolean ownsDataSource;
 
-    private PgConnectionImpl(@Nonnull final DataSource dataSource, @Nonnull final PgHost host) {
+    private PgConnectionImpl(@Nonnull final DataSource dataSource, @Nonnull final PgHost host, final boolean ownsDataSource) {
         this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
         this.host = Objects.requireNonNull(host, "host");
+        this.ownsDataSource = ownsDataSource;
     }
 
     /**
@@ -42,14 +44,35 @@ public class PgConnectionImpl implements PgConnection {
         return host;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (ownsDataSource && dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     @Nonnull
     public static PgConnection ofPrimary(@Nonnull final DataSource dataSource) {
-        return new PgConnectionImpl(dataSource, PgHostImpl.ofPrimary());
+        return new PgConnectionImpl(dataSource, PgHostImpl.ofPrimary(), false);
     }
 
     @Nonnull
     public static PgConnection of(@Nonnull final DataSource dataSource, @Nonnull final PgHost host) {
-        return new PgConnectionImpl(dataSource, host);
+        return new PgConnectionImpl(dataSource, host, false);
+    }
+
+    @Nonnull
+    static PgConnection withOwnedDataSource(@Nonnull final DataSource dataSource, @Nonnull final PgHost host) {
+        return new PgConnectionImpl(dataSource, host, true);
     }
 
     @Override
@@ -10,9 +10,13 @@
 
 package io.github.mfvanek.pg.connection;
 
+import io.github.mfvanek.pg.utils.Validators;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -69,6 +73,28 @@ final class PgUrlParser {
                 .collect(Collectors.toSet());
     }
 
+    // For example, jdbc:postgresql://host-1:6432/db_name?param=value -> jdbc:postgresql://host-1:6432/other_db?param=value
+    // The database name is url-encoded since the driver decodes it
+    @Nonnull
+    static String replaceDatabaseName(@Nonnull final String pgUrl, @Nonnull final String databaseName) {
+        PgConnectionValidators.pgUrlNotBlankAndValid(pgUrl, "pgUrl");
+        Validators.notBlank(databaseName, "databaseName");
+        final String allHostsWithPort = extractAllHostsWithPort(pgUrl);
+        final String dbNameWithParams = pgUrl.substring(Math.min(pgUrl.length(), URL_HEADER.length() + allHostsWithPort.length() + 1));
+        final int paramsIndex = dbNameWithParams.indexOf('?');
+        final String params = paramsIndex >= 0 ? dbNameWithParams.substring(paramsIndex) : "";
+        return URL_HEADER + allHostsWithPort + '/' + encode(databaseName) + params;
+    }
+
+    @Nonnull
+    private static String encode(@Nonnull final String databaseName) {
+        try {
+            return URLEncoder.encode(databaseName, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Nonnull
     private static String extractAllHostsWithPort(@Nonnull final String pgUrl) {
         final int lastIndex = pgUrl.lastIndexOf('/');
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import java.time.Duration;
+import javax.annotation.Nonnull;
+
+public interface ReplicationLagDeterminer {
+
+    /**
+     * Determines how far behind the primary the given host is.
+     *
+     * @param pgConnection {@code PgConnection} object
+     * @return replay lag of the host; zero for a primary host or a replica that has not replayed any transaction yet
+     */
+    @Nonnull
+    Duration getReplicationLag(@Nonnull PgConnection pgConnection);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+public class ReplicationLagDeterminerImpl implements ReplicationLagDeterminer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationLagDeterminerImpl.class);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Duration getReplicationLag(@Nonnull final PgConnection pgConnection) {
+        Objects.requireNonNull(pgConnection, "pgConnection");
+        final DataSource dataSource = pgConnection.getDataSource();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            final String sqlQuery = "select " + ReplicationLagQueries.lagMillisColumn(connection);
+            LOGGER.debug("Executing on host {} query: {}", pgConnection.getHost(), sqlQuery);
+            try (ResultSet resultSet = statement.executeQuery(sqlQuery)) {
+                resultSet.next();
+                final Duration replicationLag = Duration.ofMillis(resultSet.getLong(1));
+                LOGGER.debug("Query completed with result {}", replicationLag);
+                return replicationLag;
+            }
+        } catch (SQLException e) {
+            LOGGER.trace("Query failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.annotation.Nonnull;
+
+/**
+ * Builds the replication lag expression shared by {@link ReplicationLagDeterminerImpl} and other host probes.
+ * <p>
+ * {@code pg_last_xact_replay_timestamp()} is the commit time of the last replayed transaction,
+ * so the difference with {@code now()} keeps growing while the primary is idle.
+ * A replica that has replayed all received WAL is therefore considered up to date.
+ * Clock skew between hosts can make the difference negative, so it is clamped to zero.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see ReplicationLagDeterminerImpl
+ */
+final class ReplicationLagQueries {
+
+    private static final String LAG_MILLIS_TEMPLATE = "case when not pg_is_in_recovery() or %s() = %s() then 0 " +
+            "else greatest(coalesce(round(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000), 0), 0) " +
+            "end::bigint as lag_millis";
+    // WAL functions were renamed in PostgreSQL 10
+    static final String LAG_MILLIS_COLUMN = String.format(LAG_MILLIS_TEMPLATE, "pg_last_wal_receive_lsn", "pg_last_wal_replay_lsn");
+    static final String LAG_MILLIS_COLUMN_9_6 = String.format(LAG_MILLIS_TEMPLATE, "pg_last_xlog_receive_location", "pg_last_xlog_replay_location");
+
+    private ReplicationLagQueries() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the {@code lag_millis} column expression suitable for the server the connection is established with.
+     *
+     * @param connection connection to the host
+     * @return select list item with replication lag in milliseconds
+     * @throws SQLException if the server version cannot be determined
+     */
+    @Nonnull
+    static String lagMillisColumn(@Nonnull final Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseMajorVersion() >= 10 ? LAG_MILLIS_COLUMN : LAG_MILLIS_COLUMN_9_6;
+    }
+}
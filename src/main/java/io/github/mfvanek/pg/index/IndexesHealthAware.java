@@ -19,7 +19,10 @@ import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -50,12 +53,24 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<Index> getInvalidIndexes(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getInvalidIndexes)
+        return getInvalidIndexesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns invalid (broken) indexes in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return invalid indexes for each given context
+     * @see Index
+     */
+    @Nonnull
+    default Map<PgContext, List<Index>> getInvalidIndexesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getInvalidIndexes, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns invalid (broken) indexes in the public schema.
      *
@@ -84,12 +99,23 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<DuplicatedIndexes> getDuplicatedIndexes(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getDuplicatedIndexes)
+        return getDuplicatedIndexesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns duplicated (completely identical) indexes in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return duplicated indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<DuplicatedIndexes>> getDuplicatedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getDuplicatedIndexes, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns duplicated (completely identical) indexes in the public schema.
      *
@@ -117,12 +143,23 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<DuplicatedIndexes> getIntersectedIndexes(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getIntersectedIndexes)
+        return getIntersectedIndexesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns intersected indexes (partially identical) in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return intersected indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<DuplicatedIndexes>> getIntersectedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getIntersectedIndexes, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns intersected indexes (partially identical) in the public schema.
      *
@@ -150,12 +187,23 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<UnusedIndex> getUnusedIndexes(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getUnusedIndexes)
+        return getUnusedIndexesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns unused indexes in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return unused indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<UnusedIndex>> getUnusedIndexesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getUnusedIndexes, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns unused indexes in the public schema.
      *
@@ -183,12 +231,23 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getForeignKeysNotCoveredWithIndex)
+        return getForeignKeysNotCoveredWithIndexBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns foreign keys without associated indexes in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return foreign keys without associated indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<ForeignKey>> getForeignKeysNotCoveredWithIndexBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getForeignKeysNotCoveredWithIndex, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns foreign keys without associated indexes in the public schema.
      *
@@ -216,12 +275,23 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<IndexWithNulls> getIndexesWithNullValues(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getIndexesWithNullValues)
+        return getIndexesWithNullValuesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns indexes that contain null values in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return indexes with null values for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<IndexWithNulls>> getIndexesWithNullValuesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getIndexesWithNullValues, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns indexes that contain null values in the public schema.
      *
@@ -257,12 +327,27 @@ public interface IndexesHealthAware {
      */
     @Nonnull
     default List<IndexWithBloat> getIndexesWithBloat(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getIndexesWithBloat)
+        return getIndexesWithBloatBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns indexes that are bloated in the specified schemas grouped by schema.
+     * <p>
+     * Note: The database user on whose behalf this method will be executed
+     * have to have read permissions for the corresponding tables.
+     * </p>
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return bloated indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<IndexWithBloat>> getIndexesWithBloatBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getIndexesWithBloat, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns indexes that are bloated in the public schema.
      * <p>
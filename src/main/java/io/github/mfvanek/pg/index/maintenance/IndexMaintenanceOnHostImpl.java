@@ -12,6 +12,8 @@ package io.github.mfvanek.pg.index.maintenance;
 
 import io.github.mfvanek.pg.common.maintenance.AbstractMaintenance;
 import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.DiagnosticsRowMappers;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
 import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgHost;
@@ -20,11 +22,15 @@ import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
 import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
 import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.utils.QueryBatch;
 
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -40,17 +46,27 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
         super(pgConnection);
     }
 
+    public IndexMaintenanceOnHostImpl(@Nonnull final PgConnection pgConnection,
+                                  @Nonnull final ExecutionOptions executionOptions) {
+        super(pgConnection, executionOptions);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Nonnull
     @Override
     public List<Index> getInvalidIndexes(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.INVALID_INDEXES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String indexName = rs.getString("index_name");
-            return Index.of(tableName, indexName);
-        });
+        return executeQuery(Diagnostics.INVALID_INDEXES, pgContext, DiagnosticsRowMappers.INVALID_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<Index>> getInvalidIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.INVALID_INDEXES, pgContexts, DiagnosticsRowMappers.INVALID_INDEXES);
     }
 
     /**
@@ -59,8 +75,16 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
     @Nonnull
     @Override
     public List<DuplicatedIndexes> getDuplicatedIndexes(@Nonnull final PgContext pgContext) {
-        return getDuplicatedOrIntersectedIndexes(
-                Diagnostics.DUPLICATED_INDEXES, pgContext, "duplicated_indexes");
+        return executeQuery(Diagnostics.DUPLICATED_INDEXES, pgContext, DiagnosticsRowMappers.DUPLICATED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<DuplicatedIndexes>> getDuplicatedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.DUPLICATED_INDEXES, pgContexts, DiagnosticsRowMappers.DUPLICATED_INDEXES);
     }
 
     /**
@@ -69,8 +93,16 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
     @Nonnull
     @Override
     public List<DuplicatedIndexes> getIntersectedIndexes(@Nonnull final PgContext pgContext) {
-        return getDuplicatedOrIntersectedIndexes(
-                Diagnostics.INTERSECTED_INDEXES, pgContext, "intersected_indexes");
+        return executeQuery(Diagnostics.INTERSECTED_INDEXES, pgContext, DiagnosticsRowMappers.INTERSECTED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<DuplicatedIndexes>> getIntersectedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.INTERSECTED_INDEXES, pgContexts, DiagnosticsRowMappers.INTERSECTED_INDEXES);
     }
 
     /**
@@ -79,13 +111,16 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
     @Nonnull
     @Override
     public List<UnusedIndex> getUnusedIndexes(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.UNUSED_INDEXES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String indexName = rs.getString("index_name");
-            final long indexSize = rs.getLong("index_size");
-            final long indexScans = rs.getLong("index_scans");
-            return UnusedIndex.of(tableName, indexName, indexSize, indexScans);
-        });
+        return executeQuery(Diagnostics.UNUSED_INDEXES, pgContext, DiagnosticsRowMappers.UNUSED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<UnusedIndex>> getUnusedIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.UNUSED_INDEXES, pgContexts, DiagnosticsRowMappers.UNUSED_INDEXES);
     }
 
     /**
@@ -94,13 +129,16 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
     @Nonnull
     @Override
     public List<ForeignKey> getForeignKeysNotCoveredWithIndex(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String constraintName = rs.getString("constraint_name");
-            final String columnsAsString = rs.getString("columns");
-            final String[] columns = columnsAsString.split(", ");
-            return ForeignKey.of(tableName, constraintName, Arrays.asList(columns));
-        });
+        return executeQuery(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, pgContext, DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<ForeignKey>> getForeignKeysNotCoveredWithIndexBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, pgContexts, DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX);
     }
 
     /**
@@ -109,24 +147,99 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
     @Nonnull
     @Override
     public List<IndexWithNulls> getIndexesWithNullValues(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.INDEXES_WITH_NULL_VALUES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String indexName = rs.getString("index_name");
-            final long indexSize = rs.getLong("index_size");
-            final String nullableField = rs.getString("nullable_fields");
-            return IndexWithNulls.of(tableName, indexName, indexSize, nullableField);
-        });
+        return executeQuery(Diagnostics.INDEXES_WITH_NULL_VALUES, pgContext, DiagnosticsRowMappers.INDEXES_WITH_NULL_VALUES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<IndexWithNulls>> getIndexesWithNullValuesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.INDEXES_WITH_NULL_VALUES, pgContexts, DiagnosticsRowMappers.INDEXES_WITH_NULL_VALUES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public List<IndexWithBloat> getIndexesWithBloat(@Nonnull final PgContext pgContext) {
+        return executeQueryWithBloatThreshold(Diagnostics.BLOATED_INDEXES, pgContext, DiagnosticsRowMappers.BLOATED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public IndexWithBloatColumns getIndexesWithBloatAsColumns(@Nonnull final PgContext pgContext) {
+        final IndexWithBloatColumns.Builder builder = IndexWithBloatColumns.builder();
+        executeQueryWithBloatThreshold(Diagnostics.BLOATED_INDEXES, pgContext, DiagnosticsRowMappers.bloatedIndexesInto(builder), b -> { });
+        return builder.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<IndexWithBloat>> getIndexesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryWithBloatThresholdForSchemas(Diagnostics.BLOATED_INDEXES, pgContexts, DiagnosticsRowMappers.BLOATED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<Index>> addInvalidIndexesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.INVALID_INDEXES, pgContext, DiagnosticsRowMappers.INVALID_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<DuplicatedIndexes>> addDuplicatedIndexesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.DUPLICATED_INDEXES, pgContext, DiagnosticsRowMappers.DUPLICATED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<DuplicatedIndexes>> addIntersectedIndexesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.INTERSECTED_INDEXES, pgContext, DiagnosticsRowMappers.INTERSECTED_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<UnusedIndex>> addUnusedIndexesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.UNUSED_INDEXES, pgContext, DiagnosticsRowMappers.UNUSED_INDEXES);
     }
 
+    /**
+     * {@inheritDoc}
+     */
     @Nonnull
-    private List<DuplicatedIndexes> getDuplicatedOrIntersectedIndexes(@Nonnull final Diagnostics diagnostics,
-                                                                      @Nonnull final PgContext pgContext,
-                                                                      @Nonnull final String columnName) {
-        return executeQuery(diagnostics, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String duplicatedAsString = rs.getString(columnName);
-            return DuplicatedIndexes.of(tableName, duplicatedAsString);
-        });
+    @Override
+    public Supplier<List<ForeignKey>> addForeignKeysNotCoveredWithIndexToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, pgContext, DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<IndexWithNulls>> addIndexesWithNullValuesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.INDEXES_WITH_NULL_VALUES, pgContext, DiagnosticsRowMappers.INDEXES_WITH_NULL_VALUES);
     }
 
     /**
@@ -134,14 +247,7 @@ public class IndexMaintenanceOnHostImpl extends AbstractMaintenance implements I
      */
     @Nonnull
     @Override
-    public List<IndexWithBloat> getIndexesWithBloat(@Nonnull PgContext pgContext) {
-        return executeQueryWithBloatThreshold(Diagnostics.BLOATED_INDEXES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final String indexName = rs.getString("index_name");
-            final long indexSize = rs.getLong("index_size");
-            final long bloatSize = rs.getLong("bloat_size");
-            final int bloatPercentage = rs.getInt("bloat_percentage");
-            return IndexWithBloat.of(tableName, indexName, indexSize, bloatSize, bloatPercentage);
-        });
+    public Supplier<List<IndexWithBloat>> addIndexesWithBloatToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryWithBloatThresholdToBatch(batch, Diagnostics.BLOATED_INDEXES, pgContext, DiagnosticsRowMappers.BLOATED_INDEXES);
     }
 }
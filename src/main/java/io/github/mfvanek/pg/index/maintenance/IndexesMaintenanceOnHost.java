@@ -17,10 +17,13 @@ import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
 import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
 import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.utils.QueryBatch;
 
 import java.util.List;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -107,4 +110,85 @@ public interface IndexesMaintenanceOnHost extends IndexesHealthAware, HostAware
     @Override
     @Nonnull
     List<IndexWithBloat> getIndexesWithBloat(@Nonnull PgContext pgContext);
+
+    /**
+     * Returns indexes that are bloated on the current host in the specified schema stored by columns.
+     * Rows are written to the columns as they are read from the database, without intermediate model objects.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return bloated indexes
+     * @see #getIndexesWithBloat(PgContext)
+     */
+    @Nonnull
+    IndexWithBloatColumns getIndexesWithBloatAsColumns(@Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for invalid indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of invalid indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<Index>> addInvalidIndexesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for duplicated indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of duplicated indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<DuplicatedIndexes>> addDuplicatedIndexesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for intersected indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of intersected indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<DuplicatedIndexes>> addIntersectedIndexesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for unused indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of unused indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<UnusedIndex>> addUnusedIndexesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for foreign keys without associated indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of foreign keys without associated indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<ForeignKey>> addForeignKeysNotCoveredWithIndexToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for indexes with null values in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of indexes with null values; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<IndexWithNulls>> addIndexesWithNullValuesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for bloated indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of bloated indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<IndexWithBloat>> addIndexesWithBloatToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
 }
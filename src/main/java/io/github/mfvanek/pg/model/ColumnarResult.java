@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A base class for results of diagnostics stored by columns instead of by rows.
+ * <p>
+ * Numeric values are kept in primitive arrays and table names are encoded with a dictionary,
+ * so a result with many rows takes a few objects instead of an object per row.
+ * Model objects are created on demand by {@link #get(int)} and {@link #asList()}.
+ * </p>
+ *
+ * @param <T> type of row
+ * @author Ivan Vakhrushev
+ */
+@Immutable
+public abstract class ColumnarResult<T> {
+
+    private final String[] tableNames;
+    private final int[] tableNameCodes;
+
+    protected ColumnarResult(@Nonnull final AbstractBuilder<T, ?> builder) {
+        this.tableNames = builder.tableNames.toArray(new String[0]);
+        this.tableNameCodes = Arrays.copyOf(builder.tableNameCodes, builder.size);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return number of rows
+     */
+    public int size() {
+        return tableNameCodes.length;
+    }
+
+    public boolean isEmpty() {
+        return tableNameCodes.length == 0;
+    }
+
+    /**
+     * Returns indexes of all rows; useful for filtering and sorting without creating model objects.
+     *
+     * @return stream of row indexes from zero to {@code size() - 1}
+     */
+    @Nonnull
+    public IntStream rows() {
+        return IntStream.range(0, size());
+    }
+
+    @Nonnull
+    public String getTableName(final int row) {
+        return tableNames[tableNameCodes[checkRow(row)]];
+    }
+
+    /**
+     * Returns distinct table names in order of their first appearance.
+     *
+     * @return list of table names
+     */
+    @Nonnull
+    public List<String> getDistinctTableNames() {
+        return Collections.unmodifiableList(Arrays.asList(tableNames));
+    }
+
+    /**
+     * Creates a model object for the given row.
+     *
+     * @param row index of row
+     * @return model object
+     */
+    @Nonnull
+    public abstract T get(int row);
+
+    /**
+     * Returns a read-only list view of this result.
+     * Model objects are created on each access and are not cached.
+     *
+     * @return list of model objects
+     */
+    @Nonnull
+    public List<T> asList() {
+        return new ListView();
+    }
+
+    protected final int checkRow(final int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("row " + row + " is out of range [0, " + size() + ")");
+        }
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '{' +
+                "size=" + size() +
+                ", tablesCount=" + tableNames.length +
+                '}';
+    }
+
+    private final class ListView extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(final int index) {
+            return ColumnarResult.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ColumnarResult.this.size();
+        }
+    }
+
+    /**
+     * A base class for builders of columnar results.
+     * Subclasses keep their own columns and grow them in {@link #ensureCapacity(int)}.
+     *
+     * @param <T> type of row
+     * @param <C> type of columnar result
+     */
+    protected abstract static class AbstractBuilder<T, C extends ColumnarResult<T>> {
+
+        private final Map<String, Integer> codesByTableName = new HashMap<>();
+        private final List<String> tableNames = new ArrayList<>();
+        private int[] tableNameCodes;
+        private int size;
+
+        protected AbstractBuilder(final int initialCapacity) {
+            this.tableNameCodes = new int[Validators.argumentNotNegative(initialCapacity, "initialCapacity")];
+        }
+
+        /**
+         * Adds a row with the given table name.
+         *
+         * @param tableName table name; should be non-blank
+         * @return index of the added row in the columns of subclass
+         */
+        protected final int addRow(@Nonnull final String tableName) {
+            Validators.tableNameNotBlank(tableName);
+            if (size == tableNameCodes.length) {
+                final int newCapacity = Math.max(16, size * 2);
+                tableNameCodes = Arrays.copyOf(tableNameCodes, newCapacity);
+                ensureCapacity(newCapacity);
+            }
+            Integer code = codesByTableName.get(tableName);
+            if (code == null) {
+                code = tableNames.size();
+                codesByTableName.put(tableName, code);
+                tableNames.add(tableName);
+            }
+            tableNameCodes[size] = code;
+            return size++;
+        }
+
+        /**
+         * Returns the number of added rows.
+         *
+         * @return number of rows
+         */
+        protected final int size() {
+            return size;
+        }
+
+        /**
+         * Grows the columns of subclass to the given capacity.
+         *
+         * @param capacity new capacity of columns
+         */
+        protected abstract void ensureCapacity(int capacity);
+
+        /**
+         * Builds an immutable columnar result. The builder can be used further.
+         *
+         * @return columnar result
+         */
+        @Nonnull
+        public abstract C build();
+    }
+}
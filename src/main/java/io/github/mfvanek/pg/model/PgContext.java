@@ -10,8 +10,14 @@
 
 package io.github.mfvanek.pg.model;
 
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.utils.NamePool;
 import io.github.mfvanek.pg.utils.Validators;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 
 /**
@@ -29,11 +35,24 @@ public class PgContext {
 
     private final String schemaName;
     private final int bloatPercentageThreshold;
+    private final Map<Diagnostics, RowFilter> rowFilters;
+    private final NamePool namePool;
 
     private PgContext(@Nonnull final String schemaName, int bloatPercentageThreshold) {
         this.schemaName = Validators.notBlank(schemaName, "schemaName").toLowerCase();
         this.bloatPercentageThreshold = Validators.argumentNotNegative(
                 bloatPercentageThreshold, "bloatPercentageThreshold");
+        this.rowFilters = Collections.emptyMap();
+        this.namePool = NamePool.none();
+    }
+
+    private PgContext(@Nonnull final PgContext source,
+                      @Nonnull final Map<Diagnostics, RowFilter> rowFilters,
+                      @Nonnull final NamePool namePool) {
+        this.schemaName = source.schemaName;
+        this.bloatPercentageThreshold = source.bloatPercentageThreshold;
+        this.rowFilters = rowFilters;
+        this.namePool = namePool;
     }
 
     /**
@@ -64,11 +83,91 @@ public class PgContext {
         return bloatPercentageThreshold;
     }
 
+    /**
+     * Returns the row filter for the given diagnostic.
+     *
+     * @param diagnostics diagnostic
+     * @return row filter; {@link RowFilter#none()} if it was not specified
+     */
+    @Nonnull
+    public RowFilter getRowFilter(@Nonnull final Diagnostics diagnostics) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        return rowFilters.getOrDefault(diagnostics, RowFilter.none());
+    }
+
+    /**
+     * Returns the row filters for all diagnostics they were specified for.
+     *
+     * @return row filters
+     */
+    @Nonnull
+    public Map<Diagnostics, RowFilter> getRowFilters() {
+        return rowFilters;
+    }
+
+    /**
+     * Creates a copy of this context with the given row filter for the given diagnostic.
+     * <p>
+     * The filter is applied on the database side for single schema queries.
+     * Queries for multiple schemas reject contexts with row filters.
+     * </p>
+     *
+     * @param diagnostics diagnostic that supports row filtering
+     * @param rowFilter   row filter
+     * @return new {@code PgContext}
+     * @see Diagnostics#isRowFilterSupported()
+     */
+    @Nonnull
+    public PgContext withRowFilter(@Nonnull final Diagnostics diagnostics, @Nonnull final RowFilter rowFilter) {
+        Objects.requireNonNull(diagnostics, "diagnostics");
+        Objects.requireNonNull(rowFilter, "rowFilter");
+        if (!diagnostics.isRowFilterSupported()) {
+            throw new IllegalArgumentException("Row filter is not supported for " + diagnostics);
+        }
+        final Map<Diagnostics, RowFilter> filters = new EnumMap<>(Diagnostics.class);
+        filters.putAll(rowFilters);
+        if (rowFilter.isEmpty()) {
+            filters.remove(diagnostics);
+        } else {
+            filters.put(diagnostics, rowFilter);
+        }
+        return new PgContext(this, Collections.unmodifiableMap(filters), namePool);
+    }
+
+    /**
+     * Returns the pool used to deduplicate table and index names in the results of queries.
+     *
+     * @return name pool; {@link NamePool#none()} if it was not specified
+     */
+    @Nonnull
+    public NamePool getNamePool() {
+        return namePool;
+    }
+
+    /**
+     * Creates a copy of this context with the given name pool.
+     * <p>
+     * The pool does not affect the results of queries, only the memory they occupy.
+     * </p>
+     *
+     * @param pool name pool shared by all queries of a single run
+     * @return new {@code PgContext}
+     */
+    @Nonnull
+    public PgContext withNamePool(@Nonnull final NamePool pool) {
+        Objects.requireNonNull(pool, "pool");
+        if (pool == namePool) {
+            return this;
+        }
+        return new PgContext(this, rowFilters, pool);
+    }
+
     @Override
     public String toString() {
         return PgContext.class.getSimpleName() + '{' +
                 "schemaName='" + schemaName + '\'' +
                 ", bloatPercentageThreshold=" + bloatPercentageThreshold +
+                (rowFilters.isEmpty() ? "" : ", rowFilters=" + rowFilters) +
                 '}';
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A filter of diagnostic rows that is applied on the database side, so filtered rows are never transferred.
+ * <p>
+ * A row is filtered out when the full (possibly schema-qualified) name of the diagnosed object (table or index)
+ * is among the excluded names (case-insensitive), or when the size of the object is less than the threshold.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see PgContext#withRowFilter
+ */
+@Immutable
+public final class RowFilter {
+
+    private static final RowFilter NONE = new RowFilter(Collections.emptySet(), 0L);
+
+    private final Set<String> excludedNames;
+    private final long sizeThresholdInBytes;
+
+    private RowFilter(@Nonnull final Collection<String> excludedNames, final long sizeThresholdInBytes) {
+        final Set<String> names = new LinkedHashSet<>();
+        for (String name : Objects.requireNonNull(excludedNames, "excludedNames")) {
+            names.add(Validators.notBlank(name, "excludedName").trim().toLowerCase(Locale.ROOT));
+        }
+        this.excludedNames = Collections.unmodifiableSet(names);
+        this.sizeThresholdInBytes = Validators.sizeNotNegative(sizeThresholdInBytes, "sizeThresholdInBytes");
+    }
+
+    /**
+     * Gets excluded object names in lower case.
+     *
+     * @return excluded names
+     */
+    @Nonnull
+    public Set<String> getExcludedNames() {
+        return excludedNames;
+    }
+
+    /**
+     * Gets minimum size of the diagnosed object.
+     *
+     * @return size threshold in bytes; zero means no threshold
+     */
+    public long getSizeThresholdInBytes() {
+        return sizeThresholdInBytes;
+    }
+
+    /**
+     * Determines whether this filter keeps all rows.
+     *
+     * @return {@code true} if there are no excluded names and no size threshold
+     */
+    public boolean isEmpty() {
+        return excludedNames.isEmpty() && sizeThresholdInBytes == 0L;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof RowFilter)) {
+            return false;
+        }
+        final RowFilter that = (RowFilter) other;
+        return sizeThresholdInBytes == that.sizeThresholdInBytes &&
+                excludedNames.equals(that.excludedNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(excludedNames, sizeThresholdInBytes);
+    }
+
+    @Override
+    public String toString() {
+        return RowFilter.class.getSimpleName() + '{' +
+                "excludedNames=" + excludedNames +
+                ", sizeThresholdInBytes=" + sizeThresholdInBytes +
+                '}';
+    }
+
+    /**
+     * Creates {@code RowFilter} with given excluded names and size threshold.
+     *
+     * @param excludedNames        exact names of objects to exclude
+     * @param sizeThresholdInBytes minimum size of objects; should be greater or equal to zero
+     * @return {@code RowFilter}
+     */
+    @Nonnull
+    public static RowFilter of(@Nonnull final Collection<String> excludedNames, final long sizeThresholdInBytes) {
+        return new RowFilter(excludedNames, sizeThresholdInBytes);
+    }
+
+    /**
+     * Gets filter that keeps all rows.
+     *
+     * @return empty {@code RowFilter}
+     */
+    @Nonnull
+    public static RowFilter none() {
+        return NONE;
+    }
+}
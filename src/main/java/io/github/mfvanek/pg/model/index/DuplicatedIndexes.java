@@ -15,8 +15,8 @@ import io.github.mfvanek.pg.utils.DuplicatedIndexesParser;
 import io.github.mfvanek.pg.utils.Validators;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -28,6 +28,10 @@ import static java.util.stream.Collectors.toList;
 
 /**
  * A representation of duplicated indexes in a database.
+ * <p>
+ * The table name is stored once, and names and sizes of the indexes are stored in plain arrays
+ * sorted by index name and size. {@link IndexWithSize} objects are created only on demand.
+ * </p>
  *
  * @author Ivan Vakhrushev
  * @see TableNameAware
@@ -35,30 +39,23 @@ import static java.util.stream.Collectors.toList;
 @Immutable
 public class DuplicatedIndexes implements TableNameAware {
 
-    private static final Comparator<IndexWithSize> INDEX_WITH_SIZE_COMPARATOR =
-            Comparator.comparing(IndexWithSize::getTableName)
-                    .thenComparing(IndexWithSize::getIndexName)
-                    .thenComparing(IndexWithSize::getIndexSizeInBytes);
-
-    private final List<IndexWithSize> duplicatedIndexes;
+    private final String tableName;
+    private final String[] indexNames;
+    private final long[] indexSizes;
     private final long totalSize;
-    private final List<String> indexesNames;
 
-    private DuplicatedIndexes(@Nonnull final List<IndexWithSize> duplicatedIndexes) {
-        final List<IndexWithSize> defensiveCopy = new ArrayList<>(
-                Objects.requireNonNull(duplicatedIndexes, "duplicatedIndexes"));
-        Validators.validateThatTableIsTheSame(defensiveCopy);
-        this.duplicatedIndexes = Collections.unmodifiableList(
-                defensiveCopy.stream()
-                        .sorted(INDEX_WITH_SIZE_COMPARATOR)
-                        .collect(toList()));
-        this.totalSize = this.duplicatedIndexes.stream()
-                .mapToLong(IndexWithSize::getIndexSizeInBytes)
-                .sum();
-        this.indexesNames = Collections.unmodifiableList(
-                this.duplicatedIndexes.stream()
-                        .map(Index::getIndexName)
-                        .collect(toList()));
+    private DuplicatedIndexes(@Nonnull final String tableName,
+                              @Nonnull final String[] indexNames,
+                              @Nonnull final long[] indexSizes) {
+        this.tableName = tableName;
+        this.indexNames = indexNames;
+        this.indexSizes = indexSizes;
+        sortByNameAndSize(indexNames, indexSizes);
+        long total = 0L;
+        for (long indexSize : indexSizes) {
+            total += indexSize;
+        }
+        this.totalSize = total;
     }
 
     /**
@@ -67,7 +64,7 @@ public class DuplicatedIndexes implements TableNameAware {
     @Override
     @Nonnull
     public String getTableName() {
-        return duplicatedIndexes.get(0).getTableName();
+        return tableName;
     }
 
     /**
@@ -77,7 +74,11 @@ public class DuplicatedIndexes implements TableNameAware {
      */
     @Nonnull
     public List<IndexWithSize> getDuplicatedIndexes() {
-        return duplicatedIndexes;
+        final List<IndexWithSize> duplicatedIndexes = new ArrayList<>(indexNames.length);
+        for (int i = 0; i < indexNames.length; ++i) {
+            duplicatedIndexes.add(IndexWithSize.of(tableName, indexNames[i], indexSizes[i]));
+        }
+        return Collections.unmodifiableList(duplicatedIndexes);
     }
 
     /**
@@ -95,7 +96,7 @@ public class DuplicatedIndexes implements TableNameAware {
      * @return sorted list
      */
     public List<String> getIndexNames() {
-        return indexesNames;
+        return Collections.unmodifiableList(Arrays.asList(indexNames));
     }
 
     @Override
@@ -109,12 +110,13 @@ public class DuplicatedIndexes implements TableNameAware {
         }
 
         final DuplicatedIndexes that = (DuplicatedIndexes) o;
-        return Objects.equals(duplicatedIndexes, that.duplicatedIndexes);
+        return Objects.equals(tableName, that.tableName) &&
+                Arrays.equals(indexNames, that.indexNames);
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(duplicatedIndexes);
+        return 31 * Objects.hashCode(tableName) + Arrays.hashCode(indexNames);
     }
 
     @Override
@@ -122,13 +124,69 @@ public class DuplicatedIndexes implements TableNameAware {
         return DuplicatedIndexes.class.getSimpleName() + '{' +
                 "tableName='" + getTableName() + '\'' +
                 ", totalSize=" + totalSize +
-                ", indexes=" + duplicatedIndexes +
+                ", indexes=" + getDuplicatedIndexes() +
                 '}';
     }
 
+    /**
+     * Sorts both arrays by index name and then by size.
+     * Insertion sort is used since there are only a few indexes in a group and no extra memory is needed.
+     */
+    private static void sortByNameAndSize(@Nonnull final String[] names, @Nonnull final long[] sizes) {
+        for (int i = 1; i < names.length; ++i) {
+            final String name = names[i];
+            final long size = sizes[i];
+            int j = i - 1;
+            while (j >= 0 && (names[j].compareTo(name) > 0 || (names[j].equals(name) && sizes[j] > size))) {
+                names[j + 1] = names[j];
+                sizes[j + 1] = sizes[j];
+                --j;
+            }
+            names[j + 1] = name;
+            sizes[j + 1] = size;
+        }
+    }
+
     @Nonnull
     public static DuplicatedIndexes of(@Nonnull final List<IndexWithSize> duplicatedIndexes) {
-        return new DuplicatedIndexes(duplicatedIndexes);
+        final List<IndexWithSize> defensiveCopy = new ArrayList<>(
+                Objects.requireNonNull(duplicatedIndexes, "duplicatedIndexes"));
+        Validators.validateThatTableIsTheSame(defensiveCopy);
+        final String[] indexNames = new String[defensiveCopy.size()];
+        final long[] indexSizes = new long[defensiveCopy.size()];
+        for (int i = 0; i < indexNames.length; ++i) {
+            indexNames[i] = defensiveCopy.get(i).getIndexName();
+            indexSizes[i] = defensiveCopy.get(i).getIndexSizeInBytes();
+        }
+        return new DuplicatedIndexes(defensiveCopy.get(0).getTableName(), indexNames, indexSizes);
+    }
+
+    /**
+     * Constructs a {@code DuplicatedIndexes} object from names and sizes of the indexes without creating {@link IndexWithSize} objects.
+     *
+     * @param tableName  table name; should be non blank
+     * @param indexNames names of the indexes; should contain at least two non blank names
+     * @param indexSizes sizes of the indexes in bytes in the same order as names
+     * @return {@code DuplicatedIndexes}
+     */
+    @Nonnull
+    public static DuplicatedIndexes of(@Nonnull final String tableName,
+                                       @Nonnull final String[] indexNames,
+                                       @Nonnull final long[] indexSizes) {
+        Validators.tableNameNotBlank(tableName);
+        Objects.requireNonNull(indexNames, "indexNames");
+        Objects.requireNonNull(indexSizes, "indexSizes");
+        if (indexNames.length != indexSizes.length) {
+            throw new IllegalArgumentException("indexNames and indexSizes should have the same length");
+        }
+        if (indexNames.length < 2) {
+            throw new IllegalArgumentException("There should be at least two duplicated indexes");
+        }
+        for (int i = 0; i < indexNames.length; ++i) {
+            Validators.indexNameNotBlank(indexNames[i]);
+            Validators.sizeNotNegative(indexSizes[i], "indexSize");
+        }
+        return new DuplicatedIndexes(tableName, indexNames.clone(), indexSizes.clone());
     }
 
     @Nonnull
@@ -136,10 +194,13 @@ public class DuplicatedIndexes implements TableNameAware {
         Validators.tableNameNotBlank(tableName);
         final List<Map.Entry<String, Long>> indexesWithNameAndSize = DuplicatedIndexesParser.parseAsIndexNameAndSize(
                 Validators.notBlank(duplicatedAsString, "duplicatedAsString"));
-        final List<IndexWithSize> duplicatedIndexes = indexesWithNameAndSize.stream()
-                .map(e -> IndexWithSize.of(tableName, e.getKey(), e.getValue()))
-                .collect(toList());
-        return new DuplicatedIndexes(duplicatedIndexes);
+        final String[] indexNames = new String[indexesWithNameAndSize.size()];
+        final long[] indexSizes = new long[indexNames.length];
+        for (int i = 0; i < indexNames.length; ++i) {
+            indexNames[i] = indexesWithNameAndSize.get(i).getKey();
+            indexSizes[i] = indexesWithNameAndSize.get(i).getValue();
+        }
+        return of(tableName, indexNames, indexSizes);
     }
 
     @Nonnull
@@ -151,7 +212,7 @@ public class DuplicatedIndexes implements TableNameAware {
         if (Stream.of(otherIndexes).anyMatch(Objects::isNull)) {
             throw new NullPointerException("otherIndexes");
         }
-        return new DuplicatedIndexes(Stream.concat(basePart, Stream.of(otherIndexes))
+        return of(Stream.concat(basePart, Stream.of(otherIndexes))
                 .collect(toList()));
     }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.index;
+
+import io.github.mfvanek.pg.model.ColumnarResult;
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Bloated indexes stored by columns.
+ *
+ * @author Ivan Vakhrushev
+ * @see IndexWithBloat
+ */
+@Immutable
+public final class IndexWithBloatColumns extends ColumnarResult<IndexWithBloat> {
+
+    private final String[] indexNames;
+    private final long[] indexSizes;
+    private final long[] bloatSizes;
+    private final int[] bloatPercentages;
+
+    private IndexWithBloatColumns(@Nonnull final Builder builder) {
+        super(builder);
+        this.indexNames = Arrays.copyOf(builder.indexNames, size());
+        this.indexSizes = Arrays.copyOf(builder.indexSizes, size());
+        this.bloatSizes = Arrays.copyOf(builder.bloatSizes, size());
+        this.bloatPercentages = Arrays.copyOf(builder.bloatPercentages, size());
+    }
+
+    @Nonnull
+    public String getIndexName(final int row) {
+        return indexNames[checkRow(row)];
+    }
+
+    public long getIndexSizeInBytes(final int row) {
+        return indexSizes[checkRow(row)];
+    }
+
+    public long getBloatSizeInBytes(final int row) {
+        return bloatSizes[checkRow(row)];
+    }
+
+    public int getBloatPercentage(final int row) {
+        return bloatPercentages[checkRow(row)];
+    }
+
+    @Nonnull
+    public LongStream indexSizesInBytes() {
+        return Arrays.stream(indexSizes);
+    }
+
+    @Nonnull
+    public LongStream bloatSizesInBytes() {
+        return Arrays.stream(bloatSizes);
+    }
+
+    @Nonnull
+    public IntStream bloatPercentages() {
+        return Arrays.stream(bloatPercentages);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public IndexWithBloat get(final int row) {
+        return IndexWithBloat.of(getTableName(row), indexNames[row], indexSizes[row], bloatSizes[row], bloatPercentages[row]);
+    }
+
+    @Nonnull
+    public static Builder builder() {
+        return new Builder(0);
+    }
+
+    /**
+     * Converts given bloated indexes to columns.
+     *
+     * @param indexes bloated indexes
+     * @return {@code IndexWithBloatColumns}
+     */
+    @Nonnull
+    public static IndexWithBloatColumns of(@Nonnull final Collection<IndexWithBloat> indexes) {
+        Objects.requireNonNull(indexes, "indexes");
+        final Builder builder = new Builder(indexes.size());
+        indexes.forEach(i -> builder.add(i.getTableName(), i.getIndexName(), i.getIndexSizeInBytes(), i.getBloatSizeInBytes(), i.getBloatPercentage()));
+        return builder.build();
+    }
+
+    /**
+     * Builder for {@link IndexWithBloatColumns}.
+     */
+    public static final class Builder extends AbstractBuilder<IndexWithBloat, IndexWithBloatColumns> {
+
+        private String[] indexNames;
+        private long[] indexSizes;
+        private long[] bloatSizes;
+        private int[] bloatPercentages;
+
+        private Builder(final int initialCapacity) {
+            super(initialCapacity);
+            this.indexNames = new String[initialCapacity];
+            this.indexSizes = new long[initialCapacity];
+            this.bloatSizes = new long[initialCapacity];
+            this.bloatPercentages = new int[initialCapacity];
+        }
+
+        @Nonnull
+        public Builder add(@Nonnull final String tableName,
+                           @Nonnull final String indexName,
+                           final long indexSizeInBytes,
+                           final long bloatSizeInBytes,
+                           final int bloatPercentage) {
+            Validators.indexNameNotBlank(indexName);
+            Validators.sizeNotNegative(indexSizeInBytes, "indexSizeInBytes");
+            Validators.sizeNotNegative(bloatSizeInBytes, "bloatSizeInBytes");
+            Validators.argumentNotNegative(bloatPercentage, "bloatPercentage");
+            final int row = addRow(tableName);
+            indexNames[row] = indexName;
+            indexSizes[row] = indexSizeInBytes;
+            bloatSizes[row] = bloatSizeInBytes;
+            bloatPercentages[row] = bloatPercentage;
+            return this;
+        }
+
+        @Override
+        protected void ensureCapacity(final int capacity) {
+            indexNames = Arrays.copyOf(indexNames, capacity);
+            indexSizes = Arrays.copyOf(indexSizes, capacity);
+            bloatSizes = Arrays.copyOf(bloatSizes, capacity);
+            bloatPercentages = Arrays.copyOf(bloatPercentages, capacity);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public IndexWithBloatColumns build() {
+            return new IndexWithBloatColumns(this);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.index;
+
+import io.github.mfvanek.pg.model.ColumnarResult;
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Unused indexes stored by columns.
+ *
+ * @author Ivan Vakhrushev
+ * @see UnusedIndex
+ */
+@Immutable
+public final class UnusedIndexColumns extends ColumnarResult<UnusedIndex> {
+
+    private final String[] indexNames;
+    private final long[] indexSizes;
+    private final long[] indexScans;
+
+    private UnusedIndexColumns(@Nonnull final Builder builder) {
+        super(builder);
+        this.indexNames = Arrays.copyOf(builder.indexNames, size());
+        this.indexSizes = Arrays.copyOf(builder.indexSizes, size());
+        this.indexScans = Arrays.copyOf(builder.indexScans, size());
+    }
+
+    @Nonnull
+    public String getIndexName(final int row) {
+        return indexNames[checkRow(row)];
+    }
+
+    public long getIndexSizeInBytes(final int row) {
+        return indexSizes[checkRow(row)];
+    }
+
+    public long getIndexScans(final int row) {
+        return indexScans[checkRow(row)];
+    }
+
+    @Nonnull
+    public LongStream indexSizesInBytes() {
+        return Arrays.stream(indexSizes);
+    }
+
+    @Nonnull
+    public LongStream indexScans() {
+        return Arrays.stream(indexScans);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public UnusedIndex get(final int row) {
+        return UnusedIndex.of(getTableName(row), indexNames[row], indexSizes[row], indexScans[row]);
+    }
+
+    @Nonnull
+    public static Builder builder() {
+        return new Builder(0);
+    }
+
+    /**
+     * Converts given unused indexes to columns.
+     *
+     * @param indexes unused indexes
+     * @return {@code UnusedIndexColumns}
+     */
+    @Nonnull
+    public static UnusedIndexColumns of(@Nonnull final Collection<UnusedIndex> indexes) {
+        Objects.requireNonNull(indexes, "indexes");
+        final Builder builder = new Builder(indexes.size());
+        indexes.forEach(i -> builder.add(i.getTableName(), i.getIndexName(), i.getIndexSizeInBytes(), i.getIndexScans()));
+        return builder.build();
+    }
+
+    /**
+     * Builder for {@link UnusedIndexColumns}.
+     */
+    public static final class Builder extends AbstractBuilder<UnusedIndex, UnusedIndexColumns> {
+
+        private String[] indexNames;
+        private long[] indexSizes;
+        private long[] indexScans;
+
+        private Builder(final int initialCapacity) {
+            super(initialCapacity);
+            this.indexNames = new String[initialCapacity];
+            this.indexSizes = new long[initialCapacity];
+            this.indexScans = new long[initialCapacity];
+        }
+
+        @Nonnull
+        public Builder add(@Nonnull final String tableName,
+                           @Nonnull final String indexName,
+                           final long indexSizeInBytes,
+                           final long indexScans) {
+            Validators.indexNameNotBlank(indexName);
+            Validators.sizeNotNegative(indexSizeInBytes, "indexSizeInBytes");
+            Validators.countNotNegative(indexScans, "indexScans");
+            final int row = addRow(tableName);
+            this.indexNames[row] = indexName;
+            this.indexSizes[row] = indexSizeInBytes;
+            this.indexScans[row] = indexScans;
+            return this;
+        }
+
+        @Override
+        protected void ensureCapacity(final int capacity) {
+            indexNames = Arrays.copyOf(indexNames, capacity);
+            indexSizes = Arrays.copyOf(indexSizes, capacity);
+            indexScans = Arrays.copyOf(indexScans, capacity);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public UnusedIndexColumns build() {
+            return new UnusedIndexColumns(this);
+        }
+    }
+}
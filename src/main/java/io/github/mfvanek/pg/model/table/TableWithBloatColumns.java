@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.table;
+
+import io.github.mfvanek.pg.model.ColumnarResult;
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Bloated tables stored by columns.
+ *
+ * @author Ivan Vakhrushev
+ * @see TableWithBloat
+ */
+@Immutable
+public final class TableWithBloatColumns extends ColumnarResult<TableWithBloat> {
+
+    private final long[] tableSizes;
+    private final long[] bloatSizes;
+    private final int[] bloatPercentages;
+
+    private TableWithBloatColumns(@Nonnull final Builder builder) {
+        super(builder);
+        this.tableSizes = Arrays.copyOf(builder.tableSizes, size());
+        this.bloatSizes = Arrays.copyOf(builder.bloatSizes, size());
+        this.bloatPercentages = Arrays.copyOf(builder.bloatPercentages, size());
+    }
+
+    public long getTableSizeInBytes(final int row) {
+        return tableSizes[checkRow(row)];
+    }
+
+    public long getBloatSizeInBytes(final int row) {
+        return bloatSizes[checkRow(row)];
+    }
+
+    public int getBloatPercentage(final int row) {
+        return bloatPercentages[checkRow(row)];
+    }
+
+    @Nonnull
+    public LongStream tableSizesInBytes() {
+        return Arrays.stream(tableSizes);
+    }
+
+    @Nonnull
+    public LongStream bloatSizesInBytes() {
+        return Arrays.stream(bloatSizes);
+    }
+
+    @Nonnull
+    public IntStream bloatPercentages() {
+        return Arrays.stream(bloatPercentages);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public TableWithBloat get(final int row) {
+        return TableWithBloat.of(getTableName(row), tableSizes[row], bloatSizes[row], bloatPercentages[row]);
+    }
+
+    @Nonnull
+    public static Builder builder() {
+        return new Builder(0);
+    }
+
+    /**
+     * Converts given bloated tables to columns.
+     *
+     * @param tables bloated tables
+     * @return {@code TableWithBloatColumns}
+     */
+    @Nonnull
+    public static TableWithBloatColumns of(@Nonnull final Collection<TableWithBloat> tables) {
+        Objects.requireNonNull(tables, "tables");
+        final Builder builder = new Builder(tables.size());
+        tables.forEach(t -> builder.add(t.getTableName(), t.getTableSizeInBytes(), t.getBloatSizeInBytes(), t.getBloatPercentage()));
+        return builder.build();
+    }
+
+    /**
+     * Builder for {@link TableWithBloatColumns}.
+     */
+    public static final class Builder extends AbstractBuilder<TableWithBloat, TableWithBloatColumns> {
+
+        private long[] tableSizes;
+        private long[] bloatSizes;
+        private int[] bloatPercentages;
+
+        private Builder(final int initialCapacity) {
+            super(initialCapacity);
+            this.tableSizes = new long[initialCapacity];
+            this.bloatSizes = new long[initialCapacity];
+            this.bloatPercentages = new int[initialCapacity];
+        }
+
+        @Nonnull
+        public Builder add(@Nonnull final String tableName,
+                           final long tableSizeInBytes,
+                           final long bloatSizeInBytes,
+                           final int bloatPercentage) {
+            Validators.sizeNotNegative(tableSizeInBytes, "tableSizeInBytes");
+            Validators.sizeNotNegative(bloatSizeInBytes, "bloatSizeInBytes");
+            Validators.argumentNotNegative(bloatPercentage, "bloatPercentage");
+            final int row = addRow(tableName);
+            tableSizes[row] = tableSizeInBytes;
+            bloatSizes[row] = bloatSizeInBytes;
+            bloatPercentages[row] = bloatPercentage;
+            return this;
+        }
+
+        @Override
+        protected void ensureCapacity(final int capacity) {
+            tableSizes = Arrays.copyOf(tableSizes, capacity);
+            bloatSizes = Arrays.copyOf(bloatSizes, capacity);
+            bloatPercentages = Arrays.copyOf(bloatPercentages, capacity);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public TableWithBloatColumns build() {
+            return new TableWithBloatColumns(this);
+        }
+    }
+}
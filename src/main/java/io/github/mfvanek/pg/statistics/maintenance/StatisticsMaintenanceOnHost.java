@@ -12,9 +12,11 @@ package io.github.mfvanek.pg.statistics.maintenance;
 
 import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.statistics.StatisticsAware;
+import io.github.mfvanek.pg.utils.QueryBatch;
 
 import java.time.OffsetDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -40,4 +42,13 @@ public interface StatisticsMaintenanceOnHost extends StatisticsAware, HostAware
     @Override
     @Nonnull
     Optional<OffsetDateTime> getLastStatsResetTimestamp();
+
+    /**
+     * Adds the query for time at which database statistics were last reset to the batch for the current host.
+     *
+     * @param batch batch of queries for the current host
+     * @return supplier of time at which database statistics were last reset; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<Optional<OffsetDateTime>> addLastStatsResetTimestampToBatch(@Nonnull QueryBatch batch);
 }
@@ -12,15 +12,22 @@ package io.github.mfvanek.pg.statistics.maintenance;
 
 import io.github.mfvanek.pg.common.maintenance.AbstractMaintenance;
 import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import io.github.mfvanek.pg.utils.QueryExecutor;
+import io.github.mfvanek.pg.utils.ResultSetExtractor;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 public class StatisticsMaintenanceOnHostImpl extends AbstractMaintenance implements StatisticsMaintenanceOnHost {
 
+    private static final String STATS_RESET_QUERY = "select stats_reset from pg_stat_database where datname = current_database()";
+    private static final ResultSetExtractor<OffsetDateTime> STATS_RESET_EXTRACTOR = rs -> rs.getObject(1, OffsetDateTime.class);
+
     public StatisticsMaintenanceOnHostImpl(@Nonnull final PgConnection pgConnection) {
         super(pgConnection);
     }
@@ -39,9 +46,18 @@ public class StatisticsMaintenanceOnHostImpl extends AbstractMaintenance impleme
     @Override
     @Nonnull
     public Optional<OffsetDateTime> getLastStatsResetTimestamp() {
-        final String query = "select stats_reset from pg_stat_database where datname = current_database()";
-        final List<OffsetDateTime> statsResetTimes = QueryExecutor.executeQuery(pgConnection, query,
-                rs -> rs.getObject(1, OffsetDateTime.class));
+        final List<OffsetDateTime> statsResetTimes = QueryExecutor.executeQuery(pgConnection, STATS_RESET_QUERY, STATS_RESET_EXTRACTOR);
         return Optional.ofNullable(statsResetTimes.get(0));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public Supplier<Optional<OffsetDateTime>> addLastStatsResetTimestampToBatch(@Nonnull final QueryBatch batch) {
+        final Supplier<List<OffsetDateTime>> statsResetTimes = Objects.requireNonNull(batch, "batch")
+                .addQuery(STATS_RESET_QUERY, STATS_RESET_EXTRACTOR);
+        return () -> Optional.ofNullable(statsResetTimes.get().get(0));
+    }
 }
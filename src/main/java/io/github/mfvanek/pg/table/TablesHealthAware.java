@@ -16,7 +16,10 @@ import io.github.mfvanek.pg.model.table.TableWithBloat;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -45,12 +48,23 @@ public interface TablesHealthAware {
      */
     @Nonnull
     default List<TableWithMissingIndex> getTablesWithMissingIndexes(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getTablesWithMissingIndexes)
+        return getTablesWithMissingIndexesBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns tables with potentially missing indexes in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return tables with potentially missing indexes for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<TableWithMissingIndex>> getTablesWithMissingIndexesBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getTablesWithMissingIndexes, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns tables with potentially missing indexes in the public schema.
      *
@@ -78,12 +92,23 @@ public interface TablesHealthAware {
      */
     @Nonnull
     default List<Table> getTablesWithoutPrimaryKey(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getTablesWithoutPrimaryKey)
+        return getTablesWithoutPrimaryKeyBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns tables without primary key on the current host in the specified schemas grouped by schema.
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return tables without primary key for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<Table>> getTablesWithoutPrimaryKeyBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getTablesWithoutPrimaryKey, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns tables without primary key on the current host in the public schema.
      *
@@ -119,12 +144,27 @@ public interface TablesHealthAware {
      */
     @Nonnull
     default List<TableWithBloat> getTablesWithBloat(@Nonnull Collection<PgContext> pgContexts) {
-        return pgContexts.stream()
-                .map(this::getTablesWithBloat)
+        return getTablesWithBloatBySchema(pgContexts).values().stream()
                 .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns tables that are bloated on the current host in the specified schemas grouped by schema.
+     * <p>
+     * Note: The database user on whose behalf this method will be executed
+     * have to have read permissions for the corresponding tables.
+     * </p>
+     *
+     * @param pgContexts a set of contexts specifying schemas
+     * @return bloated tables for each given context
+     */
+    @Nonnull
+    default Map<PgContext, List<TableWithBloat>> getTablesWithBloatBySchema(@Nonnull Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .collect(Collectors.toMap(Function.identity(), this::getTablesWithBloat, (l, r) -> l, LinkedHashMap::new));
+    }
+
     /**
      * Returns tables that are bloated on the current host in the public schema.
      * <p>
@@ -14,10 +14,13 @@ import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 import io.github.mfvanek.pg.table.TablesHealthAware;
+import io.github.mfvanek.pg.utils.QueryBatch;
 
 import java.util.List;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -63,4 +66,45 @@ public interface TablesMaintenanceOnHost extends TablesHealthAware, HostAware {
     @Override
     @Nonnull
     List<TableWithBloat> getTablesWithBloat(@Nonnull PgContext pgContext);
+
+    /**
+     * Returns tables that are bloated on the current host in the specified schema stored by columns.
+     * Rows are written to the columns as they are read from the database, without intermediate model objects.
+     *
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return bloated tables
+     * @see #getTablesWithBloat(PgContext)
+     */
+    @Nonnull
+    TableWithBloatColumns getTablesWithBloatAsColumns(@Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for tables with missing indexes in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of tables with missing indexes; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<TableWithMissingIndex>> addTablesWithMissingIndexesToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for tables without primary key in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of tables without primary key; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<Table>> addTablesWithoutPrimaryKeyToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
+
+    /**
+     * Adds the query for bloated tables in the specified schema to the batch for the current host.
+     *
+     * @param batch     batch of queries for the current host
+     * @param pgContext {@code PgContext} with the specified schema
+     * @return supplier of bloated tables; can be used only after the batch has been executed
+     */
+    @Nonnull
+    Supplier<List<TableWithBloat>> addTablesWithBloatToBatch(@Nonnull QueryBatch batch, @Nonnull PgContext pgContext);
 }
@@ -12,15 +12,22 @@ package io.github.mfvanek.pg.table.maintenance;
 
 import io.github.mfvanek.pg.common.maintenance.AbstractMaintenance;
 import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.DiagnosticsRowMappers;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
 import io.github.mfvanek.pg.connection.HostAware;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgHost;
 import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.utils.QueryBatch;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 
 /**
@@ -36,19 +43,27 @@ public class TablesMaintenanceOnHostImpl extends AbstractMaintenance implements
         super(pgConnection);
     }
 
+    public TablesMaintenanceOnHostImpl(@Nonnull final PgConnection pgConnection,
+                                   @Nonnull final ExecutionOptions executionOptions) {
+        super(pgConnection, executionOptions);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Nonnull
     @Override
     public List<TableWithMissingIndex> getTablesWithMissingIndexes(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.TABLES_WITH_MISSING_INDEXES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final long tableSize = rs.getLong("table_size");
-            final long seqScans = rs.getLong("seq_scan");
-            final long indexScans = rs.getLong("idx_scan");
-            return TableWithMissingIndex.of(tableName, tableSize, seqScans, indexScans);
-        });
+        return executeQuery(Diagnostics.TABLES_WITH_MISSING_INDEXES, pgContext, DiagnosticsRowMappers.TABLES_WITH_MISSING_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<TableWithMissingIndex>> getTablesWithMissingIndexesBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.TABLES_WITH_MISSING_INDEXES, pgContexts, DiagnosticsRowMappers.TABLES_WITH_MISSING_INDEXES);
     }
 
     /**
@@ -57,25 +72,71 @@ public class TablesMaintenanceOnHostImpl extends AbstractMaintenance implements
     @Nonnull
     @Override
     public List<Table> getTablesWithoutPrimaryKey(@Nonnull final PgContext pgContext) {
-        return executeQuery(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final long tableSize = rs.getLong("table_size");
-            return Table.of(tableName, tableSize);
-        });
+        return executeQuery(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, pgContext, DiagnosticsRowMappers.TABLES_WITHOUT_PRIMARY_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<Table>> getTablesWithoutPrimaryKeyBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryForSchemas(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, pgContexts, DiagnosticsRowMappers.TABLES_WITHOUT_PRIMARY_KEY);
     }
 
     /**
      * {@inheritDoc}
      */
+    @Nonnull
     @Override
+    public List<TableWithBloat> getTablesWithBloat(@Nonnull final PgContext pgContext) {
+        return executeQueryWithBloatThreshold(Diagnostics.BLOATED_TABLES, pgContext, DiagnosticsRowMappers.BLOATED_TABLES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
     @Nonnull
-    public List<TableWithBloat> getTablesWithBloat(@Nonnull PgContext pgContext) {
-        return executeQueryWithBloatThreshold(Diagnostics.BLOATED_TABLES, pgContext, rs -> {
-            final String tableName = rs.getString("table_name");
-            final long tableSize = rs.getLong("table_size");
-            final long bloatSize = rs.getLong("bloat_size");
-            final int bloatPercentage = rs.getInt("bloat_percentage");
-            return TableWithBloat.of(tableName, tableSize, bloatSize, bloatPercentage);
-        });
+    @Override
+    public TableWithBloatColumns getTablesWithBloatAsColumns(@Nonnull final PgContext pgContext) {
+        final TableWithBloatColumns.Builder builder = TableWithBloatColumns.builder();
+        executeQueryWithBloatThreshold(Diagnostics.BLOATED_TABLES, pgContext, DiagnosticsRowMappers.bloatedTablesInto(builder), b -> { });
+        return builder.build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<PgContext, List<TableWithBloat>> getTablesWithBloatBySchema(@Nonnull final Collection<PgContext> pgContexts) {
+        return executeQueryWithBloatThresholdForSchemas(Diagnostics.BLOATED_TABLES, pgContexts, DiagnosticsRowMappers.BLOATED_TABLES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<TableWithMissingIndex>> addTablesWithMissingIndexesToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.TABLES_WITH_MISSING_INDEXES, pgContext, DiagnosticsRowMappers.TABLES_WITH_MISSING_INDEXES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<Table>> addTablesWithoutPrimaryKeyToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryToBatch(batch, Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, pgContext, DiagnosticsRowMappers.TABLES_WITHOUT_PRIMARY_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Supplier<List<TableWithBloat>> addTablesWithBloatToBatch(@Nonnull final QueryBatch batch, @Nonnull final PgContext pgContext) {
+        return addQueryWithBloatThresholdToBatch(batch, Diagnostics.BLOATED_TABLES, pgContext, DiagnosticsRowMappers.BLOATED_TABLES);
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Wraps a diagnostic query into an outer query that filters rows by object name and size on the database side.
+ * <p>
+ * Excluded names are bound as a single {@code text[]} parameter and compared case-insensitively
+ * with the whole (possibly schema-qualified) object name. Parameters of the filter follow
+ * the parameters of the original query.
+ * </p>
+ * <p>
+ * The order of rows of a subquery is not guaranteed to be preserved, so the outer query repeats
+ * the {@code order by} of the original query with the given order columns.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutor#executeQueryWithParams
+ * @see QueryBatch#addQueryWithParams
+ */
+@Immutable
+public final class FilteredQuery {
+
+    private static final Pattern COLUMN_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final String sqlQuery;
+    private final List<Object> filterParams;
+
+    private FilteredQuery(@Nonnull final String sqlQuery,
+                          @Nonnull final String nameColumn,
+                          @Nonnull final String sizeColumn,
+                          @Nonnull final List<String> orderColumns,
+                          @Nonnull final Collection<String> excludedNames,
+                          final long sizeThresholdInBytes) {
+        final String query = QueryBatch.stripTrailingSemicolon(Validators.notBlank(sqlQuery, "sqlQuery"));
+        final String name = validColumnName(nameColumn, "nameColumn");
+        final String size = validColumnName(sizeColumn, "sizeColumn");
+        Objects.requireNonNull(orderColumns, "orderColumns");
+        Objects.requireNonNull(excludedNames, "excludedNames");
+        Validators.sizeNotNegative(sizeThresholdInBytes, "sizeThresholdInBytes");
+        final StringBuilder result = new StringBuilder(query.length() + 256)
+                .append("select q.* from (\n")
+                .append(query)
+                .append("\n) q\nwhere true");
+        final List<Object> params = new ArrayList<>(2);
+        if (!excludedNames.isEmpty()) {
+            result.append("\nand not lower(q.").append(name).append("::text) = any(?::text[])");
+            params.add(excludedNames.toArray(new String[0]));
+        }
+        if (sizeThresholdInBytes > 0L) {
+            result.append("\nand q.").append(size).append(" >= ?");
+            params.add(sizeThresholdInBytes);
+        }
+        if (!orderColumns.isEmpty()) {
+            result.append(orderColumns.stream()
+                    .map(c -> "q." + validColumnName(c, "orderColumns"))
+                    .collect(Collectors.joining(", ", "\norder by ", "")));
+        }
+        this.sqlQuery = result.toString();
+        this.filterParams = Collections.unmodifiableList(params);
+    }
+
+    /**
+     * Gets the wrapped query.
+     *
+     * @return sql query
+     */
+    @Nonnull
+    public String getSqlQuery() {
+        return sqlQuery;
+    }
+
+    /**
+     * Gets all parameters of the wrapped query.
+     *
+     * @param queryParams parameters of the original query
+     * @return parameters of the original query followed by parameters of the filter
+     */
+    @Nonnull
+    public List<Object> getParams(@Nonnull final Object... queryParams) {
+        Objects.requireNonNull(queryParams, "queryParams");
+        final List<Object> params = new ArrayList<>(queryParams.length + filterParams.size());
+        params.addAll(Arrays.asList(queryParams));
+        params.addAll(filterParams);
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return FilteredQuery.class.getSimpleName() + '{' +
+                "sqlQuery='" + sqlQuery + '\'' +
+                '}';
+    }
+
+    @Nonnull
+    private static String validColumnName(@Nonnull final String columnName, @Nonnull final String argumentName) {
+        Objects.requireNonNull(columnName, argumentName);
+        if (!COLUMN_NAME.matcher(columnName).matches()) {
+            throw new IllegalArgumentException(argumentName + " is not a valid column name: " + columnName);
+        }
+        return columnName;
+    }
+
+    /**
+     * Wraps given query into a query that filters out rows with excluded names and small sizes.
+     *
+     * @param sqlQuery             original query
+     * @param nameColumn           column with the object name
+     * @param sizeColumn           column with the object size in bytes
+     * @param orderColumns         columns the original query is ordered by; can be empty
+     * @param excludedNames        names to exclude in lower case
+     * @param sizeThresholdInBytes minimum object size; zero means no threshold
+     * @return {@code FilteredQuery}
+     */
+    @Nonnull
+    public static FilteredQuery of(@Nonnull final String sqlQuery,
+                                   @Nonnull final String nameColumn,
+                                   @Nonnull final String sizeColumn,
+                                   @Nonnull final List<String> orderColumns,
+                                   @Nonnull final Collection<String> excludedNames,
+                                   final long sizeThresholdInBytes) {
+        return new FilteredQuery(sqlQuery, nameColumn, sizeColumn, orderColumns, excludedNames, sizeThresholdInBytes);
+    }
+}
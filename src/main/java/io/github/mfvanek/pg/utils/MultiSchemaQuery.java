@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Rewrites a single-schema diagnostic query into a query that checks several schemas at once.
+ * <p>
+ * All schema names are bound as one array parameter. The original query is executed
+ * for each schema via {@code cross join lateral}, and every row is tagged with its schema name
+ * in the {@link #SCHEMA_NAME_COLUMN} column.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutor
+ */
+public final class MultiSchemaQuery {
+
+    /**
+     * Name of the column with the schema name that is added to each row of the rewritten query.
+     */
+    public static final String SCHEMA_NAME_COLUMN = "pg_context_schema_name";
+
+    private static final String SCHEMA_NAME_EXPRESSION = "s.schema_name";
+    private static final String BLOAT_THRESHOLD_EXPRESSION = "s.bloat_percentage_threshold";
+
+    private MultiSchemaQuery() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Rewrites a query with the schema name parameter.
+     * The rewritten query has a single parameter: an array of schema names.
+     *
+     * @param sqlQuery query with the schema name parameter
+     * @return rewritten query
+     */
+    @Nonnull
+    public static String withSchemas(@Nonnull final String sqlQuery) {
+        return "select s.schema_name as " + SCHEMA_NAME_COLUMN + ", q.*\n" +
+                "from unnest(?::text[]) as s(schema_name)\n" +
+                "cross join lateral (\n" +
+                replacePlaceholders(sqlQuery, SCHEMA_NAME_EXPRESSION) +
+                "\n) q";
+    }
+
+    /**
+     * Rewrites a query with the schema name and bloat threshold parameters.
+     * The rewritten query has two parameters: an array of schema names and an array of bloat thresholds.
+     *
+     * @param sqlQuery query with the schema name and bloat threshold parameters
+     * @return rewritten query
+     */
+    @Nonnull
+    public static String withSchemasAndBloatThresholds(@Nonnull final String sqlQuery) {
+        return "select s.schema_name as " + SCHEMA_NAME_COLUMN + ", q.*\n" +
+                "from unnest(?::text[], ?::int[]) as s(schema_name, bloat_percentage_threshold)\n" +
+                "cross join lateral (\n" +
+                replacePlaceholders(sqlQuery, SCHEMA_NAME_EXPRESSION, BLOAT_THRESHOLD_EXPRESSION) +
+                "\n) q";
+    }
+
+    /**
+     * Replaces positional parameters (question marks) with the given expressions.
+     * Question marks inside quotes and comments are left intact.
+     *
+     * @param sqlQuery    query with positional parameters
+     * @param expressions expressions to substitute; the number of expressions should match the number of parameters
+     * @return query without positional parameters and trailing semicolon
+     */
+    @Nonnull
+    static String replacePlaceholders(@Nonnull final String sqlQuery, @Nonnull final String... expressions) {
+        final String query = stripTrailingSemicolon(Validators.notBlank(sqlQuery, "sqlQuery"));
+        Objects.requireNonNull(expressions, "expressions");
+        final StringBuilder result = new StringBuilder(query.length() + 32);
+        int replaced = 0;
+        char quote = 0;
+        boolean isPartOfSingleLineComment = false;
+        boolean isPartOfMultiLineComment = false;
+        for (int i = 0; i < query.length(); ++i) {
+            final char c = query.charAt(i);
+            final char next = i + 1 < query.length() ? query.charAt(i + 1) : 0;
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (isPartOfSingleLineComment) {
+                isPartOfSingleLineComment = c != '\n';
+            } else if (isPartOfMultiLineComment) {
+                if (c == '*' && next == '/') {
+                    isPartOfMultiLineComment = false;
+                    result.append(c).append(next);
+                    ++i;
+                    continue;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '-' && next == '-') {
+                isPartOfSingleLineComment = true;
+            } else if (c == '/' && next == '*') {
+                isPartOfMultiLineComment = true;
+                result.append(c).append(next);
+                ++i;
+                continue;
+            } else if (c == '?') {
+                if (replaced == expressions.length) {
+                    throw new IllegalArgumentException("Query has more parameters than expected " + expressions.length);
+                }
+                result.append(expressions[replaced++]);
+                continue;
+            }
+            result.append(c);
+        }
+        if (replaced != expressions.length) {
+            throw new IllegalArgumentException(String.format("Query has %d parameters but %d expected", replaced, expressions.length));
+        }
+        return result.toString();
+    }
+
+    @Nonnull
+    private static String stripTrailingSemicolon(@Nonnull final String sqlQuery) {
+        final String trimmed = sqlQuery.trim();
+        return trimmed.endsWith(";") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
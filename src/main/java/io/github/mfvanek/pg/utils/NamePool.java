@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A pool of table and index names that makes equal names share a single {@code String} instance.
+ * <p>
+ * The same table appears in the results of many diagnostics and on every host in the cluster.
+ * Without the pool each row holds its own copy of the name decoded by the JDBC driver.
+ * A pool is meant to live for a single run of all checks and be discarded afterwards,
+ * unlike {@link String#intern()}, which keeps names for the lifetime of the JVM.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see RowMapper#withNamePool(NamePool)
+ */
+@ThreadSafe
+public final class NamePool {
+
+    private static final NamePool NONE = new NamePool(null);
+
+    private final ConcurrentMap<String, String> names;
+
+    private NamePool(@Nullable final ConcurrentMap<String, String> names) {
+        this.names = names;
+    }
+
+    /**
+     * Gets the pooled instance of the given name.
+     *
+     * @param name name of table or index
+     * @return equal name from the pool, or the given name if it was not in the pool yet
+     */
+    @Nullable
+    public String intern(@Nullable final String name) {
+        if (names == null || name == null) {
+            return name;
+        }
+        final String pooled = names.putIfAbsent(name, name);
+        return pooled == null ? name : pooled;
+    }
+
+    /**
+     * Determines whether this pool keeps names at all.
+     *
+     * @return {@code false} for {@link #none()}
+     */
+    public boolean isEnabled() {
+        return names != null;
+    }
+
+    /**
+     * Retrieves the number of distinct names in the pool.
+     *
+     * @return number of names
+     */
+    public int size() {
+        return names == null ? 0 : names.size();
+    }
+
+    @Override
+    public String toString() {
+        return NamePool.class.getSimpleName() + '{' +
+                "enabled=" + isEnabled() +
+                ", size=" + size() +
+                '}';
+    }
+
+    /**
+     * Creates a new empty pool.
+     *
+     * @return {@code NamePool}
+     */
+    @Nonnull
+    public static NamePool create() {
+        return new NamePool(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Gets the pool that returns all names as is.
+     *
+     * @return {@code NamePool} that keeps nothing
+     */
+    @Nonnull
+    public static NamePool none() {
+        return NONE;
+    }
+}
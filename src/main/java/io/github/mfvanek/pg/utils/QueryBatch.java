@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.model.PgContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.sql.DataSource;
+
+/**
+ * A set of queries that are sent to the host as a single multi-statement command.
+ * <p>
+ * Queries are added one by one, each with its own row mapper. Then the whole batch is executed
+ * with one round trip: the driver returns a result set per query and rows of each result set
+ * are mapped with the corresponding {@link ResultSetExtractor}.
+ * Rows of a particular query are available via the {@link Supplier} returned on adding the query
+ * after the batch has been executed.
+ * Since all queries share one round trip, they also share its latency: callbacks registered with
+ * {@link #whenExecuted(ExecutionCallback)} receive the time spent on the whole batch.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see QueryExecutor
+ */
+@NotThreadSafe
+public final class QueryBatch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryBatch.class);
+
+    private final List<BatchEntry<?>> entries = new ArrayList<>();
+    private final List<ExecutionCallback> callbacks = new ArrayList<>();
+    private Duration queryTimeout = Duration.ZERO;
+    private boolean executed;
+
+    /**
+     * Adds query without parameters to the batch.
+     *
+     * @param sqlQuery query
+     * @param rse      row mapper
+     * @param <T>      type of row
+     * @return supplier of mapped rows; can be used only after the batch has been executed
+     */
+    @Nonnull
+    public <T> Supplier<List<T>> addQuery(@Nonnull final String sqlQuery,
+                                          @Nonnull final ResultSetExtractor<T> rse) {
+        return add(sqlQuery, rse, Duration.ZERO);
+    }
+
+    /**
+     * Adds query with the schema name parameter to the batch.
+     *
+     * @param sqlQuery     query with the schema name parameter
+     * @param pgContext    context with schema name
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return supplier of mapped rows; can be used only after the batch has been executed
+     */
+    @Nonnull
+    public <T> Supplier<List<T>> addQueryWithSchema(@Nonnull final String sqlQuery,
+                                                    @Nonnull final PgContext pgContext,
+                                                    @Nonnull final ResultSetExtractor<T> rse,
+                                                    @Nonnull final Duration queryTimeout) {
+        Objects.requireNonNull(pgContext, "pgContext");
+        return add(sqlQuery, rse, queryTimeout, pgContext.getSchemaName());
+    }
+
+    /**
+     * Adds query with the schema name and bloat threshold parameters to the batch.
+     *
+     * @param sqlQuery     query with the schema name and bloat threshold parameters
+     * @param pgContext    context with schema name and bloat threshold
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return supplier of mapped rows; can be used only after the batch has been executed
+     */
+    @Nonnull
+    public <T> Supplier<List<T>> addQueryWithBloatThreshold(@Nonnull final String sqlQuery,
+                                                            @Nonnull final PgContext pgContext,
+                                                            @Nonnull final ResultSetExtractor<T> rse,
+                                                            @Nonnull final Duration queryTimeout) {
+        Objects.requireNonNull(pgContext, "pgContext");
+        return add(sqlQuery, rse, queryTimeout, pgContext.getSchemaName(), pgContext.getBloatPercentageThreshold());
+    }
+
+    /**
+     * Adds query with arbitrary positional parameters to the batch.
+     * String arrays are bound as {@code text[]}.
+     *
+     * @param sqlQuery     query with positional parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param params       values of parameters in the order of their positions
+     * @param <T>          type of row
+     * @return supplier of mapped rows; can be used only after the batch has been executed
+     * @see FilteredQuery
+     */
+    @Nonnull
+    public <T> Supplier<List<T>> addQueryWithParams(@Nonnull final String sqlQuery,
+                                                    @Nonnull final ResultSetExtractor<T> rse,
+                                                    @Nonnull final Duration queryTimeout,
+                                                    @Nonnull final List<Object> params) {
+        Objects.requireNonNull(params, "params");
+        return add(sqlQuery, rse, queryTimeout, params.toArray());
+    }
+
+    /**
+     * Registers a callback to be invoked after the batch has been executed, successfully or not.
+     * Callbacks are invoked in the order of their registration.
+     * Nothing is invoked for an empty batch since it is not sent to the host at all.
+     *
+     * @param callback callback to invoke
+     */
+    public void whenExecuted(@Nonnull final ExecutionCallback callback) {
+        Objects.requireNonNull(callback, "callback");
+        if (executed) {
+            throw new IllegalStateException("Batch has already been executed");
+        }
+        callbacks.add(callback);
+    }
+
+    /**
+     * Retrieves the number of queries in the batch.
+     *
+     * @return number of queries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the timeout of the whole batch.
+     *
+     * @return sum of timeouts of all queries in the batch; zero means no timeout
+     */
+    @Nonnull
+    public Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * Executes all queries of the batch on the given host with a single round trip.
+     * The batch can be executed only once.
+     *
+     * @param pgConnection connection to the host
+     * @throws QueryTimeoutException if the batch was cancelled due to timeout
+     */
+    public void execute(@Nonnull final PgConnection pgConnection) {
+        Objects.requireNonNull(pgConnection, "pgConnection");
+        if (executed) {
+            throw new IllegalStateException("Batch has already been executed");
+        }
+        executed = true;
+        if (entries.isEmpty()) {
+            return;
+        }
+        final String sqlQuery = entries.stream()
+                .map(e -> e.sqlQuery)
+                .collect(Collectors.joining("\n;\n"));
+        LOGGER.debug("Executing batch of {} queries on host {} with timeout {}", entries.size(), pgConnection.getHost(), queryTimeout);
+        final long startNanos = System.nanoTime();
+        try {
+            executeStatement(pgConnection, sqlQuery);
+        } catch (RuntimeException e) {
+            notifyCallbacks(Duration.ofNanos(System.nanoTime() - startNanos), e);
+            throw e;
+        }
+        notifyCallbacks(Duration.ofNanos(System.nanoTime() - startNanos), null);
+    }
+
+    private void executeStatement(@Nonnull final PgConnection pgConnection, @Nonnull final String sqlQuery) {
+        final DataSource dataSource = pgConnection.getDataSource();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
+            setParams(statement);
+            if (!queryTimeout.isZero()) {
+                statement.setQueryTimeout(QueryExecutor.toSeconds(queryTimeout));
+            }
+            boolean hasResultSet = statement.execute();
+            for (BatchEntry<?> entry : entries) {
+                if (!hasResultSet) {
+                    throw new IllegalStateException("Query in batch did not return a result set: " + entry.sqlQuery);
+                }
+                try (ResultSet resultSet = statement.getResultSet()) {
+                    entry.extractRows(resultSet);
+                }
+                hasResultSet = statement.getMoreResults();
+            }
+            LOGGER.debug("Batch of {} queries completed", entries.size());
+        } catch (SQLException e) {
+            LOGGER.trace("Batch failed", e);
+            if (!queryTimeout.isZero() && QueryExecutor.QUERY_CANCELED_SQL_STATE.equals(e.getSQLState())) {
+                throw new QueryTimeoutException(queryTimeout, e);
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void notifyCallbacks(@Nonnull final Duration latency, @Nullable final RuntimeException failure) {
+        for (ExecutionCallback callback : callbacks) {
+            callback.onExecuted(latency, failure);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return QueryBatch.class.getSimpleName() + '{' +
+                "size=" + entries.size() +
+                ", queryTimeout=" + queryTimeout +
+                ", executed=" + executed +
+                '}';
+    }
+
+    @Nonnull
+    private <T> Supplier<List<T>> add(@Nonnull final String sqlQuery,
+                                      @Nonnull final ResultSetExtractor<T> rse,
+                                      @Nonnull final Duration entryTimeout,
+                                      @Nonnull final Object... params) {
+        Objects.requireNonNull(sqlQuery, "sqlQuery");
+        Objects.requireNonNull(rse, "rse");
+        Objects.requireNonNull(entryTimeout, "queryTimeout");
+        if (entryTimeout.isNegative()) {
+            throw new IllegalArgumentException("queryTimeout cannot be less than zero");
+        }
+        if (executed) {
+            throw new IllegalStateException("Batch has already been executed");
+        }
+        final BatchEntry<T> entry = new BatchEntry<>(stripTrailingSemicolon(sqlQuery), rse, params);
+        entries.add(entry);
+        queryTimeout = queryTimeout.plus(entryTimeout);
+        return entry::getRows;
+    }
+
+    private void setParams(@Nonnull final PreparedStatement statement) throws SQLException {
+        int parameterIndex = 1;
+        for (BatchEntry<?> entry : entries) {
+            for (Object param : entry.params) {
+                QueryExecutor.setParam(statement, parameterIndex, param);
+                ++parameterIndex;
+            }
+        }
+    }
+
+    @Nonnull
+    static String stripTrailingSemicolon(@Nonnull final String sqlQuery) {
+        String result = sqlQuery.trim();
+        while (result.endsWith(";")) {
+            result = result.substring(0, result.length() - 1).trim();
+        }
+        return result;
+    }
+
+    /**
+     * Callback on the batch execution.
+     *
+     * @see #whenExecuted(ExecutionCallback)
+     */
+    @FunctionalInterface
+    public interface ExecutionCallback {
+
+        /**
+         * Invoked after the batch has been executed.
+         *
+         * @param latency wall-clock time of the whole batch execution including fetching and mapping of all rows
+         * @param failure exception the batch failed with or {@code null} if the batch succeeded
+         */
+        void onExecuted(@Nonnull Duration latency, @Nullable RuntimeException failure);
+    }
+
+    private static final class BatchEntry<T> {
+
+        private final String sqlQuery;
+        private final ResultSetExtractor<T> rse;
+        private final Object[] params;
+        private List<T> rows;
+
+        BatchEntry(@Nonnull final String sqlQuery, @Nonnull final ResultSetExtractor<T> rse, @Nonnull final Object[] params) {
+            this.sqlQuery = sqlQuery;
+            this.rse = rse;
+            this.params = params.clone();
+        }
+
+        void extractRows(@Nonnull final ResultSet resultSet) throws SQLException {
+            final List<T> extracted = new ArrayList<>();
+            final ResultSetExtractor<T> boundRse = rse.bind(resultSet);
+            while (resultSet.next()) {
+                extracted.add(boundRse.extractData(resultSet));
+            }
+            rows = extracted;
+        }
+
+        @Nonnull
+        List<T> getRows() {
+            if (rows == null) {
+                throw new IllegalStateException("Batch has not been executed yet");
+            }
+            return rows;
+        }
+    }
+}
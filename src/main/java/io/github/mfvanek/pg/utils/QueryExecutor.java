@@ -20,8 +20,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
@@ -30,6 +36,7 @@ import javax.sql.DataSource;
 public final class QueryExecutor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryExecutor.class);
+    static final String QUERY_CANCELED_SQL_STATE = "57014";
 
     private QueryExecutor() {
         throw new UnsupportedOperationException();
@@ -46,11 +53,12 @@ public final class QueryExecutor {
              Statement statement = connection.createStatement()) {
             final List<T> executionResult = new ArrayList<>();
             try (ResultSet resultSet = statement.executeQuery(sqlQuery)) {
+                final ResultSetExtractor<T> boundRse = rse.bind(resultSet);
                 while (resultSet.next()) {
-                    executionResult.add(rse.extractData(resultSet));
+                    executionResult.add(boundRse.extractData(resultSet));
                 }
             }
-            LOGGER.debug("Query completed with result {}", executionResult);
+            logResult(executionResult);
             return executionResult;
         } catch (SQLException e) {
             LOGGER.trace("Query failed", e);
@@ -63,14 +71,31 @@ public final class QueryExecutor {
                                                      @Nonnull final PgContext pgContext,
                                                      @Nonnull final String sqlQuery,
                                                      @Nonnull final ResultSetExtractor<T> rse) {
-        return executeQuery(pgConnection, pgContext, sqlQuery, rse, statement -> {
-            try {
-                statement.setString(1, pgContext.getSchemaName());
-            } catch (SQLException e) {
-                LOGGER.trace("Error occurs while setting params", e);
-                throw new RuntimeException(e);
-            }
-        });
+        return executeQueryWithSchema(pgConnection, pgContext, sqlQuery, rse, Duration.ZERO);
+    }
+
+    /**
+     * Executes given query with the schema name parameter and cancels it if it takes longer than {@code queryTimeout}.
+     * <p>
+     * The timeout is applied via {@link Statement#setQueryTimeout(int)}, so it is rounded up to whole seconds.
+     * </p>
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name
+     * @param sqlQuery     query with the schema name parameter
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return list of mapped rows
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     */
+    @Nonnull
+    public static <T> List<T> executeQueryWithSchema(@Nonnull final PgConnection pgConnection,
+                                                     @Nonnull final PgContext pgContext,
+                                                     @Nonnull final String sqlQuery,
+                                                     @Nonnull final ResultSetExtractor<T> rse,
+                                                     @Nonnull final Duration queryTimeout) {
+        return executeQuery(pgConnection, pgContext, sqlQuery, rse, schemaSetter(pgContext), queryTimeout);
     }
 
     @Nonnull
@@ -78,40 +103,430 @@ public final class QueryExecutor {
                                                              @Nonnull final PgContext pgContext,
                                                              @Nonnull final String sqlQuery,
                                                              @Nonnull final ResultSetExtractor<T> rse) {
-        return executeQuery(pgConnection, pgContext, sqlQuery, rse, statement -> {
-            try {
-                statement.setString(1, pgContext.getSchemaName());
-                statement.setInt(2, pgContext.getBloatPercentageThreshold());
-            } catch (SQLException e) {
-                LOGGER.trace("Error occurs while setting params", e);
-                throw new RuntimeException(e);
+        return executeQueryWithBloatThreshold(pgConnection, pgContext, sqlQuery, rse, Duration.ZERO);
+    }
+
+    /**
+     * Executes given query with bloat threshold and cancels it if it takes longer than {@code queryTimeout}.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name and bloat threshold
+     * @param sqlQuery     query with the schema name and bloat threshold parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return list of mapped rows
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see #executeQueryWithSchema(PgConnection, PgContext, String, ResultSetExtractor, Duration)
+     */
+    @Nonnull
+    public static <T> List<T> executeQueryWithBloatThreshold(@Nonnull final PgConnection pgConnection,
+                                                             @Nonnull final PgContext pgContext,
+                                                             @Nonnull final String sqlQuery,
+                                                             @Nonnull final ResultSetExtractor<T> rse,
+                                                             @Nonnull final Duration queryTimeout) {
+        return executeQuery(pgConnection, pgContext, sqlQuery, rse, bloatThresholdSetter(pgContext), queryTimeout);
+    }
+
+    /**
+     * Executes given query with bloat threshold and pushes mapped rows to the consumer instead of collecting them into a list.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name and bloat threshold
+     * @param sqlQuery     query with the schema name and bloat threshold parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param rowConsumer  consumer of mapped rows
+     * @param <T>          type of row
+     * @return total number of processed rows
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see #executeQueryWithBloatThreshold(PgConnection, PgContext, String, ResultSetExtractor, Duration)
+     */
+    public static <T> long executeQueryWithBloatThreshold(@Nonnull final PgConnection pgConnection,
+                                                          @Nonnull final PgContext pgContext,
+                                                          @Nonnull final String sqlQuery,
+                                                          @Nonnull final ResultSetExtractor<T> rse,
+                                                          @Nonnull final Duration queryTimeout,
+                                                          @Nonnull final Consumer<? super T> rowConsumer) {
+        return executeQuery(pgConnection, pgContext, sqlQuery, rse, bloatThresholdSetter(pgContext), queryTimeout, rowConsumer);
+    }
+
+    /**
+     * Executes given query with arbitrary positional parameters and cancels it if it takes longer than {@code queryTimeout}.
+     * <p>
+     * String arrays are bound as {@code text[]}, other values are bound via {@link PreparedStatement#setObject(int, Object)}.
+     * </p>
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context the query is executed for; used only for logging
+     * @param sqlQuery     query with positional parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param params       values of parameters in the order of their positions
+     * @param <T>          type of row
+     * @return list of mapped rows
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see FilteredQuery
+     */
+    @Nonnull
+    public static <T> List<T> executeQueryWithParams(@Nonnull final PgConnection pgConnection,
+                                                     @Nonnull final PgContext pgContext,
+                                                     @Nonnull final String sqlQuery,
+                                                     @Nonnull final ResultSetExtractor<T> rse,
+                                                     @Nonnull final Duration queryTimeout,
+                                                     @Nonnull final List<Object> params) {
+        Objects.requireNonNull(params, "params");
+        return executeQuery(pgConnection, pgContext, sqlQuery, rse, paramsSetter(params), queryTimeout);
+    }
+
+    /**
+     * Executes given query with arbitrary positional parameters and pushes mapped rows to the consumer instead of collecting them into a list.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context the query is executed for; used only for logging
+     * @param sqlQuery     query with positional parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param params       values of parameters in the order of their positions
+     * @param rowConsumer  consumer of mapped rows
+     * @param <T>          type of row
+     * @return total number of processed rows
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see #executeQueryWithParams(PgConnection, PgContext, String, ResultSetExtractor, Duration, List)
+     */
+    public static <T> long executeQueryWithParams(@Nonnull final PgConnection pgConnection,
+                                                  @Nonnull final PgContext pgContext,
+                                                  @Nonnull final String sqlQuery,
+                                                  @Nonnull final ResultSetExtractor<T> rse,
+                                                  @Nonnull final Duration queryTimeout,
+                                                  @Nonnull final List<Object> params,
+                                                  @Nonnull final Consumer<? super T> rowConsumer) {
+        Objects.requireNonNull(params, "params");
+        return executeQuery(pgConnection, pgContext, sqlQuery, rse, paramsSetter(params), queryTimeout, rowConsumer);
+    }
+
+    /**
+     * Executes given query for several schemas at once and groups rows by schema.
+     * <p>
+     * All schema names are bound as a single array parameter, so there is only one round trip
+     * to the database regardless of the number of schemas.
+     * </p>
+     *
+     * @param pgConnection connection to the host
+     * @param pgContexts   contexts with unique schema names
+     * @param sqlQuery     query with the schema name parameter
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return mapped rows for each given context in the iteration order of {@code pgContexts}
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see MultiSchemaQuery
+     */
+    @Nonnull
+    public static <T> Map<PgContext, List<T>> executeQueryWithSchemas(@Nonnull final PgConnection pgConnection,
+                                                                      @Nonnull final Collection<PgContext> pgContexts,
+                                                                      @Nonnull final String sqlQuery,
+                                                                      @Nonnull final ResultSetExtractor<T> rse,
+                                                                      @Nonnull final Duration queryTimeout) {
+        return executeQueryForSchemas(pgConnection, pgContexts, MultiSchemaQuery.withSchemas(sqlQuery), rse,
+                schemasSetter(pgContexts), queryTimeout);
+    }
+
+    /**
+     * Executes given query with bloat thresholds for several schemas at once and groups rows by schema.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContexts   contexts with unique schema names and bloat thresholds
+     * @param sqlQuery     query with the schema name and bloat threshold parameters
+     * @param rse          row mapper
+     * @param queryTimeout query timeout; zero means no timeout
+     * @param <T>          type of row
+     * @return mapped rows for each given context in the iteration order of {@code pgContexts}
+     * @throws QueryTimeoutException if the query was cancelled due to timeout
+     * @see #executeQueryWithSchemas(PgConnection, Collection, String, ResultSetExtractor, Duration)
+     */
+    @Nonnull
+    public static <T> Map<PgContext, List<T>> executeQueryWithBloatThresholds(@Nonnull final PgConnection pgConnection,
+                                                                              @Nonnull final Collection<PgContext> pgContexts,
+                                                                              @Nonnull final String sqlQuery,
+                                                                              @Nonnull final ResultSetExtractor<T> rse,
+                                                                              @Nonnull final Duration queryTimeout) {
+        return executeQueryForSchemas(pgConnection, pgContexts, MultiSchemaQuery.withSchemasAndBloatThresholds(sqlQuery), rse,
+                bloatThresholdsSetter(pgContexts), queryTimeout);
+    }
+
+    /**
+     * Executes given query and pushes rows to the consumer one by one without collecting them into a list.
+     * <p>
+     * Rows are fetched from the database in batches of {@code fetchSize} using a server-side cursor.
+     * To make this possible autocommit is temporarily disabled on the connection.
+     * </p>
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name
+     * @param sqlQuery     query with the schema name parameter
+     * @param fetchSize    number of rows fetched from the database at once; should be positive
+     * @param rse          row mapper
+     * @param rowConsumer  consumer of mapped rows
+     * @param <T>          type of row
+     * @return total number of processed rows
+     */
+    public static <T> long streamQueryWithSchema(@Nonnull final PgConnection pgConnection,
+                                                 @Nonnull final PgContext pgContext,
+                                                 @Nonnull final String sqlQuery,
+                                                 final int fetchSize,
+                                                 @Nonnull final ResultSetExtractor<T> rse,
+                                                 @Nonnull final Consumer<? super T> rowConsumer) {
+        return streamQuery(pgConnection, pgContext, sqlQuery, fetchSize, rse, schemaSetter(pgContext), rowConsumer);
+    }
+
+    /**
+     * Executes given query with bloat threshold and pushes rows to the consumer one by one.
+     *
+     * @param pgConnection connection to the host
+     * @param pgContext    context with schema name and bloat threshold
+     * @param sqlQuery     query with the schema name and bloat threshold parameters
+     * @param fetchSize    number of rows fetched from the database at once; should be positive
+     * @param rse          row mapper
+     * @param rowConsumer  consumer of mapped rows
+     * @param <T>          type of row
+     * @return total number of processed rows
+     * @see #streamQueryWithSchema(PgConnection, PgContext, String, int, ResultSetExtractor, Consumer)
+     */
+    public static <T> long streamQueryWithBloatThreshold(@Nonnull final PgConnection pgConnection,
+                                                         @Nonnull final PgContext pgContext,
+                                                         @Nonnull final String sqlQuery,
+                                                         final int fetchSize,
+                                                         @Nonnull final ResultSetExtractor<T> rse,
+                                                         @Nonnull final Consumer<? super T> rowConsumer) {
+        return streamQuery(pgConnection, pgContext, sqlQuery, fetchSize, rse, bloatThresholdSetter(pgContext), rowConsumer);
+    }
+
+    @Nonnull
+    private static <T> Map<PgContext, List<T>> executeQueryForSchemas(@Nonnull final PgConnection pgConnection,
+                                                                      @Nonnull final Collection<PgContext> pgContexts,
+                                                                      @Nonnull final String multiSchemaQuery,
+                                                                      @Nonnull final ResultSetExtractor<T> rse,
+                                                                      @Nonnull final Consumer<PreparedStatement> paramsSetter,
+                                                                      @Nonnull final Duration queryTimeout) {
+        Objects.requireNonNull(pgContexts, "pgContexts");
+        Objects.requireNonNull(rse, "rse");
+        final Map<String, List<T>> rowsBySchema = new LinkedHashMap<>();
+        for (PgContext pgContext : pgContexts) {
+            if (rowsBySchema.put(pgContext.getSchemaName(), new ArrayList<>()) != null) {
+                throw new IllegalArgumentException("pgContexts should have unique schema names but " + pgContext.getSchemaName() + " is duplicated");
             }
-        });
+        }
+        if (rowsBySchema.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final List<Map.Entry<String, T>> rows = executeQuery(pgConnection, pgContexts, multiSchemaQuery, withSchemaName(rse), paramsSetter, queryTimeout);
+        rows.forEach(row -> rowsBySchema.get(row.getKey()).add(row.getValue()));
+        final Map<PgContext, List<T>> result = new LinkedHashMap<>();
+        pgContexts.forEach(pgContext -> result.put(pgContext, rowsBySchema.get(pgContext.getSchemaName())));
+        return result;
+    }
+
+    @Nonnull
+    static <T> ResultSetExtractor<Map.Entry<String, T>> withSchemaName(@Nonnull final ResultSetExtractor<T> rse) {
+        return new ResultSetExtractor<Map.Entry<String, T>>() {
+            @Override
+            public Map.Entry<String, T> extractData(final ResultSet rs) throws SQLException {
+                return bind(rs).extractData(rs);
+            }
+
+            @Nonnull
+            @Override
+            public ResultSetExtractor<Map.Entry<String, T>> bind(@Nonnull final ResultSet rs) throws SQLException {
+                final int schemaNameIndex = rs.findColumn(MultiSchemaQuery.SCHEMA_NAME_COLUMN);
+                final ResultSetExtractor<T> boundRse = rse.bind(rs);
+                return r -> new AbstractMap.SimpleImmutableEntry<>(r.getString(schemaNameIndex), boundRse.extractData(r));
+            }
+        };
     }
 
     @Nonnull
     private static <T> List<T> executeQuery(@Nonnull final PgConnection pgConnection,
-                                            @Nonnull final PgContext pgContext,
+                                            @Nonnull final Object context,
                                             @Nonnull final String sqlQuery,
                                             @Nonnull final ResultSetExtractor<T> rse,
-                                            @Nonnull final Consumer<PreparedStatement> paramsSetter) {
-        LOGGER.debug("Executing query with context {}: {}", pgContext, sqlQuery);
+                                            @Nonnull final Consumer<PreparedStatement> paramsSetter,
+                                            @Nonnull final Duration queryTimeout) {
+        final List<T> executionResult = new ArrayList<>();
+        executeQuery(pgConnection, context, sqlQuery, rse, paramsSetter, queryTimeout, executionResult::add);
+        LOGGER.trace("Query result {}", executionResult);
+        return executionResult;
+    }
+
+    private static <T> long executeQuery(@Nonnull final PgConnection pgConnection,
+                                         @Nonnull final Object context,
+                                         @Nonnull final String sqlQuery,
+                                         @Nonnull final ResultSetExtractor<T> rse,
+                                         @Nonnull final Consumer<PreparedStatement> paramsSetter,
+                                         @Nonnull final Duration queryTimeout,
+                                         @Nonnull final Consumer<? super T> rowConsumer) {
+        LOGGER.debug("Executing query with context {} and timeout {}: {}", context, queryTimeout, sqlQuery);
         Objects.requireNonNull(sqlQuery, "sqlQuery");
+        Objects.requireNonNull(rowConsumer, "rowConsumer");
+        Objects.requireNonNull(queryTimeout, "queryTimeout");
+        if (queryTimeout.isNegative()) {
+            throw new IllegalArgumentException("queryTimeout cannot be less than zero");
+        }
         final DataSource dataSource = pgConnection.getDataSource();
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
             paramsSetter.accept(statement);
-            final List<T> executionResult = new ArrayList<>();
+            if (!queryTimeout.isZero()) {
+                statement.setQueryTimeout(toSeconds(queryTimeout));
+            }
+            long rowsCount = 0L;
             try (ResultSet resultSet = statement.executeQuery()) {
+                final ResultSetExtractor<T> boundRse = rse.bind(resultSet);
                 while (resultSet.next()) {
-                    executionResult.add(rse.extractData(resultSet));
+                    rowConsumer.accept(boundRse.extractData(resultSet));
+                    ++rowsCount;
                 }
             }
-            LOGGER.debug("Query completed with result {}", executionResult);
-            return executionResult;
+            LOGGER.debug("Query completed with {} rows", rowsCount);
+            return rowsCount;
         } catch (SQLException e) {
             LOGGER.trace("Query failed", e);
+            if (!queryTimeout.isZero() && QUERY_CANCELED_SQL_STATE.equals(e.getSQLState())) {
+                throw new QueryTimeoutException(queryTimeout, e);
+            }
             throw new RuntimeException(e);
         }
     }
+
+    static int toSeconds(@Nonnull final Duration queryTimeout) {
+        final long seconds = queryTimeout.getSeconds() + (queryTimeout.getNano() > 0 ? 1L : 0L);
+        return (int) Math.min(seconds, Integer.MAX_VALUE);
+    }
+
+    private static <T> long streamQuery(@Nonnull final PgConnection pgConnection,
+                                        @Nonnull final PgContext pgContext,
+                                        @Nonnull final String sqlQuery,
+                                        final int fetchSize,
+                                        @Nonnull final ResultSetExtractor<T> rse,
+                                        @Nonnull final Consumer<PreparedStatement> paramsSetter,
+                                        @Nonnull final Consumer<? super T> rowConsumer) {
+        LOGGER.debug("Streaming query with context {} and fetch size {}: {}", pgContext, fetchSize, sqlQuery);
+        Objects.requireNonNull(sqlQuery, "sqlQuery");
+        Objects.requireNonNull(rowConsumer, "rowConsumer");
+        Validators.valueIsPositive(fetchSize, "fetchSize");
+        final DataSource dataSource = pgConnection.getDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            // PostgreSQL driver uses a cursor (and honors fetch size) only outside of autocommit mode
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
+                paramsSetter.accept(statement);
+                statement.setFetchSize(fetchSize);
+                long rowsCount = 0L;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    final ResultSetExtractor<T> boundRse = rse.bind(resultSet);
+                    while (resultSet.next()) {
+                        rowConsumer.accept(boundRse.extractData(resultSet));
+                        ++rowsCount;
+                    }
+                }
+                LOGGER.debug("Query completed with {} rows", rowsCount);
+                return rowsCount;
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.trace("Query failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Nonnull
+    private static Consumer<PreparedStatement> paramsSetter(@Nonnull final List<Object> params) {
+        return statement -> {
+            try {
+                for (int i = 0; i < params.size(); ++i) {
+                    setParam(statement, i + 1, params.get(i));
+                }
+            } catch (SQLException e) {
+                LOGGER.trace("Error occurs while setting params", e);
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    static void setParam(@Nonnull final PreparedStatement statement, final int parameterIndex, final Object param) throws SQLException {
+        if (param instanceof String[]) {
+            statement.setArray(parameterIndex, statement.getConnection().createArrayOf("text", (String[]) param));
+        } else {
+            statement.setObject(parameterIndex, param);
+        }
+    }
+
+    @Nonnull
+    private static Consumer<PreparedStatement> schemaSetter(@Nonnull final PgContext pgContext) {
+        return statement -> {
+            try {
+                statement.setString(1, pgContext.getSchemaName());
+            } catch (SQLException e) {
+                LOGGER.trace("Error occurs while setting params", e);
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @Nonnull
+    private static Consumer<PreparedStatement> schemasSetter(@Nonnull final Collection<PgContext> pgContexts) {
+        return statement -> {
+            try {
+                statement.setArray(1, statement.getConnection().createArrayOf("text", schemaNames(pgContexts)));
+            } catch (SQLException e) {
+                LOGGER.trace("Error occurs while setting params", e);
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @Nonnull
+    private static Consumer<PreparedStatement> bloatThresholdsSetter(@Nonnull final Collection<PgContext> pgContexts) {
+        return statement -> {
+            try {
+                final Connection connection = statement.getConnection();
+                final Integer[] bloatThresholds = pgContexts.stream()
+                        .map(PgContext::getBloatPercentageThreshold)
+                        .toArray(Integer[]::new);
+                statement.setArray(1, connection.createArrayOf("text", schemaNames(pgContexts)));
+                statement.setArray(2, connection.createArrayOf("int4", bloatThresholds));
+            } catch (SQLException e) {
+                LOGGER.trace("Error occurs while setting params", e);
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @Nonnull
+    private static String[] schemaNames(@Nonnull final Collection<PgContext> pgContexts) {
+        return pgContexts.stream()
+                .map(PgContext::getSchemaName)
+                .toArray(String[]::new);
+    }
+
+    @Nonnull
+    private static Consumer<PreparedStatement> bloatThresholdSetter(@Nonnull final PgContext pgContext) {
+        return statement -> {
+            try {
+                statement.setString(1, pgContext.getSchemaName());
+                statement.setInt(2, pgContext.getBloatPercentageThreshold());
+            } catch (SQLException e) {
+                LOGGER.trace("Error occurs while setting params", e);
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private static <T> void logResult(@Nonnull final List<T> executionResult) {
+        LOGGER.debug("Query completed with {} rows", executionResult.size());
+        LOGGER.trace("Query result {}", executionResult);
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown when a query was cancelled because it took longer than the query timeout.
+ *
+ * @author Ivan Vakhrushev
+ */
+public class QueryTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 6357512391624207441L;
+
+    private final Duration queryTimeout;
+
+    public QueryTimeoutException(@Nonnull final Duration queryTimeout, @Nonnull final Throwable cause) {
+        super("Query was cancelled after timeout of " + queryTimeout.toMillis() + " ms", cause);
+        this.queryTimeout = Objects.requireNonNull(queryTimeout, "queryTimeout");
+    }
+
+    @Nonnull
+    public Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+}
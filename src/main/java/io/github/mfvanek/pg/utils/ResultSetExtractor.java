@@ -12,9 +12,41 @@ package io.github.mfvanek.pg.utils;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import javax.annotation.Nonnull;
 
 @FunctionalInterface
 public interface ResultSetExtractor<T> {
 
     T extractData(ResultSet rs) throws SQLException;
+
+    /**
+     * Prepares the extractor for reading rows of the given result set.
+     * <p>
+     * It is called once per result set before the first row is read,
+     * so implementations can resolve everything they need (for example, column positions) only once.
+     * By default, returns this extractor as is.
+     * </p>
+     *
+     * @param rs result set that will be read with the returned extractor
+     * @return extractor for rows of the given result set
+     * @throws SQLException if metadata of the result set cannot be retrieved
+     * @see RowMapper
+     */
+    @Nonnull
+    default ResultSetExtractor<T> bind(@Nonnull final ResultSet rs) throws SQLException {
+        return this;
+    }
+
+    /**
+     * Gets the extractor that deduplicates table and index names with the given pool.
+     * By default, returns this extractor as is.
+     *
+     * @param namePool pool of names
+     * @return extractor that uses the given pool
+     * @see RowMapper#withNamePool(NamePool)
+     */
+    @Nonnull
+    default ResultSetExtractor<T> withNamePool(@Nonnull final NamePool namePool) {
+        return this;
+    }
 }
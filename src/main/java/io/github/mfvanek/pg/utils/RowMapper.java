@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A {@link ResultSetExtractor} that reads columns by their positions instead of their names.
+ * <p>
+ * Positions of the declared columns are resolved from {@link ResultSetMetaData} once per result set
+ * (see {@link #bind(ResultSet)}), so no column lookup by name is performed for each row.
+ * Columns are passed to the {@link ColumnsExtractor} in the order they were declared.
+ * </p>
+ * <p>
+ * A mapper can have a fallback (see {@link #orElse(RowMapper)}) that is used when the result set
+ * does not contain the declared columns. This allows reading different shapes of the same result.
+ * </p>
+ * <p>
+ * Table and index names can be deduplicated with a {@link NamePool} (see {@link #withNamePool(NamePool)});
+ * the pool is passed to the {@link PooledColumnsExtractor}.
+ * </p>
+ *
+ * @param <T> type of row
+ * @author Ivan Vakhrushev
+ */
+@Immutable
+public final class RowMapper<T> implements ResultSetExtractor<T> {
+
+    private final List<String> columnNames;
+    private final PooledColumnsExtractor<T> columnsExtractor;
+    private final RowMapper<T> fallback;
+    private final NamePool namePool;
+
+    private RowMapper(@Nonnull final List<String> columnNames,
+                      @Nonnull final PooledColumnsExtractor<T> columnsExtractor,
+                      @Nullable final RowMapper<T> fallback,
+                      @Nonnull final NamePool namePool) {
+        Objects.requireNonNull(columnNames, "columnNames");
+        if (columnNames.isEmpty()) {
+            throw new IllegalArgumentException("columnNames cannot be empty");
+        }
+        final List<String> names = new ArrayList<>(columnNames.size());
+        for (String columnName : columnNames) {
+            names.add(normalize(Validators.notBlank(columnName, "columnName")));
+        }
+        this.columnNames = Collections.unmodifiableList(names);
+        this.columnsExtractor = Objects.requireNonNull(columnsExtractor, "columnsExtractor");
+        this.fallback = fallback;
+        this.namePool = Objects.requireNonNull(namePool, "namePool");
+    }
+
+    /**
+     * Retrieves names of the columns read by this mapper in lower case.
+     *
+     * @return names of the columns in the declaration order
+     */
+    @Nonnull
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Creates a new mapper that uses the given fallback when any of the columns of this mapper is missing.
+     * If this mapper already has a fallback, the given one is appended to the end of the chain.
+     *
+     * @param other mapper for the alternative shape of the result set
+     * @return {@code RowMapper} with fallback
+     */
+    @Nonnull
+    public RowMapper<T> orElse(@Nonnull final RowMapper<T> other) {
+        Objects.requireNonNull(other, "other");
+        return new RowMapper<>(columnNames, columnsExtractor, fallback == null ? other : fallback.orElse(other), namePool);
+    }
+
+    /**
+     * Creates a new mapper that passes the given pool to the columns extractor of this mapper and all its fallbacks.
+     *
+     * @param pool pool of names for the rows read by the mapper
+     * @return {@code RowMapper} with the given pool
+     */
+    @Nonnull
+    @Override
+    public RowMapper<T> withNamePool(@Nonnull final NamePool pool) {
+        Objects.requireNonNull(pool, "pool");
+        if (pool == namePool) {
+            return this;
+        }
+        return new RowMapper<>(columnNames, columnsExtractor, fallback == null ? null : fallback.withNamePool(pool), pool);
+    }
+
+    /**
+     * Reads the current row resolving column positions on the fly.
+     * Prefer {@link #bind(ResultSet)} when reading more than one row.
+     *
+     * @param rs result set positioned on a row
+     * @return mapped row
+     * @throws SQLException if the row cannot be read
+     */
+    @Override
+    public T extractData(final ResultSet rs) throws SQLException {
+        return bind(rs).extractData(rs);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if any of the declared columns is missing in the result set and there is no suitable fallback
+     */
+    @Nonnull
+    @Override
+    public ResultSetExtractor<T> bind(@Nonnull final ResultSet rs) throws SQLException {
+        Objects.requireNonNull(rs, "rs");
+        return resolve(getColumnPositions(rs.getMetaData()));
+    }
+
+    /**
+     * Checks that all declared columns are present in the result set with the given metadata.
+     *
+     * @param metaData metadata of the result set (for example, of a prepared but not executed statement)
+     * @throws SQLException          if metadata cannot be read
+     * @throws IllegalStateException if any of the declared columns is missing and there is no suitable fallback
+     */
+    public void validate(@Nonnull final ResultSetMetaData metaData) throws SQLException {
+        resolve(getColumnPositions(Objects.requireNonNull(metaData, "metaData")));
+    }
+
+    @Nonnull
+    private ResultSetExtractor<T> resolve(@Nonnull final Map<String, Integer> positions) {
+        final int[] columnIndexes = new int[columnNames.size()];
+        for (int i = 0; i < columnIndexes.length; ++i) {
+            final Integer position = positions.get(columnNames.get(i));
+            if (position == null) {
+                if (fallback != null) {
+                    return fallback.resolve(positions);
+                }
+                throw new IllegalStateException("Column " + columnNames.get(i) + " is not found in the result set " + positions.keySet());
+            }
+            columnIndexes[i] = position;
+        }
+        return r -> columnsExtractor.extractData(r, columnIndexes, namePool);
+    }
+
+    @Nonnull
+    private static Map<String, Integer> getColumnPositions(@Nonnull final ResultSetMetaData metaData) throws SQLException {
+        final int columnCount = metaData.getColumnCount();
+        final Map<String, Integer> positions = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; ++i) {
+            positions.putIfAbsent(normalize(metaData.getColumnLabel(i)), i);
+        }
+        return positions;
+    }
+
+    @Nonnull
+    private static String normalize(@Nonnull final String columnName) {
+        return columnName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return RowMapper.class.getSimpleName() + '{' +
+                "columnNames=" + columnNames +
+                (fallback == null ? "" : ", fallback=" + fallback) +
+                '}';
+    }
+
+    /**
+     * Creates {@code RowMapper} for the given columns.
+     *
+     * @param columnNames      names of the columns to read; cannot be empty
+     * @param columnsExtractor function that maps the current row using positions of the columns
+     * @param <T>              type of row
+     * @return {@code RowMapper}
+     */
+    @Nonnull
+    public static <T> RowMapper<T> of(@Nonnull final List<String> columnNames,
+                                      @Nonnull final ColumnsExtractor<T> columnsExtractor) {
+        Objects.requireNonNull(columnsExtractor, "columnsExtractor");
+        return new RowMapper<>(columnNames, (rs, c, p) -> columnsExtractor.extractData(rs, c), null, NamePool.none());
+    }
+
+    /**
+     * Creates {@code RowMapper} for the given columns that can deduplicate names read from the result set.
+     *
+     * @param columnNames      names of the columns to read; cannot be empty
+     * @param columnsExtractor function that maps the current row using positions of the columns and a pool of names
+     * @param <T>              type of row
+     * @return {@code RowMapper}
+     */
+    @Nonnull
+    public static <T> RowMapper<T> ofPooled(@Nonnull final List<String> columnNames,
+                                            @Nonnull final PooledColumnsExtractor<T> columnsExtractor) {
+        return new RowMapper<>(columnNames, columnsExtractor, null, NamePool.none());
+    }
+
+    /**
+     * Maps the current row of the result set using positions of the columns.
+     *
+     * @param <T> type of row
+     */
+    @FunctionalInterface
+    public interface ColumnsExtractor<T> {
+
+        /**
+         * Maps the current row.
+         *
+         * @param rs            result set positioned on a row
+         * @param columnIndexes 1-based positions of the declared columns in the declaration order
+         * @return mapped row
+         * @throws SQLException if the row cannot be read
+         */
+        T extractData(@Nonnull ResultSet rs, @Nonnull int[] columnIndexes) throws SQLException;
+    }
+
+    /**
+     * Maps the current row of the result set using positions of the columns and a pool of names.
+     *
+     * @param <T> type of row
+     */
+    @FunctionalInterface
+    public interface PooledColumnsExtractor<T> {
+
+        /**
+         * Maps the current row.
+         *
+         * @param rs            result set positioned on a row
+         * @param columnIndexes 1-based positions of the declared columns in the declaration order
+         * @param namePool      pool for table and index names; {@link NamePool#none()} by default
+         * @return mapped row
+         * @throws SQLException if the row cannot be read
+         */
+        T extractData(@Nonnull ResultSet rs, @Nonnull int[] columnIndexes, @Nonnull NamePool namePool) throws SQLException;
+    }
+}
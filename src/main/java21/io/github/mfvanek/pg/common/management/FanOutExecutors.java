@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.utils.Validators;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Java 21 version of {@code FanOutExecutors} packed into {@code META-INF/versions/21} of the multi-release jar.
+ * <p>
+ * Each task is executed in a new virtual thread, so blocking JDBC calls do not hold platform threads.
+ * </p>
+ *
+ * @author Ivan Vakhrushev
+ * @see PerHostExecutor
+ */
+public final class FanOutExecutors {
+
+    static final String THREAD_NAME_PREFIX = "pg-index-health-fan-out-";
+
+    private FanOutExecutors() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates executor service for running blocking tasks concurrently.
+     * <p>
+     * The lifecycle of the returned executor service is managed by the caller.
+     * </p>
+     *
+     * @param maxPlatformThreads number of platform threads to use when virtual threads are not available; should be positive
+     * @return a virtual-thread-per-task executor
+     */
+    @Nonnull
+    public static ExecutorService newFanOutExecutor(final int maxPlatformThreads) {
+        Validators.valueIsPositive(maxPlatformThreads, "maxPlatformThreads");
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 1L).factory());
+    }
+
+    /**
+     * Creates executor service that runs at most {@code parallelism} blocking tasks at the same time.
+     * <p>
+     * Use it when the number of concurrent tasks should be limited, for example, by the size of a connection pool.
+     * Each task still gets its own virtual thread (virtual threads are not pooled),
+     * the limit is enforced by a semaphore acquired before the task body is run.
+     * The lifecycle of the returned executor service is managed by the caller.
+     * </p>
+     *
+     * @param parallelism maximum number of tasks running at the same time; should be positive
+     * @return a virtual-thread-per-task executor limited by a semaphore
+     */
+    @Nonnull
+    public static ExecutorService newBoundedFanOutExecutor(final int parallelism) {
+        Validators.valueIsPositive(parallelism, "parallelism");
+        return new BoundedExecutorService(newFanOutExecutor(parallelism), new Semaphore(parallelism));
+    }
+
+    /**
+     * Determines whether executors created by this class run tasks on virtual threads.
+     *
+     * @return {@code true} on Java 21 and above
+     */
+    public static boolean usesVirtualThreads() {
+        return true;
+    }
+
+    private static final class BoundedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        private BoundedExecutorService(@Nonnull final ExecutorService delegate, @Nonnull final Semaphore permits) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate");
+            this.permits = Objects.requireNonNull(permits, "permits");
+        }
+
+        @Override
+        public void execute(@Nonnull final Runnable command) {
+            Objects.requireNonNull(command, "command");
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (command instanceof Future) {
+                        ((Future<?>) command).cancel(false);
+                    }
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Nonnull
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, @Nonnull final TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.catalog;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.github.mfvanek.pg.embedded.PostgresDbExtension;
+import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.index.maintenance.IndexMaintenanceOnHostImpl;
+import io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
+import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHostImpl;
+import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogSnapshotTest extends DatabaseAwareTestBase {
+
+    @RegisterExtension
+    static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
+
+    private final PgConnection pgConnection;
+    private final IndexesMaintenanceOnHost indexesMaintenance;
+    private final TablesMaintenanceOnHost tablesMaintenance;
+
+    CatalogSnapshotTest() {
+        super(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+        this.indexesMaintenance = new IndexMaintenanceOnHostImpl(pgConnection);
+        this.tablesMaintenance = new TablesMaintenanceOnHostImpl(pgConnection);
+    }
+
+    @Test
+    void loadOnEmptyDatabase() {
+        final CatalogSnapshot snapshot = CatalogSnapshot.load(pgConnection, PgContext.ofPublic());
+        assertThat(snapshot.getDuplicatedIndexes(), empty());
+        assertThat(snapshot.getIntersectedIndexes(), empty());
+        assertThat(snapshot.getForeignKeysNotCoveredWithIndex(), empty());
+        assertThat(snapshot.getIndexesWithNullValues(), empty());
+        assertThat(snapshot.getTablesWithoutPrimaryKey(), empty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void shouldMatchQueriesOnDatabaseWithDuplicatedIndexes(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                ctx -> {
+                    final CatalogSnapshot snapshot = CatalogSnapshot.load(pgConnection, ctx);
+                    assertThat(snapshot.getDuplicatedIndexes(), hasSize(1));
+                    assertEquals(indexesMaintenance.getDuplicatedIndexes(ctx), snapshot.getDuplicatedIndexes());
+                    assertThat(snapshot.getIntersectedIndexes(), hasSize(2));
+                    assertEquals(indexesMaintenance.getIntersectedIndexes(ctx), snapshot.getIntersectedIndexes());
+                    assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), snapshot.getForeignKeysNotCoveredWithIndex());
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void shouldMatchQueriesOnDatabaseWithHashIndexes(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedHashIndex(),
+                ctx -> {
+                    final CatalogSnapshot snapshot = CatalogSnapshot.load(pgConnection, ctx);
+                    assertThat(snapshot.getDuplicatedIndexes(), empty());
+                    assertEquals(indexesMaintenance.getIntersectedIndexes(ctx), snapshot.getIntersectedIndexes());
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void shouldMatchQueriesOnDatabaseWithForeignKeys(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withNonSuitableIndex(),
+                ctx -> {
+                    final List<ForeignKey> foreignKeys = CatalogSnapshot.load(pgConnection, ctx).getForeignKeysNotCoveredWithIndex();
+                    assertThat(foreignKeys, hasSize(1));
+                    assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), foreignKeys);
+                    assertEquals("c_accounts_fk_client_id", foreignKeys.get(0).getConstraintName());
+                    assertThat(foreignKeys.get(0).getColumnsInConstraint(), contains("client_id"));
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void shouldMatchQueriesOnDatabaseWithNullValuesAndTablesWithoutPrimaryKey(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withNullValuesInIndex().withTableWithoutPrimaryKey().withMaterializedView(),
+                ctx -> {
+                    final CatalogSnapshot snapshot = CatalogSnapshot.load(pgConnection, ctx);
+                    final List<IndexWithNulls> indexesWithNulls = snapshot.getIndexesWithNullValues();
+                    assertThat(indexesWithNulls, hasSize(1));
+                    assertEquals(indexesMaintenance.getIndexesWithNullValues(ctx), indexesWithNulls);
+                    assertEquals("middle_name", indexesWithNulls.get(0).getNullableField());
+                    final List<Table> tables = snapshot.getTablesWithoutPrimaryKey();
+                    assertThat(tables, hasSize(1));
+                    assertEquals(tablesMaintenance.getTablesWithoutPrimaryKey(ctx), tables);
+                    assertEquals(ctx.enrichWithSchema("bad_clients"), tables.get(0).getTableName());
+                });
+    }
+
+    @Test
+    void getDuplicatedIndexesShouldGroupIdenticalIndexes() {
+        final CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .addTable(1L, "t1", 100L, false)
+                .addTable(2L, "t2", 100L, false)
+                .addIndex(1L, "i1", 10L, "1 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i2", 20L, "1 2", "3 3", "0 0", null, null, true)
+                .addIndex(1L, "i3", 30L, "1 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i4", 40L, "1 2", "3 3", "0 0", null, "(id > 0)", false)
+                .addIndex(1L, "i5", 50L, "1 2", "3 4", "0 0", null, null, false)
+                .addIndex(1L, "i6", 60L, "1 2", "3 3", "0 9", null, null, false)
+                .addIndex(1L, "i7", 70L, "0", "3", "0", "lower(name)", null, false)
+                .addIndex(1L, "i8", 80L, "0", "3", "0", "upper(name)", null, false)
+                .addIndex(2L, "i9", 1L, "1", "3", "0", null, null, false)
+                .addIndex(2L, "i10", 1L, "1", "3", "0", null, null, false)
+                .addIndex(2L, "i11", 1000L, "2", "3", "0", null, null, false)
+                .addIndex(2L, "i12", 1000L, "2", "3", "0", null, null, false)
+                .build();
+        final List<DuplicatedIndexes> duplicatedIndexes = snapshot.getDuplicatedIndexes();
+        assertThat(duplicatedIndexes, hasSize(3));
+        assertThat(duplicatedIndexes.get(0).getIndexNames(), contains("i1", "i2", "i3"));
+        assertEquals(60L, duplicatedIndexes.get(0).getTotalSize());
+        assertThat(duplicatedIndexes.get(1).getIndexNames(), contains("i11", "i12"));
+        assertThat(duplicatedIndexes.get(2).getIndexNames(), contains("i10", "i9"));
+    }
+
+    @Test
+    void getIntersectedIndexesShouldFindLeadingColumns() {
+        final CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .addTable(2L, "t2", 100L, false)
+                .addTable(1L, "t1", 100L, false)
+                .addIndex(1L, "i1", 10L, "1 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i2", 20L, "1", "3", "0", null, null, false)
+                .addIndex(1L, "i3", 30L, "1 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i4", 40L, "1", "3", "0", null, "(id > 0)", false)
+                .addIndex(1L, "i5", 50L, "2 1", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i6", 60L, "12", "3", "0", null, null, false)
+                .addIndex(2L, "i7", 70L, "5 6 7", "3 3 3", "0 0 0", null, "(id > 0)", false)
+                .addIndex(2L, "i8", 80L, "5 6", "1 1", "0 0", null, "(id > 0)", false)
+                .addIndex(2L, "i9", 90L, "5 0", "3 3", "0 0", "lower(name)", null, false)
+                .addIndex(2L, "i10", 100L, "5", "3", "0", null, null, false)
+                .addIndex(2L, "i11", 110L, "5 0 6", "3 3 3", "0 0 0", "lower(name)", null, false)
+                .addIndex(2L, "i12", 120L, "5 0", "3 3", "0 0", "upper(name)", null, false)
+                .build();
+        final List<DuplicatedIndexes> intersectedIndexes = snapshot.getIntersectedIndexes();
+        assertThat(intersectedIndexes, hasSize(4));
+        assertEquals(DuplicatedIndexes.of(IndexWithSize.of("t1", "i1", 10L), IndexWithSize.of("t1", "i2", 20L)), intersectedIndexes.get(0));
+        assertThat(intersectedIndexes.get(1).getIndexNames(), contains("i2", "i3"));
+        // Indexes on different expressions are not intersected even if their column lists match
+        assertThat(intersectedIndexes.get(2).getIndexNames(), contains("i11", "i9"));
+        assertThat(intersectedIndexes.get(3).getIndexNames(), contains("i7", "i8"));
+    }
+
+    @Test
+    void getForeignKeysNotCoveredWithIndexShouldCheckLeadingColumnsOfIndexesWithoutPredicate() {
+        final CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .addTable(1L, "t1", 100L, false)
+                .addTable(2L, "t2", 100L, false)
+                .addAttribute(1L, 1, "id", true)
+                .addAttribute(1L, 2, "client_id", false)
+                .addAttribute(1L, 3, "bank_id", false)
+                .addAttribute(2L, 1, "id", true)
+                .addIndex(1L, "i1", 10L, "3 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i2", 10L, "2", "3", "0", null, "(client_id > 0)", false)
+                .addIndex(1L, "i3", 10L, "1 2", "3 3", "0 0", null, null, false)
+                .addForeignKey(1L, "fk_client_bank", "2 3")
+                .addForeignKey(1L, "fk_client", "2")
+                .addForeignKey(1L, "fk_bank_client_id", "3 2 1")
+                .addForeignKey(2L, "fk_id", "1")
+                .build();
+        final List<ForeignKey> foreignKeys = snapshot.getForeignKeysNotCoveredWithIndex();
+        assertThat(foreignKeys, hasSize(3));
+        assertEquals(ForeignKey.of("t1", "fk_bank_client_id", Arrays.asList("bank_id", "client_id", "id")), foreignKeys.get(0));
+        assertEquals(ForeignKey.ofColumn("t1", "fk_client", "client_id"), foreignKeys.get(1));
+        assertEquals(ForeignKey.ofColumn("t2", "fk_id", "id"), foreignKeys.get(2));
+    }
+
+    @Test
+    void getIndexesWithNullValuesShouldCheckFirstColumnOfNonUniqueIndexes() {
+        final CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .addTable(1L, "t1", 100L, false)
+                .addAttribute(1L, 1, "id", true)
+                .addAttribute(1L, 2, "Middle_Name", false)
+                .addIndex(1L, "i5", 50L, "2", "3", "0", null, null, false)
+                .addIndex(1L, "i1", 10L, "2 1", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i2", 20L, "2", "3", "0", null, null, true)
+                .addIndex(1L, "i3", 30L, "1 2", "3 3", "0 0", null, null, false)
+                .addIndex(1L, "i4", 40L, "0 2", "3 3", "0 0", "lower(name)", null, false)
+                .addIndex(1L, "i6", 60L, "2", "3", "0", null, "(middle_name IS NOT NULL)", false)
+                .addIndex(1L, "i7", 70L, "2", "3", "0", null, "(id > 0)", false)
+                .build();
+        final List<IndexWithNulls> indexes = snapshot.getIndexesWithNullValues();
+        assertThat(indexes, hasSize(3));
+        assertEquals(IndexWithNulls.of("t1", "i1", 10L, "Middle_Name"), indexes.get(0));
+        assertEquals(IndexWithNulls.of("t1", "i5", 50L, "Middle_Name"), indexes.get(1));
+        assertEquals(IndexWithNulls.of("t1", "i7", 70L, "Middle_Name"), indexes.get(2));
+    }
+
+    @Test
+    void getTablesWithoutPrimaryKeyShouldBeSortedByName() {
+        final CatalogSnapshot snapshot = new CatalogSnapshot.Builder()
+                .addTable(3L, "c", 30L, true)
+                .addTable(1L, "a", 10L, true)
+                .addTable(2L, "b", 20L, false)
+                .build();
+        assertThat(snapshot.getTablesWithoutPrimaryKey(), contains(Table.of("a", 10L), Table.of("c", 30L)));
+    }
+
+    @Test
+    void loadShouldUseSingleQuery() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(CatalogSnapshot.SQL_QUERY)).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, true, true, true, false);
+        Mockito.when(resultSet.getString("kind")).thenReturn("t", "a", "i", "i", "f");
+        Mockito.when(resultSet.getLong("obj_oid")).thenReturn(10L, 2L, 11L, 12L, 13L);
+        Mockito.when(resultSet.getLong("rel_oid")).thenReturn(10L, 10L, 10L, 10L, 10L);
+        Mockito.when(resultSet.getString("obj_name")).thenReturn("accounts", "client_id", "i_first", "i_second", "fk_client_id");
+        Mockito.when(resultSet.getLong("obj_size")).thenReturn(100L, 8L, 16L);
+        Mockito.when(resultSet.getString("keys")).thenReturn("3", "3", "2");
+        Mockito.when(resultSet.getString("opclasses")).thenReturn("3");
+        Mockito.when(resultSet.getString("collations")).thenReturn("0");
+        Mockito.when(resultSet.getBoolean("flag")).thenReturn(true, false, false, false, false);
+
+        final CatalogSnapshot snapshot = CatalogSnapshot.load(PgConnectionImpl.of(dataSource, PgHostImpl.ofName("localhost")), PgContext.of("custom"));
+        Mockito.verify(statement).setString(1, "custom");
+        Mockito.verify(statement).setFetchSize(CatalogSnapshot.FETCH_SIZE);
+        Mockito.verify(statement, Mockito.times(1)).executeQuery();
+        assertEquals("CatalogSnapshot{tables=1, indexes=2, attributes=1, foreignKeys=1}", snapshot.toString());
+        assertThat(snapshot.getTablesWithoutPrimaryKey(), contains(Table.of("accounts", 100L)));
+        assertThat(snapshot.getDuplicatedIndexes(), contains(DuplicatedIndexes.of(
+                IndexWithSize.of("accounts", "i_first", 8L), IndexWithSize.of("accounts", "i_second", 16L))));
+        assertThat(snapshot.getForeignKeysNotCoveredWithIndex(), contains(ForeignKey.ofColumn("accounts", "fk_client_id", "client_id")));
+    }
+
+    @Test
+    void addRowShouldFailOnUnknownKind() throws SQLException {
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getString("kind")).thenReturn("x");
+        final CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> builder.addRow(resultSet));
+        assertEquals("Unexpected catalog row kind x", exception.getMessage());
+    }
+
+    @Test
+    void parseColumns() {
+        assertArrayEquals(new int[]{1}, CatalogSnapshot.parseColumns("1"));
+        assertArrayEquals(new int[]{3, 0, 12}, CatalogSnapshot.parseColumns("3 0 12"));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("CatalogSnapshot{tables=0, indexes=0, attributes=0, foreignKeys=0}", new CatalogSnapshot.Builder().build().toString());
+        assertThat(new CatalogSnapshot.Builder().build().getTablesWithoutPrimaryKey(), empty());
+        assertEquals(Collections.emptyList(), new CatalogSnapshot.Builder().build().getForeignKeysNotCoveredWithIndex());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(NullPointerException.class, () -> CatalogSnapshot.load(null, null));
+        assertThrows(NullPointerException.class, () -> CatalogSnapshot.load(pgConnection, null));
+        assertThrows(NullPointerException.class, () -> CatalogSnapshot.load(null, pgContext));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OidMapTest {
+
+    @Test
+    void putAndGet() {
+        final OidMap<String> map = new OidMap<>();
+        assertNull(map.get(1L));
+        assertNull(map.put(1L, "first"));
+        assertNull(map.put(4_294_967_295L, "max"));
+        assertEquals("first", map.put(1L, "second"));
+        assertEquals("second", map.get(1L));
+        assertEquals("max", map.get(4_294_967_295L));
+        assertNull(map.get(2L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void shouldGrowAndKeepAllEntries() {
+        final OidMap<Long> map = new OidMap<>();
+        for (long key = 1L; key <= 10_000L; ++key) {
+            map.put(key << 16, key);
+        }
+        assertEquals(10_000, map.size());
+        for (long key = 1L; key <= 10_000L; ++key) {
+            assertEquals(key, map.get(key << 16));
+        }
+        assertNull(map.get(10_001L << 16));
+        final List<Long> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertThat(values, hasSize(10_000));
+    }
+
+    @Test
+    void forEachValue() {
+        final OidMap<String> map = new OidMap<>();
+        map.put(16_384L, "a");
+        map.put(16_385L, "b");
+        final List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertThat(values, containsInAnyOrder("a", "b"));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.maintenance.MaintenanceFactory;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostAware;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
+import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+class AsyncDatabaseHealthImplTest {
+
+    private final PgHost primaryHost = PgHostImpl.ofName("primary");
+    private final PgHost replicaHost = PgHostImpl.ofName("replica");
+    private final IndexesMaintenanceOnHost primaryIndexes = maintenanceFor(IndexesMaintenanceOnHost.class, primaryHost);
+    private final IndexesMaintenanceOnHost replicaIndexes = maintenanceFor(IndexesMaintenanceOnHost.class, replicaHost);
+    private final TablesMaintenanceOnHost primaryTables = maintenanceFor(TablesMaintenanceOnHost.class, primaryHost);
+    private final TablesMaintenanceOnHost replicaTables = maintenanceFor(TablesMaintenanceOnHost.class, replicaHost);
+    private final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+    private final MaintenanceFactory maintenanceFactory = Mockito.mock(MaintenanceFactory.class);
+    private ExecutorService executorService;
+    private AsyncDatabaseHealth asyncDatabaseHealth;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+        final PgConnection primary = PgConnectionImpl.of(Mockito.mock(DataSource.class), primaryHost);
+        final PgConnection replica = PgConnectionImpl.of(Mockito.mock(DataSource.class), replicaHost);
+        Mockito.when(haPgConnection.getConnectionToPrimary()).thenReturn(primary);
+        Mockito.when(haPgConnection.getConnectionsToAllHostsInCluster()).thenReturn(new HashSet<>(Arrays.asList(primary, replica)));
+        final Map<PgHost, IndexesMaintenanceOnHost> indexesMaintenance = byHost(primaryIndexes, replicaIndexes);
+        final Map<PgHost, TablesMaintenanceOnHost> tablesMaintenance = byHost(primaryTables, replicaTables);
+        Mockito.when(maintenanceFactory.forIndexes(anyCollection())).thenReturn(indexesMaintenance);
+        Mockito.when(maintenanceFactory.forTables(anyCollection())).thenReturn(tablesMaintenance);
+        final StatisticsMaintenanceOnHost primaryStatistics = maintenanceFor(StatisticsMaintenanceOnHost.class, primaryHost);
+        final StatisticsMaintenanceOnHost replicaStatistics = maintenanceFor(StatisticsMaintenanceOnHost.class, replicaHost);
+        Mockito.when(primaryStatistics.getLastStatsResetTimestamp()).thenReturn(Optional.empty());
+        Mockito.when(replicaStatistics.getLastStatsResetTimestamp()).thenReturn(Optional.empty());
+        final Map<PgHost, StatisticsMaintenanceOnHost> statisticsMaintenance = byHost(primaryStatistics, replicaStatistics);
+        Mockito.when(maintenanceFactory.forStatistics(anyCollection())).thenReturn(statisticsMaintenance);
+        asyncDatabaseHealth = new AsyncDatabaseHealthImpl(haPgConnection, maintenanceFactory, executorService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void primaryOnlyChecksShouldRunOnPrimary() {
+        final List<Index> invalidIndexes = Collections.singletonList(Index.of("t", "i"));
+        Mockito.when(primaryIndexes.getInvalidIndexes(any(PgContext.class))).thenReturn(invalidIndexes);
+        assertEquals(invalidIndexes, asyncDatabaseHealth.getInvalidIndexes().join());
+
+        final Collection<PgContext> pgContexts = Arrays.asList(PgContext.of("first"), PgContext.of("second"));
+        assertThat(asyncDatabaseHealth.getDuplicatedIndexes().join(), empty());
+        assertThat(asyncDatabaseHealth.getIntersectedIndexes().join(), empty());
+        assertThat(asyncDatabaseHealth.getForeignKeysNotCoveredWithIndex().join(), empty());
+        assertThat(asyncDatabaseHealth.getIndexesWithNullValues().join(), empty());
+        assertThat(asyncDatabaseHealth.getIndexesWithBloat().join(), empty());
+        assertThat(asyncDatabaseHealth.getTablesWithoutPrimaryKey().join(), empty());
+        assertThat(asyncDatabaseHealth.getTablesWithBloat().join(), empty());
+        assertTrue(asyncDatabaseHealth.getInvalidIndexesBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getDuplicatedIndexesBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getIntersectedIndexesBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getForeignKeysNotCoveredWithIndexBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getIndexesWithNullValuesBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getIndexesWithBloatBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getTablesWithoutPrimaryKeyBySchema(pgContexts).join().isEmpty());
+        assertTrue(asyncDatabaseHealth.getTablesWithBloatBySchema(pgContexts).join().isEmpty());
+
+        Mockito.verify(primaryIndexes).getIndexesWithBloatBySchema(pgContexts);
+        Mockito.verify(primaryTables).getTablesWithBloat(any(PgContext.class));
+        Mockito.verify(replicaIndexes, Mockito.never()).getIndexesWithBloatBySchema(anyCollection());
+        Mockito.verify(replicaTables, Mockito.never()).getTablesWithBloat(any(PgContext.class));
+    }
+
+    @Test
+    void catalogChecksShouldRunOnSelectedHost() {
+        final AsyncDatabaseHealth routedDatabaseHealth = new AsyncDatabaseHealthImpl(haPgConnection, maintenanceFactory, executorService,
+                c -> replicaHost);
+        final List<Index> invalidIndexes = Collections.singletonList(Index.of("t", "i"));
+        Mockito.when(replicaIndexes.getInvalidIndexes(any(PgContext.class))).thenReturn(invalidIndexes);
+        assertEquals(invalidIndexes, routedDatabaseHealth.getInvalidIndexes().join());
+        assertThat(routedDatabaseHealth.getTablesWithoutPrimaryKey().join(), empty());
+        Mockito.verify(primaryIndexes, Mockito.never()).getInvalidIndexes(any(PgContext.class));
+        Mockito.verify(replicaTables).getTablesWithoutPrimaryKey(any(PgContext.class));
+    }
+
+    @Test
+    void shouldFailWhenSelectedHostIsNotInCluster() {
+        final AsyncDatabaseHealth routedDatabaseHealth = new AsyncDatabaseHealthImpl(haPgConnection, maintenanceFactory, executorService,
+                c -> PgHostImpl.ofName("unknown"));
+        final CompletionException exception = assertThrows(CompletionException.class, () -> routedDatabaseHealth.getInvalidIndexes().join());
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(exception.getCause().getMessage(), startsWith("Host selector returned host [unknown] that is not among hosts in the cluster"));
+    }
+
+    @Test
+    void unusedIndexesShouldBeIntersectedAcrossHosts() {
+        final UnusedIndex first = UnusedIndex.of("t", "i1", 1L, 0L);
+        final UnusedIndex second = UnusedIndex.of("t", "i2", 1L, 0L);
+        Mockito.when(primaryIndexes.getUnusedIndexes(any(PgContext.class))).thenReturn(Arrays.asList(first, second));
+        Mockito.when(replicaIndexes.getUnusedIndexes(any(PgContext.class))).thenReturn(Collections.singletonList(second));
+        assertThat(asyncDatabaseHealth.getUnusedIndexes().join(), contains(second));
+
+        final PgContext pgContext = PgContext.of("custom");
+        final List<PgContext> pgContexts = Collections.singletonList(pgContext);
+        Mockito.when(primaryIndexes.getUnusedIndexesBySchema(pgContexts)).thenReturn(Collections.singletonMap(pgContext, Arrays.asList(first, second)));
+        Mockito.when(replicaIndexes.getUnusedIndexesBySchema(pgContexts)).thenReturn(Collections.singletonMap(pgContext, Collections.singletonList(first)));
+        final Map<PgContext, List<UnusedIndex>> bySchema = asyncDatabaseHealth.getUnusedIndexesBySchema(pgContexts).join();
+        assertThat(bySchema.keySet(), contains(pgContext));
+        assertThat(bySchema.get(pgContext), contains(first));
+    }
+
+    @Test
+    void tablesWithMissingIndexesShouldBeUnitedAcrossHosts() {
+        final TableWithMissingIndex first = TableWithMissingIndex.of("t1", 1L, 10L, 0L);
+        final TableWithMissingIndex second = TableWithMissingIndex.of("t2", 1L, 10L, 0L);
+        Mockito.when(primaryTables.getTablesWithMissingIndexes(any(PgContext.class))).thenReturn(Collections.singletonList(second));
+        Mockito.when(replicaTables.getTablesWithMissingIndexes(any(PgContext.class))).thenReturn(Arrays.asList(first, second));
+        assertThat(asyncDatabaseHealth.getTablesWithMissingIndexes().join(), contains(first, second));
+
+        final PgContext pgContext = PgContext.of("custom");
+        final List<PgContext> pgContexts = Collections.singletonList(pgContext);
+        Mockito.when(primaryTables.getTablesWithMissingIndexesBySchema(pgContexts)).thenReturn(Collections.singletonMap(pgContext, Collections.singletonList(first)));
+        Mockito.when(replicaTables.getTablesWithMissingIndexesBySchema(pgContexts)).thenReturn(Collections.emptyMap());
+        final Map<PgContext, List<TableWithMissingIndex>> bySchema = asyncDatabaseHealth.getTablesWithMissingIndexesBySchema(pgContexts).join();
+        assertThat(bySchema.get(pgContext), contains(first));
+    }
+
+    @Test
+    void allHostsShouldBeQueriedConcurrently() {
+        final CountDownLatch latch = new CountDownLatch(2);
+        Mockito.when(primaryIndexes.getUnusedIndexes(any(PgContext.class))).thenAnswer(invocation -> awaitOthers(latch));
+        Mockito.when(replicaIndexes.getUnusedIndexes(any(PgContext.class))).thenAnswer(invocation -> awaitOthers(latch));
+        assertThat(asyncDatabaseHealth.getUnusedIndexes().join(), empty());
+    }
+
+    @Test
+    void failureOnAnyHostShouldCompleteFutureExceptionally() {
+        Mockito.when(replicaTables.getTablesWithMissingIndexes(any(PgContext.class))).thenThrow(new IllegalStateException("replica is unavailable"));
+        final CompletableFuture<List<TableWithMissingIndex>> future = asyncDatabaseHealth.getTablesWithMissingIndexes();
+        final CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertEquals("replica is unavailable", exception.getCause().getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new AsyncDatabaseHealthImpl(null, null, null));
+        assertThrows(NullPointerException.class, () -> new AsyncDatabaseHealthImpl(haPgConnection, null, null));
+        assertThrows(NullPointerException.class, () -> new AsyncDatabaseHealthImpl(haPgConnection, maintenanceFactory, null));
+        assertThrows(NullPointerException.class, () -> new AsyncDatabaseHealthImpl(haPgConnection, maintenanceFactory, executorService, null));
+    }
+
+    @Nonnull
+    private static <M extends HostAware> M maintenanceFor(@Nonnull final Class<M> type, @Nonnull final PgHost host) {
+        final M maintenance = Mockito.mock(type);
+        Mockito.when(maintenance.getHost()).thenReturn(host);
+        return maintenance;
+    }
+
+    @SafeVarargs
+    @Nonnull
+    private static <M extends HostAware> Map<PgHost, M> byHost(@Nonnull final M... maintenances) {
+        final Map<PgHost, M> result = new LinkedHashMap<>();
+        for (M maintenance : maintenances) {
+            result.put(maintenance.getHost(), maintenance);
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static List<UnusedIndex> awaitOthers(@Nonnull final CountDownLatch latch) throws InterruptedException {
+        latch.countDown();
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.utils.QueryBatch;
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class CatalogSnapshotChecksTest {
+
+    private final DataSource dataSource = Mockito.mock(DataSource.class);
+    private final PgConnection pgConnection = PgConnectionImpl.ofPrimary(dataSource);
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(CatalogSnapshotChecks.class));
+    }
+
+    @Test
+    void shouldNotUseSnapshotByDefault() {
+        final QueryBatch batch = new QueryBatch();
+        assertTrue(CatalogSnapshotChecks.addToBatch(batch, pgConnection.getHost(), PgContext.ofPublic(), ExecutionOptions.defaults()).isEmpty());
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    void shouldServeChecksFromSnapshot() throws SQLException {
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute()).thenReturn(true);
+        Mockito.when(statement.getResultSet()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, false);
+        Mockito.when(resultSet.getString("kind")).thenReturn("t");
+        Mockito.when(resultSet.getLong("obj_oid")).thenReturn(1L);
+        Mockito.when(resultSet.getLong("rel_oid")).thenReturn(1L);
+        Mockito.when(resultSet.getString("obj_name")).thenReturn("t1");
+        Mockito.when(resultSet.getLong("obj_size")).thenReturn(10L);
+        Mockito.when(resultSet.getBoolean("flag")).thenReturn(true);
+        final List<QueryExecutionEvent> events = new ArrayList<>();
+        final ExecutionOptions executionOptions = ExecutionOptions.builder()
+                .withCatalogSnapshot(true)
+                .withQueryExecutionListener(events::add)
+                .build();
+        final QueryBatch batch = new QueryBatch();
+
+        final Map<Diagnostics, Supplier<List<?>>> results = CatalogSnapshotChecks.addToBatch(batch, pgConnection.getHost(), PgContext.ofPublic(), executionOptions);
+        assertEquals(EnumSet.of(Diagnostics.DUPLICATED_INDEXES, Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, Diagnostics.INDEXES_WITH_NULL_VALUES,
+                Diagnostics.INTERSECTED_INDEXES, Diagnostics.TABLES_WITHOUT_PRIMARY_KEY), results.keySet());
+        assertEquals(1, batch.size());
+        final Supplier<List<?>> tablesWithoutPrimaryKey = results.get(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY);
+        final IllegalStateException notExecuted = assertThrows(IllegalStateException.class, tablesWithoutPrimaryKey::get);
+        assertEquals("Batch has not been executed yet", notExecuted.getMessage());
+
+        batch.execute(pgConnection);
+        Mockito.verify(connection).prepareStatement(anyString());
+        assertThat(tablesWithoutPrimaryKey.get(), contains(Table.of("t1", 10L)));
+        assertThat(results.get(Diagnostics.DUPLICATED_INDEXES).get(), empty());
+        assertThat(events, not(empty()));
+        assertEquals(results.size(), events.size());
+        assertTrue(events.stream().allMatch(QueryExecutionEvent::isSuccessful));
+        assertEquals(1, events.stream()
+                .filter(e -> e.getDiagnostics() == Diagnostics.TABLES_WITHOUT_PRIMARY_KEY)
+                .mapToInt(QueryExecutionEvent::getRowsCount)
+                .sum());
+    }
+
+    @Test
+    void shouldReportFailureOfSnapshot() throws SQLException {
+        Mockito.when(dataSource.getConnection()).thenThrow(new SQLException("unreachable"));
+        final List<QueryExecutionEvent> events = new ArrayList<>();
+        final ExecutionOptions executionOptions = ExecutionOptions.builder()
+                .withCatalogSnapshot(true)
+                .withQueryExecutionListener(event -> {
+                    events.add(event);
+                    throw new IllegalStateException("listener failed");
+                })
+                .build();
+        final QueryBatch batch = new QueryBatch();
+        CatalogSnapshotChecks.addToBatch(batch, pgConnection.getHost(), PgContext.ofPublic(), executionOptions);
+        assertThrows(RuntimeException.class, () -> batch.execute(pgConnection));
+        assertEquals(5, events.size());
+        assertTrue(events.stream().noneMatch(QueryExecutionEvent::isSuccessful));
+    }
+
+    @Test
+    void shouldNotServeChecksWithRowFilter() {
+        final ExecutionOptions executionOptions = ExecutionOptions.builder()
+                .withCatalogSnapshot(true)
+                .build();
+        PgContext pgContext = PgContext.ofPublic();
+        for (Diagnostics diagnostics : EnumSet.of(Diagnostics.INDEXES_WITH_NULL_VALUES, Diagnostics.TABLES_WITHOUT_PRIMARY_KEY)) {
+            pgContext = pgContext.withRowFilter(diagnostics, RowFilter.of(Collections.singleton("t1"), 0L));
+        }
+        final QueryBatch batch = new QueryBatch();
+        final Map<Diagnostics, Supplier<List<?>>> results = CatalogSnapshotChecks.addToBatch(batch, pgConnection.getHost(), pgContext, executionOptions);
+        assertEquals(EnumSet.of(Diagnostics.DUPLICATED_INDEXES, Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, Diagnostics.INTERSECTED_INDEXES), results.keySet());
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    void getQueryTimeout() {
+        final EnumSet<Diagnostics> served = EnumSet.of(Diagnostics.DUPLICATED_INDEXES, Diagnostics.INTERSECTED_INDEXES);
+        assertEquals(Duration.ZERO, CatalogSnapshotChecks.getQueryTimeout(served, ExecutionOptions.defaults()));
+        final ExecutionOptions withDefaultTimeout = ExecutionOptions.builder()
+                .withDefaultQueryTimeout(Duration.ofSeconds(2L))
+                .build();
+        assertEquals(Duration.ofSeconds(4L), CatalogSnapshotChecks.getQueryTimeout(served, withDefaultTimeout));
+        final ExecutionOptions withoutTimeoutForOneCheck = ExecutionOptions.builder()
+                .withQueryTimeout(Diagnostics.DUPLICATED_INDEXES, Duration.ofSeconds(2L))
+                .build();
+        assertEquals(Duration.ZERO, CatalogSnapshotChecks.getQueryTimeout(served, withoutTimeoutForOneCheck));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionFactory;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.github.mfvanek.pg.model.index.Index;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class ClusterDatabasesScannerTest {
+
+    private final ConnectionCredentials credentials = ConnectionCredentials.ofUrl("jdbc:postgresql://host-1:5432/postgres", "user", "pswd");
+    private final HighAvailabilityPgConnectionFactory haPgConnectionFactory = Mockito.mock(HighAvailabilityPgConnectionFactory.class);
+    private final PgConnectionFactory pgConnectionFactory = Mockito.mock(PgConnectionFactory.class);
+    private final DatabaseHealthFactory databaseHealthFactory = Mockito.mock(DatabaseHealthFactory.class);
+    private final HighAvailabilityPgConnection clusterConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final Statement statement = Mockito.mock(Statement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, true, false);
+        Mockito.when(resultSet.getString("datname")).thenReturn("billing", "orders", "users");
+        final PgConnection primary = PgConnectionImpl.of(dataSource, PgHostImpl.ofUrl("jdbc:postgresql://host-1:5432/postgres"));
+        final PgConnection replica = connectionTo("jdbc:postgresql://host-2:5432/postgres");
+        Mockito.when(clusterConnection.getConnectionToPrimary()).thenReturn(primary);
+        Mockito.when(clusterConnection.getConnectionsToAllHostsInCluster()).thenReturn(new HashSet<>(Arrays.asList(primary, replica)));
+        Mockito.when(haPgConnectionFactory.of(credentials)).thenReturn(clusterConnection);
+        Mockito.when(pgConnectionFactory.forUrl(anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> connectionTo(invocation.getArgument(0)));
+    }
+
+    @Test
+    void scanConnectionsSequentially() {
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 1);
+        final Map<String, String> result = scanner.scanConnections(credentials, c -> c.getConnectionToPrimary().getHost().getPgUrl());
+        assertThat(result.keySet(), contains("billing", "orders", "users"));
+        assertThat(result.values(), contains("jdbc:postgresql://host-1:5432/billing", "jdbc:postgresql://host-1:5432/orders",
+                "jdbc:postgresql://host-1:5432/users"));
+        Mockito.verify(haPgConnectionFactory).of(credentials);
+        Mockito.verify(clusterConnection).close();
+        Mockito.verify(pgConnectionFactory, Mockito.times(6)).forUrl(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void scanShouldRunDatabaseHealthConcurrently() {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final DatabaseHealth databaseHealth = Mockito.mock(DatabaseHealth.class);
+        Mockito.when(databaseHealthFactory.of(any())).thenReturn(databaseHealth);
+        Mockito.when(databaseHealth.getInvalidIndexes()).thenAnswer(invocation -> {
+            latch.countDown();
+            assertTrue(latch.await(5L, TimeUnit.SECONDS));
+            return Collections.singletonList(Index.of("t", "i"));
+        });
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 3);
+        final Map<String, Integer> result = scanner.scan(credentials, h -> h.getInvalidIndexes().size());
+        assertThat(result.keySet(), contains("billing", "orders", "users"));
+        assertThat(result.values(), contains(1, 1, 1));
+        Mockito.verify(databaseHealthFactory, Mockito.times(3)).of(any());
+    }
+
+    @Test
+    void scanShouldSkipDatabasesThatFailed() {
+        final Function<HighAvailabilityPgConnection, String> action = c -> {
+            final String pgUrl = c.getConnectionToPrimary().getHost().getPgUrl();
+            if (pgUrl.endsWith("/billing")) {
+                throw new IllegalStateException("failed on " + pgUrl);
+            }
+            return pgUrl;
+        };
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 2);
+        final Map<String, String> result = scanner.scanConnections(credentials, action);
+        assertThat(result.keySet(), contains("orders", "users"));
+        assertThat(result.values(), contains("jdbc:postgresql://host-1:5432/orders", "jdbc:postgresql://host-1:5432/users"));
+    }
+
+    @Test
+    void scanShouldSkipDatabasesWithoutAccess() {
+        Mockito.doThrow(new IllegalStateException("permission denied for database orders"))
+                .when(pgConnectionFactory).forUrl(Mockito.endsWith("/orders"), anyString(), anyString());
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 1);
+        final Map<String, String> result = scanner.scanConnections(credentials, c -> c.getConnectionToPrimary().getHost().getPgUrl());
+        assertThat(result.keySet(), contains("billing", "users"));
+        assertThat(result.values(), contains("jdbc:postgresql://host-1:5432/billing", "jdbc:postgresql://host-1:5432/users"));
+    }
+
+    @Test
+    void scanShouldWrapError() {
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 2);
+        final Function<HighAvailabilityPgConnection, String> action = c -> {
+            throw new AssertionError("error");
+        };
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> scanner.scanConnections(credentials, action));
+        assertThat(exception.getCause(), instanceOf(AssertionError.class));
+    }
+
+    @Test
+    void scanShouldRestoreInterruptedFlag() {
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 2);
+        // Tasks cannot complete before the scan is interrupted: they are released either by cancellation or in finally
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread.currentThread().interrupt();
+        try {
+            final RuntimeException exception = assertThrows(RuntimeException.class, () -> scanner.scanConnections(credentials, c -> {
+                awaitUninterruptedly(release);
+                return "ok";
+            }));
+            assertThat(exception.getCause(), instanceOf(InterruptedException.class));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            release.countDown();
+            Thread.interrupted();
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new ClusterDatabasesScanner(null, null, null, 0));
+        assertThrows(NullPointerException.class, () -> new ClusterDatabasesScanner(haPgConnectionFactory, null, null, 0));
+        assertThrows(NullPointerException.class, () -> new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 0));
+        final ClusterDatabasesScanner scanner = new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 4);
+        assertThrows(NullPointerException.class, () -> scanner.scan(credentials, null));
+        assertThrows(NullPointerException.class, () -> scanner.scanConnections(null, c -> c));
+        assertThrows(NullPointerException.class, () -> scanner.scanConnections(credentials, null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("ClusterDatabasesScanner{parallelism=4}",
+                new ClusterDatabasesScanner(haPgConnectionFactory, pgConnectionFactory, databaseHealthFactory, 4).toString());
+    }
+
+    private static void awaitUninterruptedly(@Nonnull final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Nonnull
+    private static PgConnection connectionTo(@Nonnull final String pgUrl) {
+        return PgConnectionImpl.of(Mockito.mock(DataSource.class), PgHostImpl.ofUrl(pgUrl));
+    }
+}
@@ -10,12 +10,19 @@
 
 package io.github.mfvanek.pg.common.health;
 
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
 import io.github.mfvanek.pg.common.maintenance.MaintenanceFactoryImpl;
+import io.github.mfvanek.pg.common.management.PerHostExecutor;
+import io.github.mfvanek.pg.common.management.ReplicaRouting;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionImpl;
 import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.ReplicationLagDeterminerImpl;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
@@ -31,20 +38,39 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
 
 import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 
 class DatabaseHealthImplTest extends DatabaseAwareTestBase {
 
@@ -380,6 +406,42 @@ class DatabaseHealthImplTest extends DatabaseAwareTestBase {
                 });
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void getTablesWithMissingIndexesAndUnusedIndexesInParallel(final String schemaName) {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final HighAvailabilityPgConnection haPgConnection = HighAvailabilityPgConnectionImpl.of(
+                    PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase()));
+            final DatabaseHealth parallelDatabaseHealth = new DatabaseHealthFactoryImpl(new MaintenanceFactoryImpl(),
+                    PerHostExecutor.parallel(executorService, Duration.ofSeconds(10L))).of(haPgConnection);
+            executeTestOnDatabase(schemaName,
+                    dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                    ctx -> {
+                        tryToFindAccountByClientId(schemaName);
+                        assertEquals(databaseHealth.getTablesWithMissingIndexes(ctx), parallelDatabaseHealth.getTablesWithMissingIndexes(ctx));
+                        assertEquals(databaseHealth.getUnusedIndexes(ctx), parallelDatabaseHealth.getUnusedIndexes(ctx));
+                    });
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void catalogChecksShouldFallBackToPrimaryWithoutReplicas(final String schemaName) {
+        final HighAvailabilityPgConnection haPgConnection = HighAvailabilityPgConnectionImpl.of(
+                PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase()));
+        final DatabaseHealth routedDatabaseHealth = new DatabaseHealthFactoryImpl(new MaintenanceFactoryImpl(), PerHostExecutor.sequential(),
+                ReplicaRouting.leastLaggedReplica(new ReplicationLagDeterminerImpl(), Duration.ofSeconds(10L))).of(haPgConnection);
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                ctx -> {
+                    assertEquals(databaseHealth.getDuplicatedIndexes(ctx), routedDatabaseHealth.getDuplicatedIndexes(ctx));
+                    assertEquals(databaseHealth.getForeignKeysNotCoveredWithIndex(ctx), routedDatabaseHealth.getForeignKeysNotCoveredWithIndex(ctx));
+                });
+    }
+
     @Test
     void getTablesWithoutPrimaryKeyOnEmptyDatabase() {
         final List<Table> tables = databaseHealth.getTablesWithoutPrimaryKey();
@@ -497,6 +559,7 @@ class DatabaseHealthImplTest extends DatabaseAwareTestBase {
                     assertEquals(57344L, index.getIndexSizeInBytes());
                     assertEquals(8192L, index.getBloatSizeInBytes());
                     assertEquals(14, index.getBloatPercentage());
+                    assertEquals(indexes.toString(), databaseHealth.getIndexesWithBloatAsColumns(ctx).asList().toString());
                 });
     }
 
@@ -537,6 +600,119 @@ class DatabaseHealthImplTest extends DatabaseAwareTestBase {
                     assertEquals(114688L, table.getTableSizeInBytes());
                     assertEquals(0L, table.getBloatSizeInBytes());
                     assertEquals(0, table.getBloatPercentage());
+                    assertEquals(tables.toString(), databaseHealth.getTablesWithBloatAsColumns(ctx).asList().toString());
+                });
+    }
+
+    @Test
+    void getUnusedIndexesBySchema() {
+        executeTestOnDatabase("custom",
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                ctx -> {
+                    final PgContext publicContext = PgContext.ofPublic();
+                    final Map<PgContext, List<UnusedIndex>> unusedIndexes = databaseHealth.getUnusedIndexesBySchema(Arrays.asList(publicContext, ctx));
+                    assertThat(unusedIndexes.keySet(), contains(publicContext, ctx));
+                    assertThat(unusedIndexes.get(publicContext), empty());
+                    assertThat(unusedIndexes.get(ctx), hasSize(greaterThanOrEqualTo(1)));
                 });
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void prefetchShouldReturnTheSameResults(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withInvalidIndex().withDuplicatedIndex().withNullValuesInIndex().withTableWithoutPrimaryKey(),
+                ctx -> {
+                    final DatabaseHealth prefetched = ((PrefetchingDatabaseHealth) databaseHealth).prefetch(ctx);
+                    assertEquals(databaseHealth.getInvalidIndexes(ctx), prefetched.getInvalidIndexes(ctx));
+                    assertEquals(databaseHealth.getDuplicatedIndexes(ctx), prefetched.getDuplicatedIndexes(ctx));
+                    assertEquals(databaseHealth.getIntersectedIndexes(ctx), prefetched.getIntersectedIndexes(ctx));
+                    assertEquals(databaseHealth.getUnusedIndexes(ctx), prefetched.getUnusedIndexes(ctx));
+                    assertEquals(databaseHealth.getForeignKeysNotCoveredWithIndex(ctx), prefetched.getForeignKeysNotCoveredWithIndex(ctx));
+                    assertEquals(databaseHealth.getTablesWithMissingIndexes(ctx), prefetched.getTablesWithMissingIndexes(ctx));
+                    assertEquals(databaseHealth.getTablesWithoutPrimaryKey(ctx), prefetched.getTablesWithoutPrimaryKey(ctx));
+                    assertEquals(databaseHealth.getIndexesWithNullValues(ctx), prefetched.getIndexesWithNullValues(ctx));
+                    assertEquals(databaseHealth.getIndexesWithBloat(ctx), prefetched.getIndexesWithBloat(ctx));
+                    assertEquals(databaseHealth.getTablesWithBloat(ctx), prefetched.getTablesWithBloat(ctx));
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void prefetchWithCatalogSnapshotShouldReturnTheSameResults(final String schemaName) {
+        final DatabaseHealth healthWithSnapshot = new DatabaseHealthImpl(
+                HighAvailabilityPgConnectionImpl.of(PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase())),
+                new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                        .withCatalogSnapshot(true)
+                        .build()));
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex().withNullValuesInIndex().withTableWithoutPrimaryKey(),
+                ctx -> {
+                    final DatabaseHealth prefetched = ((PrefetchingDatabaseHealth) healthWithSnapshot).prefetch(ctx);
+                    assertEquals(databaseHealth.getDuplicatedIndexes(ctx), prefetched.getDuplicatedIndexes(ctx));
+                    assertEquals(databaseHealth.getIntersectedIndexes(ctx), prefetched.getIntersectedIndexes(ctx));
+                    assertEquals(databaseHealth.getForeignKeysNotCoveredWithIndex(ctx), prefetched.getForeignKeysNotCoveredWithIndex(ctx));
+                    assertEquals(databaseHealth.getTablesWithoutPrimaryKey(ctx), prefetched.getTablesWithoutPrimaryKey(ctx));
+                    assertEquals(databaseHealth.getIndexesWithNullValues(ctx), prefetched.getIndexesWithNullValues(ctx));
+                    assertThat(prefetched.getTablesWithoutPrimaryKey(ctx), hasSize(1));
+                });
+    }
+
+    @Test
+    void prefetchShouldNotifyQueryExecutionListener() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute()).thenReturn(true);
+        Mockito.when(statement.getMoreResults()).thenReturn(true);
+        final List<String> columns = Arrays.asList("table_name", "table_size", "index_name", "index_size", "index_scans", "bloat_size", "bloat_percentage",
+                "duplicated_indexes", "intersected_indexes", "constraint_name", "columns", "nullable_fields", "seq_scan", "idx_scan");
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columns.size());
+        Mockito.when(metaData.getColumnLabel(anyInt())).thenAnswer(invocation -> columns.get(invocation.<Integer>getArgument(0) - 1));
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getMetaData()).thenReturn(metaData);
+        final ResultSet statsResetResultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(statsResetResultSet.next()).thenReturn(true, false);
+        // unused indexes, tables with missing indexes, last stats reset time and then diagnostics on the selected host
+        Mockito.when(statement.getResultSet()).thenReturn(resultSet, resultSet, statsResetResultSet, resultSet);
+        final List<QueryExecutionEvent> events = new ArrayList<>();
+        final PrefetchingDatabaseHealth health = new DatabaseHealthImpl(HighAvailabilityPgConnectionImpl.of(PgConnectionImpl.ofPrimary(dataSource)),
+                new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                        .withQueryExecutionListener(events::add)
+                        .withRowMappersValidation(false)
+                        .build()));
+
+        health.prefetch(PgContext.ofPublic());
+
+        Mockito.verify(connection).prepareStatement(anyString());
+        assertThat(events.stream().map(QueryExecutionEvent::getDiagnostics).collect(toSet()), equalTo(EnumSet.allOf(Diagnostics.class)));
+        assertThat(events, hasSize(Diagnostics.values().length));
+        assertThat(events.stream().map(QueryExecutionEvent::getLatency).collect(toSet()), hasSize(1));
+        assertTrue(events.stream().allMatch(e -> e.isSuccessful() && e.getRowsCount() == 0));
+
+        events.clear();
+        Mockito.when(statement.execute()).thenThrow(new SQLException("bad query"));
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(RuntimeException.class, () -> health.prefetch(pgContext));
+        assertThat(events, hasSize(Diagnostics.values().length));
+        assertTrue(events.stream().noneMatch(QueryExecutionEvent::isSuccessful));
+    }
+
+    @Test
+    void allChecksBySchemaOnEmptyDatabase() {
+        final Collection<PgContext> contexts = Arrays.asList(PgContext.ofPublic(), PgContext.of("custom"));
+        assertThat(databaseHealth.getInvalidIndexes(contexts), empty());
+        assertThat(databaseHealth.getDuplicatedIndexes(contexts), empty());
+        assertThat(databaseHealth.getIntersectedIndexes(contexts), empty());
+        assertThat(databaseHealth.getUnusedIndexes(contexts), empty());
+        assertThat(databaseHealth.getForeignKeysNotCoveredWithIndex(contexts), empty());
+        assertThat(databaseHealth.getTablesWithMissingIndexes(contexts), empty());
+        assertThat(databaseHealth.getTablesWithoutPrimaryKey(contexts), empty());
+        assertThat(databaseHealth.getIndexesWithNullValues(contexts), empty());
+        assertThat(databaseHealth.getIndexesWithBloat(contexts), empty());
+        assertThat(databaseHealth.getTablesWithBloat(contexts), empty());
+    }
 }
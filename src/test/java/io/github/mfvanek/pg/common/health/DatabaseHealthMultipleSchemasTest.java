@@ -29,9 +29,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -211,4 +213,17 @@ class DatabaseHealthMultipleSchemasTest {
                 .map(TableNameAware::getTableName)
                 .collect(Collectors.toSet()), containsInAnyOrder("t1", "demo.t1", "test.t1", "t2", "demo.t2", "test.t2"));
     }
+
+    @Test
+    void getTablesWithBloatBySchema() {
+        Mockito.when(databaseHealth.getTablesWithBloat(any(PgContext.class)))
+                .thenAnswer(invocation -> {
+                    final PgContext ctx = invocation.getArgument(0);
+                    return Collections.singletonList(TableWithBloat.of(ctx.enrichWithSchema("t"), 10L, 2L, 20));
+                });
+        final Map<PgContext, List<TableWithBloat>> tables = databaseHealth.getTablesWithBloatBySchema(contexts);
+        assertNotNull(tables);
+        assertThat(tables.keySet(), contains(contexts.toArray()));
+        tables.forEach((ctx, tablesInSchema) -> assertThat(tablesInSchema, contains(TableWithBloat.of(ctx.enrichWithSchema("t"), 10L, 2L, 20))));
+    }
 }
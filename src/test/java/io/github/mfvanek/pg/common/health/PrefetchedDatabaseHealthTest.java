@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
+import io.github.mfvanek.pg.common.maintenance.MaintenanceFactory;
+import io.github.mfvanek.pg.common.management.PerHostExecutor;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostAware;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.index.UnusedIndexColumns;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
+import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
+import io.github.mfvanek.pg.utils.QueryBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+class PrefetchedDatabaseHealthTest {
+
+    private final PgHost primaryHost = PgHostImpl.ofName("primary");
+    private final PgHost replicaHost = PgHostImpl.ofName("replica");
+    private final IndexesMaintenanceOnHost primaryIndexes = maintenanceFor(IndexesMaintenanceOnHost.class, primaryHost);
+    private final IndexesMaintenanceOnHost replicaIndexes = maintenanceFor(IndexesMaintenanceOnHost.class, replicaHost);
+    private final TablesMaintenanceOnHost primaryTables = maintenanceFor(TablesMaintenanceOnHost.class, primaryHost);
+    private final TablesMaintenanceOnHost replicaTables = maintenanceFor(TablesMaintenanceOnHost.class, replicaHost);
+    private final StatisticsMaintenanceOnHost primaryStatistics = maintenanceFor(StatisticsMaintenanceOnHost.class, primaryHost);
+    private final StatisticsMaintenanceOnHost replicaStatistics = maintenanceFor(StatisticsMaintenanceOnHost.class, replicaHost);
+    private final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+    private final MaintenanceFactory maintenanceFactory = Mockito.mock(MaintenanceFactory.class);
+    private final DatabaseHealth delegate = Mockito.mock(DatabaseHealth.class);
+
+    @BeforeEach
+    void setUp() {
+        final PgConnection primary = PgConnectionImpl.of(Mockito.mock(DataSource.class), primaryHost);
+        final PgConnection replica = PgConnectionImpl.of(Mockito.mock(DataSource.class), replicaHost);
+        Mockito.when(haPgConnection.getConnectionToPrimary()).thenReturn(primary);
+        Mockito.when(haPgConnection.getConnectionsToAllHostsInCluster()).thenReturn(new HashSet<>(Arrays.asList(primary, replica)));
+        final Map<PgHost, IndexesMaintenanceOnHost> indexesMaintenance = byHost(primaryIndexes, replicaIndexes);
+        final Map<PgHost, TablesMaintenanceOnHost> tablesMaintenance = byHost(primaryTables, replicaTables);
+        final Map<PgHost, StatisticsMaintenanceOnHost> statisticsMaintenance = byHost(primaryStatistics, replicaStatistics);
+        Mockito.when(maintenanceFactory.forIndexes(anyCollection())).thenReturn(indexesMaintenance);
+        Mockito.when(maintenanceFactory.forTables(anyCollection())).thenReturn(tablesMaintenance);
+        Mockito.when(maintenanceFactory.forStatistics(anyCollection())).thenReturn(statisticsMaintenance);
+        Mockito.when(maintenanceFactory.getExecutionOptions()).thenReturn(ExecutionOptions.defaults());
+        for (IndexesMaintenanceOnHost indexes : Arrays.asList(primaryIndexes, replicaIndexes)) {
+            Mockito.when(indexes.addInvalidIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(indexes.addDuplicatedIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(indexes.addIntersectedIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(indexes.addForeignKeysNotCoveredWithIndexToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(indexes.addIndexesWithNullValuesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(indexes.addIndexesWithBloatToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+        }
+        for (TablesMaintenanceOnHost tables : Arrays.asList(primaryTables, replicaTables)) {
+            Mockito.when(tables.addTablesWithoutPrimaryKeyToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+            Mockito.when(tables.addTablesWithBloatToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(Collections::emptyList);
+        }
+        Mockito.when(primaryStatistics.addLastStatsResetTimestampToBatch(any(QueryBatch.class))).thenReturn(Optional::empty);
+        final Optional<OffsetDateTime> statsResetTimestamp = Optional.of(OffsetDateTime.now());
+        Mockito.when(replicaStatistics.addLastStatsResetTimestampToBatch(any(QueryBatch.class))).thenReturn(() -> statsResetTimestamp);
+    }
+
+    @Test
+    void prefetchShouldCollectResultsFromAllHosts() {
+        final UnusedIndex first = UnusedIndex.of("t", "i1", 1L, 0L);
+        final UnusedIndex second = UnusedIndex.of("t", "i2", 1L, 0L);
+        Mockito.when(primaryIndexes.addUnusedIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(() -> Arrays.asList(first, second));
+        Mockito.when(replicaIndexes.addUnusedIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(() -> Collections.singletonList(second));
+        final TableWithMissingIndex firstTable = TableWithMissingIndex.of("t1", 1L, 10L, 0L);
+        final TableWithMissingIndex secondTable = TableWithMissingIndex.of("t2", 1L, 10L, 0L);
+        Mockito.when(primaryTables.addTablesWithMissingIndexesToBatch(any(QueryBatch.class), any(PgContext.class)))
+                .thenReturn(() -> Collections.singletonList(secondTable));
+        Mockito.when(replicaTables.addTablesWithMissingIndexesToBatch(any(QueryBatch.class), any(PgContext.class)))
+                .thenReturn(() -> Collections.singletonList(firstTable));
+        final List<Index> invalidIndexes = Collections.singletonList(Index.of("t", "i"));
+        Mockito.when(replicaIndexes.addInvalidIndexesToBatch(any(QueryBatch.class), any(PgContext.class))).thenReturn(() -> invalidIndexes);
+
+        final PrefetchingDatabaseHealth databaseHealth = new DatabaseHealthImpl(haPgConnection, maintenanceFactory, PerHostExecutor.sequential(),
+                c -> replicaHost);
+        final PgContext pgContext = PgContext.of("custom");
+        final DatabaseHealth prefetched = databaseHealth.prefetch(pgContext);
+
+        assertThat(prefetched, instanceOf(PrefetchedDatabaseHealth.class));
+        assertEquals(invalidIndexes, prefetched.getInvalidIndexes(pgContext));
+        assertThat(prefetched.getUnusedIndexes(pgContext), contains(second));
+        assertThat(prefetched.getTablesWithMissingIndexes(pgContext), contains(firstTable, secondTable));
+        assertThat(prefetched.getTablesWithBloat(pgContext), empty());
+        Mockito.verify(replicaIndexes).addInvalidIndexesToBatch(any(QueryBatch.class), any(PgContext.class));
+        Mockito.verify(primaryIndexes, Mockito.never()).addInvalidIndexesToBatch(any(QueryBatch.class), any(PgContext.class));
+        Mockito.verify(primaryTables, Mockito.never()).addTablesWithoutPrimaryKeyToBatch(any(QueryBatch.class), any(PgContext.class));
+        Mockito.verify(primaryStatistics).addLastStatsResetTimestampToBatch(any(QueryBatch.class));
+        Mockito.verify(replicaStatistics).addLastStatsResetTimestampToBatch(any(QueryBatch.class));
+        Mockito.verify(primaryIndexes, Mockito.never()).getUnusedIndexes(any(PgContext.class));
+        Mockito.verify(replicaIndexes, Mockito.never()).getInvalidIndexes(any(PgContext.class));
+    }
+
+    @Test
+    void shouldReturnPrefetchedResultsOnlyForTheSameContext() {
+        final PgContext pgContext = PgContext.of("custom", 20);
+        final List<Index> invalidIndexes = Collections.singletonList(Index.of("t", "i"));
+        final List<DuplicatedIndexes> duplicatedIndexes = Collections.singletonList(DuplicatedIndexes.of("t", "idx=i1, size=1; idx=i2, size=2"));
+        final List<UnusedIndex> unusedIndexes = Collections.singletonList(UnusedIndex.of("t", "i1", 1L, 0L));
+        final List<ForeignKey> foreignKeys = Collections.singletonList(ForeignKey.ofColumn("t", "c_fk", "c"));
+        final List<IndexWithNulls> indexesWithNulls = Collections.singletonList(IndexWithNulls.of("t", "i", 1L, "c"));
+        final List<IndexWithBloat> indexesWithBloat = Collections.singletonList(IndexWithBloat.of("t", "i", 10L, 2L, 20));
+        final List<TableWithMissingIndex> tablesWithMissingIndexes = Collections.singletonList(TableWithMissingIndex.of("t", 1L, 10L, 0L));
+        final List<Table> tablesWithoutPrimaryKey = Collections.singletonList(Table.of("t", 1L));
+        final List<TableWithBloat> tablesWithBloat = Collections.singletonList(TableWithBloat.of("t", 10L, 2L, 20));
+        final Map<Diagnostics, List<?>> results = new LinkedHashMap<>();
+        results.put(Diagnostics.INVALID_INDEXES, invalidIndexes);
+        results.put(Diagnostics.DUPLICATED_INDEXES, duplicatedIndexes);
+        results.put(Diagnostics.INTERSECTED_INDEXES, duplicatedIndexes);
+        results.put(Diagnostics.UNUSED_INDEXES, unusedIndexes);
+        results.put(Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, foreignKeys);
+        results.put(Diagnostics.INDEXES_WITH_NULL_VALUES, indexesWithNulls);
+        results.put(Diagnostics.BLOATED_INDEXES, indexesWithBloat);
+        results.put(Diagnostics.TABLES_WITH_MISSING_INDEXES, tablesWithMissingIndexes);
+        results.put(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY, tablesWithoutPrimaryKey);
+        final DatabaseHealth prefetched = new PrefetchedDatabaseHealth(delegate, pgContext, results);
+
+        assertSame(invalidIndexes, prefetched.getInvalidIndexes(PgContext.of("custom", 20)));
+        assertSame(duplicatedIndexes, prefetched.getDuplicatedIndexes(pgContext));
+        assertSame(duplicatedIndexes, prefetched.getIntersectedIndexes(pgContext));
+        assertSame(unusedIndexes, prefetched.getUnusedIndexes(pgContext));
+        assertSame(foreignKeys, prefetched.getForeignKeysNotCoveredWithIndex(pgContext));
+        assertSame(indexesWithNulls, prefetched.getIndexesWithNullValues(pgContext));
+        assertSame(indexesWithBloat, prefetched.getIndexesWithBloat(pgContext));
+        assertSame(tablesWithMissingIndexes, prefetched.getTablesWithMissingIndexes(pgContext));
+        assertSame(tablesWithoutPrimaryKey, prefetched.getTablesWithoutPrimaryKey(pgContext));
+        Mockito.verifyNoInteractions(delegate);
+
+        Mockito.when(delegate.getTablesWithBloat(pgContext)).thenReturn(tablesWithBloat);
+        assertSame(tablesWithBloat, prefetched.getTablesWithBloat(pgContext));
+        final PgContext anotherSchema = PgContext.of("another", 20);
+        assertThat(prefetched.getInvalidIndexes(anotherSchema), empty());
+        Mockito.verify(delegate).getInvalidIndexes(anotherSchema);
+        final PgContext anotherThreshold = PgContext.of("custom", 30);
+        assertThat(prefetched.getIndexesWithBloat(anotherThreshold), empty());
+        Mockito.verify(delegate).getIndexesWithBloat(anotherThreshold);
+        final PgContext anotherFilter = pgContext.withRowFilter(Diagnostics.UNUSED_INDEXES, RowFilter.of(Collections.emptyList(), 1L));
+        assertThat(prefetched.getUnusedIndexes(anotherFilter), empty());
+        Mockito.verify(delegate).getUnusedIndexes(anotherFilter);
+        assertSame(indexesWithNulls, prefetched.getIndexesWithNullValues(anotherFilter));
+    }
+
+    @Test
+    void columnarResultsShouldBeBuiltFromPrefetchedRows() {
+        final PgContext pgContext = PgContext.of("custom", 20);
+        final List<UnusedIndex> unusedIndexes = Arrays.asList(UnusedIndex.of("t", "i1", 1L, 0L), UnusedIndex.of("t", "i2", 2L, 0L));
+        final List<IndexWithBloat> indexesWithBloat = Collections.singletonList(IndexWithBloat.of("t", "i", 10L, 2L, 20));
+        final List<TableWithBloat> tablesWithBloat = Collections.singletonList(TableWithBloat.of("t", 10L, 2L, 20));
+        final Map<Diagnostics, List<?>> results = new LinkedHashMap<>();
+        results.put(Diagnostics.UNUSED_INDEXES, unusedIndexes);
+        results.put(Diagnostics.BLOATED_INDEXES, indexesWithBloat);
+        results.put(Diagnostics.BLOATED_TABLES, tablesWithBloat);
+        final DatabaseHealth prefetched = new PrefetchedDatabaseHealth(delegate, pgContext, results);
+
+        final UnusedIndexColumns unusedIndexColumns = prefetched.getUnusedIndexesAsColumns(pgContext);
+        assertEquals(unusedIndexes, unusedIndexColumns.asList());
+        assertEquals(3L, unusedIndexColumns.indexSizesInBytes().sum());
+        assertEquals(indexesWithBloat.toString(), prefetched.getIndexesWithBloatAsColumns(pgContext).asList().toString());
+        assertEquals(tablesWithBloat.toString(), prefetched.getTablesWithBloatAsColumns(pgContext).asList().toString());
+        Mockito.verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void shouldFailWhenSelectedHostIsNotInCluster() {
+        final PrefetchingDatabaseHealth databaseHealth = new DatabaseHealthImpl(haPgConnection, maintenanceFactory, PerHostExecutor.sequential(),
+                c -> PgHostImpl.ofName("unknown"));
+        final PgContext pgContext = PgContext.of("custom");
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> databaseHealth.getInvalidIndexes(pgContext));
+        assertThat(exception.getMessage(), startsWith("Host selector returned host [unknown] that is not among hosts in the cluster"));
+        assertThrows(IllegalStateException.class, () -> databaseHealth.prefetch(pgContext));
+        Mockito.verify(primaryIndexes, Mockito.never()).getInvalidIndexes(any(PgContext.class));
+        Mockito.verify(replicaIndexes, Mockito.never()).getInvalidIndexes(any(PgContext.class));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final PgContext pgContext = PgContext.ofPublic();
+        final Map<Diagnostics, List<?>> results = Collections.emptyMap();
+        assertThrows(NullPointerException.class, () -> new PrefetchedDatabaseHealth(null, pgContext, results));
+        assertThrows(NullPointerException.class, () -> new PrefetchedDatabaseHealth(delegate, null, results));
+        assertThrows(NullPointerException.class, () -> new PrefetchedDatabaseHealth(delegate, pgContext, null));
+        final DatabaseHealth prefetched = new PrefetchedDatabaseHealth(delegate, pgContext, results);
+        assertThrows(NullPointerException.class, () -> prefetched.getInvalidIndexes((PgContext) null));
+        final PrefetchingDatabaseHealth databaseHealth = new DatabaseHealthImpl(haPgConnection, maintenanceFactory);
+        assertThrows(NullPointerException.class, () -> databaseHealth.prefetch(null));
+    }
+
+    @Test
+    void testToString() {
+        final Map<Diagnostics, List<?>> results = new LinkedHashMap<>();
+        results.put(Diagnostics.INVALID_INDEXES, Collections.emptyList());
+        results.put(Diagnostics.BLOATED_TABLES, Collections.emptyList());
+        assertEquals("PrefetchedDatabaseHealth{schemaName='custom', bloatPercentageThreshold=15, diagnostics=[BLOATED_TABLES, INVALID_INDEXES]}",
+                new PrefetchedDatabaseHealth(delegate, PgContext.of("custom", 15), results).toString());
+    }
+
+    @Nonnull
+    private static <M extends HostAware> M maintenanceFor(@Nonnull final Class<M> type, @Nonnull final PgHost host) {
+        final M maintenance = Mockito.mock(type);
+        Mockito.when(maintenance.getHost()).thenReturn(host);
+        return maintenance;
+    }
+
+    @SafeVarargs
+    @Nonnull
+    private static <M extends HostAware> Map<PgHost, M> byHost(@Nonnull final M... maintenances) {
+        final Map<PgHost, M> result = new LinkedHashMap<>();
+        for (M maintenance : maintenances) {
+            result.put(maintenance.getHost(), maintenance);
+        }
+        return result;
+    }
+}
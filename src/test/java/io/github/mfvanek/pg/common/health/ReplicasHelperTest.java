@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.time.OffsetDateTime;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -28,12 +29,14 @@ import java.util.Optional;
 
 import static java.util.Collections.emptyMap;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ReplicasHelperTest {
@@ -61,6 +64,45 @@ class ReplicasHelperTest {
         assertThat(unusedIndexes, containsInAnyOrder(i1, i5));
     }
 
+    @Test
+    void intersectionShouldKeepOrderAndInstancesOfFirstHost() {
+        final UnusedIndex i1 = UnusedIndex.of("t1", "i1", 1L, 1L);
+        final UnusedIndex i2 = UnusedIndex.of("t1", "i2", 2L, 2L);
+        final UnusedIndex i3 = UnusedIndex.of("t2", "i3", 3L, 3L);
+        final UnusedIndex i1FromReplica = UnusedIndex.of("t1", "i1", 10L, 0L);
+        final List<UnusedIndex> unusedIndexes = ReplicasHelper.getUnusedIndexesAsIntersectionResult(Arrays.asList(
+                Arrays.asList(i3, i2, i1, i3),
+                Arrays.asList(i1FromReplica, i3, i1FromReplica),
+                Arrays.asList(i1FromReplica, i3, i2)));
+        assertThat(unusedIndexes, contains(i3, i1));
+        assertSame(i1, unusedIndexes.get(1));
+        assertEquals(1L, unusedIndexes.get(1).getIndexScans());
+
+        assertThat(ReplicasHelper.getUnusedIndexesAsIntersectionResult(Collections.singletonList(Arrays.asList(i2, i1, i2))), contains(i2, i1));
+    }
+
+    @Test
+    void intersectionShouldStopWhenNothingIsLeft() {
+        final UnusedIndex i1 = UnusedIndex.of("t1", "i1", 1L, 1L);
+        final UnusedIndex i2 = UnusedIndex.of("t1", "i2", 2L, 2L);
+        final List<UnusedIndex> notReadable = new AbstractList<UnusedIndex>() {
+            @Override
+            public UnusedIndex get(final int index) {
+                throw new AssertionError("should not be read");
+            }
+
+            @Override
+            public int size() {
+                throw new AssertionError("should not be read");
+            }
+        };
+        final List<UnusedIndex> unusedIndexes = ReplicasHelper.getUnusedIndexesAsIntersectionResult(Arrays.asList(
+                Collections.singletonList(i1),
+                Collections.singletonList(i2),
+                notReadable));
+        assertThat(unusedIndexes, empty());
+    }
+
     @Test
     void getUnusedIndexesAsIntersectionResultWithEmptyInput() {
         final List<UnusedIndex> unusedIndexes = ReplicasHelper.getUnusedIndexesAsIntersectionResult(Collections.emptyList());
@@ -86,6 +128,22 @@ class ReplicasHelperTest {
     }
 
     @SuppressWarnings("ConstantConditions")
+    @Test
+    void unionShouldBeSortedAndKeepInstancesOfFirstHost() {
+        final TableWithMissingIndex t1 = TableWithMissingIndex.of("t1", 1L, 10L, 1L);
+        final TableWithMissingIndex t2 = TableWithMissingIndex.of("t2", 2L, 30L, 3L);
+        final TableWithMissingIndex t3 = TableWithMissingIndex.of("t3", 3L, 40L, 4L);
+        final TableWithMissingIndex t2FromReplica = TableWithMissingIndex.of("t2", 2L, 300L, 30L);
+        final List<TableWithMissingIndex> tables = ReplicasHelper.getTablesWithMissingIndexesAsUnionResult(Arrays.asList(
+                Arrays.asList(t3, t2, t3),
+                Arrays.asList(t1, t2FromReplica),
+                Collections.emptyList(),
+                Collections.singletonList(t2FromReplica)));
+        assertThat(tables, contains(t1, t2, t3));
+        assertSame(t2, tables.get(1));
+        assertThat(ReplicasHelper.getTablesWithMissingIndexesAsUnionResult(Collections.emptyList()), empty());
+    }
+
     @Test
     void getLastStatsResetDateLogMessageWithWrongArguments() {
         assertThrows(NullPointerException.class, () -> ReplicasHelper.getLastStatsResetDateLogMessage(null, null));
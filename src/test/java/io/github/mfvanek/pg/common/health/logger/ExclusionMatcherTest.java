@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.health.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExclusionMatcherTest {
+
+    private final ExclusionMatcher matcher = ExclusionMatcher.compile(Arrays.asList(
+            "i1", "custom.i2", "tmp_%", "%_old", "~orders_p\\d+", "%bak%", "i1"));
+
+    @Test
+    void emptyMatcherShouldNotMatchAnything() {
+        final ExclusionMatcher empty = ExclusionMatcher.compile(Collections.emptyList());
+        assertTrue(empty.isEmpty());
+        assertSame(empty, ExclusionMatcher.compile(Collections.emptyList()));
+        assertFalse(empty.matches("i1"));
+        assertFalse(empty.matchesAny(Collections.singletonList("i1")));
+        assertFalse(matcher.isEmpty());
+    }
+
+    @Test
+    void shouldMatchExactNamesIgnoringCase() {
+        assertTrue(matcher.matches("i1"));
+        assertTrue(matcher.matches("I1"));
+        assertTrue(matcher.matches("custom.i2"));
+        assertTrue(matcher.matches("CUSTOM.I2"));
+        assertFalse(matcher.matches("i2"));
+        assertFalse(matcher.matches("i11"));
+        assertFalse(matcher.matches("i"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void getExactNamesShouldReturnNamesWithoutPatterns() {
+        assertThat(matcher.getExactNames(), contains("i1", "custom.i2"));
+        assertThat(ExclusionMatcher.compile(Collections.emptyList()).getExactNames(), empty());
+    }
+
+    @Test
+    void shouldMatchOnlyFullName() {
+        assertFalse(matcher.matches("custom.i1"));
+        assertFalse(matcher.matches("custom.TMP_t1"));
+        assertFalse(matcher.matches("other.i2"));
+        assertFalse(matcher.matches("i1.other"));
+        assertTrue(matcher.matches("tmp_schema.t1"));
+    }
+
+    @Test
+    void shouldMatchPrefixesAndSuffixes() {
+        assertTrue(matcher.matches("tmp_"));
+        assertTrue(matcher.matches("Tmp_Table"));
+        assertTrue(matcher.matches("t_old"));
+        assertTrue(matcher.matches("custom.t_OLD"));
+        assertFalse(matcher.matches("tmp"));
+        assertFalse(matcher.matches("tm"));
+        assertFalse(matcher.matches("old"));
+        assertFalse(matcher.matches("t_older"));
+    }
+
+    @Test
+    void shouldMatchSharedPrefixesAndSuffixes() {
+        final ExclusionMatcher shared = ExclusionMatcher.compile(Arrays.asList("tmp_b%", "tmp_a%", "tmp_c%", "tmp_a%", "%_x1", "%_x2", "%_x1"));
+        assertTrue(shared.matches("tmp_a1"));
+        assertTrue(shared.matches("tmp_b1"));
+        assertTrue(shared.matches("tmp_c1"));
+        assertFalse(shared.matches("tmp_d1"));
+        assertTrue(shared.matches("t_x1"));
+        assertTrue(shared.matches("t_x2"));
+        assertFalse(shared.matches("t_x3"));
+        assertEquals("ExclusionMatcher{exactNames=0, prefixes=3, suffixes=2, regex=null}", shared.toString());
+    }
+
+    @Test
+    void shouldMatchRegularExpressionsAndOtherPatterns() {
+        assertTrue(matcher.matches("orders_p1"));
+        assertTrue(matcher.matches("ORDERS_P2022"));
+        assertFalse(matcher.matches("orders_p"));
+        assertFalse(matcher.matches("custom.orders_p1"));
+        assertTrue(matcher.matches("t_bak_1"));
+        assertTrue(matcher.matches("bak"));
+        assertFalse(matcher.matches("ba.k"));
+
+        final ExclusionMatcher withDots = ExclusionMatcher.compile(Arrays.asList("a.b%c", "%"));
+        assertTrue(withDots.matches("anything"));
+        final ExclusionMatcher quoted = ExclusionMatcher.compile(Collections.singletonList("a.b%c"));
+        assertTrue(quoted.matches("a.bxc"));
+        assertTrue(quoted.matches("a.bc"));
+        assertFalse(quoted.matches("axbc"));
+    }
+
+    @Test
+    void matchesAnyShouldCheckAllNames() {
+        assertTrue(matcher.matchesAny(Arrays.asList("x1", "tmp_x")));
+        assertFalse(matcher.matchesAny(Arrays.asList("x1", "x2")));
+        assertFalse(matcher.matchesAny(Collections.emptyList()));
+    }
+
+    @Test
+    void shouldWorkWithManyExclusions() {
+        final List<String> exclusions = IntStream.range(0, 5_000)
+                .mapToObj(i -> "idx_" + i)
+                .collect(Collectors.toList());
+        final ExclusionMatcher many = ExclusionMatcher.compile(exclusions);
+        for (String exclusion : exclusions) {
+            assertTrue(many.matches(exclusion.toUpperCase()));
+        }
+        assertFalse(many.matches("idx_5000"));
+        assertFalse(many.matches("idx_"));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> ExclusionMatcher.compile(null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("ExclusionMatcher{exactNames=2, prefixes=1, suffixes=1, regex=(?:orders_p\\d+)|(?:.*\\Qbak\\E.*)}", matcher.toString());
+        assertEquals("ExclusionMatcher{exactNames=0, prefixes=0, suffixes=0, regex=null}",
+                ExclusionMatcher.compile(Collections.emptyList()).toString());
+    }
+}
@@ -17,8 +17,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ExclusionsTest {
 
@@ -59,6 +61,29 @@ class ExclusionsTest {
         assertThat(e.getIndexesWithNullValuesExclusions(), containsInAnyOrder("s.i1"));
     }
 
+    @Test
+    void patternsShouldBeCompiled() {
+        final Exclusions e = Exclusions.builder()
+                .withDuplicatedIndexesExclusions("TMP_%")
+                .withIntersectedIndexesExclusions("%_OLD")
+                .withUnusedIndexesExclusions("~I\\D+")
+                .withTablesWithMissingIndexesExclusions("s.T1")
+                .withTablesWithoutPrimaryKeyExclusions("t2")
+                .withIndexesWithNullValuesExclusions("i3")
+                .build();
+        assertThat(e.getDuplicatedIndexesExclusions(), containsInAnyOrder("tmp_%"));
+        assertThat(e.getUnusedIndexesExclusions(), containsInAnyOrder("~I\\D+"));
+        assertTrue(e.getDuplicatedIndexesMatcher().matches("tmp_idx"));
+        assertTrue(e.getIntersectedIndexesMatcher().matches("idx_old"));
+        assertTrue(e.getUnusedIndexesMatcher().matches("i_x"));
+        assertFalse(e.getUnusedIndexesMatcher().matches("i1"));
+        assertTrue(e.getTablesWithMissingIndexesMatcher().matches("S.t1"));
+        assertTrue(e.getTablesWithoutPrimaryKeyMatcher().matches("T2"));
+        assertFalse(e.getTablesWithoutPrimaryKeyMatcher().matches("s.t2"));
+        assertTrue(e.getIndexesWithNullValuesMatcher().matches("i3"));
+        assertTrue(Exclusions.empty().getDuplicatedIndexesMatcher().isEmpty());
+    }
+
     @Test
     void sizeInBytesTest() {
         final Exclusions e = Exclusions.builder()
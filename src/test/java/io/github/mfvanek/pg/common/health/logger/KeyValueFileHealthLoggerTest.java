@@ -13,6 +13,7 @@ package io.github.mfvanek.pg.common.health.logger;
 import io.github.mfvanek.pg.common.health.DatabaseHealth;
 import io.github.mfvanek.pg.common.health.DatabaseHealthFactory;
 import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
 import io.github.mfvanek.pg.model.MemoryUnit;
 import io.github.mfvanek.pg.model.PgContext;
@@ -26,11 +27,15 @@ import io.github.mfvanek.pg.model.index.UnusedIndex;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.utils.QueryTimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static io.github.mfvanek.pg.utils.HealthLoggerAssertions.assertContainsKey;
@@ -61,6 +66,39 @@ class KeyValueFileHealthLoggerTest {
         assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes\t3");
     }
 
+    @Test
+    void logTimedOutCheck() {
+        Mockito.when(databaseHealth.getUnusedIndexes(any(PgContext.class)))
+                .thenThrow(new QueryTimeoutException(Duration.ofSeconds(1), new SQLException("canceling statement", "57014")));
+        final List<String> logs = logger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.UNUSED_INDEXES, "unused_indexes\ttimeout");
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes\t0");
+    }
+
+    @Test
+    void logInvalidIndexesConcurrently() {
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class)))
+                .thenReturn(Arrays.asList(
+                        Index.of("t1", "i1"),
+                        Index.of("t2", "i3")
+                ));
+        final HealthLogger concurrentLogger = new KeyValueFileHealthLogger(credentials, connectionFactory, databaseHealthFactory, 10);
+        final List<String> logs = concurrentLogger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes\t2");
+    }
+
+    @Test
+    void logInvalidIndexesWithLongLivedConnection() {
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class)))
+                .thenReturn(Collections.singletonList(Index.of("t1", "i1")));
+        final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+        final HealthLogger longLivedLogger = new KeyValueFileHealthLogger(haPgConnection, databaseHealthFactory, 2);
+        final List<String> logs = longLivedLogger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes\t1");
+        final HealthLogger sequentialLogger = new KeyValueFileHealthLogger(haPgConnection, databaseHealthFactory);
+        assertContainsKey(sequentialLogger.logAll(Exclusions.empty()), SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes\t1");
+    }
+
     @Test
     void applyDuplicatedExclusions() {
         final Exclusions exclusions = Exclusions.builder()
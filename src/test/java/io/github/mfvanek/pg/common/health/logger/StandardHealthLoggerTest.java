@@ -12,18 +12,41 @@ package io.github.mfvanek.pg.common.health.logger;
 
 import io.github.mfvanek.pg.common.health.DatabaseHealth;
 import io.github.mfvanek.pg.common.health.DatabaseHealthFactory;
+import io.github.mfvanek.pg.common.health.PrefetchingDatabaseHealth;
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
 import io.github.mfvanek.pg.connection.ConnectionCredentials;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
 import io.github.mfvanek.pg.connection.HighAvailabilityPgConnectionFactory;
 import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.utils.QueryTimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nonnull;
 
 import static io.github.mfvanek.pg.utils.HealthLoggerAssertions.assertContainsKey;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 
 class StandardHealthLoggerTest {
@@ -50,4 +73,204 @@ class StandardHealthLoggerTest {
         final List<String> logs = logger.logAll(Exclusions.empty());
         assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:3");
     }
+
+    @Test
+    void logAllShouldApplyExclusionsInSinglePass() {
+        Mockito.when(databaseHealth.getDuplicatedIndexes(any(PgContext.class))).thenReturn(Arrays.asList(
+                DuplicatedIndexes.of(IndexWithSize.of("t1", "i1", 1L), IndexWithSize.of("t1", "tmp_i2", 1L)),
+                DuplicatedIndexes.of(IndexWithSize.of("t2", "i3", 1L), IndexWithSize.of("t2", "i4", 1L))));
+        Mockito.when(databaseHealth.getUnusedIndexes(any(PgContext.class))).thenReturn(Arrays.asList(
+                UnusedIndex.of("t1", "i1", 10L, 0L),
+                UnusedIndex.of("t1", "orders_p1", 100L, 0L),
+                UnusedIndex.of("t1", "i2", 100L, 0L),
+                UnusedIndex.of("t1", "custom.i3", 100L, 0L)));
+        Mockito.when(databaseHealth.getTablesWithoutPrimaryKey(any(PgContext.class))).thenReturn(Arrays.asList(
+                Table.of("custom.t1_old", 100L), Table.of("t2", 100L), Table.of("t3", 1L)));
+        Mockito.when(databaseHealth.getTablesWithBloat(any(PgContext.class))).thenReturn(Arrays.asList(
+                TableWithBloat.of("t1", 100L, 50L, 50), TableWithBloat.of("t2", 100L, 5L, 5)));
+        final Exclusions exclusions = Exclusions.builder()
+                .withDuplicatedIndexesExclusions("tmp_%")
+                .withUnusedIndexesExclusions("~orders_p\\d+, CUSTOM.I3")
+                .withTablesWithoutPrimaryKeyExclusions("%_old")
+                .withIndexSizeThreshold(50L)
+                .withTableSizeThreshold(10L)
+                .withTableBloatPercentageThreshold(10)
+                .build();
+        final List<String> logs = logger.logAll(exclusions);
+        assertContainsKey(logs, SimpleLoggingKey.DUPLICATED_INDEXES, "duplicated_indexes:1");
+        assertContainsKey(logs, SimpleLoggingKey.UNUSED_INDEXES, "unused_indexes:1");
+        assertContainsKey(logs, SimpleLoggingKey.TABLES_WITHOUT_PK, "tables_without_primary_key:1");
+        assertContainsKey(logs, SimpleLoggingKey.TABLES_BLOAT, "tables_bloat:1");
+    }
+
+    @Test
+    void logAllConcurrentlyShouldPreserveKeysOrder() {
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(100L);
+                    return Collections.singletonList(Index.of("t1", "i1"));
+                });
+        final HealthLogger concurrentLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 4);
+        final List<String> logs = concurrentLogger.logAll(Exclusions.empty());
+        assertThat(logs, hasSize(SimpleLoggingKey.values().length));
+        for (int i = 0; i < logs.size(); ++i) {
+            assertThat(logs.get(i), startsWith(SimpleLoggingKey.values()[i].getSubKeyName() + ":"));
+        }
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:1");
+    }
+
+    @Test
+    void logAllConcurrentlyShouldRethrowRuntimeException() {
+        Mockito.when(databaseHealth.getTablesWithBloat(any(PgContext.class)))
+                .thenThrow(new IllegalStateException("bloat"));
+        final HealthLogger concurrentLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 2);
+        final Exclusions exclusions = Exclusions.empty();
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> concurrentLogger.logAll(exclusions));
+        assertEquals("bloat", exception.getMessage());
+    }
+
+    @Test
+    void logAllConcurrentlyShouldWrapError() {
+        Mockito.when(databaseHealth.getIndexesWithBloat(any(PgContext.class)))
+                .thenThrow(new AssertionError("bloat"));
+        final HealthLogger concurrentLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 2);
+        final Exclusions exclusions = Exclusions.empty();
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> concurrentLogger.logAll(exclusions));
+        assertThat(exception.getCause(), instanceOf(AssertionError.class));
+    }
+
+    @Test
+    void logAllConcurrentlyShouldRestoreInterruptedFlag() {
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(1_000L);
+                    return Collections.emptyList();
+                });
+        final HealthLogger concurrentLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 2);
+        final Exclusions exclusions = Exclusions.empty();
+        Thread.currentThread().interrupt();
+        try {
+            final RuntimeException exception = assertThrows(RuntimeException.class, () -> concurrentLogger.logAll(exclusions));
+            assertThat(exception.getCause(), instanceOf(InterruptedException.class));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void logAllShouldReportTimedOutCheckAndContinue() {
+        Mockito.when(databaseHealth.getIndexesWithBloat(any(PgContext.class)))
+                .thenThrow(new QueryTimeoutException(Duration.ofSeconds(1), new SQLException("canceling statement", "57014")));
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class)))
+                .thenReturn(Collections.singletonList(Index.of("t1", "i1")));
+        for (int parallelism : new int[]{1, 3}) {
+            final HealthLogger healthLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, parallelism);
+            final List<String> logs = healthLogger.logAll(Exclusions.empty());
+            assertThat(logs, hasSize(SimpleLoggingKey.values().length));
+            assertContainsKey(logs, SimpleLoggingKey.INDEXES_BLOAT, "indexes_bloat:timeout");
+            assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:1");
+        }
+    }
+
+    @Test
+    void customLoggerShouldReportTimedOutCheckWithNegativeValue() {
+        Mockito.when(databaseHealth.getTablesWithBloat(any(PgContext.class)))
+                .thenThrow(new QueryTimeoutException(Duration.ofSeconds(1), new SQLException("canceling statement", "57014")));
+        final HealthLogger customLogger = new AbstractHealthLogger(credentials, connectionFactory, databaseHealthFactory) {
+            @Override
+            protected String writeToLog(@Nonnull final LoggingKey key, final int value) {
+                return key.getSubKeyName() + "=" + value;
+            }
+        };
+        final List<String> logs = customLogger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.TABLES_BLOAT, "tables_bloat=-1");
+        assertContainsKey(logs, SimpleLoggingKey.INDEXES_BLOAT, "indexes_bloat=0");
+    }
+
+    @Test
+    void logAllShouldPassExactNamesAndSizeThresholdsToDatabase() {
+        final Exclusions exclusions = Exclusions.builder()
+                .withUnusedIndexesExclusions("~orders_p\\d+, I3, tmp_%")
+                .withTablesWithoutPrimaryKeyExclusions("%_old, t2")
+                .withIndexSizeThreshold(50L)
+                .withTableSizeThreshold(10L)
+                .build();
+        logger.logAll(exclusions, PgContext.of("custom"));
+        final ArgumentCaptor<PgContext> captor = ArgumentCaptor.forClass(PgContext.class);
+        Mockito.verify(databaseHealth).getUnusedIndexes(captor.capture());
+        final PgContext pgContext = captor.getValue();
+        assertEquals("custom", pgContext.getSchemaName());
+        assertEquals(RowFilter.of(Collections.singletonList("i3"), 50L), pgContext.getRowFilter(Diagnostics.UNUSED_INDEXES));
+        assertEquals(RowFilter.of(Collections.emptyList(), 50L), pgContext.getRowFilter(Diagnostics.BLOATED_INDEXES));
+        assertEquals(RowFilter.of(Collections.singletonList("t2"), 10L), pgContext.getRowFilter(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY));
+        assertEquals(RowFilter.of(Collections.emptyList(), 10L), pgContext.getRowFilter(Diagnostics.TABLES_WITH_MISSING_INDEXES));
+        assertEquals(RowFilter.of(Collections.emptyList(), 10L), pgContext.getRowFilter(Diagnostics.BLOATED_TABLES));
+        assertSame(RowFilter.none(), pgContext.getRowFilter(Diagnostics.INDEXES_WITH_NULL_VALUES));
+        Mockito.verify(databaseHealth).getInvalidIndexes(pgContext);
+    }
+
+    @Test
+    void logAllShouldUsePrefetchedResultsWhenRunningSequentially() {
+        final PrefetchingDatabaseHealth prefetchingDatabaseHealth = Mockito.mock(PrefetchingDatabaseHealth.class);
+        Mockito.when(databaseHealthFactory.of(any())).thenReturn(prefetchingDatabaseHealth);
+        Mockito.when(prefetchingDatabaseHealth.prefetch(any(PgContext.class))).thenReturn(databaseHealth);
+        Mockito.when(databaseHealth.getInvalidIndexes(any(PgContext.class))).thenReturn(Collections.singletonList(Index.of("t1", "i1")));
+        final List<String> logs = logger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:1");
+        Mockito.verify(prefetchingDatabaseHealth).prefetch(any(PgContext.class));
+        Mockito.verify(prefetchingDatabaseHealth, Mockito.never()).getInvalidIndexes(any(PgContext.class));
+
+        final HealthLogger concurrentLogger = new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 2);
+        Mockito.when(prefetchingDatabaseHealth.getInvalidIndexes(any(PgContext.class))).thenReturn(Collections.emptyList());
+        assertContainsKey(concurrentLogger.logAll(Exclusions.empty()), SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:0");
+        Mockito.verify(prefetchingDatabaseHealth, Mockito.times(1)).prefetch(any(PgContext.class));
+    }
+
+    @Test
+    void logAllShouldRunChecksOneByOneWhenPrefetchTimedOut() {
+        final PrefetchingDatabaseHealth prefetchingDatabaseHealth = Mockito.mock(PrefetchingDatabaseHealth.class);
+        Mockito.when(databaseHealthFactory.of(any())).thenReturn(prefetchingDatabaseHealth);
+        Mockito.when(prefetchingDatabaseHealth.prefetch(any(PgContext.class)))
+                .thenThrow(new QueryTimeoutException(Duration.ofSeconds(10), new SQLException("canceling statement", "57014")));
+        Mockito.when(prefetchingDatabaseHealth.getInvalidIndexes(any(PgContext.class))).thenReturn(Collections.singletonList(Index.of("t1", "i1")));
+        final List<String> logs = logger.logAll(Exclusions.empty());
+        assertContainsKey(logs, SimpleLoggingKey.INVALID_INDEXES, "invalid_indexes:1");
+        assertContainsKey(logs, SimpleLoggingKey.TABLES_BLOAT, "tables_bloat:0");
+    }
+
+    @Test
+    void logAllShouldCloseConnection() {
+        final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+        Mockito.when(connectionFactory.of(credentials)).thenReturn(haPgConnection);
+        final List<String> logs = logger.logAll(Exclusions.empty());
+        assertThat(logs, hasSize(SimpleLoggingKey.values().length));
+        Mockito.verify(databaseHealthFactory).of(haPgConnection);
+        Mockito.verify(haPgConnection).close();
+    }
+
+    @Test
+    void logAllWithLongLivedConnectionShouldReuseDatabaseHealth() {
+        final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+        final HealthLogger longLivedLogger = new StandardHealthLogger(haPgConnection, databaseHealthFactory);
+        longLivedLogger.logAll(Exclusions.empty());
+        final List<String> logs = longLivedLogger.logAll(Exclusions.empty());
+        assertThat(logs, hasSize(SimpleLoggingKey.values().length));
+        Mockito.verify(databaseHealthFactory, Mockito.times(1)).of(haPgConnection);
+        Mockito.verifyNoInteractions(connectionFactory);
+        Mockito.verify(haPgConnection, Mockito.never()).close();
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new StandardHealthLogger(null, databaseHealthFactory));
+        final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+        assertThrows(NullPointerException.class, () -> new StandardHealthLogger(haPgConnection, null));
+    }
+
+    @Test
+    void withInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new StandardHealthLogger(credentials, connectionFactory, databaseHealthFactory, 0));
+    }
 }
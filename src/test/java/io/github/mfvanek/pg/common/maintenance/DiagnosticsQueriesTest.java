@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.emptyOrNullString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiagnosticsQueriesTest {
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(DiagnosticsQueries.class));
+    }
+
+    @Test
+    void shouldContainQueriesForAllDiagnostics() {
+        DiagnosticsQueries.preload();
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            final String sqlQuery = DiagnosticsQueries.get(diagnostics);
+            assertThat(sqlQuery, not(emptyOrNullString()));
+            assertSame(sqlQuery, DiagnosticsQueries.get(diagnostics));
+        }
+    }
+
+    @Test
+    void loadShouldUseGivenReader() {
+        final Map<Diagnostics, String> queries = DiagnosticsQueries.load(d -> "select '" + d.name() + "'");
+        assertThat(queries, aMapWithSize(Diagnostics.values().length));
+        assertEquals("select 'INVALID_INDEXES'", queries.get(Diagnostics.INVALID_INDEXES));
+        assertThrows(UnsupportedOperationException.class, queries::clear);
+    }
+
+    @Test
+    void loadShouldFailOnEmptyQuery() {
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> DiagnosticsQueries.load(d -> d == Diagnostics.UNUSED_INDEXES ? "  " : "select 1"));
+        assertEquals("Sql query for UNUSED_INDEXES is empty", exception.getMessage());
+    }
+
+    @Test
+    void loadShouldFailOnMissingResource() {
+        final RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> DiagnosticsQueries.load(d -> {
+                    throw new RuntimeException(new FileNotFoundException(d.getSqlQueryFileName()));
+                }));
+        assertThat(exception.getCause(), instanceOf(FileNotFoundException.class));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> DiagnosticsQueries.get(null));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.embedded.PostgresDbExtension;
+import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
+import io.github.mfvanek.pg.model.index.ForeignKey;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloat;
+import io.github.mfvanek.pg.model.index.IndexWithNulls;
+import io.github.mfvanek.pg.model.index.IndexWithSize;
+import io.github.mfvanek.pg.model.index.UnusedIndex;
+import io.github.mfvanek.pg.model.table.Table;
+import io.github.mfvanek.pg.model.table.TableWithBloat;
+import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
+import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import io.github.mfvanek.pg.utils.NamePool;
+import io.github.mfvanek.pg.utils.ResultSetExtractor;
+import io.github.mfvanek.pg.utils.RowMapper;
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class DiagnosticsRowMappersTest extends DatabaseAwareTestBase {
+
+    @RegisterExtension
+    static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
+
+    private final PgConnection pgConnection;
+
+    DiagnosticsRowMappersTest() {
+        super(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+    }
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(DiagnosticsRowMappers.class));
+    }
+
+    @Test
+    void shouldContainMappersForAllDiagnostics() {
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            assertNotNull(DiagnosticsRowMappers.get(diagnostics));
+        }
+        assertSame(DiagnosticsRowMappers.UNUSED_INDEXES, DiagnosticsRowMappers.get(Diagnostics.UNUSED_INDEXES));
+    }
+
+    @Test
+    void mappersShouldReadDeclaredColumns() throws SQLException {
+        assertMapped(IndexWithBloat.of("t", "i", 30L, 40L, 5), DiagnosticsRowMappers.BLOATED_INDEXES);
+        assertMapped(TableWithBloat.of("t", 20L, 30L, 4), DiagnosticsRowMappers.BLOATED_TABLES);
+        assertMapped(Index.of("t", "i"), DiagnosticsRowMappers.INVALID_INDEXES);
+        assertMapped(UnusedIndex.of("t", "i", 30L, 40L), DiagnosticsRowMappers.UNUSED_INDEXES);
+        assertMapped(IndexWithNulls.of("t", "i", 30L, "c"), DiagnosticsRowMappers.INDEXES_WITH_NULL_VALUES);
+        assertMapped(TableWithMissingIndex.of("t", 20L, 30L, 40L), DiagnosticsRowMappers.TABLES_WITH_MISSING_INDEXES);
+        assertMapped(Table.of("t", 20L), DiagnosticsRowMappers.TABLES_WITHOUT_PRIMARY_KEY);
+        assertMapped(ForeignKey.of("t", "i", Arrays.asList("c1", "c2")), DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX);
+        final String duplicatedAsString = "idx=i1, size=1; idx=i2, size=2";
+        final DuplicatedIndexes duplicatedIndexes = DuplicatedIndexes.of("t", duplicatedAsString);
+        assertEquals(duplicatedIndexes.toString(), map(DiagnosticsRowMappers.DUPLICATED_INDEXES, duplicatedAsString).toString());
+        assertEquals(duplicatedIndexes.toString(), map(DiagnosticsRowMappers.INTERSECTED_INDEXES, duplicatedAsString).toString());
+    }
+
+    @Test
+    void mappersShouldReadArrays() throws SQLException {
+        final DuplicatedIndexes expected = DuplicatedIndexes.of(
+                IndexWithSize.of("t", "i; idx=j, size=1", 10L),
+                IndexWithSize.of("t", "i2", 20L));
+        final ResultSet rs = arraysResultSet(DiagnosticsRowMappers.DUPLICATED_INDEXES_AS_ARRAYS,
+                new String[]{"i; idx=j, size=1", "i2"}, new Long[]{10L, 20L});
+        assertEquals(expected.toString(), DiagnosticsRowMappers.DUPLICATED_INDEXES.bind(rs).extractData(rs).toString());
+        assertEquals(expected.toString(), DiagnosticsRowMappers.INTERSECTED_INDEXES.extractData(rs).toString());
+        assertEquals(expected.toString(), DiagnosticsRowMappers.DUPLICATED_INDEXES_AS_ARRAYS.extractData(rs).toString());
+
+        final ResultSet fk = arraysResultSet(DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX_AS_ARRAYS,
+                "i", new String[]{"c1, c2", "c3"});
+        assertEquals(ForeignKey.of("t", "i", Arrays.asList("c1, c2", "c3")).toString(),
+                DiagnosticsRowMappers.FOREIGN_KEYS_WITHOUT_INDEX.bind(fk).extractData(fk).toString());
+    }
+
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    @Test
+    void mappersShouldInternNamesWithNamePool() throws SQLException {
+        final NamePool namePool = NamePool.create();
+        final String tableName = namePool.intern("t");
+        final ResultSet rs = arraysResultSet(DiagnosticsRowMappers.DUPLICATED_INDEXES_AS_ARRAYS,
+                new String[]{new String("i1"), "i2"}, new Long[]{10L, 20L});
+        Mockito.when(rs.getString(1)).thenReturn(new String("t"));
+        final ResultSetExtractor<DuplicatedIndexes> extractor = DiagnosticsRowMappers.DUPLICATED_INDEXES.withNamePool(namePool).bind(rs);
+        final DuplicatedIndexes first = extractor.extractData(rs);
+        final DuplicatedIndexes second = extractor.extractData(rs);
+        assertSame(tableName, first.getTableName());
+        assertSame(tableName, second.getTableName());
+        assertSame(first.getIndexNames().get(0), second.getIndexNames().get(0));
+        assertEquals(3, namePool.size());
+    }
+
+    @Test
+    void arrayMappersShouldFailOnInconsistentArrays() throws SQLException {
+        final ResultSet rs = arraysResultSet(DiagnosticsRowMappers.DUPLICATED_INDEXES_AS_ARRAYS,
+                new String[]{"i1", "i2"}, null);
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> DiagnosticsRowMappers.DUPLICATED_INDEXES.extractData(rs));
+        assertEquals("Index names and sizes have different lengths for table t", exception.getMessage());
+    }
+
+    @Test
+    void validateShouldPassForAllQueries() {
+        DiagnosticsRowMappers.validate(pgConnection);
+    }
+
+    @Test
+    void validateShouldFailOnMissingColumn() throws SQLException {
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(1);
+        Mockito.when(metaData.getColumnLabel(1)).thenReturn("table_name");
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(statement.getMetaData()).thenReturn(metaData, (ResultSetMetaData) null);
+        final PgConnection connectionToHost = connectionReturning(statement);
+        final IllegalStateException missingColumn = assertThrows(IllegalStateException.class, () -> DiagnosticsRowMappers.validate(connectionToHost));
+        assertThat(missingColumn.getMessage(), startsWith("Invalid row mapper for BLOATED_INDEXES: Column index_name is not found in the result set"));
+        final IllegalStateException notDescribed = assertThrows(IllegalStateException.class, () -> DiagnosticsRowMappers.validate(connectionToHost));
+        assertEquals("Cannot describe result of BLOATED_INDEXES", notDescribed.getMessage());
+    }
+
+    @Test
+    void validateShouldWrapSqlException() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        Mockito.when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+        final PgConnection connectionToHost = PgConnectionImpl.ofPrimary(dataSource);
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> DiagnosticsRowMappers.validate(connectionToHost));
+        assertThat(exception.getCause(), instanceOf(SQLException.class));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> DiagnosticsRowMappers.get(null));
+        assertThrows(NullPointerException.class, () -> DiagnosticsRowMappers.validate(null));
+    }
+
+    private static <T> void assertMapped(@Nonnull final T expected, @Nonnull final RowMapper<T> rowMapper) throws SQLException {
+        assertEquals(expected.toString(), map(rowMapper, "i").toString());
+    }
+
+    /**
+     * Maps a row where the string columns are "t", {@code secondColumn}, "c1, c2", "c"
+     * and numeric columns contain their position (multiplied by ten for longs).
+     */
+    @Nonnull
+    private static <T> T map(@Nonnull final RowMapper<T> rowMapper, @Nonnull final String secondColumn) throws SQLException {
+        final List<String> columnNames = rowMapper.getColumnNames();
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columnNames.size());
+        for (int i = 0; i < columnNames.size(); ++i) {
+            Mockito.when(metaData.getColumnLabel(i + 1)).thenReturn(columnNames.get(i));
+        }
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(1)).thenReturn("t");
+        Mockito.when(rs.getString(2)).thenReturn(secondColumn);
+        Mockito.when(rs.getString(3)).thenReturn("c1, c2");
+        Mockito.when(rs.getString(4)).thenReturn("c");
+        Mockito.when(rs.getLong(anyInt())).thenAnswer(invocation -> invocation.<Integer>getArgument(0) * 10L);
+        Mockito.when(rs.getInt(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+        return rowMapper.bind(rs).extractData(rs);
+    }
+
+    /**
+     * Creates a result set with the columns of {@code rowMapper} where the first one is "t"
+     * and each of the rest is either a string or an sql array.
+     */
+    @Nonnull
+    private static ResultSet arraysResultSet(@Nonnull final RowMapper<?> rowMapper, @Nonnull final Object... values) throws SQLException {
+        final List<String> columnNames = rowMapper.getColumnNames();
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columnNames.size());
+        for (int i = 0; i < columnNames.size(); ++i) {
+            Mockito.when(metaData.getColumnLabel(i + 1)).thenReturn(columnNames.get(i));
+        }
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(1)).thenReturn("t");
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] instanceof String) {
+                Mockito.when(rs.getString(i + 2)).thenReturn((String) values[i]);
+            } else if (values[i] != null) {
+                final Array array = Mockito.mock(Array.class);
+                Mockito.when(array.getArray()).thenReturn(values[i]);
+                Mockito.when(rs.getArray(i + 2)).thenReturn(array);
+            }
+        }
+        return rs;
+    }
+
+    @Nonnull
+    private static PgConnection connectionReturning(@Nonnull final PreparedStatement statement) throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return PgConnectionImpl.ofPrimary(dataSource);
+    }
+}
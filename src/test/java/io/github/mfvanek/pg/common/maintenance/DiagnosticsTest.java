@@ -16,8 +16,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DiagnosticsTest {
@@ -45,4 +51,26 @@ class DiagnosticsTest {
             assertTrue(diagnostics.getSqlQueryFileName().endsWith(".sql"));
         }
     }
+
+    @Test
+    void rowFilterShouldBeSupportedOnlyWithNameAndSizeColumns() {
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            if (diagnostics.isRowFilterSupported()) {
+                assertNotNull(diagnostics.getNameColumn());
+                assertNotNull(diagnostics.getSizeColumn());
+                assertThat(diagnostics.getOrderColumns(), hasItem(diagnostics.getNameColumn()));
+            } else {
+                assertNull(diagnostics.getNameColumn());
+                assertNull(diagnostics.getSizeColumn());
+                assertThat(diagnostics.getOrderColumns(), empty());
+            }
+        }
+        assertEquals("index_name", Diagnostics.UNUSED_INDEXES.getNameColumn());
+        assertEquals("index_size", Diagnostics.UNUSED_INDEXES.getSizeColumn());
+        assertEquals("table_name", Diagnostics.TABLES_WITHOUT_PRIMARY_KEY.getNameColumn());
+        assertEquals("table_size", Diagnostics.TABLES_WITHOUT_PRIMARY_KEY.getSizeColumn());
+        assertThat(Diagnostics.UNUSED_INDEXES.getOrderColumns(), contains("table_name", "index_name"));
+        assertThat(Diagnostics.TABLES_WITHOUT_PRIMARY_KEY.getOrderColumns(), contains("table_name"));
+        assertFalse(Diagnostics.DUPLICATED_INDEXES.isRowFilterSupported());
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExecutionOptionsBuilderTest {
+
+    @Test
+    void toStringBuilderTest() {
+        final ExecutionOptionsBuilder builder = ExecutionOptions.builder();
+        assertNotNull(builder);
+        assertEquals("ExecutionOptionsBuilder{defaultQueryTimeout=PT0S, queryTimeouts={}, queryExecutionListener=NoopQueryExecutionListener, " +
+                "structuredResultsEnabled=false, catalogSnapshotEnabled=false, rowMappersValidationEnabled=true}", builder.toString());
+        builder.withDefaultQueryTimeout(Duration.ofSeconds(1))
+                .withQueryTimeout(Diagnostics.UNUSED_INDEXES, Duration.ofSeconds(2))
+                .withStructuredResults(true)
+                .withCatalogSnapshot(true)
+                .withRowMappersValidation(false);
+        assertEquals("ExecutionOptionsBuilder{defaultQueryTimeout=PT1S, queryTimeouts={UNUSED_INDEXES=PT2S}, " +
+                "queryExecutionListener=NoopQueryExecutionListener, structuredResultsEnabled=true, catalogSnapshotEnabled=true, " +
+                "rowMappersValidationEnabled=false}", builder.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final ExecutionOptionsBuilder builder = ExecutionOptions.builder();
+        final Duration negative = Duration.ofSeconds(-1);
+        assertThrows(NullPointerException.class, () -> builder.withDefaultQueryTimeout(null));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> builder.withDefaultQueryTimeout(negative));
+        assertEquals("defaultQueryTimeout cannot be less than zero", exception.getMessage());
+        assertThrows(NullPointerException.class, () -> builder.withQueryTimeout(null, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> builder.withQueryTimeout(Diagnostics.UNUSED_INDEXES, null));
+        assertThrows(IllegalArgumentException.class, () -> builder.withQueryTimeout(Diagnostics.UNUSED_INDEXES, negative));
+        assertThrows(NullPointerException.class, () -> builder.withQueryExecutionListener(null));
+    }
+}
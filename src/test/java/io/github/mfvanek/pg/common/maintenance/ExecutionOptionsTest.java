@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.common.metrics.InMemoryQueryMetrics;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionListener;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionOptionsTest {
+
+    @Test
+    void defaultsShouldNotHaveTimeouts() {
+        final ExecutionOptions options = ExecutionOptions.defaults();
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            assertEquals(Duration.ZERO, options.getQueryTimeout(diagnostics));
+        }
+    }
+
+    @Test
+    void shouldUseTimeoutForDiagnosticsOrDefaultOne() {
+        final ExecutionOptions options = ExecutionOptions.builder()
+                .withDefaultQueryTimeout(Duration.ofSeconds(30))
+                .withQueryTimeout(Diagnostics.BLOATED_INDEXES, Duration.ofMinutes(2))
+                .withQueryTimeout(Diagnostics.INVALID_INDEXES, Duration.ZERO)
+                .build();
+        assertEquals(Duration.ofMinutes(2), options.getQueryTimeout(Diagnostics.BLOATED_INDEXES));
+        assertEquals(Duration.ZERO, options.getQueryTimeout(Diagnostics.INVALID_INDEXES));
+        assertEquals(Duration.ofSeconds(30), options.getQueryTimeout(Diagnostics.UNUSED_INDEXES));
+    }
+
+    @Test
+    void shouldNotDependOnBuilderAfterBuild() {
+        final ExecutionOptionsBuilder builder = ExecutionOptions.builder()
+                .withQueryTimeout(Diagnostics.BLOATED_TABLES, Duration.ofSeconds(5));
+        final ExecutionOptions options = builder.build();
+        builder.withQueryTimeout(Diagnostics.BLOATED_TABLES, Duration.ofSeconds(10));
+        assertEquals(Duration.ofSeconds(5), options.getQueryTimeout(Diagnostics.BLOATED_TABLES));
+    }
+
+    @Test
+    void shouldUseGivenListener() {
+        final InMemoryQueryMetrics metrics = new InMemoryQueryMetrics();
+        assertSame(QueryExecutionListener.noop(), ExecutionOptions.defaults().getQueryExecutionListener());
+        assertSame(metrics, ExecutionOptions.builder().withQueryExecutionListener(metrics).build().getQueryExecutionListener());
+    }
+
+    @Test
+    void structuredResultsShouldBeDisabledByDefault() {
+        assertFalse(ExecutionOptions.defaults().isStructuredResultsEnabled());
+        assertTrue(ExecutionOptions.builder().withStructuredResults(true).build().isStructuredResultsEnabled());
+    }
+
+    @Test
+    void catalogSnapshotShouldBeDisabledByDefault() {
+        assertFalse(ExecutionOptions.defaults().isCatalogSnapshotEnabled());
+        assertTrue(ExecutionOptions.builder().withCatalogSnapshot(true).build().isCatalogSnapshotEnabled());
+    }
+
+    @Test
+    void rowMappersValidationShouldBeEnabledByDefault() {
+        assertTrue(ExecutionOptions.defaults().isRowMappersValidationEnabled());
+        assertFalse(ExecutionOptions.builder().withRowMappersValidation(false).build().isRowMappersValidationEnabled());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final ExecutionOptions options = ExecutionOptions.defaults();
+        assertThrows(NullPointerException.class, () -> options.getQueryTimeout(null));
+    }
+
+    @Test
+    void testToString() {
+        final ExecutionOptions options = ExecutionOptions.builder()
+                .withDefaultQueryTimeout(Duration.ofSeconds(30))
+                .withQueryTimeout(Diagnostics.BLOATED_INDEXES, Duration.ofMinutes(2))
+                .build();
+        assertEquals("ExecutionOptions{defaultQueryTimeout=PT30S, queryTimeouts={BLOATED_INDEXES=PT2M}, " +
+                "queryExecutionListener=NoopQueryExecutionListener, structuredResultsEnabled=false, catalogSnapshotEnabled=false, " +
+                "rowMappersValidationEnabled=true}", options.toString());
+        assertEquals("ExecutionOptions{defaultQueryTimeout=PT0S, queryTimeouts={}, queryExecutionListener=NoopQueryExecutionListener, " +
+                "structuredResultsEnabled=false, catalogSnapshotEnabled=false, rowMappersValidationEnabled=true}", ExecutionOptions.defaults().toString());
+    }
+}
@@ -10,27 +10,57 @@
 
 package io.github.mfvanek.pg.common.maintenance;
 
+import io.github.mfvanek.pg.common.metrics.InMemoryQueryMetrics;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
+import io.github.mfvanek.pg.common.metrics.QueryStatistics;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgConnectionImpl;
 import io.github.mfvanek.pg.connection.PgHost;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import io.github.mfvanek.pg.index.maintenance.IndexesMaintenanceOnHost;
+import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
+import io.github.mfvanek.pg.model.index.Index;
+import io.github.mfvanek.pg.model.index.IndexWithBloatColumns;
+import io.github.mfvanek.pg.model.table.TableWithBloatColumns;
 import io.github.mfvanek.pg.settings.maintenance.ConfigurationMaintenanceOnHost;
 import io.github.mfvanek.pg.statistics.maintenance.StatisticsMaintenanceOnHost;
 import io.github.mfvanek.pg.table.maintenance.TablesMaintenanceOnHost;
 import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import io.github.mfvanek.pg.utils.MultiSchemaQuery;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
 
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import javax.sql.DataSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 
 class MaintenanceFactoryImplTest extends DatabaseAwareTestBase {
 
@@ -118,6 +148,227 @@ class MaintenanceFactoryImplTest extends DatabaseAwareTestBase {
         checkThatEmpty(maintenanceOnHosts);
     }
 
+    @Test
+    void shouldApplyQueryTimeouts() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet("table_name", "index_name", "table_size", "bloat_size", "bloat_percentage");
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        final MaintenanceFactory factoryWithTimeouts = new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                .withDefaultQueryTimeout(Duration.ofSeconds(5))
+                .withQueryTimeout(Diagnostics.BLOATED_TABLES, Duration.ofMinutes(1))
+                .withRowMappersValidation(false)
+                .build());
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+        factoryWithTimeouts.forIndexes(connectionWithMock).getInvalidIndexes(PgContext.ofPublic());
+        Mockito.verify(statement).setQueryTimeout(5);
+        factoryWithTimeouts.forTables(connectionWithMock).getTablesWithBloat(PgContext.ofPublic());
+        Mockito.verify(statement).setQueryTimeout(60);
+    }
+
+    @Test
+    void shouldReportQueryExecutions() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet("table_name", "index_name");
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false);
+        Mockito.when(resultSet.getString(anyInt())).thenReturn("t", "i", "t", "i");
+        final InMemoryQueryMetrics metrics = new InMemoryQueryMetrics();
+        final MaintenanceFactory factoryWithMetrics = new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                .withQueryExecutionListener(metrics)
+                .withRowMappersValidation(false)
+                .build());
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+        final IndexesMaintenanceOnHost indexesMaintenance = factoryWithMetrics.forIndexes(connectionWithMock);
+        assertThat(indexesMaintenance.getInvalidIndexes(PgContext.ofPublic()), hasSize(2));
+        Mockito.when(statement.executeQuery()).thenThrow(new SQLException("bad query"));
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(RuntimeException.class, () -> indexesMaintenance.getInvalidIndexes(pgContext));
+
+        final QueryStatistics statistics = metrics.getStatistics(Diagnostics.INVALID_INDEXES, connectionWithMock.getHost())
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(2L, statistics.getExecutionsCount());
+        assertEquals(1L, statistics.getFailuresCount());
+        assertEquals(2L, statistics.getRowsCount());
+    }
+
+    @Test
+    void failedListenerShouldNotBreakDiagnostics() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet("table_name", "index_name", "table_size", "bloat_size", "bloat_percentage");
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        final MaintenanceFactory factoryWithMetrics = new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                .withQueryExecutionListener(event -> {
+                    throw new IllegalStateException("listener failed");
+                })
+                .withRowMappersValidation(false)
+                .build());
+        final TablesMaintenanceOnHost tablesMaintenance = factoryWithMetrics.forTables(PgConnectionImpl.ofPrimary(dataSource));
+        assertThat(tablesMaintenance.getTablesWithBloat(PgContext.ofPublic()), empty());
+    }
+
+    @Test
+    void shouldFillBloatColumnsDirectlyFromResultSet() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet("table_name", "index_name", "table_size", "index_size", "bloat_size", "bloat_percentage");
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false, true, false);
+        Mockito.when(resultSet.getString(1)).thenReturn("t1", "t2", "t1");
+        Mockito.when(resultSet.getString(2)).thenReturn("i1");
+        Mockito.when(resultSet.getLong(3)).thenReturn(100L, 200L);
+        Mockito.when(resultSet.getLong(4)).thenReturn(300L);
+        Mockito.when(resultSet.getLong(5)).thenReturn(10L, 20L, 30L);
+        Mockito.when(resultSet.getInt(6)).thenReturn(10, 10, 10);
+        final InMemoryQueryMetrics metrics = new InMemoryQueryMetrics();
+        final MaintenanceFactory factoryWithMetrics = new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                .withQueryExecutionListener(metrics)
+                .withRowMappersValidation(false)
+                .build());
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+
+        final TableWithBloatColumns tables = factoryWithMetrics.forTables(connectionWithMock).getTablesWithBloatAsColumns(PgContext.ofPublic());
+        assertEquals(2, tables.size());
+        assertEquals(Arrays.asList("t1", "t2"), tables.getDistinctTableNames());
+        assertEquals(200L, tables.getTableSizeInBytes(1));
+        assertEquals(20L, tables.getBloatSizeInBytes(1));
+        assertEquals(10, tables.getBloatPercentage(1));
+        final IndexWithBloatColumns indexes = factoryWithMetrics.forIndexes(connectionWithMock).getIndexesWithBloatAsColumns(PgContext.ofPublic());
+        assertEquals(1, indexes.size());
+        assertEquals("i1", indexes.getIndexName(0));
+        assertEquals(300L, indexes.getIndexSizeInBytes(0));
+        assertEquals(30L, indexes.getBloatSizeInBytes(0));
+
+        final QueryStatistics statistics = metrics.getStatistics(Diagnostics.BLOATED_TABLES, connectionWithMock.getHost())
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(1L, statistics.getExecutionsCount());
+        assertEquals(2L, statistics.getRowsCount());
+    }
+
+    @Test
+    void shouldExecuteOneQueryForAllSchemas() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet(MultiSchemaQuery.SCHEMA_NAME_COLUMN, "table_name", "index_name");
+        Mockito.when(resultSet.findColumn(MultiSchemaQuery.SCHEMA_NAME_COLUMN)).thenReturn(1);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(connection.createArrayOf(anyString(), any())).thenReturn(Mockito.mock(Array.class));
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false);
+        Mockito.when(resultSet.getString(anyInt())).thenReturn("second", "t", "i", "first", "t", "i");
+        final List<QueryExecutionEvent> events = new ArrayList<>();
+        final MaintenanceFactory factoryWithMetrics = new MaintenanceFactoryImpl(ExecutionOptions.builder()
+                .withQueryExecutionListener(events::add)
+                .withRowMappersValidation(false)
+                .build());
+        final IndexesMaintenanceOnHost indexesMaintenance = factoryWithMetrics.forIndexes(PgConnectionImpl.ofPrimary(dataSource));
+        final PgContext first = PgContext.of("first");
+        final PgContext second = PgContext.of("second");
+        final Map<PgContext, List<Index>> indexes = indexesMaintenance.getInvalidIndexesBySchema(Arrays.asList(first, second));
+        assertThat(indexes.keySet(), contains(first, second));
+        assertThat(indexes.get(first), hasSize(1));
+        assertThat(indexes.get(second), hasSize(1));
+        Mockito.verify(connection).prepareStatement(anyString());
+        assertThat(events, hasSize(1));
+        assertEquals("first,second", events.get(0).getSchemaName());
+        assertEquals(2, events.get(0).getRowsCount());
+
+        Mockito.when(statement.executeQuery()).thenThrow(new SQLException("bad query"));
+        final List<PgContext> pgContexts = Collections.singletonList(first);
+        final TablesMaintenanceOnHost tablesMaintenance = factoryWithMetrics.forTables(PgConnectionImpl.ofPrimary(dataSource));
+        assertThrows(RuntimeException.class, () -> tablesMaintenance.getTablesWithBloatBySchema(pgContexts));
+        assertThat(events, hasSize(2));
+        assertEquals(Diagnostics.BLOATED_TABLES, events.get(1).getDiagnostics());
+        assertNotNull(events.get(1).getFailure());
+    }
+
+    @Test
+    void shouldValidateRowMappersOnceBeforeFirstQuery() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = mockResultSet("table_name", "index_name", "table_size", "index_size", "index_scans", "bloat_size", "bloat_percentage",
+                "duplicated_indexes", "intersected_indexes", "constraint_name", "columns", "nullable_fields", "seq_scan", "idx_scan");
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getMetaData()).thenReturn(metaData);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        final IndexesMaintenanceOnHost indexesMaintenance = factory.forIndexes(PgConnectionImpl.ofPrimary(dataSource));
+        assertThat(indexesMaintenance.getInvalidIndexes(PgContext.ofPublic()), empty());
+        Mockito.verify(statement, Mockito.atLeast(Diagnostics.values().length)).getMetaData();
+
+        Mockito.clearInvocations(statement);
+        assertThat(indexesMaintenance.getInvalidIndexes(PgContext.ofPublic()), empty());
+        Mockito.verify(statement, Mockito.never()).getMetaData();
+        Mockito.verify(statement).executeQuery();
+    }
+
+    @Test
+    void shouldFailBeforeFirstQueryIfRowMapperDoesNotMatch() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSetMetaData metaData = mockResultSet("table_name").getMetaData();
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getMetaData()).thenReturn(metaData);
+        final TablesMaintenanceOnHost tablesMaintenance = factory.forTables(PgConnectionImpl.ofPrimary(dataSource));
+        final PgContext pgContext = PgContext.ofPublic();
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> tablesMaintenance.getTablesWithoutPrimaryKey(pgContext));
+        assertThat(exception.getMessage(), startsWith("Invalid row mapper for "));
+        Mockito.verify(statement, Mockito.never()).executeQuery();
+    }
+
+    @Test
+    void queriesForMultipleSchemasShouldRejectRowFilters() {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+        final RowFilter rowFilter = RowFilter.of(Collections.singletonList("t1"), 0L);
+        final List<PgContext> withUnusedIndexesFilter = Arrays.asList(PgContext.ofPublic(),
+                PgContext.of("custom").withRowFilter(Diagnostics.UNUSED_INDEXES, rowFilter));
+        final IndexesMaintenanceOnHost indexesMaintenance = factory.forIndexes(connectionWithMock);
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> indexesMaintenance.getUnusedIndexesBySchema(withUnusedIndexesFilter));
+        assertThat(exception.getMessage(), startsWith("Row filter for UNUSED_INDEXES is not supported for multiple schemas: "));
+        final List<PgContext> withBloatedTablesFilter = Collections.singletonList(PgContext.ofPublic().withRowFilter(Diagnostics.BLOATED_TABLES, rowFilter));
+        final TablesMaintenanceOnHost tablesMaintenance = factory.forTables(connectionWithMock);
+        assertThrows(IllegalArgumentException.class, () -> tablesMaintenance.getTablesWithBloatBySchema(withBloatedTablesFilter));
+        Mockito.verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void shouldReturnGivenExecutionOptions() {
+        final ExecutionOptions executionOptions = ExecutionOptions.builder()
+                .withCatalogSnapshot(true)
+                .build();
+        assertSame(executionOptions, new MaintenanceFactoryImpl(executionOptions).getExecutionOptions());
+        assertNotNull(factory.getExecutionOptions());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new MaintenanceFactoryImpl(null));
+    }
+
     private <T> void checkThatContainsOneItem(Map<PgHost, T> maintenanceOnHosts) {
         assertNotNull(maintenanceOnHosts);
         assertEquals(1, maintenanceOnHosts.size());
@@ -128,4 +379,13 @@ class MaintenanceFactoryImplTest extends DatabaseAwareTestBase {
         assertNotNull(maintenanceOnHosts);
         assertTrue(maintenanceOnHosts.isEmpty());
     }
+
+    private static ResultSet mockResultSet(final String... columns) throws SQLException {
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columns.length);
+        Mockito.when(metaData.getColumnLabel(anyInt())).thenAnswer(invocation -> columns[invocation.<Integer>getArgument(0) - 1]);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getMetaData()).thenReturn(metaData);
+        return resultSet;
+    }
 }
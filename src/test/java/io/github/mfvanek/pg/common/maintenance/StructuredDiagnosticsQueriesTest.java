@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.maintenance;
+
+import io.github.mfvanek.pg.utils.MultiSchemaQuery;
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructuredDiagnosticsQueriesTest {
+
+    private final Set<Diagnostics> structured = EnumSet.of(
+            Diagnostics.DUPLICATED_INDEXES, Diagnostics.FOREIGN_KEYS_WITHOUT_INDEX, Diagnostics.INTERSECTED_INDEXES);
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(StructuredDiagnosticsQueries.class));
+    }
+
+    @Test
+    void shouldContainQueriesOnlyForDiagnosticsWithLists() {
+        for (Diagnostics diagnostics : Diagnostics.values()) {
+            assertEquals(structured.contains(diagnostics), StructuredDiagnosticsQueries.find(diagnostics).isPresent(), diagnostics.name());
+        }
+        assertEquals(StructuredDiagnosticsQueries.DUPLICATED_INDEXES, StructuredDiagnosticsQueries.find(Diagnostics.DUPLICATED_INDEXES).orElse(null));
+    }
+
+    @Test
+    void queriesShouldHaveOnlySchemaNameParameter() {
+        for (Diagnostics diagnostics : structured) {
+            final String sqlQuery = StructuredDiagnosticsQueries.find(diagnostics).orElseThrow(IllegalStateException::new);
+            assertEquals(1, sqlQuery.chars().filter(c -> c == '?').count(), diagnostics.name());
+            final String rewritten = MultiSchemaQuery.withSchemas(sqlQuery);
+            assertThat(rewritten, containsString("= s.schema_name::text"));
+            assertFalse(rewritten.contains("= ?::text"));
+            assertTrue(sqlQuery.contains("table_name"));
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> StructuredDiagnosticsQueries.find(null));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutExecutorsTest {
+
+    /**
+     * Set by the build when tests are run on JDK 21 against the multi-release jar.
+     */
+    private static final boolean EXPECT_VIRTUAL_THREADS = Boolean.getBoolean("pg-index-health.expectVirtualThreads");
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(FanOutExecutors.class));
+    }
+
+    @Test
+    void shouldUseDaemonThreads() throws Exception {
+        assertEquals(EXPECT_VIRTUAL_THREADS, FanOutExecutors.usesVirtualThreads());
+        final ExecutorService executorService = FanOutExecutors.newFanOutExecutor(2);
+        try {
+            final Future<Thread> future = executorService.submit(Thread::currentThread);
+            final Thread thread = future.get();
+            assertTrue(thread.isDaemon());
+            assertThat(thread.getName(), startsWith("pg-index-health-fan-out-"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void boundedExecutorShouldLimitConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Callable<Thread> task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20L);
+            running.decrementAndGet();
+            return Thread.currentThread();
+        };
+        final ExecutorService executorService = FanOutExecutors.newBoundedFanOutExecutor(2);
+        try {
+            final List<Future<Thread>> futures = executorService.invokeAll(Collections.nCopies(6, task));
+            for (Future<Thread> future : futures) {
+                final Thread thread = future.get();
+                assertTrue(thread.isDaemon());
+                assertThat(thread.getName(), startsWith("pg-index-health-fan-out-"));
+            }
+            assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void withInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> FanOutExecutors.newFanOutExecutor(0));
+        assertThrows(IllegalArgumentException.class, () -> FanOutExecutors.newFanOutExecutor(-1));
+        assertThrows(IllegalArgumentException.class, () -> FanOutExecutors.newBoundedFanOutExecutor(0));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.metrics.QueryExecutionEvent;
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.HostLoad;
+import io.github.mfvanek.pg.connection.HostLoadDeterminer;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.OptionalDouble;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadAwareHostSelectorTest {
+
+    private static final Instant NOW = Instant.parse("2022-03-01T10:15:30Z");
+
+    private final PgConnection primary = connectionTo("primary");
+    private final PgConnection firstReplica = connectionTo("replica-1");
+    private final PgConnection secondReplica = connectionTo("replica-2");
+    private final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+    private final HostLoadDeterminer hostLoadDeterminer = Mockito.mock(HostLoadDeterminer.class);
+    private final Clock clock = Mockito.mock(Clock.class);
+    private LoadAwareHostSelector selector;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(haPgConnection.getConnectionToPrimary()).thenReturn(primary);
+        Mockito.when(haPgConnection.getConnectionsToAllHostsInCluster())
+                .thenReturn(new HashSet<>(Arrays.asList(primary, firstReplica, secondReplica)));
+        Mockito.when(clock.instant()).thenReturn(NOW);
+        selector = new LoadAwareHostSelector(hostLoadDeterminer, Duration.ofSeconds(5L), Duration.ofSeconds(10L), clock);
+    }
+
+    @Test
+    void shouldSelectLeastLoadedReplica() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(firstReplica)).thenReturn(HostLoad.of(5, Duration.ZERO));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(2, Duration.ofMillis(1_500L)));
+        assertEquals(secondReplica.getHost(), selector.selectHost(haPgConnection));
+        assertEquals(OptionalDouble.of(5.0), selector.getLoadScore(firstReplica.getHost()));
+        assertEquals(OptionalDouble.of(3.5), selector.getLoadScore(secondReplica.getHost()));
+    }
+
+    @Test
+    void shouldSkipReplicasLaggingMoreThanLimit() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(firstReplica)).thenReturn(HostLoad.of(5, Duration.ofSeconds(5L)));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(0, Duration.ofMillis(5_001L)));
+        assertEquals(firstReplica.getHost(), selector.selectHost(haPgConnection));
+        assertEquals(OptionalDouble.of(5.001), selector.getLoadScore(secondReplica.getHost()));
+    }
+
+    @Test
+    void shouldSelectPrimaryWhenItIsLessLoadedThanReplicas() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(primary)).thenReturn(HostLoad.of(2, Duration.ZERO));
+        Mockito.when(hostLoadDeterminer.getHostLoad(firstReplica)).thenReturn(HostLoad.of(3, Duration.ZERO));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(2, Duration.ofSeconds(1L)));
+        assertEquals(primary.getHost(), selector.selectHost(haPgConnection));
+
+        // Replica wins when its load is the same as the load of the primary
+        Mockito.when(clock.instant()).thenReturn(NOW.plusSeconds(10L));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(2, Duration.ZERO));
+        assertEquals(secondReplica.getHost(), selector.selectHost(haPgConnection));
+    }
+
+    @Test
+    void shouldNotQueryPrimaryWhenThereIsNoEligibleReplica() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(Mockito.any())).thenReturn(HostLoad.of(0, Duration.ofMinutes(1L)));
+        assertEquals(primary.getHost(), selector.selectHost(haPgConnection));
+        Mockito.verify(hostLoadDeterminer, Mockito.never()).getHostLoad(primary);
+    }
+
+    @Test
+    void observedLatencyShouldAffectLoadScore() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(Mockito.any())).thenReturn(HostLoad.of(1, Duration.ZERO));
+        assertEquals(firstReplica.getHost(), selector.selectHost(haPgConnection));
+
+        selector.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.BLOATED_INDEXES, firstReplica.getHost(), "public", Duration.ofMillis(500L), 0));
+        assertEquals(OptionalDouble.of(6.0), selector.getLoadScore(firstReplica.getHost()));
+        selector.onQueryExecuted(QueryExecutionEvent.failed(Diagnostics.BLOATED_INDEXES, firstReplica.getHost(), "public", Duration.ZERO,
+                new IllegalStateException("canceled")));
+        assertEquals(OptionalDouble.of(5.0), selector.getLoadScore(firstReplica.getHost()));
+        assertEquals(secondReplica.getHost(), selector.selectHost(haPgConnection));
+    }
+
+    @Test
+    void hostLoadShouldBeCachedUntilRefreshInterval() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(firstReplica)).thenReturn(HostLoad.of(1, Duration.ZERO), HostLoad.of(10, Duration.ZERO));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(3, Duration.ZERO));
+        assertEquals(firstReplica.getHost(), selector.selectHost(haPgConnection));
+
+        Mockito.when(clock.instant()).thenReturn(NOW.plusSeconds(9L));
+        assertEquals(firstReplica.getHost(), selector.selectHost(haPgConnection));
+        Mockito.verify(hostLoadDeterminer, Mockito.times(1)).getHostLoad(firstReplica);
+
+        Mockito.when(clock.instant()).thenReturn(NOW.plusSeconds(10L));
+        assertEquals(secondReplica.getHost(), selector.selectHost(haPgConnection));
+        Mockito.verify(hostLoadDeterminer, Mockito.times(2)).getHostLoad(firstReplica);
+    }
+
+    @Test
+    void shouldSelectReplicaByNameWhenLoadsAreEqual() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(Mockito.any())).thenReturn(HostLoad.of(0, Duration.ZERO));
+        assertEquals(firstReplica.getHost(), selector.selectHost(haPgConnection));
+    }
+
+    @Test
+    void shouldSkipUnreachableReplicasAndFallBackToPrimary() {
+        Mockito.when(hostLoadDeterminer.getHostLoad(firstReplica)).thenThrow(new IllegalStateException("connection refused"));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenReturn(HostLoad.of(100, Duration.ofSeconds(1L)));
+        assertEquals(secondReplica.getHost(), selector.selectHost(haPgConnection));
+        assertFalse(selector.getLoadScore(firstReplica.getHost()).isPresent());
+
+        Mockito.when(clock.instant()).thenReturn(NOW.plusSeconds(60L));
+        Mockito.when(hostLoadDeterminer.getHostLoad(secondReplica)).thenThrow(new IllegalStateException("connection refused"));
+        assertEquals(primary.getHost(), selector.selectHost(haPgConnection));
+        assertFalse(selector.getLoadScore(primary.getHost()).isPresent());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final Duration interval = Duration.ofSeconds(1L);
+        assertThrows(NullPointerException.class, () -> new LoadAwareHostSelector(null, null, null));
+        assertThrows(NullPointerException.class, () -> new LoadAwareHostSelector(hostLoadDeterminer, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new LoadAwareHostSelector(hostLoadDeterminer, Duration.ZERO, null));
+        assertThrows(NullPointerException.class, () -> new LoadAwareHostSelector(hostLoadDeterminer, interval, null));
+        assertThrows(IllegalArgumentException.class, () -> new LoadAwareHostSelector(hostLoadDeterminer, interval, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> new LoadAwareHostSelector(hostLoadDeterminer, interval, interval, null));
+        assertThrows(NullPointerException.class, () -> selector.selectHost(null));
+        assertThrows(NullPointerException.class, () -> selector.onQueryExecuted(null));
+        assertThrows(NullPointerException.class, () -> selector.getLoadScore(null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("LoadAwareHostSelector{maxReplicationLag=PT10S, refreshInterval=PT1M}",
+                new LoadAwareHostSelector(hostLoadDeterminer, Duration.ofSeconds(10L), Duration.ofMinutes(1L)).toString());
+    }
+
+    @Nonnull
+    private static PgConnection connectionTo(@Nonnull final String hostName) {
+        return PgConnectionImpl.of(Mockito.mock(DataSource.class), PgHostImpl.ofName(hostName));
+    }
+}
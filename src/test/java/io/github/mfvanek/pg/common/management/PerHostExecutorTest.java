@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.connection.HostAware;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerHostExecutorTest {
+
+    private final List<HostAware> targets = Arrays.asList(target("host-1"), target("host-2"), target("host-3"));
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void sequentialShouldPreserveOrder() {
+        final PerHostExecutor executor = PerHostExecutor.sequential();
+        assertFalse(executor.isParallel());
+        assertSame(executor, PerHostExecutor.sequential());
+        final List<String> result = executor.executeOnEachHost(targets, t -> t.getHost().getName());
+        assertThat(result, contains("host-1", "host-2", "host-3"));
+    }
+
+    @Test
+    void parallelShouldPreserveOrder() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        assertTrue(executor.isParallel());
+        final List<String> result = executor.executeOnEachHost(targets, t -> {
+            if ("host-1".equals(t.getHost().getName())) {
+                sleep(100L);
+            }
+            return t.getHost().getName();
+        });
+        assertThat(result, contains("host-1", "host-2", "host-3"));
+    }
+
+    @Test
+    void parallelShouldRunConcurrently() {
+        final CountDownLatch latch = new CountDownLatch(targets.size());
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        final List<Boolean> result = executor.executeOnEachHost(targets, t -> {
+            latch.countDown();
+            try {
+                return latch.await(5L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(result, contains(true, true, true));
+    }
+
+    @Test
+    void emptyTargets() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(1));
+        final List<String> result = executor.executeOnEachHost(Collections.<HostAware>emptyList(), t -> t.getHost().getName());
+        assertThat(result, empty());
+    }
+
+    @Test
+    void parallelShouldFailOnTimeout() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofMillis(50L));
+        final Function<HostAware, String> action = t -> {
+            if ("host-2".equals(t.getHost().getName())) {
+                sleep(5_000L);
+            }
+            return t.getHost().getName();
+        };
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.executeOnEachHost(targets, action));
+        assertEquals("Execution on host host-2 timed out after 50 ms", exception.getMessage());
+    }
+
+    @Test
+    void parallelShouldUseSingleDeadlineForAllHosts() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(1L));
+        final Function<HostAware, String> action = t -> {
+            sleep("host-1".equals(t.getHost().getName()) ? 900L : 10_000L);
+            return t.getHost().getName();
+        };
+        final long startNanos = System.nanoTime();
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.executeOnEachHost(targets, action));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        assertEquals("Execution on host host-2 timed out after 1000 ms", exception.getMessage());
+        // With a separate timeout for each host it would take about 1900 ms
+        assertThat(elapsedMillis, lessThan(1_500L));
+    }
+
+    @Test
+    void parallelShouldRethrowRuntimeExceptionAsIs() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        final Function<HostAware, String> action = t -> {
+            throw new IllegalStateException("failed on " + t.getHost().getName());
+        };
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> executor.executeOnEachHost(targets, action));
+        assertEquals("failed on host-1", exception.getMessage());
+    }
+
+    @Test
+    void parallelShouldWrapCheckedException() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        final Function<HostAware, String> action = t -> {
+            throw sneakyThrow(new IOException("io"));
+        };
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.executeOnEachHost(targets, action));
+        assertThat(exception.getCause(), instanceOf(IOException.class));
+    }
+
+    @Test
+    void parallelShouldWrapError() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        final Function<HostAware, String> action = t -> {
+            throw new AssertionError("error");
+        };
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.executeOnEachHost(targets, action));
+        assertThat(exception.getCause(), instanceOf(AssertionError.class));
+    }
+
+    @Test
+    void parallelShouldRestoreInterruptedFlag() {
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(5));
+        Thread.currentThread().interrupt();
+        try {
+            final RuntimeException exception = assertThrows(RuntimeException.class,
+                    () -> executor.executeOnEachHost(targets, t -> {
+                        sleep(1_000L);
+                        return t.getHost().getName();
+                    }));
+            assertThat(exception.getCause(), instanceOf(InterruptedException.class));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> PerHostExecutor.parallel(null, null));
+        assertThrows(NullPointerException.class, () -> PerHostExecutor.parallel(executorService, null));
+        assertThrows(IllegalArgumentException.class, () -> PerHostExecutor.parallel(executorService, Duration.ZERO));
+        final PerHostExecutor executor = PerHostExecutor.sequential();
+        assertThrows(NullPointerException.class, () -> executor.executeOnEachHost(null, null));
+        assertThrows(NullPointerException.class, () -> executor.executeOnEachHost(targets, null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("PerHostExecutor{parallel=false, timeout=PT0S}", PerHostExecutor.sequential().toString());
+        final PerHostExecutor executor = PerHostExecutor.parallel(executorService, Duration.ofSeconds(2));
+        assertNotNull(executor);
+        assertEquals("PerHostExecutor{parallel=true, timeout=PT2S}", executor.toString());
+    }
+
+    @Nonnull
+    private static HostAware target(@Nonnull final String hostName) {
+        final PgHost host = PgHostImpl.ofName(hostName);
+        return () -> host;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(final Throwable throwable) throws E {
+        throw (E) throwable;
+    }
+}
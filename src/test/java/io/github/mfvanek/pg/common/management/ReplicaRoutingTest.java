@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.management;
+
+import io.github.mfvanek.pg.connection.HighAvailabilityPgConnection;
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.github.mfvanek.pg.connection.ReplicationLagDeterminer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRoutingTest {
+
+    private final PgConnection primary = connectionTo("primary");
+    private final PgConnection firstReplica = connectionTo("replica-1");
+    private final PgConnection secondReplica = connectionTo("replica-2");
+    private final PgConnection thirdReplica = connectionTo("replica-3");
+    private final HighAvailabilityPgConnection haPgConnection = Mockito.mock(HighAvailabilityPgConnection.class);
+    private final ReplicationLagDeterminer replicationLagDeterminer = Mockito.mock(ReplicationLagDeterminer.class);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(haPgConnection.getConnectionToPrimary()).thenReturn(primary);
+        Mockito.when(haPgConnection.getConnectionsToAllHostsInCluster())
+                .thenReturn(new HashSet<>(Arrays.asList(primary, firstReplica, secondReplica, thirdReplica)));
+    }
+
+    @Test
+    void primaryOnlyShouldNotQueryReplicas() {
+        final ReplicaRouting routing = ReplicaRouting.primaryOnly();
+        assertSame(routing, ReplicaRouting.primaryOnly());
+        assertFalse(routing.isReplicaPreferred());
+        assertEquals(primary.getHost(), routing.selectHost(haPgConnection));
+        Mockito.verify(haPgConnection, Mockito.never()).getConnectionsToAllHostsInCluster();
+    }
+
+    @Test
+    void shouldSelectLeastLaggedReplica() {
+        Mockito.when(replicationLagDeterminer.getReplicationLag(firstReplica)).thenReturn(Duration.ofMillis(300L));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(secondReplica)).thenReturn(Duration.ofMillis(100L));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(thirdReplica)).thenReturn(Duration.ofMillis(200L));
+        final ReplicaRouting routing = ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(1L));
+        assertTrue(routing.isReplicaPreferred());
+        assertEquals(secondReplica.getHost(), routing.selectHost(haPgConnection));
+        Mockito.verify(replicationLagDeterminer, Mockito.never()).getReplicationLag(primary);
+    }
+
+    @Test
+    void shouldSelectReplicaByNameWhenLagsAreEqual() {
+        Mockito.when(replicationLagDeterminer.getReplicationLag(Mockito.any())).thenReturn(Duration.ZERO);
+        final ReplicaRouting routing = ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(1L));
+        assertEquals(firstReplica.getHost(), routing.selectHost(haPgConnection));
+    }
+
+    @Test
+    void shouldSkipUnavailableAndLaggedReplicas() {
+        Mockito.when(replicationLagDeterminer.getReplicationLag(firstReplica)).thenThrow(new IllegalStateException("connection refused"));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(secondReplica)).thenReturn(Duration.ofSeconds(5L));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(thirdReplica)).thenReturn(Duration.ofMillis(900L));
+        final ReplicaRouting routing = ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(1L));
+        assertEquals(thirdReplica.getHost(), routing.selectHost(haPgConnection));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsEligible() {
+        Mockito.when(replicationLagDeterminer.getReplicationLag(Mockito.any())).thenReturn(Duration.ofSeconds(5L));
+        final ReplicaRouting routing = ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(1L));
+        assertEquals(primary.getHost(), routing.selectHost(haPgConnection));
+    }
+
+    @Test
+    void shouldCacheReplicationLagDuringRefreshInterval() {
+        final Instant now = Instant.parse("2022-02-01T10:00:00Z");
+        final Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.instant()).thenReturn(now);
+        Mockito.when(replicationLagDeterminer.getReplicationLag(firstReplica)).thenThrow(new IllegalStateException("connection refused"));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(secondReplica)).thenReturn(Duration.ofMillis(100L));
+        Mockito.when(replicationLagDeterminer.getReplicationLag(thirdReplica)).thenReturn(Duration.ofMillis(200L));
+        final ReplicaRouting routing = new ReplicaRouting(replicationLagDeterminer, Duration.ofSeconds(1L), Duration.ofSeconds(10L), clock);
+        assertEquals(secondReplica.getHost(), routing.selectHost(haPgConnection));
+
+        Mockito.when(replicationLagDeterminer.getReplicationLag(secondReplica)).thenReturn(Duration.ofMillis(300L));
+        Mockito.when(clock.instant()).thenReturn(now.plusSeconds(9L));
+        assertEquals(secondReplica.getHost(), routing.selectHost(haPgConnection));
+        Mockito.verify(replicationLagDeterminer, Mockito.times(3)).getReplicationLag(Mockito.any());
+
+        Mockito.when(clock.instant()).thenReturn(now.plusSeconds(10L));
+        assertEquals(thirdReplica.getHost(), routing.selectHost(haPgConnection));
+        Mockito.verify(replicationLagDeterminer, Mockito.times(6)).getReplicationLag(Mockito.any());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> ReplicaRouting.leastLaggedReplica(null, null));
+        assertThrows(NullPointerException.class, () -> ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, null));
+        assertThrows(IllegalArgumentException.class, () -> ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ZERO));
+        final Duration maxReplicationLag = Duration.ofSeconds(1L);
+        assertThrows(NullPointerException.class, () -> ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, maxReplicationLag, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, maxReplicationLag, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> ReplicaRouting.primaryOnly().selectHost(null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("ReplicaRouting{replicaPreferred=false, maxReplicationLag=PT0S, refreshInterval=PT0S}", ReplicaRouting.primaryOnly().toString());
+        assertEquals("ReplicaRouting{replicaPreferred=true, maxReplicationLag=PT10S, refreshInterval=PT1S}",
+                ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(10L)).toString());
+        assertEquals("ReplicaRouting{replicaPreferred=true, maxReplicationLag=PT10S, refreshInterval=PT30S}",
+                ReplicaRouting.leastLaggedReplica(replicationLagDeterminer, Duration.ofSeconds(10L), Duration.ofSeconds(30L)).toString());
+    }
+
+    @Nonnull
+    private static PgConnection connectionTo(@Nonnull final String hostName) {
+        return PgConnectionImpl.of(Mockito.mock(DataSource.class), PgHostImpl.ofName(hostName));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryQueryMetricsTest {
+
+    private final PgHost firstHost = PgHostImpl.ofName("host-1");
+    private final PgHost secondHost = PgHostImpl.ofName("host-2");
+    private final InMemoryQueryMetrics metrics = new InMemoryQueryMetrics();
+
+    @Test
+    void shouldAccumulateStatisticsPerDiagnosticAndHost() {
+        metrics.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, firstHost, "public", Duration.ofMillis(10L), 5));
+        metrics.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, firstHost, "custom", Duration.ofMillis(30L), 2));
+        metrics.onQueryExecuted(QueryExecutionEvent.failed(Diagnostics.UNUSED_INDEXES, firstHost, "public", Duration.ofMillis(20L),
+                new IllegalStateException("failed")));
+        metrics.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, secondHost, "public", Duration.ofMillis(1L), 1));
+
+        final Optional<QueryStatistics> first = metrics.getStatistics(Diagnostics.UNUSED_INDEXES, firstHost);
+        assertTrue(first.isPresent());
+        assertEquals(3L, first.get().getExecutionsCount());
+        assertEquals(1L, first.get().getFailuresCount());
+        assertEquals(7L, first.get().getRowsCount());
+        assertEquals(Duration.ofMillis(60L), first.get().getTotalLatency());
+        assertEquals(Duration.ofMillis(30L), first.get().getMaxLatency());
+        assertEquals(Duration.ofMillis(10L), first.get().getLatencyPercentile(30.0));
+        assertEquals(Duration.ofMillis(20L), first.get().getLatencyPercentile(50.0));
+        assertEquals(Duration.ofMillis(30L), first.get().getLatencyPercentile(100.0));
+
+        final Optional<QueryStatistics> second = metrics.getStatistics(Diagnostics.UNUSED_INDEXES, secondHost);
+        assertTrue(second.isPresent());
+        assertEquals(1L, second.get().getExecutionsCount());
+
+        assertFalse(metrics.getStatistics(Diagnostics.BLOATED_INDEXES, firstHost).isPresent());
+        assertFalse(metrics.getStatistics(Diagnostics.UNUSED_INDEXES, PgHostImpl.ofName("host-3")).isPresent());
+    }
+
+    @Test
+    void shouldBeThreadSafe() throws InterruptedException {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 1_000; ++i) {
+                executorService.execute(() -> metrics.onQueryExecuted(
+                        QueryExecutionEvent.succeeded(Diagnostics.BLOATED_TABLES, firstHost, "public", Duration.ofMillis(1L), 1)));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertTrue(executorService.awaitTermination(10L, TimeUnit.SECONDS));
+        final QueryStatistics statistics = metrics.getStatistics(Diagnostics.BLOATED_TABLES, firstHost).orElseThrow(IllegalStateException::new);
+        assertEquals(1_000L, statistics.getExecutionsCount());
+        assertEquals(1_000L, statistics.getRowsCount());
+    }
+
+    @Test
+    void reset() {
+        metrics.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.INVALID_INDEXES, firstHost, "public", Duration.ZERO, 0));
+        assertTrue(metrics.getStatistics(Diagnostics.INVALID_INDEXES, firstHost).isPresent());
+        metrics.reset();
+        assertFalse(metrics.getStatistics(Diagnostics.INVALID_INDEXES, firstHost).isPresent());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> metrics.onQueryExecuted(null));
+        assertThrows(NullPointerException.class, () -> metrics.getStatistics(null, firstHost));
+        assertThrows(NullPointerException.class, () -> metrics.getStatistics(Diagnostics.INVALID_INDEXES, null));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicrometerQueryExecutionListenerTest {
+
+    private final PgHost host = PgHostImpl.ofName("host-1");
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryExecutionListener listener = new MicrometerQueryExecutionListener(meterRegistry);
+
+    @Test
+    void shouldRecordSuccessfulExecutions() {
+        listener.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "public", Duration.ofMillis(15L), 4));
+        listener.onQueryExecuted(QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "public", Duration.ofMillis(25L), 6));
+        final Timer timer = meterRegistry.find(MicrometerQueryExecutionListener.QUERY_METRIC_NAME)
+                .tags("diagnostic", "unused_indexes", "host", "host-1", "schema", "public", "outcome", "success", "exception", "none")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(2L, timer.count());
+        assertEquals(40.0, timer.totalTime(TimeUnit.MILLISECONDS));
+        final DistributionSummary rows = meterRegistry.find(MicrometerQueryExecutionListener.ROWS_METRIC_NAME)
+                .tags("diagnostic", "unused_indexes", "outcome", "success")
+                .summary();
+        assertNotNull(rows);
+        assertEquals(10.0, rows.totalAmount());
+    }
+
+    @Test
+    void shouldRecordFailures() {
+        listener.onQueryExecuted(QueryExecutionEvent.failed(Diagnostics.BLOATED_TABLES, host, "custom", Duration.ofSeconds(2L),
+                new IllegalStateException("failed")));
+        final Timer timer = meterRegistry.find(MicrometerQueryExecutionListener.QUERY_METRIC_NAME)
+                .tags("diagnostic", "bloated_tables", "schema", "custom", "outcome", "failure", "exception", "IllegalStateException")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1L, timer.count());
+        assertNull(meterRegistry.find(MicrometerQueryExecutionListener.ROWS_METRIC_NAME).summary());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new MicrometerQueryExecutionListener(null));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHost;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryExecutionEventTest {
+
+    private final PgHost host = PgHostImpl.ofName("host-1");
+
+    @Test
+    void succeeded() {
+        final QueryExecutionEvent event = QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "public", Duration.ofMillis(12L), 3);
+        assertEquals(Diagnostics.UNUSED_INDEXES, event.getDiagnostics());
+        assertSame(host, event.getHost());
+        assertEquals("public", event.getSchemaName());
+        assertEquals(Duration.ofMillis(12L), event.getLatency());
+        assertEquals(3, event.getRowsCount());
+        assertTrue(event.isSuccessful());
+        assertNull(event.getFailure());
+        assertEquals("QueryExecutionEvent{diagnostics=UNUSED_INDEXES, host=host-1, schemaName='public', latency=PT0.012S, rowsCount=3, failure=null}",
+                event.toString());
+    }
+
+    @Test
+    void failed() {
+        final IllegalStateException failure = new IllegalStateException("failed");
+        final QueryExecutionEvent event = QueryExecutionEvent.failed(Diagnostics.BLOATED_TABLES, host, "custom", Duration.ofSeconds(1L), failure);
+        assertFalse(event.isSuccessful());
+        assertSame(failure, event.getFailure());
+        assertEquals(0, event.getRowsCount());
+        assertEquals("QueryExecutionEvent{diagnostics=BLOATED_TABLES, host=host-1, schemaName='custom', latency=PT1S, rowsCount=0, " +
+                "failure=java.lang.IllegalStateException: failed}", event.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final Duration latency = Duration.ZERO;
+        assertThrows(NullPointerException.class, () -> QueryExecutionEvent.succeeded(null, host, "public", latency, 0));
+        assertThrows(NullPointerException.class, () -> QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, null, "public", latency, 0));
+        assertThrows(IllegalArgumentException.class, () -> QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "", latency, 0));
+        assertThrows(NullPointerException.class, () -> QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "public", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> QueryExecutionEvent.succeeded(Diagnostics.UNUSED_INDEXES, host, "public", latency, -1));
+        assertThrows(NullPointerException.class, () -> QueryExecutionEvent.failed(Diagnostics.UNUSED_INDEXES, host, "public", latency, null));
+    }
+}
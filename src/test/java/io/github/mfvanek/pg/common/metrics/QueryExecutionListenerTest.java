@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.connection.PgHostImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QueryExecutionListenerTest {
+
+    @Test
+    void noopShouldDoNothing() {
+        final QueryExecutionListener listener = QueryExecutionListener.noop();
+        assertSame(listener, QueryExecutionListener.noop());
+        final QueryExecutionEvent event = QueryExecutionEvent.succeeded(Diagnostics.INVALID_INDEXES, PgHostImpl.ofName("host"), "public", Duration.ZERO, 0);
+        assertDoesNotThrow(() -> listener.onQueryExecuted(event));
+        assertEquals("NoopQueryExecutionListener", listener.toString());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.common.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryStatisticsTest {
+
+    @Test
+    void emptyStatistics() {
+        final QueryStatistics statistics = new QueryStatistics(0L, 0L, 0L, Duration.ZERO, Duration.ZERO,
+                new long[QueryStatistics.BUCKET_BOUNDS_MILLIS.length + 1]);
+        assertEquals(Duration.ZERO, statistics.getMeanLatency());
+        assertEquals(Duration.ZERO, statistics.getLatencyPercentile(99.0));
+        assertEquals("QueryStatistics{executionsCount=0, failuresCount=0, rowsCount=0, totalLatency=PT0S, maxLatency=PT0S}", statistics.toString());
+    }
+
+    @Test
+    void percentilesShouldBeBoundedByHistogramAndMaxLatency() {
+        final long[] buckets = new long[QueryStatistics.BUCKET_BOUNDS_MILLIS.length + 1];
+        buckets[QueryStatistics.bucketIndex(Duration.ofMillis(3L))] = 90L;
+        buckets[QueryStatistics.bucketIndex(Duration.ofMillis(70L))] = 9L;
+        buckets[QueryStatistics.bucketIndex(Duration.ofMinutes(10L))] = 1L;
+        final QueryStatistics statistics = new QueryStatistics(100L, 1L, 1_000L, Duration.ofMinutes(11L), Duration.ofMinutes(10L), buckets);
+        assertEquals(100L, statistics.getExecutionsCount());
+        assertEquals(1L, statistics.getFailuresCount());
+        assertEquals(1_000L, statistics.getRowsCount());
+        assertEquals(Duration.ofMinutes(11L), statistics.getTotalLatency());
+        assertEquals(Duration.ofMinutes(10L), statistics.getMaxLatency());
+        assertEquals(Duration.ofMillis(6_600L), statistics.getMeanLatency());
+        assertEquals(Duration.ofMillis(5L), statistics.getLatencyPercentile(50.0));
+        assertEquals(Duration.ofMillis(5L), statistics.getLatencyPercentile(90.0));
+        assertEquals(Duration.ofMillis(100L), statistics.getLatencyPercentile(99.0));
+        assertEquals(Duration.ofMinutes(10L), statistics.getLatencyPercentile(100.0));
+    }
+
+    @Test
+    void percentileShouldNotExceedMaxLatency() {
+        final long[] buckets = new long[QueryStatistics.BUCKET_BOUNDS_MILLIS.length + 1];
+        buckets[QueryStatistics.bucketIndex(Duration.ofMillis(60L))] = 1L;
+        final QueryStatistics statistics = new QueryStatistics(1L, 0L, 1L, Duration.ofMillis(60L), Duration.ofMillis(60L), buckets);
+        assertEquals(Duration.ofMillis(60L), statistics.getLatencyPercentile(50.0));
+    }
+
+    @Test
+    void bucketIndex() {
+        assertEquals(0, QueryStatistics.bucketIndex(Duration.ZERO));
+        assertEquals(0, QueryStatistics.bucketIndex(Duration.ofMillis(1L)));
+        assertEquals(1, QueryStatistics.bucketIndex(Duration.ofMillis(2L)));
+        assertEquals(QueryStatistics.BUCKET_BOUNDS_MILLIS.length, QueryStatistics.bucketIndex(Duration.ofHours(1L)));
+    }
+
+    @Test
+    void withInvalidPercentile() {
+        final QueryStatistics statistics = new QueryStatistics(0L, 0L, 0L, Duration.ZERO, Duration.ZERO, new long[1]);
+        assertThrows(IllegalArgumentException.class, () -> statistics.getLatencyPercentile(0.0));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> statistics.getLatencyPercentile(100.1));
+        assertEquals("percentile should be in range (0, 100]", exception.getMessage());
+    }
+}
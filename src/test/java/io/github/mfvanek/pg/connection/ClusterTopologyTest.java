@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+class ClusterTopologyTest {
+
+    private final PgConnection primary = connectionTo("jdbc:postgresql://host-2:5432/postgres?ssl=true");
+    private final PgConnection replica = connectionTo("jdbc:postgresql://host-1:5432/postgres?ssl=true");
+    private final ClusterTopology topology = ClusterTopology.of(HighAvailabilityPgConnectionImpl.of(primary, Arrays.asList(primary, replica)));
+    private final ConnectionCredentials credentials = ConnectionCredentials.ofUrl("jdbc:postgresql://host-1:5432/postgres", "user", "pswd");
+
+    @Test
+    void shouldCaptureHosts() {
+        assertEquals(primary.getHost(), topology.getPrimaryHost());
+        assertThat(topology.getHosts(), contains(replica.getHost(), primary.getHost()));
+        assertThrows(UnsupportedOperationException.class, () -> topology.getHosts().clear());
+        assertEquals("ClusterTopology{primaryHost=host-2, hosts=[host-1, host-2]}", topology.toString());
+    }
+
+    @Test
+    void connectToShouldOpenConnectionsToGivenDatabase() {
+        final PgConnectionFactory pgConnectionFactory = Mockito.mock(PgConnectionFactory.class);
+        Mockito.when(pgConnectionFactory.forUrl(anyString(), eq("user"), eq("pswd")))
+                .thenAnswer(invocation -> connectionTo(invocation.getArgument(0)));
+        try (HighAvailabilityPgConnection haPgConnection = topology.connectTo("orders", credentials, pgConnectionFactory)) {
+            assertEquals("jdbc:postgresql://host-2:5432/orders?ssl=true", haPgConnection.getConnectionToPrimary().getHost().getPgUrl());
+            final Set<String> urls = haPgConnection.getConnectionsToAllHostsInCluster().stream()
+                    .map(c -> c.getHost().getPgUrl())
+                    .collect(Collectors.toSet());
+            assertThat(urls, containsInAnyOrder("jdbc:postgresql://host-1:5432/orders?ssl=true", "jdbc:postgresql://host-2:5432/orders?ssl=true"));
+        }
+        Mockito.verify(pgConnectionFactory, Mockito.times(2)).forUrl(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void connectToShouldCloseOpenedConnectionsOnError() {
+        final PgConnection opened = Mockito.mock(PgConnection.class);
+        final PgConnectionFactory pgConnectionFactory = Mockito.mock(PgConnectionFactory.class);
+        final IllegalStateException error = new IllegalStateException("cannot connect");
+        Mockito.when(pgConnectionFactory.forUrl(anyString(), anyString(), anyString()))
+                .thenReturn(opened)
+                .thenThrow(error);
+        Mockito.doThrow(new IllegalStateException("cannot close")).when(opened).close();
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> topology.connectTo("orders", credentials, pgConnectionFactory));
+        assertSame(error, exception);
+        assertEquals("cannot close", exception.getSuppressed()[0].getMessage());
+        Mockito.verify(opened).close();
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final PgConnectionFactory pgConnectionFactory = Mockito.mock(PgConnectionFactory.class);
+        assertThrows(NullPointerException.class, () -> ClusterTopology.of(null));
+        assertThrows(NullPointerException.class, () -> topology.connectTo(null, credentials, pgConnectionFactory));
+        assertThrows(IllegalArgumentException.class, () -> topology.connectTo("", credentials, pgConnectionFactory));
+        assertThrows(NullPointerException.class, () -> topology.connectTo("orders", null, pgConnectionFactory));
+        assertThrows(NullPointerException.class, () -> topology.connectTo("orders", credentials, null));
+    }
+
+    @Nonnull
+    private static PgConnection connectionTo(@Nonnull final String pgUrl) {
+        return PgConnectionImpl.of(Mockito.mock(DataSource.class), PgHostImpl.ofUrl(pgUrl));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectionPoolSettingsBuilderTest {
+
+    @Test
+    void toStringBuilderTest() {
+        final ConnectionPoolSettingsBuilder builder = ConnectionPoolSettings.builder();
+        assertNotNull(builder);
+        assertEquals("ConnectionPoolSettingsBuilder{maxPoolSize=1, minIdle=0, statementCacheSize=0, validationInterval=PT0S, maxLifetime=PT0S}",
+                builder.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final ConnectionPoolSettingsBuilder builder = ConnectionPoolSettings.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.withMaxPoolSize(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.withMinIdle(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.withStatementCacheSize(-1));
+        assertThrows(NullPointerException.class, () -> builder.withValidationInterval(null));
+        assertThrows(NullPointerException.class, () -> builder.withMaxLifetime(null));
+        builder.withMinIdle(2);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
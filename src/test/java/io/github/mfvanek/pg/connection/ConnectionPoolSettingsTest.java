@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectionPoolSettingsTest {
+
+    @Test
+    void defaults() {
+        final ConnectionPoolSettings settings = ConnectionPoolSettings.defaults();
+        assertNotNull(settings);
+        assertEquals(1, settings.getMaxPoolSize());
+        assertEquals(0, settings.getMinIdle());
+        assertEquals(0, settings.getStatementCacheSize());
+        assertEquals(Duration.ZERO, settings.getValidationInterval());
+        assertEquals(Duration.ZERO, settings.getMaxLifetime());
+    }
+
+    @Test
+    void withCustomValues() {
+        final ConnectionPoolSettings settings = ConnectionPoolSettings.builder()
+                .withMaxPoolSize(5)
+                .withMinIdle(2)
+                .withStatementCacheSize(32)
+                .withValidationInterval(Duration.ofSeconds(15L))
+                .withMaxLifetime(Duration.ofMinutes(30L))
+                .build();
+        assertEquals(5, settings.getMaxPoolSize());
+        assertEquals(2, settings.getMinIdle());
+        assertEquals(32, settings.getStatementCacheSize());
+        assertEquals(Duration.ofSeconds(15L), settings.getValidationInterval());
+        assertEquals(Duration.ofMinutes(30L), settings.getMaxLifetime());
+    }
+
+    @Test
+    void withInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSettings(0, 0, 0, Duration.ZERO, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSettings(1, -1, 0, Duration.ZERO, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSettings(1, 2, 0, Duration.ZERO, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSettings(1, 1, -1, Duration.ZERO, Duration.ZERO));
+        final Duration negative = Duration.ofSeconds(-1L);
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPoolSettings(1, 1, 1, negative, Duration.ZERO));
+        assertEquals("validationInterval cannot be less than zero", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSettings(1, 1, 1, Duration.ZERO, negative));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("ConnectionPoolSettings{maxPoolSize=1, minIdle=0, statementCacheSize=0, validationInterval=PT0S, maxLifetime=PT0S}",
+                ConnectionPoolSettings.defaults().toString());
+    }
+}
@@ -13,12 +13,16 @@ package io.github.mfvanek.pg.connection;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.Nonnull;
 
 import static java.util.Collections.singleton;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.startsWith;
@@ -100,6 +104,69 @@ class HighAvailabilityPgConnectionFactoryImplTest {
         assertThat(exception.getMessage(), startsWith("Connection to primary host not found in "));
     }
 
+    @Test
+    void withParallelPrimaryDiscovery() {
+        Mockito.doAnswer(invocation -> {
+            final PgConnection connection = invocation.getArgument(0, PgConnection.class);
+            return "host-3".equals(connection.getHost().getName());
+        }).when(primaryHostDeterminer).isPrimary(any(PgConnection.class));
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final HighAvailabilityPgConnectionFactory factory = new HighAvailabilityPgConnectionFactoryImpl(
+                    new PgConnectionFactoryImpl(), primaryHostDeterminer, executorService, Duration.ofSeconds(10L));
+            final HighAvailabilityPgConnection haPgConnection = factory.ofUrl(
+                    "jdbc:postgresql://host-1:6432,host-2:6432,host-3:6432/db_name", "postgres", "postgres");
+            assertThat(haPgConnection.getConnectionsToAllHostsInCluster(), hasSize(3));
+            assertThat(haPgConnection.getConnectionToPrimary().getHost().getName(), equalTo("host-3"));
+            checkPrimary(haPgConnection);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void longLivedConnection() {
+        Mockito.doAnswer(invocation -> {
+            final PgConnection connection = invocation.getArgument(0, PgConnection.class);
+            return "host-2".equals(connection.getHost().getName());
+        }).when(primaryHostDeterminer).isPrimary(any(PgConnection.class));
+        final ConnectionCredentials credentials = ConnectionCredentials.ofUrl(
+                "jdbc:postgresql://host-1:6432,host-2:6432/db_name", "postgres", "postgres");
+        try (HighAvailabilityPgConnection haPgConnection = connectionFactory.of(credentials, Duration.ofMinutes(1L))) {
+            assertNotNull(haPgConnection);
+            assertThat(haPgConnection.getConnectionsToAllHostsInCluster(), hasSize(2));
+            checkPrimary(haPgConnection);
+        }
+        final Duration negative = Duration.ofSeconds(-1L);
+        assertThrows(IllegalArgumentException.class, () -> connectionFactory.of(credentials, negative));
+        assertThrows(NullPointerException.class, () -> connectionFactory.of(credentials, null));
+    }
+
+    @Test
+    void defaultLongLivedConnectionShouldNotBeSupported() {
+        final HighAvailabilityPgConnectionFactory factory = Mockito.mock(HighAvailabilityPgConnectionFactory.class, Mockito.CALLS_REAL_METHODS);
+        final ConnectionCredentials credentials = ConnectionCredentials.ofUrl("jdbc:postgresql://host-1:6432/db_name", "postgres", "postgres");
+        final Duration primaryRefreshInterval = Duration.ofSeconds(10L);
+        assertThrows(UnsupportedOperationException.class, () -> factory.of(credentials, primaryRefreshInterval));
+        Mockito.verify(factory, Mockito.never()).of(credentials);
+    }
+
+    @Test
+    void shouldCloseConnectionsWhenPrimaryHostNotFound() {
+        final PgConnectionFactory pgConnectionFactory = Mockito.mock(PgConnectionFactory.class);
+        final PgConnection first = Mockito.mock(PgConnection.class);
+        final PgConnection second = Mockito.mock(PgConnection.class);
+        Mockito.when(pgConnectionFactory.forUrl(any(), any(), any())).thenReturn(first, second);
+        Mockito.doThrow(new IllegalStateException("close")).when(second).close();
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenReturn(false);
+        final HighAvailabilityPgConnectionFactory factory = new HighAvailabilityPgConnectionFactoryImpl(pgConnectionFactory, primaryHostDeterminer);
+        final NoSuchElementException exception = assertThrows(NoSuchElementException.class,
+                () -> factory.ofUrl("jdbc:postgresql://host-1:6432,host-2:6432/db_name", "postgres", "postgres"));
+        assertThat(exception.getSuppressed(), arrayWithSize(1));
+        Mockito.verify(first).close();
+        Mockito.verify(second).close();
+    }
+
     @Test
     void shouldNotFailWhenSplitBrainOrMultyMasterConfiguration() {
         Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenReturn(true);
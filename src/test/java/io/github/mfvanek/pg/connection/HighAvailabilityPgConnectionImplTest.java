@@ -14,17 +14,25 @@ import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 
 class HighAvailabilityPgConnectionImplTest {
 
@@ -59,6 +67,31 @@ class HighAvailabilityPgConnectionImplTest {
         assertThat(haPgConnection.getConnectionsToAllHostsInCluster(), containsInAnyOrder(primary, replica));
     }
 
+    @Test
+    void closeShouldCloseAllConnections() {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection replica = mockConnection("replica");
+        final HighAvailabilityPgConnection haPgConnection = HighAvailabilityPgConnectionImpl.of(primary, Arrays.asList(primary, replica));
+        haPgConnection.close();
+        Mockito.verify(primary).close();
+        Mockito.verify(replica).close();
+    }
+
+    @Test
+    void closeShouldCloseAllConnectionsEvenIfSomeOfThemFailed() {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection first = mockConnection("replica-1");
+        final PgConnection second = mockConnection("replica-2");
+        Mockito.doThrow(new IllegalStateException("first")).when(first).close();
+        Mockito.doThrow(new IllegalStateException("second")).when(second).close();
+        final HighAvailabilityPgConnection haPgConnection = HighAvailabilityPgConnectionImpl.of(primary, Arrays.asList(primary, first, second));
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, haPgConnection::close);
+        assertThat(exception.getSuppressed(), arrayWithSize(1));
+        Mockito.verify(primary).close();
+        Mockito.verify(first).close();
+        Mockito.verify(second).close();
+    }
+
     @Test
     void shouldContainsConnectionToPrimary() {
         final PgConnection primary = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
@@ -68,4 +101,92 @@ class HighAvailabilityPgConnectionImplTest {
                 () -> HighAvailabilityPgConnectionImpl.of(primary, Collections.singletonList(replica)));
         assertThat(exception.getMessage(), containsString("connectionsToAllHostsInCluster have to contain a connection to the primary"));
     }
+
+    @Test
+    void refreshPrimaryShouldKeepCurrentPrimary() {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection replica = mockConnection("replica");
+        final PrimaryHostDeterminer determiner = Mockito.mock(PrimaryHostDeterminer.class);
+        Mockito.when(determiner.isPrimary(any(PgConnection.class))).thenReturn(true);
+        try (HighAvailabilityPgConnectionImpl haPgConnection = longLived(primary, Arrays.asList(primary, replica), determiner)) {
+            haPgConnection.refreshPrimary();
+            assertSame(primary, haPgConnection.getConnectionToPrimary());
+            Mockito.verify(determiner).isPrimary(primary);
+            Mockito.verify(determiner, Mockito.never()).isPrimary(replica);
+        }
+    }
+
+    @Test
+    void refreshPrimaryShouldSwitchToNewPrimary() {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection replica = mockConnection("replica");
+        final PrimaryHostDeterminer determiner = Mockito.mock(PrimaryHostDeterminer.class);
+        Mockito.when(determiner.isPrimary(primary)).thenThrow(new IllegalStateException("host is down"));
+        Mockito.when(determiner.isPrimary(replica)).thenReturn(true);
+        try (HighAvailabilityPgConnectionImpl haPgConnection = longLived(primary, Arrays.asList(primary, replica), determiner)) {
+            haPgConnection.refreshPrimary();
+            assertSame(replica, haPgConnection.getConnectionToPrimary());
+        }
+    }
+
+    @Test
+    void refreshPrimaryShouldKeepCurrentConnectionWhenPrimaryNotFound() {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection replica = mockConnection("replica");
+        final PrimaryHostDeterminer determiner = Mockito.mock(PrimaryHostDeterminer.class);
+        Mockito.when(determiner.isPrimary(any(PgConnection.class))).thenReturn(false);
+        try (HighAvailabilityPgConnectionImpl haPgConnection = longLived(primary, Arrays.asList(primary, replica), determiner)) {
+            haPgConnection.refreshPrimary();
+            assertSame(primary, haPgConnection.getConnectionToPrimary());
+            Mockito.verify(determiner).isPrimary(replica);
+        }
+    }
+
+    @Test
+    void shouldDetectFailoverInBackground() throws InterruptedException {
+        final PgConnection primary = mockConnection("primary");
+        final PgConnection replica = mockConnection("replica");
+        final PrimaryHostDeterminer determiner = Mockito.mock(PrimaryHostDeterminer.class);
+        Mockito.when(determiner.isPrimary(primary)).thenReturn(false);
+        Mockito.when(determiner.isPrimary(replica)).thenReturn(true);
+        final HighAvailabilityPgConnection haPgConnection = HighAvailabilityPgConnectionImpl.of(
+                primary, Arrays.asList(primary, replica), determiner, Duration.ofMillis(10L));
+        try {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+            while (haPgConnection.getConnectionToPrimary() != replica && System.nanoTime() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertSame(replica, haPgConnection.getConnectionToPrimary());
+        } finally {
+            haPgConnection.close();
+        }
+        Mockito.verify(primary).close();
+        Mockito.verify(replica).close();
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void longLivedWithInvalidArguments() {
+        final PgConnection primary = mockConnection("primary");
+        final List<PgConnection> all = Collections.singletonList(primary);
+        final PrimaryHostDeterminer determiner = Mockito.mock(PrimaryHostDeterminer.class);
+        final Duration interval = Duration.ofSeconds(1L);
+        assertThrows(NullPointerException.class, () -> HighAvailabilityPgConnectionImpl.of(primary, all, null, interval));
+        assertThrows(NullPointerException.class, () -> HighAvailabilityPgConnectionImpl.of(primary, all, determiner, null));
+        assertThrows(IllegalArgumentException.class, () -> HighAvailabilityPgConnectionImpl.of(primary, all, determiner, Duration.ZERO));
+    }
+
+    @Nonnull
+    private static HighAvailabilityPgConnectionImpl longLived(@Nonnull final PgConnection primary,
+                                                              @Nonnull final List<PgConnection> all,
+                                                              @Nonnull final PrimaryHostDeterminer determiner) {
+        return (HighAvailabilityPgConnectionImpl) HighAvailabilityPgConnectionImpl.of(primary, all, determiner, Duration.ofHours(1L));
+    }
+
+    @Nonnull
+    private static PgConnection mockConnection(@Nonnull final String hostName) {
+        final PgConnection connection = Mockito.mock(PgConnection.class);
+        Mockito.when(connection.getHost()).thenReturn(PgHostImpl.ofName(hostName));
+        return connection;
+    }
 }
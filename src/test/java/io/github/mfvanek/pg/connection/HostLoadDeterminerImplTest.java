@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.embedded.PostgresDbExtension;
+import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class HostLoadDeterminerImplTest extends DatabaseAwareTestBase {
+
+    @RegisterExtension
+    static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
+
+    private final HostLoadDeterminer hostLoadDeterminer = new HostLoadDeterminerImpl();
+    private final PgHost localhost = PgHostImpl.ofName("localhost");
+
+    HostLoadDeterminerImplTest() {
+        super(embeddedPostgres.getTestDatabase());
+    }
+
+    @Test
+    void getHostLoadOnPrimary() {
+        final PgConnection pgConnection = PgConnectionImpl.of(embeddedPostgres.getTestDatabase(), localhost);
+        final HostLoad hostLoad = hostLoadDeterminer.getHostLoad(pgConnection);
+        assertThat(hostLoad.getActiveBackends(), greaterThanOrEqualTo(0));
+        assertEquals(Duration.ZERO, hostLoad.getReplicationLag());
+    }
+
+    @Test
+    void getHostLoadOnReplica() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Statement statement = mockStatement(dataSource);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getInt("active_backends")).thenReturn(7);
+        Mockito.when(resultSet.getLong("lag_millis")).thenReturn(2_000L);
+        final HostLoad hostLoad = hostLoadDeterminer.getHostLoad(PgConnectionImpl.of(dataSource, localhost));
+        assertEquals(7, hostLoad.getActiveBackends());
+        assertEquals(Duration.ofSeconds(2L), hostLoad.getReplicationLag());
+        Mockito.verify(statement).executeQuery(Mockito.endsWith(ReplicationLagQueries.LAG_MILLIS_COLUMN));
+    }
+
+    @Test
+    void getHostLoadWithExecutionError() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Statement statement = mockStatement(dataSource);
+        Mockito.when(statement.executeQuery(anyString())).thenThrow(new SQLException("bad query"));
+        final PgConnection pgConnection = PgConnectionImpl.of(dataSource, localhost);
+        final RuntimeException runtimeException = assertThrows(RuntimeException.class,
+                () -> hostLoadDeterminer.getHostLoad(pgConnection));
+        final Throwable cause = runtimeException.getCause();
+        assertNotNull(cause);
+        assertThat(cause, instanceOf(SQLException.class));
+        assertEquals("bad query", cause.getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArgument() {
+        assertThrows(NullPointerException.class, () -> hostLoadDeterminer.getHostLoad(null));
+    }
+
+    private static Statement mockStatement(final DataSource dataSource) throws SQLException {
+        final Connection connection = Mockito.mock(Connection.class);
+        final DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        final Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getDatabaseMajorVersion()).thenReturn(14);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        return statement;
+    }
+}
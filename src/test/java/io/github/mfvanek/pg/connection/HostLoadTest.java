@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HostLoadTest {
+
+    @Test
+    void getters() {
+        final HostLoad hostLoad = HostLoad.of(3, Duration.ofMillis(250L));
+        assertEquals(3, hostLoad.getActiveBackends());
+        assertEquals(Duration.ofMillis(250L), hostLoad.getReplicationLag());
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("HostLoad{activeBackends=0, replicationLag=PT1S}", HostLoad.of(0, Duration.ofSeconds(1L)).toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> HostLoad.of(-1, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> HostLoad.of(0, null));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+class ParallelPrimaryHostFinderTest {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final PrimaryHostDeterminer primaryHostDeterminer = Mockito.mock(PrimaryHostDeterminer.class);
+    private final PgConnection first = mockConnection("host-1");
+    private final PgConnection second = mockConnection("host-2");
+    private final PgConnection third = mockConnection("host-3");
+    private final List<PgConnection> connections = Arrays.asList(first, second, third);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldNotWaitForSlowReplicas() {
+        final CountDownLatch slowProbeStarted = new CountDownLatch(1);
+        final CountDownLatch slowProbeInterrupted = new CountDownLatch(1);
+        Mockito.when(primaryHostDeterminer.isPrimary(first)).thenAnswer(invocation -> {
+            slowProbeStarted.countDown();
+            try {
+                Thread.sleep(10_000L);
+            } catch (InterruptedException e) {
+                slowProbeInterrupted.countDown();
+            }
+            return false;
+        });
+        Mockito.when(primaryHostDeterminer.isPrimary(second)).thenReturn(false);
+        // The primary responds only when the slow probe is already running, otherwise it could be cancelled before start
+        Mockito.when(primaryHostDeterminer.isPrimary(third)).thenAnswer(invocation -> await(slowProbeStarted));
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(30L));
+        final long startTime = System.nanoTime();
+        assertSame(third, finder.find(connections));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), lessThan(5_000L));
+        assertTrue(await(slowProbeInterrupted));
+    }
+
+    @Test
+    void shouldFailWhenPrimaryNotFound() {
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenReturn(false);
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        final NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> finder.find(connections));
+        assertThat(exception.getMessage(), startsWith("Connection to primary host not found in "));
+    }
+
+    @Test
+    void shouldFailWhenProbesTimedOut() {
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenAnswer(invocation -> {
+            Thread.sleep(10_000L);
+            return true;
+        });
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofMillis(100L));
+        final long startTime = System.nanoTime();
+        assertThrows(NoSuchElementException.class, () -> finder.find(connections));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), lessThan(5_000L));
+    }
+
+    @Test
+    void shouldRethrowExceptionFromProbe() {
+        final IllegalStateException unreachable = new IllegalStateException("unreachable");
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenReturn(false);
+        Mockito.when(primaryHostDeterminer.isPrimary(second)).thenThrow(unreachable);
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> finder.find(connections));
+        assertSame(unreachable, exception);
+        assertThat(exception.getSuppressed(), emptyArray());
+    }
+
+    @Test
+    void shouldFindPrimaryWhenUnreachableHostFailsFirst() {
+        Mockito.when(primaryHostDeterminer.isPrimary(first)).thenThrow(new IllegalStateException("unreachable"));
+        Mockito.when(primaryHostDeterminer.isPrimary(second)).thenReturn(false);
+        Mockito.when(primaryHostDeterminer.isPrimary(third)).thenAnswer(invocation -> {
+            Thread.sleep(200L);
+            return true;
+        });
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        assertSame(third, finder.find(connections));
+    }
+
+    @Test
+    void shouldRethrowFirstExceptionWithOthersSuppressed() {
+        final IllegalStateException firstFailure = new IllegalStateException("first");
+        final IllegalStateException secondFailure = new IllegalStateException("second");
+        Mockito.when(primaryHostDeterminer.isPrimary(first)).thenThrow(firstFailure);
+        Mockito.when(primaryHostDeterminer.isPrimary(second)).thenAnswer(invocation -> {
+            Thread.sleep(200L);
+            throw secondFailure;
+        });
+        Mockito.when(primaryHostDeterminer.isPrimary(third)).thenReturn(false);
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> finder.find(connections));
+        assertSame(firstFailure, exception);
+        assertThat(exception.getSuppressed(), arrayContaining(secondFailure));
+    }
+
+    @Test
+    void shouldAddFailuresToExceptionOnTimeout() {
+        final IllegalStateException unreachable = new IllegalStateException("unreachable");
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenAnswer(invocation -> {
+            Thread.sleep(10_000L);
+            return true;
+        });
+        Mockito.doThrow(unreachable).when(primaryHostDeterminer).isPrimary(first);
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofMillis(500L));
+        final NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> finder.find(connections));
+        assertThat(exception.getSuppressed(), arrayContaining(unreachable));
+    }
+
+    @Test
+    void shouldWrapErrorFromProbe() {
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenThrow(new AssertionError("error"));
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> finder.find(connections));
+        assertThat(exception.getCause().getCause(), instanceOf(AssertionError.class));
+    }
+
+    @Test
+    void shouldRestoreInterruptedFlag() {
+        Mockito.when(primaryHostDeterminer.isPrimary(any(PgConnection.class))).thenAnswer(invocation -> {
+            Thread.sleep(10_000L);
+            return true;
+        });
+        final ParallelPrimaryHostFinder finder = new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ofSeconds(5L));
+        Thread.currentThread().interrupt();
+        try {
+            final RuntimeException exception = assertThrows(RuntimeException.class, () -> finder.find(connections));
+            assertThat(exception.getCause(), instanceOf(InterruptedException.class));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final Duration timeout = Duration.ofSeconds(1L);
+        assertThrows(NullPointerException.class, () -> new ParallelPrimaryHostFinder(null, executorService, timeout));
+        assertThrows(NullPointerException.class, () -> new ParallelPrimaryHostFinder(primaryHostDeterminer, null, timeout));
+        assertThrows(NullPointerException.class, () -> new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, null));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, Duration.ZERO));
+        final Duration negative = Duration.ofSeconds(-1L);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPrimaryHostFinder(primaryHostDeterminer, executorService, negative));
+    }
+
+    private static boolean await(@Nonnull final CountDownLatch latch) {
+        try {
+            return latch.await(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Nonnull
+    private static PgConnection mockConnection(@Nonnull final String hostName) {
+        final PgConnection connection = Mockito.mock(PgConnection.class);
+        Mockito.when(connection.getHost()).thenReturn(PgHostImpl.ofName(hostName));
+        return connection;
+    }
+}
@@ -10,10 +10,16 @@
 
 package io.github.mfvanek.pg.connection;
 
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.Test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PgConnectionFactoryImplTest {
 
@@ -27,4 +33,36 @@ class PgConnectionFactoryImplTest {
         assertEquals("jdbc:postgresql://localhost:5432/postgres?prepareThreshold=0&preparedStatementCacheQueries=0",
                 pgConnection.getHost().getPgUrl());
     }
+
+    @Test
+    void forUrlWithPoolSize() {
+        final PgConnection pgConnection = new PgConnectionFactoryImpl(4).forUrl(
+                "jdbc:postgresql://localhost:5432/postgres", "postgres", "postgres");
+        assertNotNull(pgConnection);
+        assertThat(pgConnection.getDataSource(), instanceOf(BasicDataSource.class));
+        final BasicDataSource dataSource = (BasicDataSource) pgConnection.getDataSource();
+        assertEquals(4, dataSource.getMaxTotal());
+        assertEquals(4, dataSource.getMaxIdle());
+    }
+
+    @Test
+    void withInvalidPoolSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PgConnectionFactoryImpl(0));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withNullPoolSettings() {
+        assertThrows(NullPointerException.class, () -> new PgConnectionFactoryImpl(null));
+    }
+
+    @Test
+    void closeShouldReleaseCreatedPool() {
+        final PgConnection pgConnection = new PgConnectionFactoryImpl(ConnectionPoolSettings.builder().withMaxPoolSize(2).build())
+                .forUrl("jdbc:postgresql://localhost:5432/postgres", "postgres", "postgres");
+        final BasicDataSource dataSource = (BasicDataSource) pgConnection.getDataSource();
+        assertFalse(dataSource.isClosed());
+        pgConnection.close();
+        assertTrue(dataSource.isClosed());
+    }
 }
@@ -13,14 +13,21 @@ package io.github.mfvanek.pg.connection;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import io.github.mfvanek.pg.utils.TestUtils;
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import java.time.Duration;
 import javax.annotation.Nonnull;
 import javax.sql.DataSource;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PgConnectionHelperTest {
 
@@ -38,6 +45,39 @@ class PgConnectionHelperTest {
         assertNotNull(dataSource);
     }
 
+    @Test
+    void createDataSourceWithPoolSettings() {
+        final DataSource dataSource = PgConnectionHelper.createDataSource(getWriteUrl(), "postgres", "postgres",
+                ConnectionPoolSettings.builder()
+                        .withMaxPoolSize(3)
+                        .withMinIdle(1)
+                        .withStatementCacheSize(16)
+                        .withValidationInterval(Duration.ofSeconds(30L))
+                        .withMaxLifetime(Duration.ofMinutes(10L))
+                        .build());
+        assertThat(dataSource, instanceOf(BasicDataSource.class));
+        final BasicDataSource basicDataSource = (BasicDataSource) dataSource;
+        assertEquals(3, basicDataSource.getMaxTotal());
+        assertEquals(3, basicDataSource.getMaxIdle());
+        assertEquals(1, basicDataSource.getMinIdle());
+        assertTrue(basicDataSource.isPoolPreparedStatements());
+        assertEquals(16, basicDataSource.getMaxOpenPreparedStatements());
+        assertTrue(basicDataSource.getTestWhileIdle());
+        assertEquals(30_000L, basicDataSource.getTimeBetweenEvictionRunsMillis());
+        assertEquals(600_000L, basicDataSource.getMaxConnLifetimeMillis());
+    }
+
+    @Test
+    void createDataSourceWithDefaultPoolSettings() {
+        final BasicDataSource dataSource = (BasicDataSource) PgConnectionHelper.createDataSource(getWriteUrl(), "postgres", "postgres");
+        assertEquals(1, dataSource.getMaxTotal());
+        assertEquals(1, dataSource.getMaxIdle());
+        assertEquals(0, dataSource.getMinIdle());
+        assertFalse(dataSource.isPoolPreparedStatements());
+        assertFalse(dataSource.getTestWhileIdle());
+        assertEquals(-1L, dataSource.getMaxConnLifetimeMillis());
+    }
+
     @Nonnull
     private String getWriteUrl() {
         final int port = embeddedPostgres.getPort();
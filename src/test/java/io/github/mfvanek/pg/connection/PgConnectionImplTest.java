@@ -13,14 +13,19 @@ package io.github.mfvanek.pg.connection;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import nl.jqno.equalsverifier.EqualsVerifier;
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import javax.sql.DataSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -85,10 +90,52 @@ class PgConnectionImplTest {
     @Test
     void equalsHashCodeShouldAdhereContracts() {
         EqualsVerifier.forClass(PgConnectionImpl.class)
-                .withIgnoredFields("dataSource")
+                .withIgnoredFields("dataSource", "ownsDataSource")
                 .verify();
     }
 
+    @Test
+    void closeShouldNotCloseDataSourceProvidedByCaller() throws Exception {
+        final BasicDataSource dataSource = Mockito.mock(BasicDataSource.class);
+        PgConnectionImpl.ofPrimary(dataSource).close();
+        PgConnectionImpl.of(dataSource, PgHostImpl.ofName("replica")).close();
+        Mockito.verify(dataSource, Mockito.never()).close();
+    }
+
+    @Test
+    void closeShouldCloseOwnedDataSource() throws Exception {
+        final BasicDataSource dataSource = Mockito.mock(BasicDataSource.class);
+        final PgConnection connection = PgConnectionImpl.withOwnedDataSource(dataSource, PgHostImpl.ofPrimary());
+        connection.close();
+        Mockito.verify(dataSource).close();
+    }
+
+    @Test
+    void closeShouldIgnoreNotCloseableDataSource() {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final PgConnection connection = PgConnectionImpl.withOwnedDataSource(dataSource, PgHostImpl.ofPrimary());
+        assertDoesNotThrow(connection::close);
+    }
+
+    @Test
+    void defaultCloseShouldDoNothing() {
+        final PgConnection connection = Mockito.mock(PgConnection.class, Mockito.CALLS_REAL_METHODS);
+        assertDoesNotThrow(connection::close);
+        Mockito.verify(connection).close();
+        Mockito.verifyNoMoreInteractions(connection);
+    }
+
+    @Test
+    void closeShouldRethrowErrors() throws Exception {
+        final BasicDataSource dataSource = Mockito.mock(BasicDataSource.class);
+        Mockito.doThrow(new SQLException("close")).doThrow(new IllegalStateException("close")).when(dataSource).close();
+        final PgConnection connection = PgConnectionImpl.withOwnedDataSource(dataSource, PgHostImpl.ofPrimary());
+        final RuntimeException exception = assertThrows(RuntimeException.class, connection::close);
+        assertThat(exception.getCause(), instanceOf(SQLException.class));
+        final IllegalStateException secondException = assertThrows(IllegalStateException.class, connection::close);
+        assertEquals("close", secondException.getMessage());
+    }
+
     @Test
     void toStringTest() {
         final PgConnection connection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
@@ -21,6 +21,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -116,6 +117,35 @@ class PgUrlParserTest {
         assertThrows(IllegalArgumentException.class, () -> PgUrlParser.extractHostNames("jdbc:postgresql:/"));
     }
 
+    @Test
+    void replaceDatabaseName() {
+        assertEquals("jdbc:postgresql://host-1:6432/other_db?ssl=true&targetServerType=any",
+                PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432/db_name?ssl=true&targetServerType=any", "other_db"));
+        assertEquals("jdbc:postgresql://host-1:6432,host-2:6432/other_db",
+                PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432,host-2:6432/db_name", "other_db"));
+        assertEquals("jdbc:postgresql://host-1:6432/other_db",
+                PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432", "other_db"));
+        assertEquals("jdbc:postgresql://host-1:6432/other_db?ssl=true",
+                PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432/?ssl=true", "other_db"));
+    }
+
+    @Test
+    void replaceDatabaseNameShouldEncodeName() {
+        final String pgUrl = PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432,host-2:6432/db_name?ssl=true", "a/b?c&d%e f");
+        assertEquals("jdbc:postgresql://host-1:6432,host-2:6432/a%2Fb%3Fc%26d%25e+f?ssl=true", pgUrl);
+        assertThat(PgUrlParser.extractHostNames(pgUrl), containsInAnyOrder("host-1", "host-2"));
+        assertEquals("jdbc:postgresql://host-1:6432,host-2:6432/other_db?ssl=true", PgUrlParser.replaceDatabaseName(pgUrl, "other_db"));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void replaceDatabaseNameWithInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> PgUrlParser.replaceDatabaseName(null, "db"));
+        assertThrows(IllegalArgumentException.class, () -> PgUrlParser.replaceDatabaseName("host-name:5432", "db"));
+        assertThrows(NullPointerException.class, () -> PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432/db_name", null));
+        assertThrows(IllegalArgumentException.class, () -> PgUrlParser.replaceDatabaseName("jdbc:postgresql://host-1:6432/db_name", " "));
+    }
+
     @Test
     void isReplicaUrl() {
         assertFalse(PgUrlParser.isReplicaUrl("jdbc:postgresql://host-1:6432/db_name?targetServerType=primary&ssl=true&prepareThreshold=0&preparedStatementCacheQueries=0&sslmode=require"));
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.embedded.PostgresDbExtension;
+import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class ReplicationLagDeterminerImplTest extends DatabaseAwareTestBase {
+
+    @RegisterExtension
+    static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
+
+    private final ReplicationLagDeterminer replicationLagDeterminer = new ReplicationLagDeterminerImpl();
+    private final PgHost localhost = PgHostImpl.ofName("localhost");
+
+    ReplicationLagDeterminerImplTest() {
+        super(embeddedPostgres.getTestDatabase());
+    }
+
+    @Test
+    void getReplicationLagOnPrimary() {
+        final PgConnection pgConnection = PgConnectionImpl.of(embeddedPostgres.getTestDatabase(), localhost);
+        assertEquals(Duration.ZERO, replicationLagDeterminer.getReplicationLag(pgConnection));
+    }
+
+    @Test
+    void getReplicationLagOnReplica() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Statement statement = mockStatement(dataSource, 14);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getLong(1)).thenReturn(1_500L);
+        final PgConnection pgConnection = PgConnectionImpl.of(dataSource, localhost);
+        assertEquals(Duration.ofMillis(1_500L), replicationLagDeterminer.getReplicationLag(pgConnection));
+        Mockito.verify(statement).executeQuery("select " + ReplicationLagQueries.LAG_MILLIS_COLUMN);
+    }
+
+    @Test
+    void getReplicationLagOnOldReplica() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Statement statement = mockStatement(dataSource, 9);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getLong(1)).thenReturn(0L);
+        final PgConnection pgConnection = PgConnectionImpl.of(dataSource, localhost);
+        assertEquals(Duration.ZERO, replicationLagDeterminer.getReplicationLag(pgConnection));
+        Mockito.verify(statement).executeQuery("select " + ReplicationLagQueries.LAG_MILLIS_COLUMN_9_6);
+    }
+
+    @Test
+    void getReplicationLagWithExecutionError() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Statement statement = mockStatement(dataSource, 14);
+        Mockito.when(statement.executeQuery(anyString())).thenThrow(new SQLException("bad query"));
+        final PgConnection pgConnection = PgConnectionImpl.of(dataSource, localhost);
+        final RuntimeException runtimeException = assertThrows(RuntimeException.class,
+                () -> replicationLagDeterminer.getReplicationLag(pgConnection));
+        final Throwable cause = runtimeException.getCause();
+        assertNotNull(cause);
+        assertThat(cause, instanceOf(SQLException.class));
+        assertEquals("bad query", cause.getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArgument() {
+        assertThrows(NullPointerException.class, () -> replicationLagDeterminer.getReplicationLag(null));
+    }
+
+    private static Statement mockStatement(final DataSource dataSource, final int serverMajorVersion) throws SQLException {
+        final Connection connection = Mockito.mock(Connection.class);
+        final DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        final Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getDatabaseMajorVersion()).thenReturn(serverMajorVersion);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        return statement;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.connection;
+
+import io.github.mfvanek.pg.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicationLagQueriesTest {
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(ReplicationLagQueries.class));
+    }
+
+    @Test
+    void shouldTreatFullyReplayedReplicaAsUpToDate() {
+        assertThat(ReplicationLagQueries.LAG_MILLIS_COLUMN, containsString("pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"));
+        assertThat(ReplicationLagQueries.LAG_MILLIS_COLUMN, not(containsString("xlog")));
+        assertThat(ReplicationLagQueries.LAG_MILLIS_COLUMN_9_6,
+                containsString("pg_last_xlog_receive_location() = pg_last_xlog_replay_location() then 0"));
+    }
+}
@@ -10,11 +10,14 @@
 
 package io.github.mfvanek.pg.index.maintenance;
 
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.common.maintenance.ExecutionOptions;
 import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgConnectionImpl;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import io.github.mfvanek.pg.model.PgContext;
+import io.github.mfvanek.pg.model.RowFilter;
 import io.github.mfvanek.pg.model.index.DuplicatedIndexes;
 import io.github.mfvanek.pg.model.index.ForeignKey;
 import io.github.mfvanek.pg.model.index.Index;
@@ -23,21 +26,31 @@ import io.github.mfvanek.pg.model.index.IndexWithNulls;
 import io.github.mfvanek.pg.model.index.UnusedIndex;
 import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
 import io.github.mfvanek.pg.utils.DatabasePopulator;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -47,11 +60,12 @@ public final class IndexesMaintenanceOnHostImplTest extends DatabaseAwareTestBas
     @RegisterExtension
     static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
 
+    private final PgConnection pgConnection;
     private final IndexesMaintenanceOnHost indexesMaintenance;
 
     IndexesMaintenanceOnHostImplTest() {
         super(embeddedPostgres.getTestDatabase());
-        final PgConnection pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
         this.indexesMaintenance = new IndexMaintenanceOnHostImpl(pgConnection);
     }
 
@@ -437,4 +451,170 @@ public final class IndexesMaintenanceOnHostImplTest extends DatabaseAwareTestBas
                     assertThat(indexes, hasSize(1));
                 });
     }
+
+    @Test
+    void getInvalidIndexesBySchema() {
+        executeTestOnDatabase("custom",
+                dbp -> dbp.withReferences().withData().withInvalidIndex(),
+                ctx -> {
+                    final PgContext publicContext = PgContext.ofPublic();
+                    final Map<PgContext, List<Index>> invalidIndexes = indexesMaintenance.getInvalidIndexesBySchema(Arrays.asList(publicContext, ctx));
+                    assertThat(invalidIndexes.keySet(), contains(publicContext, ctx));
+                    assertThat(invalidIndexes.get(publicContext), empty());
+                    assertThat(invalidIndexes.get(ctx), hasSize(1));
+                    assertEquals(ctx.enrichWithSchema("i_clients_last_name_first_name"), invalidIndexes.get(ctx).get(0).getIndexName());
+                    assertEquals(invalidIndexes.get(ctx), indexesMaintenance.getInvalidIndexes(Arrays.asList(publicContext, ctx)));
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void batchedChecksShouldReturnTheSameResults(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withInvalidIndex().withDuplicatedIndex().withNullValuesInIndex().withStatistics(),
+                ctx -> {
+                    final QueryBatch batch = new QueryBatch();
+                    final Supplier<List<Index>> invalidIndexes = indexesMaintenance.addInvalidIndexesToBatch(batch, ctx);
+                    final Supplier<List<DuplicatedIndexes>> duplicatedIndexes = indexesMaintenance.addDuplicatedIndexesToBatch(batch, ctx);
+                    final Supplier<List<DuplicatedIndexes>> intersectedIndexes = indexesMaintenance.addIntersectedIndexesToBatch(batch, ctx);
+                    final Supplier<List<UnusedIndex>> unusedIndexes = indexesMaintenance.addUnusedIndexesToBatch(batch, ctx);
+                    final Supplier<List<ForeignKey>> foreignKeys = indexesMaintenance.addForeignKeysNotCoveredWithIndexToBatch(batch, ctx);
+                    final Supplier<List<IndexWithNulls>> indexesWithNulls = indexesMaintenance.addIndexesWithNullValuesToBatch(batch, ctx);
+                    final Supplier<List<IndexWithBloat>> indexesWithBloat = indexesMaintenance.addIndexesWithBloatToBatch(batch, ctx);
+                    assertEquals(7, batch.size());
+                    batch.execute(pgConnection);
+
+                    assertEquals(indexesMaintenance.getInvalidIndexes(ctx), invalidIndexes.get());
+                    assertThat(invalidIndexes.get(), hasSize(1));
+                    assertEquals(indexesMaintenance.getDuplicatedIndexes(ctx), duplicatedIndexes.get());
+                    assertThat(duplicatedIndexes.get(), hasSize(1));
+                    assertEquals(indexesMaintenance.getIntersectedIndexes(ctx), intersectedIndexes.get());
+                    assertEquals(indexesMaintenance.getUnusedIndexes(ctx), unusedIndexes.get());
+                    assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), foreignKeys.get());
+                    assertEquals(indexesMaintenance.getIndexesWithNullValues(ctx), indexesWithNulls.get());
+                    assertThat(indexesWithNulls.get(), hasSize(1));
+                    assertEquals(indexesMaintenance.getIndexesWithBloat(ctx), indexesWithBloat.get());
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSame(final String schemaName) {
+        final IndexesMaintenanceOnHost structured = new IndexMaintenanceOnHostImpl(pgConnection,
+                ExecutionOptions.builder().withStructuredResults(true).build());
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                ctx -> {
+                    assertThat(structured.getDuplicatedIndexes(ctx), hasSize(1));
+                    assertEquals(indexesMaintenance.getDuplicatedIndexes(ctx), structured.getDuplicatedIndexes(ctx));
+                    assertEquals(indexesMaintenance.getIntersectedIndexes(ctx), structured.getIntersectedIndexes(ctx));
+                    assertThat(structured.getForeignKeysNotCoveredWithIndex(ctx), hasSize(greaterThanOrEqualTo(1)));
+                    assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), structured.getForeignKeysNotCoveredWithIndex(ctx));
+                    final List<PgContext> contexts = Collections.singletonList(ctx);
+                    assertEquals(indexesMaintenance.getDuplicatedIndexes(contexts), structured.getDuplicatedIndexes(contexts));
+                    assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(contexts), structured.getForeignKeysNotCoveredWithIndex(contexts));
+
+                    final QueryBatch batch = new QueryBatch();
+                    final Supplier<List<DuplicatedIndexes>> intersectedIndexes = structured.addIntersectedIndexesToBatch(batch, ctx);
+                    batch.execute(pgConnection);
+                    assertEquals(indexesMaintenance.getIntersectedIndexes(ctx), intersectedIndexes.get());
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSameForIndexesWithDifferentCollation(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withCustomCollation().withDuplicatedCustomCollationIndex(),
+                this::assertThatStructuredResultsAreTheSame);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSameForIndexesWithDifferentOpclass(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withDifferentOpclassIndexes(),
+                this::assertThatStructuredResultsAreTheSame);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSameForForeignKeysWithNotSuitableIndex(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex().withNonSuitableIndex(),
+                ctx -> {
+                    assertThat(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), hasSize(1));
+                    assertThatStructuredResultsAreTheSame(ctx);
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSameForForeignKeysWithSuitableIndex(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withSuitableIndex(),
+                ctx -> {
+                    assertThat(indexesMaintenance.getForeignKeysNotCoveredWithIndex(ctx), empty());
+                    assertThatStructuredResultsAreTheSame(ctx);
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void structuredResultsShouldBeTheSameForForeignKeysWithPartialIndex(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withPartialIndexForForeignKey(),
+                this::assertThatStructuredResultsAreTheSame);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void rowFilterShouldBeAppliedOnDatabaseSide(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withDuplicatedIndex(),
+                ctx -> {
+                    final PgContext filtered = ctx.withRowFilter(Diagnostics.UNUSED_INDEXES,
+                            RowFilter.of(Arrays.asList(ctx.enrichWithSchema("i_clients_last_name").toUpperCase(Locale.ROOT), ctx.enrichWithSchema("i_accounts_account_number")), 0L));
+                    final List<UnusedIndex> unusedIndexes = indexesMaintenance.getUnusedIndexes(filtered);
+                    assertThat(unusedIndexes, hasSize(4));
+                    final Set<String> names = unusedIndexes.stream().map(UnusedIndex::getIndexName).collect(toSet());
+                    assertThat(names, not(hasItem(ctx.enrichWithSchema("i_clients_last_name"))));
+                    assertThat(names, not(hasItem(ctx.enrichWithSchema("i_accounts_account_number"))));
+
+                    final QueryBatch batch = new QueryBatch();
+                    final Supplier<List<UnusedIndex>> batched = indexesMaintenance.addUnusedIndexesToBatch(batch, filtered);
+                    batch.execute(pgConnection);
+                    assertEquals(unusedIndexes, batched.get());
+
+                    final PgContext bySize = ctx.withRowFilter(Diagnostics.UNUSED_INDEXES, RowFilter.of(Collections.emptyList(), Long.MAX_VALUE));
+                    assertThat(indexesMaintenance.getUnusedIndexes(bySize), empty());
+                    assertThat(indexesMaintenance.getUnusedIndexes(Collections.singletonList(bySize)), hasSize(6));
+                });
+    }
+
+    @Test
+    void allChecksBySchemaOnEmptyDatabase() {
+        final Collection<PgContext> contexts = Arrays.asList(PgContext.ofPublic(), PgContext.of("custom"));
+        assertThat(indexesMaintenance.getInvalidIndexesBySchema(contexts).keySet(), hasSize(2));
+        assertThat(indexesMaintenance.getDuplicatedIndexes(contexts), empty());
+        assertThat(indexesMaintenance.getIntersectedIndexes(contexts), empty());
+        assertThat(indexesMaintenance.getUnusedIndexes(contexts), empty());
+        assertThat(indexesMaintenance.getForeignKeysNotCoveredWithIndex(contexts), empty());
+        assertThat(indexesMaintenance.getIndexesWithNullValues(contexts), empty());
+        assertThat(indexesMaintenance.getIndexesWithBloat(contexts), empty());
+    }
+
+    @Test
+    void checksBySchemaShouldNotQueryDatabaseWithoutContexts() {
+        assertThat(indexesMaintenance.getInvalidIndexesBySchema(Collections.emptyList()), anEmptyMap());
+        assertThat(indexesMaintenance.getIndexesWithBloatBySchema(Collections.emptyList()), anEmptyMap());
+    }
+
+    private void assertThatStructuredResultsAreTheSame(final PgContext pgContext) {
+        final IndexesMaintenanceOnHost structured = new IndexMaintenanceOnHostImpl(pgConnection,
+                ExecutionOptions.builder().withStructuredResults(true).build());
+        assertEquals(indexesMaintenance.getDuplicatedIndexes(pgContext), structured.getDuplicatedIndexes(pgContext));
+        assertEquals(indexesMaintenance.getIntersectedIndexes(pgContext), structured.getIntersectedIndexes(pgContext));
+        assertEquals(indexesMaintenance.getForeignKeysNotCoveredWithIndex(pgContext), structured.getForeignKeysNotCoveredWithIndex(pgContext));
+    }
 }
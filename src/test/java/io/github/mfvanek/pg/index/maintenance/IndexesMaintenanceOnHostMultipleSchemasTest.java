@@ -26,9 +26,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -159,4 +161,17 @@ class IndexesMaintenanceOnHostMultipleSchemasTest {
                 .map(TableNameAware::getTableName)
                 .collect(Collectors.toSet()), containsInAnyOrder("t1", "demo.t1", "test.t1"));
     }
+
+    @Test
+    void getInvalidIndexesBySchema() {
+        Mockito.when(indexesMaintenance.getInvalidIndexes(any(PgContext.class)))
+                .thenAnswer(invocation -> {
+                    final PgContext ctx = invocation.getArgument(0);
+                    return Collections.singletonList(Index.of(ctx.enrichWithSchema("t"), ctx.enrichWithSchema("i1")));
+                });
+        final Map<PgContext, List<Index>> indexes = indexesMaintenance.getInvalidIndexesBySchema(contexts);
+        assertNotNull(indexes);
+        assertThat(indexes.keySet(), contains(contexts.toArray()));
+        indexes.forEach((ctx, indexesInSchema) -> assertThat(indexesInSchema, contains(Index.of(ctx.enrichWithSchema("t"), ctx.enrichWithSchema("i1")))));
+    }
 }
@@ -10,10 +10,16 @@
 
 package io.github.mfvanek.pg.model;
 
+import io.github.mfvanek.pg.common.maintenance.Diagnostics;
+import io.github.mfvanek.pg.utils.NamePool;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -63,6 +69,62 @@ class PgContextTest {
         assertEquals("PgContext{schemaName='public', bloatPercentageThreshold=10}", PgContext.ofPublic().toString());
     }
 
+    @Test
+    void withRowFilterShouldReturnCopy() {
+        final PgContext pgContext = PgContext.of("s", 15);
+        final RowFilter rowFilter = RowFilter.of(Collections.singletonList("idx1"), 100L);
+        final PgContext filtered = pgContext.withRowFilter(Diagnostics.UNUSED_INDEXES, rowFilter);
+        assertNotSame(pgContext, filtered);
+        assertEquals("s", filtered.getSchemaName());
+        assertEquals(15, filtered.getBloatPercentageThreshold());
+        assertEquals(rowFilter, filtered.getRowFilter(Diagnostics.UNUSED_INDEXES));
+        assertSame(RowFilter.none(), filtered.getRowFilter(Diagnostics.BLOATED_TABLES));
+        assertSame(RowFilter.none(), pgContext.getRowFilter(Diagnostics.UNUSED_INDEXES));
+        assertTrue(pgContext.getRowFilters().isEmpty());
+        assertEquals(Collections.singletonMap(Diagnostics.UNUSED_INDEXES, rowFilter), filtered.getRowFilters());
+        assertEquals("PgContext{schemaName='s', bloatPercentageThreshold=15, " +
+                "rowFilters={UNUSED_INDEXES=RowFilter{excludedNames=[idx1], sizeThresholdInBytes=100}}}", filtered.toString());
+
+        final PgContext withoutFilter = filtered.withRowFilter(Diagnostics.UNUSED_INDEXES, RowFilter.none());
+        assertTrue(withoutFilter.getRowFilters().isEmpty());
+        assertEquals("PgContext{schemaName='s', bloatPercentageThreshold=15}", withoutFilter.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withNamePoolShouldReturnCopy() {
+        final PgContext pgContext = PgContext.of("s", 15);
+        assertSame(NamePool.none(), pgContext.getNamePool());
+        assertSame(pgContext, pgContext.withNamePool(NamePool.none()));
+
+        final NamePool namePool = NamePool.create();
+        final PgContext pooled = pgContext.withNamePool(namePool);
+        assertNotSame(pgContext, pooled);
+        assertSame(namePool, pooled.getNamePool());
+        assertEquals("s", pooled.getSchemaName());
+        assertEquals(15, pooled.getBloatPercentageThreshold());
+        assertEquals(pgContext.toString(), pooled.toString());
+
+        final RowFilter rowFilter = RowFilter.of(Collections.singletonList("idx1"), 100L);
+        final PgContext filtered = pooled.withRowFilter(Diagnostics.UNUSED_INDEXES, rowFilter);
+        assertSame(namePool, filtered.getNamePool());
+        assertSame(namePool, filtered.withNamePool(namePool).getNamePool());
+        assertEquals(rowFilter, filtered.withNamePool(NamePool.none()).getRowFilter(Diagnostics.UNUSED_INDEXES));
+        assertThrows(NullPointerException.class, () -> pgContext.withNamePool(null));
+    }
+
+    @Test
+    void withRowFilterWithInvalidArguments() {
+        final PgContext pgContext = PgContext.ofPublic();
+        final RowFilter rowFilter = RowFilter.none();
+        assertThrows(NullPointerException.class, () -> pgContext.withRowFilter(null, rowFilter));
+        assertThrows(NullPointerException.class, () -> pgContext.withRowFilter(Diagnostics.UNUSED_INDEXES, null));
+        assertThrows(NullPointerException.class, () -> pgContext.getRowFilter(null));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pgContext.withRowFilter(Diagnostics.INVALID_INDEXES, rowFilter));
+        assertEquals("Row filter is not supported for INVALID_INDEXES", exception.getMessage());
+    }
+
     @Test
     void complementWithCustomSchema() {
         final PgContext pgContext = PgContext.of("TEST");
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowFilterTest {
+
+    @Test
+    void shouldNormalizeNames() {
+        final RowFilter rowFilter = RowFilter.of(Arrays.asList(" Idx1", "idx2", "IDX1 "), 10L);
+        assertThat(rowFilter.getExcludedNames(), contains("idx1", "idx2"));
+        assertEquals(10L, rowFilter.getSizeThresholdInBytes());
+        assertFalse(rowFilter.isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> rowFilter.getExcludedNames().add("idx3"));
+    }
+
+    @Test
+    void none() {
+        final RowFilter rowFilter = RowFilter.none();
+        assertThat(rowFilter.getExcludedNames(), empty());
+        assertEquals(0L, rowFilter.getSizeThresholdInBytes());
+        assertTrue(rowFilter.isEmpty());
+        assertTrue(RowFilter.of(Collections.emptyList(), 0L).isEmpty());
+        assertFalse(RowFilter.of(Collections.emptyList(), 1L).isEmpty());
+        assertFalse(RowFilter.of(Collections.singletonList("t"), 0L).isEmpty());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> RowFilter.of(null, 0L));
+        assertThrows(NullPointerException.class, () -> RowFilter.of(Collections.singletonList(null), 0L));
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.of(Collections.singletonList("  "), 0L));
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.of(Collections.emptyList(), -1L));
+    }
+
+    @SuppressWarnings({"ConstantConditions", "EqualsWithItself", "ObjectEqualsNull"})
+    @Test
+    void testEqualsAndHashCode() {
+        final RowFilter first = RowFilter.of(Collections.singletonList("t1"), 1L);
+        final RowFilter theSame = RowFilter.of(Collections.singletonList("T1"), 1L);
+        final RowFilter second = RowFilter.of(Collections.singletonList("t2"), 1L);
+        final RowFilter third = RowFilter.of(Collections.singletonList("t1"), 2L);
+
+        assertNotEquals(first, null);
+        assertNotEquals(first, BigInteger.ONE);
+        assertEquals(first, first);
+        assertEquals(first, theSame);
+        assertEquals(first.hashCode(), theSame.hashCode());
+        assertNotEquals(first, second);
+        assertNotEquals(first, third);
+        assertEquals(RowFilter.none(), RowFilter.of(Collections.emptyList(), 0L));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("RowFilter{excludedNames=[], sizeThresholdInBytes=0}", RowFilter.none().toString());
+        assertEquals("RowFilter{excludedNames=[t1, t2], sizeThresholdInBytes=5}",
+                RowFilter.of(Arrays.asList("t1", "t2"), 5L).toString());
+    }
+}
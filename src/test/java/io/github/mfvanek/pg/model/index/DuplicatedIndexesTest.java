@@ -166,10 +166,44 @@ class DuplicatedIndexesTest {
     @Test
     void equalsHashCodeShouldAdhereContracts() {
         EqualsVerifier.forClass(DuplicatedIndexes.class)
-                .withIgnoredFields("totalSize", "indexesNames")
+                .withIgnoredFields("totalSize", "indexSizes")
                 .verify();
     }
 
+    @Test
+    void fromArrays() {
+        final String[] indexNames = {"i3", "i1", "i2", "i1"};
+        final long[] indexSizes = {3L, 11L, 2L, 1L};
+        final DuplicatedIndexes indexes = DuplicatedIndexes.of("t", indexNames, indexSizes);
+        indexNames[0] = "i5";
+        indexSizes[0] = 5L;
+        assertEquals("t", indexes.getTableName());
+        assertEquals(17L, indexes.getTotalSize());
+        assertThat(indexes.getIndexNames(), contains("i1", "i1", "i2", "i3"));
+        assertThat(indexes.getDuplicatedIndexes(), contains(
+                IndexWithSize.of("t", "i1", 1L),
+                IndexWithSize.of("t", "i1", 11L),
+                IndexWithSize.of("t", "i2", 2L),
+                IndexWithSize.of("t", "i3", 3L)));
+        assertEquals(DuplicatedIndexes.of("t", "idx=i3, size=3; idx=i1, size=11; idx=i2, size=2; idx=i1, size=1"), indexes);
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void fromInvalidArrays() {
+        assertThrows(NullPointerException.class, () -> DuplicatedIndexes.of(null, new String[0], new long[0]));
+        assertThrows(NullPointerException.class, () -> DuplicatedIndexes.of("t", null, new long[0]));
+        assertThrows(NullPointerException.class, () -> DuplicatedIndexes.of("t", new String[0], null));
+        final IllegalArgumentException lengthException = assertThrows(IllegalArgumentException.class,
+                () -> DuplicatedIndexes.of("t", new String[]{"i1", "i2"}, new long[]{1L}));
+        assertEquals("indexNames and indexSizes should have the same length", lengthException.getMessage());
+        final IllegalArgumentException sizeException = assertThrows(IllegalArgumentException.class,
+                () -> DuplicatedIndexes.of("t", new String[]{"i1"}, new long[]{1L}));
+        assertEquals("There should be at least two duplicated indexes", sizeException.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> DuplicatedIndexes.of("t", new String[]{"i1", ""}, new long[]{1L, 2L}));
+        assertThrows(IllegalArgumentException.class, () -> DuplicatedIndexes.of("t", new String[]{"i1", "i2"}, new long[]{1L, -2L}));
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Test
     void newFactoryConstructor() {
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexWithBloatColumnsTest {
+
+    private final List<IndexWithBloat> indexes = Arrays.asList(
+            IndexWithBloat.of("t1", "i1", 100L, 10L, 10),
+            IndexWithBloat.of("t2", "i2", 200L, 60L, 30),
+            IndexWithBloat.of("t1", "i3", 300L, 150L, 50));
+
+    @Test
+    void shouldStoreRowsByColumns() {
+        final IndexWithBloatColumns columns = IndexWithBloatColumns.of(indexes);
+        assertEquals(3, columns.size());
+        assertThat(columns.getDistinctTableNames(), contains("t1", "t2"));
+        assertEquals("t1", columns.getTableName(2));
+        assertEquals("i2", columns.getIndexName(1));
+        assertEquals(300L, columns.getIndexSizeInBytes(2));
+        assertEquals(60L, columns.getBloatSizeInBytes(1));
+        assertEquals(10, columns.getBloatPercentage(0));
+        assertEquals(600L, columns.indexSizesInBytes().sum());
+        assertEquals(220L, columns.bloatSizesInBytes().sum());
+        assertEquals(2L, columns.bloatPercentages().filter(p -> p >= 30).count());
+        assertEquals("IndexWithBloatColumns{size=3, tablesCount=2}", columns.toString());
+    }
+
+    @Test
+    void shouldCreateModelObjectsOnDemand() {
+        final IndexWithBloatColumns columns = IndexWithBloatColumns.of(indexes);
+        assertEquals(indexes.get(1).toString(), columns.get(1).toString());
+        final List<IndexWithBloat> view = columns.asList();
+        assertEquals(indexes.toString(), view.toString());
+        assertNotSame(view.get(0), view.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(indexes.get(0)));
+        final List<String> sortedByBloat = columns.rows()
+                .boxed()
+                .sorted((l, r) -> Long.compare(columns.getBloatSizeInBytes(r), columns.getBloatSizeInBytes(l)))
+                .map(columns::getIndexName)
+                .collect(Collectors.toList());
+        assertThat(sortedByBloat, contains("i3", "i2", "i1"));
+    }
+
+    @Test
+    void builderShouldGrowAndCanBeReused() {
+        final IndexWithBloatColumns.Builder builder = IndexWithBloatColumns.builder();
+        for (int i = 0; i < 100; ++i) {
+            builder.add("t" + (i % 3), "i" + i, i, i, i % 100);
+        }
+        final IndexWithBloatColumns first = builder.build();
+        builder.add("t4", "i100", 1L, 1L, 1);
+        final IndexWithBloatColumns second = builder.build();
+        assertEquals(100, first.size());
+        assertEquals(3, first.getDistinctTableNames().size());
+        assertEquals(101, second.size());
+        assertEquals(4, second.getDistinctTableNames().size());
+        assertEquals("i99", first.getIndexName(99));
+        assertEquals(4950L, first.indexSizesInBytes().sum());
+    }
+
+    @Test
+    void emptyResult() {
+        final IndexWithBloatColumns columns = IndexWithBloatColumns.of(Collections.emptyList());
+        assertTrue(columns.isEmpty());
+        assertThat(columns.asList(), empty());
+        assertEquals(0L, columns.rows().count());
+        assertThat(columns.getDistinctTableNames(), empty());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final IndexWithBloatColumns.Builder builder = IndexWithBloatColumns.builder();
+        assertThrows(NullPointerException.class, () -> IndexWithBloatColumns.of(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("", "i", 1L, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "", 1L, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "i", -1L, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "i", 1L, -1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "i", 1L, 1L, -1));
+        final IndexWithBloatColumns columns = builder.build();
+        assertTrue(columns.isEmpty());
+        final IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class, () -> columns.getIndexName(0));
+        assertEquals("row 0 is out of range [0, 0)", exception.getMessage());
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(-1));
+    }
+}
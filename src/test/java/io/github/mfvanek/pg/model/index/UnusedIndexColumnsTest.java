@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UnusedIndexColumnsTest {
+
+    @Test
+    void shouldStoreRowsByColumns() {
+        final List<UnusedIndex> indexes = Arrays.asList(
+                UnusedIndex.of("t1", "i1", 100L, 1L),
+                UnusedIndex.of("t1", "i2", 200L, 0L));
+        final UnusedIndexColumns columns = UnusedIndexColumns.of(indexes);
+        assertEquals(2, columns.size());
+        assertEquals(1, columns.getDistinctTableNames().size());
+        assertEquals("t1", columns.getTableName(1));
+        assertEquals("i2", columns.getIndexName(1));
+        assertEquals(100L, columns.getIndexSizeInBytes(0));
+        assertEquals(1L, columns.getIndexScans(0));
+        assertEquals(300L, columns.indexSizesInBytes().sum());
+        assertEquals(1L, columns.indexScans().filter(s -> s == 0L).count());
+        assertEquals(indexes.toString(), columns.asList().toString());
+        assertEquals("UnusedIndexColumns{size=2, tablesCount=1}", columns.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final UnusedIndexColumns.Builder builder = UnusedIndexColumns.builder();
+        assertThrows(NullPointerException.class, () -> UnusedIndexColumns.of(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "i", -1L, 0L));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", "i", 1L, -1L));
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.build().getIndexScans(0));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.model.table;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TableWithBloatColumnsTest {
+
+    @Test
+    void shouldStoreRowsByColumns() {
+        final List<TableWithBloat> tables = Arrays.asList(
+                TableWithBloat.of("t1", 100L, 10L, 10),
+                TableWithBloat.of("t2", 200L, 50L, 25));
+        final TableWithBloatColumns columns = TableWithBloatColumns.of(tables);
+        assertEquals(2, columns.size());
+        assertEquals("t2", columns.getTableName(1));
+        assertEquals(200L, columns.getTableSizeInBytes(1));
+        assertEquals(10L, columns.getBloatSizeInBytes(0));
+        assertEquals(25, columns.getBloatPercentage(1));
+        assertEquals(300L, columns.tableSizesInBytes().sum());
+        assertEquals(60L, columns.bloatSizesInBytes().sum());
+        assertEquals(25, columns.bloatPercentages().max().getAsInt());
+        assertEquals(tables.toString(), columns.asList().toString());
+        assertEquals("TableWithBloatColumns{size=2, tablesCount=2}", columns.toString());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final TableWithBloatColumns.Builder builder = TableWithBloatColumns.builder();
+        assertThrows(NullPointerException.class, () -> TableWithBloatColumns.of(null));
+        assertThrows(NullPointerException.class, () -> builder.add(null, 1L, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", -1L, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", 1L, -1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("t", 1L, 1L, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.build().getBloatPercentage(0));
+    }
+}
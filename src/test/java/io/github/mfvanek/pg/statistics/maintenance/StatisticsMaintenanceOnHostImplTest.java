@@ -17,6 +17,7 @@ import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -24,6 +25,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.time.OffsetDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
@@ -37,11 +39,12 @@ public final class StatisticsMaintenanceOnHostImplTest extends DatabaseAwareTest
     @RegisterExtension
     static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
 
+    private final PgConnection pgConnection;
     private final StatisticsMaintenanceOnHost statisticsMaintenance;
 
     StatisticsMaintenanceOnHostImplTest() {
         super(embeddedPostgres.getTestDatabase());
-        final PgConnection pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
         this.statisticsMaintenance = new StatisticsMaintenanceOnHostImpl(pgConnection);
     }
 
@@ -71,6 +74,16 @@ public final class StatisticsMaintenanceOnHostImplTest extends DatabaseAwareTest
                 });
     }
 
+    @Test
+    void batchedLastStatsResetTimestampShouldBeTheSame() {
+        statisticsMaintenance.resetStatistics();
+        final QueryBatch batch = new QueryBatch();
+        final Supplier<Optional<OffsetDateTime>> statsResetTimestamp = statisticsMaintenance.addLastStatsResetTimestampToBatch(batch);
+        batch.execute(pgConnection);
+        assertTrue(statsResetTimestamp.get().isPresent());
+        assertEquals(statisticsMaintenance.getLastStatsResetTimestamp(), statsResetTimestamp.get());
+    }
+
     @Test
     void getHost() {
         final PgHost host = statisticsMaintenance.getHost();
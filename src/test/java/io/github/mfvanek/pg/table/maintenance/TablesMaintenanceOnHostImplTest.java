@@ -14,18 +14,25 @@ import io.github.mfvanek.pg.connection.PgConnection;
 import io.github.mfvanek.pg.connection.PgConnectionImpl;
 import io.github.mfvanek.pg.embedded.PostgresDbExtension;
 import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.model.PgContext;
 import io.github.mfvanek.pg.model.table.Table;
 import io.github.mfvanek.pg.model.table.TableWithBloat;
 import io.github.mfvanek.pg.model.table.TableWithMissingIndex;
 import io.github.mfvanek.pg.utils.DatabaseAwareTestBase;
+import io.github.mfvanek.pg.utils.QueryBatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -38,11 +45,12 @@ public final class TablesMaintenanceOnHostImplTest extends DatabaseAwareTestBase
     @RegisterExtension
     static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
 
+    private final PgConnection pgConnection;
     private final TablesMaintenanceOnHost tablesMaintenance;
 
     TablesMaintenanceOnHostImplTest() {
         super(embeddedPostgres.getTestDatabase());
-        final PgConnection pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
         this.tablesMaintenance = new TablesMaintenanceOnHostImpl(pgConnection);
     }
 
@@ -166,4 +174,46 @@ public final class TablesMaintenanceOnHostImplTest extends DatabaseAwareTestBase
                     assertEquals(0, table.getBloatPercentage());
                 });
     }
+
+    @Test
+    void getTablesWithoutPrimaryKeyBySchema() {
+        executeTestOnDatabase("custom",
+                dbp -> dbp.withReferences().withTableWithoutPrimaryKey(),
+                ctx -> {
+                    final PgContext publicContext = PgContext.ofPublic();
+                    final Map<PgContext, List<Table>> tables = tablesMaintenance.getTablesWithoutPrimaryKeyBySchema(Arrays.asList(publicContext, ctx));
+                    assertThat(tables.keySet(), contains(publicContext, ctx));
+                    assertThat(tables.get(publicContext), empty());
+                    assertThat(tables.get(ctx), hasSize(1));
+                    assertEquals(ctx.enrichWithSchema("bad_clients"), tables.get(ctx).get(0).getTableName());
+                });
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"public", "custom"})
+    void batchedChecksShouldReturnTheSameResults(final String schemaName) {
+        executeTestOnDatabase(schemaName,
+                dbp -> dbp.withReferences().withData().withTableWithoutPrimaryKey(),
+                ctx -> {
+                    final QueryBatch batch = new QueryBatch();
+                    final Supplier<List<TableWithMissingIndex>> tablesWithMissingIndexes = tablesMaintenance.addTablesWithMissingIndexesToBatch(batch, ctx);
+                    final Supplier<List<Table>> tablesWithoutPrimaryKey = tablesMaintenance.addTablesWithoutPrimaryKeyToBatch(batch, ctx);
+                    final Supplier<List<TableWithBloat>> tablesWithBloat = tablesMaintenance.addTablesWithBloatToBatch(batch, ctx);
+                    assertEquals(3, batch.size());
+                    batch.execute(pgConnection);
+
+                    assertEquals(tablesMaintenance.getTablesWithMissingIndexes(ctx), tablesWithMissingIndexes.get());
+                    assertEquals(tablesMaintenance.getTablesWithoutPrimaryKey(ctx), tablesWithoutPrimaryKey.get());
+                    assertThat(tablesWithoutPrimaryKey.get(), hasSize(1));
+                    assertEquals(tablesMaintenance.getTablesWithBloat(ctx), tablesWithBloat.get());
+                });
+    }
+
+    @Test
+    void allChecksBySchemaOnEmptyDatabase() {
+        final Collection<PgContext> contexts = Arrays.asList(PgContext.ofPublic(), PgContext.of("custom"));
+        assertThat(tablesMaintenance.getTablesWithMissingIndexes(contexts), empty());
+        assertThat(tablesMaintenance.getTablesWithoutPrimaryKey(contexts), empty());
+        assertThat(tablesMaintenance.getTablesWithBloat(contexts), empty());
+    }
 }
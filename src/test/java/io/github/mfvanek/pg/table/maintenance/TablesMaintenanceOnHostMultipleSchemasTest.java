@@ -22,9 +22,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -84,4 +86,17 @@ class TablesMaintenanceOnHostMultipleSchemasTest {
                 .map(TableNameAware::getTableName)
                 .collect(Collectors.toSet()), containsInAnyOrder("t1", "demo.t1", "test.t1", "t2", "demo.t2", "test.t2"));
     }
+
+    @Test
+    void getTablesWithoutPrimaryKeyBySchema() {
+        Mockito.when(tablesMaintenance.getTablesWithoutPrimaryKey(any(PgContext.class)))
+                .thenAnswer(invocation -> {
+                    final PgContext ctx = invocation.getArgument(0);
+                    return Collections.singletonList(Table.of(ctx.enrichWithSchema("t"), 1L));
+                });
+        final Map<PgContext, List<Table>> tables = tablesMaintenance.getTablesWithoutPrimaryKeyBySchema(contexts);
+        assertNotNull(tables);
+        assertThat(tables.keySet(), contains(contexts.toArray()));
+        tables.forEach((ctx, tablesInSchema) -> assertThat(tablesInSchema, contains(Table.of(ctx.enrichWithSchema("t"), 1L))));
+    }
 }
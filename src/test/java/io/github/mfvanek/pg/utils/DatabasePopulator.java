@@ -89,6 +89,12 @@ public final class DatabasePopulator implements AutoCloseable {
         return this;
     }
 
+    @Nonnull
+    public DatabasePopulator withPartialIndexForForeignKey() {
+        actions.putIfAbsent(120, this::createPartialIndexForForeignKey);
+        return this;
+    }
+
     @Nonnull
     public DatabasePopulator withTableWithoutPrimaryKey() {
         actions.putIfAbsent(150, this::createTableWithoutPrimaryKey);
@@ -215,6 +221,12 @@ public final class DatabasePopulator implements AutoCloseable {
                         "i_accounts_client_id_account_number on %s.accounts (client_id, account_number)", schemaName)));
     }
 
+    private void createPartialIndexForForeignKey() {
+        executeOnDatabase(dataSource, statement ->
+                statement.execute(String.format("create index concurrently if not exists " +
+                        "i_accounts_client_id_not_deleted on %s.accounts (client_id) where not deleted", schemaName)));
+    }
+
     private void createTableClients() {
         executeInTransaction(dataSource, statement -> {
             statement.execute(String.format("create sequence if not exists %s.clients_seq", schemaName));
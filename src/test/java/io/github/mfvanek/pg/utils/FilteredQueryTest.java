@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilteredQueryTest {
+
+    @Test
+    void shouldFilterByNamesAndSize() {
+        final FilteredQuery query = FilteredQuery.of("select * from t where s = ?::text;\n", "index_name", "index_size",
+                Arrays.asList("table_name", "index_name"), Arrays.asList("i1", "i2"), 1024L);
+        assertEquals("select q.* from (\n" +
+                "select * from t where s = ?::text\n" +
+                ") q\n" +
+                "where true\n" +
+                "and not lower(q.index_name::text) = any(?::text[])\n" +
+                "and q.index_size >= ?\n" +
+                "order by q.table_name, q.index_name", query.getSqlQuery());
+        final List<Object> params = query.getParams("public");
+        assertThat(params, hasSize(3));
+        assertEquals("public", params.get(0));
+        assertThat((String[]) params.get(1), arrayContaining("i1", "i2"));
+        assertEquals(1024L, params.get(2));
+    }
+
+    @Test
+    void shouldFilterOnlyBySize() {
+        final FilteredQuery query = FilteredQuery.of("select ?, ?", "table_name", "table_size", Collections.singletonList("table_name"), Collections.emptyList(), 1L);
+        assertEquals("select q.* from (\nselect ?, ?\n) q\nwhere true\nand q.table_size >= ?\norder by q.table_name", query.getSqlQuery());
+        assertThat(query.getParams("s", 20), contains("s", 20, 1L));
+    }
+
+    @Test
+    void shouldFilterOnlyByNames() {
+        final FilteredQuery query = FilteredQuery.of("select ?", "table_name", "table_size", Collections.emptyList(), Collections.singletonList("t"), 0L);
+        assertEquals("select q.* from (\nselect ?\n) q\nwhere true\n" +
+                "and not lower(q.table_name::text) = any(?::text[])",
+                query.getSqlQuery());
+        assertThat(query.getParams(), hasSize(1));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final List<String> names = Collections.emptyList();
+        final List<String> order = Collections.singletonList("n");
+        assertThrows(NullPointerException.class, () -> FilteredQuery.of(null, "n", "s", order, names, 0L));
+        assertThrows(IllegalArgumentException.class, () -> FilteredQuery.of("  ", "n", "s", order, names, 0L));
+        assertThrows(NullPointerException.class, () -> FilteredQuery.of("select 1", null, "s", order, names, 0L));
+        assertThrows(NullPointerException.class, () -> FilteredQuery.of("select 1", "n", null, order, names, 0L));
+        assertThrows(NullPointerException.class, () -> FilteredQuery.of("select 1", "n", "s", null, names, 0L));
+        assertThrows(NullPointerException.class, () -> FilteredQuery.of("select 1", "n", "s", order, null, 0L));
+        assertThrows(IllegalArgumentException.class, () -> FilteredQuery.of("select 1", "n", "s", order, names, -1L));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> FilteredQuery.of("select 1", "name; drop table t", "s", order, names, 0L));
+        assertEquals("nameColumn is not a valid column name: name; drop table t", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> FilteredQuery.of("select 1", "n", "Size", order, names, 0L));
+        final List<String> invalidOrder = Collections.singletonList("n desc");
+        final IllegalArgumentException invalidOrderException = assertThrows(IllegalArgumentException.class,
+                () -> FilteredQuery.of("select 1", "n", "s", invalidOrder, names, 0L));
+        assertEquals("orderColumns is not a valid column name: n desc", invalidOrderException.getMessage());
+        final FilteredQuery query = FilteredQuery.of("select 1", "n", "s", order, names, 0L);
+        assertThrows(NullPointerException.class, () -> query.getParams((Object[]) null));
+    }
+
+    @Test
+    void testToString() {
+        final FilteredQuery query = FilteredQuery.of("select 1", "n", "s", Collections.emptyList(), Collections.emptyList(), 0L);
+        assertEquals("FilteredQuery{sqlQuery='select q.* from (\nselect 1\n) q\nwhere true'}", query.toString());
+    }
+}
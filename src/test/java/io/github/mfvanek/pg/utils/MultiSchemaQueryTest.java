@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiSchemaQueryTest {
+
+    @Test
+    void privateConstructor() {
+        assertThrows(UnsupportedOperationException.class, () -> TestUtils.invokePrivateConstructor(MultiSchemaQuery.class));
+    }
+
+    @Test
+    void withSchemas() {
+        final String query = MultiSchemaQuery.withSchemas("select * from pg_namespace where nspname = ?::text;\n");
+        assertEquals("select s.schema_name as pg_context_schema_name, q.*\n" +
+                "from unnest(?::text[]) as s(schema_name)\n" +
+                "cross join lateral (\n" +
+                "select * from pg_namespace where nspname = s.schema_name::text\n" +
+                ") q", query);
+    }
+
+    @Test
+    void withSchemasAndBloatThresholds() {
+        final String query = MultiSchemaQuery.withSchemasAndBloatThresholds("select 1 where ?::text is not null and ?::integer > 0 -- comment");
+        assertEquals("select s.schema_name as pg_context_schema_name, q.*\n" +
+                "from unnest(?::text[], ?::int[]) as s(schema_name, bloat_percentage_threshold)\n" +
+                "cross join lateral (\n" +
+                "select 1 where s.schema_name::text is not null and s.bloat_percentage_threshold::integer > 0 -- comment\n" +
+                ") q", query);
+    }
+
+    @Test
+    void replacePlaceholdersShouldSkipQuotesAndComments() {
+        assertEquals("select 'a?', \"b?\", x -- c?\n/* d? */ /*/? */, y",
+                MultiSchemaQuery.replacePlaceholders("select 'a?', \"b?\", ? -- c?\n/* d? */ /*/? */, ?", "x", "y"));
+    }
+
+    @Test
+    void replacePlaceholdersShouldCheckNumberOfParameters() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> MultiSchemaQuery.replacePlaceholders("select ?, ?", "x"));
+        assertEquals("Query has more parameters than expected 1", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> MultiSchemaQuery.replacePlaceholders("select ?", "x", "y"));
+        assertEquals("Query has 1 parameters but 2 expected", exception.getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> MultiSchemaQuery.withSchemas(null));
+        assertThrows(IllegalArgumentException.class, () -> MultiSchemaQuery.withSchemasAndBloatThresholds("  "));
+        assertThrows(NullPointerException.class, () -> MultiSchemaQuery.replacePlaceholders("select 1", (String[]) null));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamePoolTest {
+
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    @Test
+    void internShouldReturnTheSameInstanceForEqualNames() {
+        final NamePool namePool = NamePool.create();
+        assertTrue(namePool.isEnabled());
+        final String first = new String("t1");
+        final String second = new String("t1");
+        assertNotSame(first, second);
+        assertSame(first, namePool.intern(first));
+        assertSame(first, namePool.intern(second));
+        assertEquals("i1", namePool.intern("i1"));
+        assertNull(namePool.intern(null));
+        assertEquals(2, namePool.size());
+    }
+
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    @Test
+    void noneShouldReturnNamesAsIs() {
+        final NamePool namePool = NamePool.none();
+        assertSame(namePool, NamePool.none());
+        assertFalse(namePool.isEnabled());
+        final String second = new String("t1");
+        namePool.intern("t1");
+        assertSame(second, namePool.intern(second));
+        assertNull(namePool.intern(null));
+        assertEquals(0, namePool.size());
+    }
+
+    @Test
+    void createShouldReturnNewPool() {
+        assertNotSame(NamePool.create(), NamePool.create());
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("NamePool{enabled=false, size=0}", NamePool.none().toString());
+        final NamePool namePool = NamePool.create();
+        namePool.intern("t");
+        assertEquals("NamePool{enabled=true, size=1}", namePool.toString());
+    }
+}
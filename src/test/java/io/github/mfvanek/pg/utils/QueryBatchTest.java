@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import io.github.mfvanek.pg.connection.PgConnection;
+import io.github.mfvanek.pg.connection.PgConnectionImpl;
+import io.github.mfvanek.pg.embedded.PostgresDbExtension;
+import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
+import io.github.mfvanek.pg.model.PgContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class QueryBatchTest extends DatabaseAwareTestBase {
+
+    @RegisterExtension
+    static final PostgresDbExtension embeddedPostgres = PostgresExtensionFactory.database();
+
+    private final PgConnection pgConnection;
+
+    QueryBatchTest() {
+        super(embeddedPostgres.getTestDatabase());
+        this.pgConnection = PgConnectionImpl.ofPrimary(embeddedPostgres.getTestDatabase());
+    }
+
+    @Test
+    void executeShouldReturnRowsForEachQuery() {
+        final QueryBatch batch = new QueryBatch();
+        final Supplier<List<Integer>> first = batch.addQuery("select generate_series(1, 3);", rs -> rs.getInt(1));
+        final Supplier<List<String>> second = batch.addQueryWithSchema("select ?::text", PgContext.of("custom"),
+                rs -> rs.getString(1), Duration.ofSeconds(1));
+        final Supplier<List<String>> third = batch.addQueryWithBloatThreshold("select ?::text || ':' || ?::integer where false", PgContext.of("s", 25),
+                rs -> rs.getString(1), Duration.ofSeconds(2));
+        assertEquals(3, batch.size());
+        assertEquals(Duration.ofSeconds(3), batch.getQueryTimeout());
+        batch.execute(pgConnection);
+        assertThat(first.get(), contains(1, 2, 3));
+        assertThat(second.get(), contains("custom"));
+        assertThat(third.get(), empty());
+    }
+
+    @Test
+    void executeShouldFailOnTimeout() {
+        final QueryBatch batch = new QueryBatch();
+        batch.addQuery("select 1", rs -> rs.getInt(1));
+        batch.addQueryWithSchema("select pg_sleep(5) where ?::text is not null", PgContext.ofPublic(), rs -> rs.getInt(1), Duration.ofSeconds(1));
+        final QueryTimeoutException exception = assertThrows(QueryTimeoutException.class, () -> batch.execute(pgConnection));
+        assertEquals(Duration.ofSeconds(1), exception.getQueryTimeout());
+    }
+
+    @Test
+    void emptyBatchShouldNotTouchDatabase() {
+        final PgConnection connection = Mockito.mock(PgConnection.class);
+        final QueryBatch batch = new QueryBatch();
+        batch.execute(connection);
+        Mockito.verify(connection, Mockito.never()).getDataSource();
+        assertEquals("QueryBatch{size=0, queryTimeout=PT0S, executed=true}", batch.toString());
+    }
+
+    @Test
+    void executeShouldSendAllQueriesAtOnce() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet firstResultSet = Mockito.mock(ResultSet.class);
+        final ResultSet secondResultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute()).thenReturn(true);
+        Mockito.when(statement.getResultSet()).thenReturn(firstResultSet, secondResultSet);
+        Mockito.when(statement.getMoreResults()).thenReturn(true, false);
+        Mockito.when(firstResultSet.next()).thenReturn(true, false);
+        Mockito.when(firstResultSet.getString(1)).thenReturn("first");
+        Mockito.when(secondResultSet.next()).thenReturn(true, true, false);
+        Mockito.when(secondResultSet.getString(1)).thenReturn("second", "third");
+
+        final QueryBatch batch = new QueryBatch();
+        final Supplier<List<String>> first = batch.addQueryWithSchema("select ?;; ", PgContext.of("s"), rs -> rs.getString(1), Duration.ZERO);
+        final Supplier<List<String>> second = batch.addQueryWithBloatThreshold("select ?, ?", PgContext.of("s", 25), rs -> rs.getString(1), Duration.ZERO);
+        batch.execute(PgConnectionImpl.ofPrimary(dataSource));
+
+        assertThat(first.get(), contains("first"));
+        assertThat(second.get(), contains("second", "third"));
+        final InOrder inOrder = Mockito.inOrder(connection, statement);
+        inOrder.verify(connection).prepareStatement("select ?\n;\nselect ?, ?");
+        inOrder.verify(statement).setObject(1, "s");
+        inOrder.verify(statement).setObject(2, "s");
+        inOrder.verify(statement).setObject(3, 25);
+        inOrder.verify(statement).execute();
+        Mockito.verify(statement, Mockito.never()).setQueryTimeout(Mockito.anyInt());
+        Mockito.verify(firstResultSet).close();
+        Mockito.verify(secondResultSet).close();
+        Mockito.verify(connection).close();
+    }
+
+    @Test
+    void executeShouldBindArrayParams() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        final Array names = Mockito.mock(Array.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createArrayOf("text", new String[]{"t1"})).thenReturn(names);
+        Mockito.when(statement.execute()).thenReturn(true);
+        Mockito.when(statement.getResultSet()).thenReturn(resultSet);
+
+        final QueryBatch batch = new QueryBatch();
+        final Supplier<List<String>> rows = batch.addQueryWithParams("select ?, ?, ?", rs -> rs.getString(1), Duration.ZERO,
+                Arrays.asList("s", new String[]{"t1"}, 10L));
+        batch.execute(PgConnectionImpl.ofPrimary(dataSource));
+
+        assertThat(rows.get(), empty());
+        Mockito.verify(statement).setObject(1, "s");
+        Mockito.verify(statement).setArray(2, names);
+        Mockito.verify(statement).setObject(3, 10L);
+    }
+
+    @Test
+    void executeShouldFailWhenResultSetIsMissing() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute()).thenReturn(false);
+        final QueryBatch batch = new QueryBatch();
+        batch.addQuery("set search_path to public", rs -> rs.getString(1));
+        final PgConnection connectionToHost = PgConnectionImpl.ofPrimary(dataSource);
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> batch.execute(connectionToHost));
+        assertEquals("Query in batch did not return a result set: set search_path to public", exception.getMessage());
+    }
+
+    @Test
+    void executeShouldWrapSqlException() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute())
+                .thenThrow(new SQLException("canceled", QueryExecutor.QUERY_CANCELED_SQL_STATE))
+                .thenThrow(new SQLException("bad query"));
+        final PgConnection connectionToHost = PgConnectionImpl.ofPrimary(dataSource);
+
+        final QueryBatch withoutTimeout = new QueryBatch();
+        withoutTimeout.addQuery("select 1", rs -> rs.getInt(1));
+        final RuntimeException canceled = assertThrows(RuntimeException.class, () -> withoutTimeout.execute(connectionToHost));
+        assertThat(canceled.getCause(), instanceOf(SQLException.class));
+        assertThat(canceled, not(instanceOf(QueryTimeoutException.class)));
+
+        final QueryBatch withTimeout = new QueryBatch();
+        withTimeout.addQueryWithSchema("select ?", PgContext.ofPublic(), rs -> rs.getInt(1), Duration.ofMillis(1_500L));
+        final RuntimeException failed = assertThrows(RuntimeException.class, () -> withTimeout.execute(connectionToHost));
+        assertEquals("bad query", failed.getCause().getMessage());
+        Mockito.verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    void executeShouldInvokeCallbacks() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.execute()).thenReturn(true).thenThrow(new SQLException("bad query"));
+        Mockito.when(statement.getResultSet()).thenReturn(Mockito.mock(ResultSet.class));
+        final PgConnection connectionToHost = PgConnectionImpl.ofPrimary(dataSource);
+        final List<String> calls = new ArrayList<>();
+
+        final QueryBatch succeeded = new QueryBatch();
+        succeeded.addQuery("select 1", rs -> rs.getInt(1));
+        succeeded.whenExecuted((latency, failure) -> calls.add("first:" + failure));
+        succeeded.whenExecuted((latency, failure) -> calls.add("second:" + failure));
+        succeeded.execute(connectionToHost);
+        assertThat(calls, contains("first:null", "second:null"));
+
+        calls.clear();
+        final QueryBatch failed = new QueryBatch();
+        failed.addQuery("select 1", rs -> rs.getInt(1));
+        failed.whenExecuted((latency, failure) -> calls.add(failure.getCause().getMessage()));
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> failed.execute(connectionToHost));
+        assertEquals("bad query", exception.getCause().getMessage());
+        assertThat(calls, contains("bad query"));
+
+        final IllegalStateException afterExecution = assertThrows(IllegalStateException.class,
+                () -> failed.whenExecuted((latency, failure) -> calls.add("late")));
+        assertEquals("Batch has already been executed", afterExecution.getMessage());
+
+        calls.clear();
+        final QueryBatch emptyBatch = new QueryBatch();
+        emptyBatch.whenExecuted((latency, failure) -> calls.add("empty"));
+        emptyBatch.execute(connectionToHost);
+        assertThat(calls, empty());
+    }
+
+    @Test
+    void batchCanBeExecutedOnlyOnce() {
+        final QueryBatch batch = new QueryBatch();
+        final Supplier<List<Integer>> rows = batch.addQuery("select 1", rs -> rs.getInt(1));
+        final IllegalStateException notExecuted = assertThrows(IllegalStateException.class, rows::get);
+        assertEquals("Batch has not been executed yet", notExecuted.getMessage());
+        assertEquals("QueryBatch{size=1, queryTimeout=PT0S, executed=false}", batch.toString());
+
+        final QueryBatch emptyBatch = new QueryBatch();
+        final PgConnection connection = Mockito.mock(PgConnection.class);
+        emptyBatch.execute(connection);
+        final IllegalStateException executedTwice = assertThrows(IllegalStateException.class, () -> emptyBatch.execute(connection));
+        assertEquals("Batch has already been executed", executedTwice.getMessage());
+        final IllegalStateException addedAfterExecution = assertThrows(IllegalStateException.class,
+                () -> emptyBatch.addQuery("select 1", rs -> rs.getInt(1)));
+        assertEquals("Batch has already been executed", addedAfterExecution.getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        final QueryBatch batch = new QueryBatch();
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(NullPointerException.class, () -> batch.addQuery(null, rs -> rs.getInt(1)));
+        assertThrows(NullPointerException.class, () -> batch.addQuery("select 1", null));
+        assertThrows(NullPointerException.class, () -> batch.addQueryWithSchema("select 1", null, rs -> rs.getInt(1), Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> batch.addQueryWithSchema("select 1", pgContext, rs -> rs.getInt(1), null));
+        assertThrows(NullPointerException.class, () -> batch.addQueryWithBloatThreshold("select 1", null, rs -> rs.getInt(1), Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> batch.addQueryWithParams("select 1", rs -> rs.getInt(1), Duration.ZERO, null));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> batch.addQueryWithSchema("select 1", pgContext, rs -> rs.getInt(1), Duration.ofSeconds(-1L)));
+        assertEquals("queryTimeout cannot be less than zero", exception.getMessage());
+        assertThrows(NullPointerException.class, () -> batch.whenExecuted(null));
+        assertThrows(NullPointerException.class, () -> batch.execute(null));
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    void stripTrailingSemicolon() {
+        assertEquals("select 1", QueryBatch.stripTrailingSemicolon("select 1"));
+        assertEquals("select 1", QueryBatch.stripTrailingSemicolon("  select 1;\n"));
+        assertEquals("select 1", QueryBatch.stripTrailingSemicolon("select 1 ; ;"));
+        assertEquals("", QueryBatch.stripTrailingSemicolon(";"));
+    }
+}
@@ -17,18 +17,35 @@ import io.github.mfvanek.pg.embedded.PostgresExtensionFactory;
 import io.github.mfvanek.pg.model.PgContext;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import javax.sql.DataSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 
@@ -107,4 +124,318 @@ public final class QueryExecutorTest extends DatabaseAwareTestBase {
         assertThat(cause, instanceOf(SQLException.class));
         assertEquals("bad parameter", cause.getMessage());
     }
+
+    @Test
+    void streamQueryWithSchema() throws SQLException {
+        final List<Integer> rows = new ArrayList<>();
+        final long rowsCount = QueryExecutor.streamQueryWithSchema(pgConnection, PgContext.ofPublic(),
+                "select generate_series(1, 10) where ?::text is not null", 3, rs -> rs.getInt(1), rows::add);
+        assertEquals(10L, rowsCount);
+        assertThat(rows, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        try (Connection connection = pgConnection.getDataSource().getConnection()) {
+            assertTrue(connection.getAutoCommit());
+        }
+    }
+
+    @Test
+    void streamQueryShouldUseCursor() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false);
+        Mockito.when(resultSet.getString(1)).thenReturn("first", "second");
+        final List<String> rows = new ArrayList<>();
+        final long rowsCount = QueryExecutor.streamQueryWithBloatThreshold(PgConnectionImpl.ofPrimary(dataSource),
+                PgContext.of("s", 25), "select ?, ?", 100, rs -> rs.getString(1), rows::add);
+        assertEquals(2L, rowsCount);
+        assertThat(rows, contains("first", "second"));
+        final InOrder inOrder = Mockito.inOrder(connection, statement);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(statement).setString(1, "s");
+        inOrder.verify(statement).setInt(2, 25);
+        inOrder.verify(statement).setFetchSize(100);
+        inOrder.verify(statement).executeQuery();
+        inOrder.verify(connection).rollback();
+        inOrder.verify(connection).setAutoCommit(true);
+        Mockito.verify(resultSet).close();
+    }
+
+    @Test
+    void withSchemaNameShouldBindNestedExtractor() throws SQLException {
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(2);
+        Mockito.when(metaData.getColumnLabel(1)).thenReturn(MultiSchemaQuery.SCHEMA_NAME_COLUMN);
+        Mockito.when(metaData.getColumnLabel(2)).thenReturn("table_name");
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getMetaData()).thenReturn(metaData);
+        Mockito.when(resultSet.findColumn(MultiSchemaQuery.SCHEMA_NAME_COLUMN)).thenReturn(1);
+        Mockito.when(resultSet.getString(1)).thenReturn("s");
+        Mockito.when(resultSet.getString(2)).thenReturn("t");
+        final ResultSetExtractor<Map.Entry<String, String>> extractor = QueryExecutor.withSchemaName(
+                RowMapper.of(Collections.singletonList("table_name"), (rs, c) -> rs.getString(c[0])));
+
+        final ResultSetExtractor<Map.Entry<String, String>> bound = extractor.bind(resultSet);
+        assertEquals(new AbstractMap.SimpleImmutableEntry<>("s", "t"), bound.extractData(resultSet));
+        assertEquals(new AbstractMap.SimpleImmutableEntry<>("s", "t"), bound.extractData(resultSet));
+        Mockito.verify(resultSet, Mockito.times(1)).findColumn(MultiSchemaQuery.SCHEMA_NAME_COLUMN);
+        assertEquals(new AbstractMap.SimpleImmutableEntry<>("s", "t"), extractor.extractData(resultSet));
+        Mockito.verify(resultSet, Mockito.never()).getString(anyString());
+    }
+
+    @Test
+    void streamQueryWithExecutionError() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(statement.executeQuery()).thenThrow(new SQLException("bad query"));
+        final RuntimeException runtimeException = assertThrows(RuntimeException.class,
+                () -> QueryExecutor.streamQueryWithSchema(PgConnectionImpl.ofPrimary(dataSource), PgContext.ofPublic(),
+                        "select version()", 10, rs -> rs.getString(1), row -> {}));
+        final Throwable cause = runtimeException.getCause();
+        assertNotNull(cause);
+        assertThat(cause, instanceOf(SQLException.class));
+        assertEquals("bad query", cause.getMessage());
+        Mockito.verify(connection).setAutoCommit(false);
+        Mockito.verify(connection).rollback();
+        Mockito.verify(connection).setAutoCommit(true);
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void streamQueryWithInvalidArguments() {
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(NullPointerException.class, () -> QueryExecutor.streamQueryWithSchema(
+                pgConnection, pgContext, null, 10, rs -> null, row -> {}));
+        assertThrows(NullPointerException.class, () -> QueryExecutor.streamQueryWithSchema(
+                pgConnection, pgContext, "select 1", 10, rs -> null, null));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> QueryExecutor.streamQueryWithSchema(
+                pgConnection, pgContext, "select 1", 0, rs -> null, row -> {}));
+        assertEquals("fetchSize should be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    void executeQueryWithTimeout() {
+        final QueryTimeoutException exception = assertThrows(QueryTimeoutException.class, () -> QueryExecutor.executeQueryWithSchema(
+                pgConnection, PgContext.ofPublic(), "select pg_sleep(5) where ?::text is not null", rs -> rs.getString(1), Duration.ofSeconds(1)));
+        assertEquals(Duration.ofSeconds(1), exception.getQueryTimeout());
+        assertEquals("Query was cancelled after timeout of 1000 ms", exception.getMessage());
+    }
+
+    @Test
+    void executeQueryWithTimeoutShouldRoundUpToSeconds() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(Mockito.mock(ResultSet.class));
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+        QueryExecutor.executeQueryWithBloatThreshold(connectionWithMock, PgContext.ofPublic(), "select ?, ?", rs -> rs.getString(1), Duration.ofMillis(1_500L));
+        Mockito.verify(statement).setQueryTimeout(2);
+        QueryExecutor.executeQueryWithSchema(connectionWithMock, PgContext.ofPublic(), "select ?", rs -> rs.getString(1), Duration.ofSeconds(3));
+        Mockito.verify(statement).setQueryTimeout(3);
+        QueryExecutor.executeQueryWithSchema(connectionWithMock, PgContext.ofPublic(), "select ?", rs -> rs.getString(1));
+        Mockito.verify(statement, Mockito.times(2)).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void executeQueryShouldDistinguishCancellationByTimeout() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenThrow(new SQLException("canceling statement due to user request", "57014"));
+        final PgConnection connectionWithMock = PgConnectionImpl.ofPrimary(dataSource);
+        final PgContext pgContext = PgContext.ofPublic();
+        final Duration timeout = Duration.ofSeconds(10);
+        final QueryTimeoutException timeoutException = assertThrows(QueryTimeoutException.class,
+                () -> QueryExecutor.executeQueryWithSchema(connectionWithMock, pgContext, "select ?", rs -> rs.getString(1), timeout));
+        assertThat(timeoutException.getCause(), instanceOf(SQLException.class));
+        // Without a query timeout the cancellation was initiated by someone else
+        final RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> QueryExecutor.executeQueryWithSchema(connectionWithMock, pgContext, "select ?", rs -> rs.getString(1)));
+        assertThat(exception, not(instanceOf(QueryTimeoutException.class)));
+        Mockito.doThrow(new SQLException("bad query", "42601")).when(statement).executeQuery();
+        final RuntimeException otherException = assertThrows(RuntimeException.class,
+                () -> QueryExecutor.executeQueryWithSchema(connectionWithMock, pgContext, "select ?", rs -> rs.getString(1), timeout));
+        assertThat(otherException, not(instanceOf(QueryTimeoutException.class)));
+    }
+
+    @Test
+    void executeQueryWithSchemas() {
+        final PgContext publicContext = PgContext.ofPublic();
+        final PgContext missingContext = PgContext.of("missing_schema");
+        final Map<PgContext, List<String>> rows = QueryExecutor.executeQueryWithSchemas(pgConnection, Arrays.asList(missingContext, publicContext),
+                "select n.nspname::text as schema_name from pg_catalog.pg_namespace n where n.nspname = ?::text;", rs -> rs.getString("schema_name"), Duration.ZERO);
+        assertThat(rows.keySet(), contains(missingContext, publicContext));
+        assertThat(rows.get(missingContext), empty());
+        assertThat(rows.get(publicContext), contains("public"));
+    }
+
+    @Test
+    void executeQueryWithBloatThresholds() {
+        final PgContext first = PgContext.of("first", 15);
+        final PgContext second = PgContext.of("second", 30);
+        final Map<PgContext, List<Integer>> rows = QueryExecutor.executeQueryWithBloatThresholds(pgConnection, Arrays.asList(first, second),
+                "select length(?::text) + ?::integer as value", rs -> rs.getInt("value"), Duration.ofSeconds(5));
+        assertThat(rows.get(first), contains(20));
+        assertThat(rows.get(second), contains(36));
+    }
+
+    @Test
+    void executeQueryWithSchemasShouldBindArrayAndGroupRows() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        final Array schemas = Mockito.mock(Array.class);
+        final Array thresholds = Mockito.mock(Array.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createArrayOf("text", new String[]{"first", "second"})).thenReturn(schemas);
+        Mockito.when(connection.createArrayOf("int4", new Integer[]{10, 25})).thenReturn(thresholds);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, true, false);
+        Mockito.when(resultSet.findColumn(MultiSchemaQuery.SCHEMA_NAME_COLUMN)).thenReturn(1);
+        Mockito.when(resultSet.getString(1)).thenReturn("second", "first", "second");
+        Mockito.when(resultSet.getString("value")).thenReturn("a", "b", "c");
+        final PgContext first = PgContext.of("first");
+        final PgContext second = PgContext.of("second", 25);
+        final Map<PgContext, List<String>> rows = QueryExecutor.executeQueryWithBloatThresholds(PgConnectionImpl.ofPrimary(dataSource),
+                Arrays.asList(first, second), "select ?::text, ?::integer as value", rs -> rs.getString("value"), Duration.ZERO);
+        assertThat(rows.keySet(), contains(first, second));
+        assertThat(rows.get(first), contains("b"));
+        assertThat(rows.get(second), contains("a", "c"));
+        Mockito.verify(statement).setArray(1, schemas);
+        Mockito.verify(statement).setArray(2, thresholds);
+        Mockito.verify(connection).prepareStatement(MultiSchemaQuery.withSchemasAndBloatThresholds("select ?::text, ?::integer as value"));
+    }
+
+    @Test
+    void executeQueryWithParamsShouldBindArraysAsText() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        final Array names = Mockito.mock(Array.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createArrayOf("text", new String[]{"i1", "i2"})).thenReturn(names);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, false);
+        Mockito.when(resultSet.getString(1)).thenReturn("i3");
+        final List<String> rows = QueryExecutor.executeQueryWithParams(PgConnectionImpl.ofPrimary(dataSource), PgContext.ofPublic(),
+                "select ?, ?, ?", rs -> rs.getString(1), Duration.ZERO, Arrays.asList("public", new String[]{"i1", "i2"}, 10L));
+        assertThat(rows, contains("i3"));
+        Mockito.verify(statement).setObject(1, "public");
+        Mockito.verify(statement).setArray(2, names);
+        Mockito.verify(statement).setObject(3, 10L);
+    }
+
+    @Test
+    void executeQueryShouldPushRowsToConsumer() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false, true, false);
+        Mockito.when(resultSet.getString(1)).thenReturn("first", "second", "third");
+        final PgConnection pgConnectionMock = PgConnectionImpl.ofPrimary(dataSource);
+        final List<String> rows = new ArrayList<>();
+        assertEquals(2L, QueryExecutor.executeQueryWithBloatThreshold(pgConnectionMock, PgContext.of("s", 25),
+                "select ?, ?", rs -> rs.getString(1), Duration.ofSeconds(3), rows::add));
+        assertEquals(1L, QueryExecutor.executeQueryWithParams(pgConnectionMock, PgContext.ofPublic(),
+                "select ?", rs -> rs.getString(1), Duration.ZERO, Collections.singletonList("public"), rows::add));
+        assertThat(rows, contains("first", "second", "third"));
+        Mockito.verify(statement).setString(1, "s");
+        Mockito.verify(statement).setInt(2, 25);
+        Mockito.verify(statement).setQueryTimeout(3);
+        Mockito.verify(statement).setObject(1, "public");
+        final PgContext pgContext = PgContext.ofPublic();
+        assertThrows(NullPointerException.class, () -> QueryExecutor.executeQueryWithBloatThreshold(
+                pgConnectionMock, pgContext, "select ?", rs -> null, Duration.ZERO, null));
+    }
+
+    @Test
+    void executeQueryWithParamsWithErrorOnBindingArray() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createArrayOf(anyString(), any())).thenThrow(new SQLException("bad array"));
+        final PgConnection pgConnectionMock = PgConnectionImpl.ofPrimary(dataSource);
+        final PgContext pgContext = PgContext.ofPublic();
+        final List<Object> params = Collections.singletonList(new String[]{"i1"});
+        final RuntimeException exception = assertThrows(RuntimeException.class, () -> QueryExecutor.executeQueryWithParams(
+                pgConnectionMock, pgContext, "select ?", rs -> null, Duration.ZERO, params));
+        assertEquals("bad array", exception.getCause().getMessage());
+        assertThrows(NullPointerException.class, () -> QueryExecutor.executeQueryWithParams(
+                pgConnectionMock, pgContext, "select ?", rs -> null, Duration.ZERO, null));
+    }
+
+    @Test
+    void executeQueryWithSchemasWithErrorOnBindingArray() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final Connection connection = Mockito.mock(Connection.class);
+        final PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Mockito.when(statement.getConnection()).thenReturn(connection);
+        Mockito.when(connection.createArrayOf(anyString(), any())).thenThrow(new SQLException("bad array"));
+        final PgConnection pgConnectionMock = PgConnectionImpl.ofPrimary(dataSource);
+        final List<PgContext> pgContexts = Collections.singletonList(PgContext.ofPublic());
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> QueryExecutor.executeQueryWithSchemas(
+                pgConnectionMock, pgContexts, "select ?", rs -> null, Duration.ZERO));
+        assertEquals("bad array", exception.getCause().getMessage());
+        exception = assertThrows(RuntimeException.class, () -> QueryExecutor.executeQueryWithBloatThresholds(
+                pgConnectionMock, pgContexts, "select ?, ?", rs -> null, Duration.ZERO));
+        assertEquals("bad array", exception.getCause().getMessage());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void executeQueryWithSchemasWithInvalidArguments() throws SQLException {
+        final DataSource dataSource = Mockito.mock(DataSource.class);
+        final PgConnection pgConnectionMock = PgConnectionImpl.ofPrimary(dataSource);
+        assertThrows(NullPointerException.class, () -> QueryExecutor.executeQueryWithSchemas(
+                pgConnectionMock, null, "select ?", rs -> null, Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> QueryExecutor.executeQueryWithSchemas(
+                pgConnectionMock, Collections.emptyList(), "select ?", null, Duration.ZERO));
+        final List<PgContext> duplicates = Arrays.asList(PgContext.of("s"), PgContext.of("S", 20));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> QueryExecutor.executeQueryWithBloatThresholds(
+                pgConnectionMock, duplicates, "select ?, ?", rs -> null, Duration.ZERO));
+        assertEquals("pgContexts should have unique schema names but s is duplicated", exception.getMessage());
+        final Map<PgContext, List<Object>> rows = QueryExecutor.executeQueryWithSchemas(
+                pgConnectionMock, Collections.emptyList(), "select ?", rs -> null, Duration.ZERO);
+        assertThat(rows, anEmptyMap());
+        Mockito.verify(dataSource, Mockito.never()).getConnection();
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void executeQueryWithInvalidTimeout() {
+        final PgContext pgContext = PgContext.ofPublic();
+        final Duration negative = Duration.ofSeconds(-1);
+        assertThrows(NullPointerException.class, () -> QueryExecutor.executeQueryWithSchema(
+                pgConnection, pgContext, "select 1", rs -> null, null));
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> QueryExecutor.executeQueryWithSchema(
+                pgConnection, pgContext, "select 1", rs -> null, negative));
+        assertEquals("queryTimeout cannot be less than zero", exception.getMessage());
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019-2022. Ivan Vakhrushev and others.
+ * https://github.com/mfvanek/pg-index-health
+ *
+ * This file is a part of "pg-index-health" - a Java library for
+ * analyzing and maintaining indexes health in PostgreSQL databases.
+ *
+ * Licensed under the Apache License 2.0
+ */
+
+package io.github.mfvanek.pg.utils;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.annotation.Nonnull;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowMapperTest {
+
+    private final RowMapper<String> rowMapper = RowMapper.of(Arrays.asList("table_name", "Index_Size"),
+            (rs, c) -> rs.getString(c[0]) + ':' + rs.getLong(c[1]));
+
+    @Test
+    void bindShouldResolveColumnsOnlyOnce() throws SQLException {
+        final ResultSetMetaData metaData = metaData("index_size", "schema_name", "table_name", "TABLE_NAME");
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(3)).thenReturn("t1", "t2");
+        Mockito.when(rs.getLong(1)).thenReturn(10L, 20L);
+
+        final ResultSetExtractor<String> bound = rowMapper.bind(rs);
+        assertEquals("t1:10", bound.extractData(rs));
+        assertEquals("t2:20", bound.extractData(rs));
+        Mockito.verify(rs, Mockito.times(1)).getMetaData();
+        Mockito.verify(rs, Mockito.never()).getString(Mockito.anyString());
+        Mockito.verify(metaData, Mockito.times(4)).getColumnLabel(Mockito.anyInt());
+    }
+
+    @Test
+    void extractDataWithoutBindingShouldWork() throws SQLException {
+        final ResultSetMetaData metaData = metaData("table_name", "index_size");
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(1)).thenReturn("t");
+        Mockito.when(rs.getLong(2)).thenReturn(1L);
+        assertEquals("t:1", rowMapper.extractData(rs));
+    }
+
+    @Test
+    void shouldFailOnMissingColumn() throws SQLException {
+        final ResultSetMetaData metaData = metaData("table_name");
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> rowMapper.bind(rs));
+        assertEquals("Column index_size is not found in the result set [table_name]", exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> rowMapper.validate(metaData));
+        rowMapper.validate(metaData("index_size", "table_name"));
+    }
+
+    @Test
+    void shouldUseFallbackWhenColumnsAreMissing() throws SQLException {
+        final RowMapper<String> withFallback = rowMapper
+                .orElse(RowMapper.of(Collections.singletonList("table_name"), (rs, c) -> rs.getString(c[0])))
+                .orElse(RowMapper.of(Collections.singletonList("index_name"), (rs, c) -> "index " + rs.getString(c[0])));
+        assertThat(withFallback.getColumnNames(), contains("table_name", "index_size"));
+
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        final ResultSetMetaData metaData = metaData("schema_name", "table_name");
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(2)).thenReturn("t");
+        assertEquals("t", withFallback.bind(rs).extractData(rs));
+        withFallback.validate(metaData);
+
+        final ResultSetMetaData anotherMetaData = metaData("index_name");
+        final ResultSet another = Mockito.mock(ResultSet.class);
+        Mockito.when(another.getMetaData()).thenReturn(anotherMetaData);
+        Mockito.when(another.getString(1)).thenReturn("i");
+        assertEquals("index i", withFallback.extractData(another));
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> withFallback.validate(metaData("schema_name")));
+        assertEquals("Column index_name is not found in the result set [schema_name]", exception.getMessage());
+    }
+
+    @Test
+    void defaultBindShouldReturnTheSameExtractor() throws SQLException {
+        final ResultSetExtractor<String> extractor = rs -> rs.getString(1);
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        assertEquals(extractor, extractor.bind(rs));
+        Mockito.verifyNoInteractions(rs);
+    }
+
+    @Test
+    void withNamePoolShouldPassPoolToExtractorAndFallbacks() throws SQLException {
+        final RowMapper<String> pooledMapper = RowMapper.ofPooled(Arrays.asList("table_name", "index_size"),
+                        (rs, c, p) -> p.intern(rs.getString(c[0])))
+                .orElse(RowMapper.ofPooled(Collections.singletonList("table_name"), (rs, c, p) -> p.intern(rs.getString(c[0]))));
+        final NamePool namePool = NamePool.create();
+        final RowMapper<String> withPool = pooledMapper.withNamePool(namePool);
+        assertSame(withPool, withPool.withNamePool(namePool));
+        assertSame(rowMapper, rowMapper.withNamePool(NamePool.none()));
+
+        final ResultSetMetaData metaData = metaData("table_name");
+        final ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(rs.getString(1)).thenReturn(new String("t1"), new String("t1"), new String("t1"), new String("t1"));
+        final ResultSetExtractor<String> bound = withPool.bind(rs);
+        final String first = bound.extractData(rs);
+        assertEquals("t1", first);
+        assertSame(first, bound.extractData(rs));
+        assertEquals(1, namePool.size());
+
+        final ResultSetExtractor<String> unpooled = pooledMapper.bind(rs);
+        assertNotSame(unpooled.extractData(rs), unpooled.extractData(rs));
+    }
+
+    @Test
+    void defaultWithNamePoolShouldReturnTheSameExtractor() {
+        final ResultSetExtractor<String> extractor = rs -> rs.getString(1);
+        assertSame(extractor, extractor.withNamePool(NamePool.create()));
+    }
+
+    @Test
+    void getColumnNamesShouldBeInLowerCase() {
+        assertThat(rowMapper.getColumnNames(), contains("table_name", "index_size"));
+        assertThrows(UnsupportedOperationException.class, () -> rowMapper.getColumnNames().add("another"));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Test
+    void withInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> RowMapper.of(null, (rs, c) -> null));
+        assertThrows(NullPointerException.class, () -> RowMapper.of(Collections.singletonList("c"), null));
+        final IllegalArgumentException emptyColumns = assertThrows(IllegalArgumentException.class,
+                () -> RowMapper.of(Collections.emptyList(), (rs, c) -> null));
+        assertEquals("columnNames cannot be empty", emptyColumns.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> RowMapper.of(Collections.singletonList(" "), (rs, c) -> null));
+        assertThrows(NullPointerException.class, () -> rowMapper.bind(null));
+        assertThrows(NullPointerException.class, () -> rowMapper.validate(null));
+        assertThrows(NullPointerException.class, () -> rowMapper.orElse(null));
+        assertThrows(NullPointerException.class, () -> rowMapper.withNamePool(null));
+        assertThrows(NullPointerException.class, () -> RowMapper.ofPooled(Collections.singletonList("c"), null));
+    }
+
+    @Test
+    void testToString() {
+        assertEquals("RowMapper{columnNames=[table_name, index_size]}", rowMapper.toString());
+        assertEquals("RowMapper{columnNames=[table_name, index_size], fallback=RowMapper{columnNames=[table_name]}}",
+                rowMapper.orElse(RowMapper.of(Collections.singletonList("table_name"), (rs, c) -> null)).toString());
+    }
+
+    @Nonnull
+    private static ResultSetMetaData metaData(@Nonnull final String... columnLabels) throws SQLException {
+        final ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columnLabels.length);
+        for (int i = 0; i < columnLabels.length; ++i) {
+            Mockito.when(metaData.getColumnLabel(i + 1)).thenReturn(columnLabels[i]);
+        }
+        return metaData;
+    }
+}